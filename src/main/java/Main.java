@@ -16,6 +16,9 @@ public class Main {
      * @throws IOException if server unable to be initiated.
      */
     public static void main(String[] args) throws IOException {
+        //start the service before serving, so it recovers its games and reaches its standby or primary first
+        AdventureResource.getService();
+
         HttpServer server = AdventureServer.createServer(AdventureResource.class);
         server.start();
     }
@@ -1,12 +1,18 @@
 package student.adventure;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
 import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.nio.charset.StandardCharsets;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Map;
 import java.util.List;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Arrays;
+import java.util.Collections;
 
 import student.server.AdventureState;
 import student.server.GameStatus;
@@ -25,19 +31,40 @@ import static student.adventure.MapDataReader.deserializeFile;
  */
 public class GameEngine {
     private int gameID;
-    private GameStatus currentGameState;
-    private Map<String, List<String>> commandOptions;
+    private volatile GameStatus currentGameState; //latest immutable status, readable without locking
     private String inputPrompter;
 
-    private GameMap gameMap;
+    private GameMap templateMap; //the map as loaded, shared by every game and never changed by play
+    private Map<Integer, Room> changedRooms; //this game's own copies of the rooms whose items changed
     private Room currentRoom;
+    private int currentRoomIndex;
     private Player gamePlayer;
     private boolean gameEnded;
+    private boolean escapeItemMoved; //whether the player has put the escape item somewhere new
+    private BitSet changedItemRooms; //indices of rooms whose items the player has taken or dropped
 
     private Map<Integer, Integer> roomNumbersToIndices; //link room number to index in room list
-    private List<Integer> orderedVisitedRooms;   //list of the indexes of player's visited rooms
+    private VisitHistory orderedVisitedRooms;   //indexes of player's visited rooms, in order
+
+    public final static String REQUIRED_ESCAPE_ITEM = "key";
+
+    //version of the format written by writeGameState
+    public final static int GAME_STATE_VERSION = 1;
 
-    private final String REQUIRED_ESCAPE_ITEM = "key";
+    //fixed messages, held once and shared by every game
+    private final static String GAME_INTRO = "Welcome to Kidnapped!" + "\n" +
+            "You have been mysteriously abducted by someone--" +
+            "is it the government? The russian mob? Who knows. " + "\n" +
+            "Either way, you have awoken in a strange room " +
+            "and must now find your way out of this compound. " + "\n" +
+            "Luckily, the compound has convenient windows for ceilings, " +
+            "allowing you to navigate by the sun by moving " +
+            "north, south, east, or west through the compound's rooms.";
+    private final static String ACTION_PROMPT = "What action would you like to take?" + "\n";
+
+    private final static List<String> EXAMINE_OPTIONS = Collections.singletonList("room");
+    private final static List<String> QUIT_OPTIONS = Collections.singletonList("game");
+    private final static List<String> HINT_OPTIONS = Collections.singletonList("exit");
 
     /**
      * Constructor for objects of class GameEngine.
@@ -50,34 +77,54 @@ public class GameEngine {
      * @param gameID        the id to identify this particular GameEngine.
      */
     public GameEngine(String fileName, String inputPrompter, int gameID) {
-        gamePlayer = new Player();
-        gameEnded = false;
-        orderedVisitedRooms = new ArrayList<>();
+        this(fileName, inputPrompter, gameID, VisitHistory.UNBOUNDED);
+    }
+
+    /**
+     * Constructor for objects of class GameEngine that keeps only the most recent
+     * rooms in the player's visited room history.
+     *
+     * @param fileName         the name of the file to generate this game's GameMap.
+     * @param inputPrompter    prompt to be printed for a player to enter commands.
+     * @param gameID           the id to identify this particular GameEngine.
+     * @param historyRetention the number of visited rooms to remember, or VisitHistory.UNBOUNDED.
+     */
+    public GameEngine(String fileName, String inputPrompter, int gameID, int historyRetention) {
+        orderedVisitedRooms = new VisitHistory(historyRetention);
         this.inputPrompter = inputPrompter;
         this.gameID = gameID;
 
         try {
-            gameMap = deserializeFile(fileName);
-            roomNumbersToIndices = gameMap.mapRoomNumbersToIndex();
-            currentRoom = gameMap.retrieveRoomAt(0);
-
-            commandOptions = new HashMap<>();
-            commandOptions.put("examine", new ArrayList<>(Arrays.asList("room")));
-            commandOptions.put("quit", new ArrayList<>(Arrays.asList("game")));
-            commandOptions.put("go", new ArrayList<>());
-            commandOptions.put("take", new ArrayList<>());
-            commandOptions.put("drop", new ArrayList<>());
-
-            fillCommandOptions();
-
-            currentGameState = new GameStatus(false, gameID, writeGameIntro() + writePlayerPrompter(),
-                    currentRoom.getRoomImageURL(), "", new AdventureState(), commandOptions);
+            templateMap = deserializeFile(fileName);
+            roomNumbersToIndices = templateMap.mapRoomNumbersToIndex();
+            reset(gameID);
         } catch (IOException e) {
+            gamePlayer = new Player();
+            gameEnded = false;
             currentGameState = new GameStatus(true, 0, "", "", "",
-                                                    new AdventureState(), null);
+                                                    new AdventureState(), Collections.emptyMap());
         }
     }
 
+    /**
+     * Constructor for objects of class GameEngine playing on an already loaded map.
+     * The given map is never changed; the game copies only the rooms whose items it moves,
+     * so the map can be shared by many games.
+     *
+     * @param templateMap      the loaded and validated map to play on.
+     * @param inputPrompter    prompt to be printed for a player to enter commands.
+     * @param gameID           the id to identify this particular GameEngine.
+     * @param historyRetention the number of visited rooms to remember, or VisitHistory.UNBOUNDED.
+     */
+    public GameEngine(GameMap templateMap, String inputPrompter, int gameID, int historyRetention) {
+        orderedVisitedRooms = new VisitHistory(historyRetention);
+        this.inputPrompter = inputPrompter;
+        this.templateMap = templateMap;
+        roomNumbersToIndices = templateMap.mapRoomNumbersToIndex();
+
+        reset(gameID);
+    }
+
     public Player getGamePlayer() {
         return gamePlayer;
     }
@@ -86,6 +133,10 @@ public class GameEngine {
         return gameID;
     }
 
+    public GameMap getTemplateMap() {
+        return templateMap;
+    }
+
     public GameStatus getCurrentGameState() {
         return currentGameState;
     }
@@ -94,13 +145,53 @@ public class GameEngine {
         return gameEnded;
     }
 
+    /**
+     * Restores this game to its initial state, as if it were just created: the map's rooms
+     * as loaded, a new player with no items in room number 1, and no visited rooms.
+     * Lets a finished or destroyed game be reused for a new game. The game only holds
+     * copies of the rooms whose items it changed, so dropping them costs nothing per room.
+     *
+     * @param gameID the id to identify this game after the reset.
+     */
+    public synchronized void reset(int gameID) {
+        if (templateMap == null) {
+            return;
+        }
+
+        this.gameID = gameID;
+        changedRooms = new HashMap<>();
+        gamePlayer = new Player(templateMap.getItemDictionary());
+        gameEnded = false;
+        escapeItemMoved = false;
+        changedItemRooms = new BitSet();
+        orderedVisitedRooms.clear();
+        currentRoomIndex = 0;
+        currentRoom = templateMap.retrieveRoomAt(0);
+
+        currentGameState = buildGameStatus(writeOpeningMessage());
+    }
+
+    /**
+     * Gives a new id to this game, for a game that hasn't been played yet.
+     * Cheaper than a full reset, since the map is left as it is.
+     *
+     * @param gameID the id to identify this game.
+     */
+    public synchronized void assignGameID(int gameID) {
+        this.gameID = gameID;
+
+        if (templateMap != null) {
+            currentGameState = buildGameStatus(writeOpeningMessage());
+        }
+    }
+
     /**
      * Determine the total number of rooms visited so far.
      *
      * @return the number of rooms visited by the player so far.
      */
     public int findNumberVisitedRooms() {
-        return orderedVisitedRooms.size();
+        return orderedVisitedRooms.findTotalVisits();
     }
 
     /**
@@ -132,17 +223,19 @@ public class GameEngine {
      * @return the number of possible values for this command.
      */
     public int fetchNumberOfCommandOptions(String commandName) {
-        return commandOptions.get(commandName).size();
+        return currentGameState.getCommandOptions().get(commandName).size();
     }
 
     /**
      * Takes a step in the game given a command from the player.
+     * Steps on the same game run one at a time; the resulting status is published
+     * to readers of getCurrentGameState without blocking them.
      *
      * @param playerCommand the command inputted by the player.
      *
      * @return the status of this game after the player's action.
      */
-    public GameStatus takeGameStep(Command playerCommand) {
+    public synchronized GameStatus takeGameStep(Command playerCommand) {
         gamePlayer.setPlayerName(playerCommand.getPlayerName());
 
         String responseMessage = "";
@@ -156,13 +249,93 @@ public class GameEngine {
             responseMessage += writePlayerPrompter();
         }
 
-        fillCommandOptions();
-        GameStatus updatedStatus = new GameStatus(false, gameID, responseMessage, currentRoom.getRoomImageURL(),
-                                                "", new AdventureState(), commandOptions);
+        GameStatus updatedStatus = buildGameStatus(responseMessage);
         currentGameState = updatedStatus;
         return updatedStatus;
     }
 
+    /**
+     * Writes the state of this game in a compact binary form: the player's name, score and
+     * inventory, the current room, the items of only the rooms the player has changed,
+     * the visit history and the current message. The map itself isn't written, so the
+     * state can only be read back by a game on the same map.
+     *
+     * @param output the stream to write the state to.
+     *
+     * @throws IOException if the state can't be written.
+     */
+    public synchronized void writeGameState(DataOutput output) throws IOException {
+        output.writeByte(GAME_STATE_VERSION);
+        writeLongString(output, gamePlayer.getPlayerName());
+        output.writeInt(gamePlayer.getPlayerScore());
+        output.writeBoolean(gameEnded);
+        output.writeBoolean(escapeItemMoved);
+        output.writeInt(currentRoomIndex);
+
+        writeItemNames(output, gamePlayer.fetchPlayerInventory());
+
+        output.writeInt(changedItemRooms.cardinality());
+        for (int roomIndex = changedItemRooms.nextSetBit(0); roomIndex >= 0;
+             roomIndex = changedItemRooms.nextSetBit(roomIndex + 1)) {
+            output.writeInt(roomIndex);
+            writeItemNames(output, retrieveGameRoom(roomIndex).fetchItemsVisible());
+        }
+
+        output.writeInt(orderedVisitedRooms.findTotalVisits());
+        output.writeInt(orderedVisitedRooms.findNumberRetained());
+        for (int position = 0; position < orderedVisitedRooms.findNumberRetained(); position++) {
+            output.writeInt(orderedVisitedRooms.retrieveVisitAt(position));
+        }
+
+        writeLongString(output, currentGameState.getMessage());
+    }
+
+    /**
+     * Replaces the state of this game with one written by writeGameState, on the same map.
+     * The state may come from outside the service, so every count and length in it is checked
+     * against the bytes left before anything is allocated, and every item must be on the map.
+     *
+     * @param state  the state, as written by writeGameState.
+     * @param gameID the id to identify this game after it's restored.
+     *
+     * @throws IOException if the state can't be read, or doesn't fit this game's map.
+     */
+    public synchronized void readGameState(byte[] state, int gameID) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(state));
+
+        int stateVersion = input.readUnsignedByte();
+        if (stateVersion != GAME_STATE_VERSION) {
+            throw new InvalidObjectException("Unknown game state version " + stateVersion + ".");
+        }
+
+        reset(gameID);
+        gamePlayer.setPlayerName(readLongString(input));
+        gamePlayer.setPlayerScore(input.readInt());
+        gameEnded = input.readBoolean();
+        escapeItemMoved = input.readBoolean();
+        currentRoomIndex = readRoomIndex(input);
+
+        for (String itemName: readItemNames(input)) {
+            gamePlayer.addToInventory(itemName);
+        }
+
+        int numberChangedRooms = readCount(input, 8);
+        for (int changedRoom = 0; changedRoom < numberChangedRooms; changedRoom++) {
+            int roomIndex = readRoomIndex(input);
+            fetchChangedRoom(roomIndex).setItemsVisible(readItemNames(input));
+        }
+        currentRoom = retrieveGameRoom(currentRoomIndex);
+
+        int totalVisits = input.readInt();
+        int[] retainedVisits = new int[readCount(input, 4)];
+        for (int position = 0; position < retainedVisits.length; position++) {
+            retainedVisits[position] = readRoomIndex(input);
+        }
+        orderedVisitedRooms.restoreVisits(totalVisits, retainedVisits);
+
+        currentGameState = buildGameStatus(readLongString(input));
+    }
+
     /**
      * Writes a welcome message for the player.
      * Includes the game's backstory, rules, etc.
@@ -170,14 +343,18 @@ public class GameEngine {
      * @return the String welcome message.
      */
     private String writeGameIntro() {
-        return "Welcome to Kidnapped!" + "\n" +
-                "You have been mysteriously abducted by someone--" +
-                "is it the government? The russian mob? Who knows. " + "\n" +
-                "Either way, you have awoken in a strange room " +
-                "and must now find your way out of this compound. " + "\n" +
-                "Luckily, the compound has convenient windows for ceilings, " +
-                "allowing you to navigate by the sun by moving " +
-                "north, south, east, or west through the compound's rooms.";
+        return GAME_INTRO;
+    }
+
+    /**
+     * Writes the first message of a new game: the intro and the prompt for the first move.
+     * Every new game of a map starts out the same, so the message is pooled and shared
+     * by all of them.
+     *
+     * @return the String opening message.
+     */
+    private String writeOpeningMessage() {
+        return StringPool.dedupe(writeGameIntro() + writePlayerPrompter());
     }
 
     /**
@@ -187,35 +364,71 @@ public class GameEngine {
      * @return the String player prompt.
      */
     private String writePlayerPrompter() {
-        return "\n" + currentRoom.toString() + "\n" +
-               "What action would you like to take?" + "\n" + inputPrompter;
+        return "\n" + currentRoom.toString() + "\n" + ACTION_PROMPT + inputPrompter;
     }
 
     /**
      * Writes the game outro for the player, including the list of visited rooms
      * in order of when the player visited them.
+     * Only the rooms still retained by the visit history are listed.
      *
      * @return the String outro message.
      */
     private String writeGameOutro() {
-        String gameOutro = "\n" + "Thanks for playing! " +
-                           "Here's a quick history of your room traversal: \n";
+        StringBuilder gameOutro = new StringBuilder("\n" + "Thanks for playing! " +
+                                                    "Here's a quick history of your room traversal: \n");
+
+        if (orderedVisitedRooms.hasDroppedVisits()) {
+            gameOutro.append("(Your last ").append(orderedVisitedRooms.findNumberRetained())
+                     .append(" of ").append(orderedVisitedRooms.findTotalVisits()).append(" rooms)\n");
+        }
 
-        for (int roomIndex: orderedVisitedRooms) {
-            gameOutro += gameMap.retrieveRoomAt(roomIndex).getRoomName() + "\n";
+        for (int position = 0; position < orderedVisitedRooms.findNumberRetained(); position++) {
+            int roomIndex = orderedVisitedRooms.retrieveVisitAt(position);
+            gameOutro.append(retrieveGameRoom(roomIndex).getRoomName()).append("\n");
         }
 
-        return gameOutro;
+        return gameOutro.toString();
+    }
+
+    /**
+     * Builds the status of this game showing a given message.
+     * The possible player commands are captured from the current room/game state, but
+     * the map of command options is only built if the status is actually read.
+     *
+     * @param message the message to show the player.
+     *
+     * @return the GameStatus of this game.
+     */
+    private GameStatus buildGameStatus(String message) {
+        List<String> goOptions = currentRoom.fetchPossibleDirections();
+        List<String> takeOptions = currentRoom.fetchItemsVisible();
+        List<String> dropOptions = gamePlayer.fetchPlayerInventory();
+
+        return new GameStatus(false, gameID, message, currentRoom.getRoomImageURL(), "", new AdventureState(),
+                              () -> buildCommandOptions(goOptions, takeOptions, dropOptions));
     }
 
     /**
-     * Determines the possible player commands for the current room/game state
-     * and puts those options into the list of command options.
+     * Puts the possible values of each player command into an unmodifiable map of command options.
+     *
+     * @param goOptions   the directions the player can go in.
+     * @param takeOptions the items the player can take.
+     * @param dropOptions the items the player can drop.
+     *
+     * @return the map of command options.
      */
-    private void fillCommandOptions() {
-        commandOptions.put("go", currentRoom.fetchPossibleDirections());
-        commandOptions.put("take", currentRoom.fetchItemsVisible());
-        commandOptions.put("drop", gamePlayer.fetchPlayerInventory());
+    private static Map<String, List<String>> buildCommandOptions(List<String> goOptions, List<String> takeOptions,
+                                                                 List<String> dropOptions) {
+        Map<String, List<String>> commandOptions = new HashMap<>();
+        commandOptions.put("examine", EXAMINE_OPTIONS);
+        commandOptions.put("quit", QUIT_OPTIONS);
+        commandOptions.put("hint", HINT_OPTIONS);
+        commandOptions.put("go", goOptions);
+        commandOptions.put("take", takeOptions);
+        commandOptions.put("drop", dropOptions);
+
+        return Collections.unmodifiableMap(commandOptions);
     }
 
     /**
@@ -239,6 +452,10 @@ public class GameEngine {
                 return handleTakeCommand(commandValue);
             case "drop": case "leave": case "put":
                 return handleDropCommand(commandValue);
+            case "hint":
+                return giveHint();
+            case "travel":
+                return handleTravelCommand(commandValue);
             default:
                 return "\n" + "I don't understand " + commandName + ". Try again: \n";
         }
@@ -277,6 +494,136 @@ public class GameEngine {
         }
     }
 
+    /**
+     * Handles a player command to travel straight to a room, along the shortest route.
+     * Every room passed through counts as visited. Travel stops early if the player
+     * escapes through the end room on the way.
+     *
+     * @param roomNumberName the number of the room to travel to.
+     *
+     * @return String message informing player of their travel or asking to try again.
+     */
+    private String handleTravelCommand(String roomNumberName) {
+        int targetRoomNumber;
+
+        try {
+            targetRoomNumber = Integer.parseInt(roomNumberName);
+        } catch (NumberFormatException e) {
+            return "\n" + "Please include the number of a room to travel to. Try again:";
+        }
+
+        Integer targetRoomIndex = roomNumbersToIndices.get(targetRoomNumber);
+        if (targetRoomIndex == null) {
+            return "\n" + "There is no room " + targetRoomNumber + ". Try again: \n";
+        }
+
+        int[] route = templateMap.fetchRouteTable().findRoute(currentRoomIndex, targetRoomIndex);
+        if (route == null) {
+            return "\n" + "I can't find a way to room " + targetRoomNumber + " from here. Try again: \n";
+        }
+        else if (route.length == 0) {
+            return "\n" + "You are already in " + currentRoom.getRoomName() + "." + "\n";
+        }
+
+        StringBuilder gameResponse = new StringBuilder();
+        int numberRoomsTraveled = 0;
+
+        for (int roomIndex: route) {
+            enterRoom(roomIndex);
+            numberRoomsTraveled++;
+
+            if (currentRoom.isEndRoom()) {
+                gameResponse.append(respondToReachingEndRoom());
+
+                if (gameEnded) {
+                    break;
+                }
+            }
+        }
+
+        return "\n" + "You have traveled through " + numberRoomsTraveled + " rooms to: " +
+               currentRoom.getRoomName() + "." + "\n" + gameResponse;
+    }
+
+    /**
+     * Gives the player a hint: the direction to go to get closer to the escape item, or to
+     * the end room once they have it. Uses the map's precomputed routes, unless the player
+     * has moved the escape item since the map was loaded.
+     *
+     * @return String message with the hint.
+     */
+    private String giveHint() {
+        RouteTable routeTable = templateMap.fetchRouteTable();
+        boolean hasEscapeItem = gamePlayer.inventoryContains(REQUIRED_ESCAPE_ITEM);
+
+        if (!hasEscapeItem && currentRoom.containsItem(REQUIRED_ESCAPE_ITEM)) {
+            return "\n" + "Hint: the " + REQUIRED_ESCAPE_ITEM + " is in this room. Take it!" + "\n";
+        }
+        else if (hasEscapeItem && currentRoom.isEndRoom()) {
+            return "\n" + "Hint: this is the way out!" + "\n";
+        }
+
+        String goal = hasEscapeItem ? "exit" : REQUIRED_ESCAPE_ITEM;
+        int distance;
+        int movement;
+
+        if (hasEscapeItem) {
+            distance = routeTable.findExitDistance(currentRoomIndex);
+            movement = routeTable.findMoveTowardExit(currentRoomIndex);
+        }
+        else if (!escapeItemMoved) {
+            distance = routeTable.findItemDistance(currentRoomIndex);
+            movement = routeTable.findMoveTowardItem(currentRoomIndex);
+        }
+        else {
+            int[] route = routeTable.findRouteToNearest(currentRoomIndex, findEscapeItemRooms());
+            distance = route == null ? RouteTable.UNREACHABLE : route.length;
+            movement = route == null ? -1 : findMovementTo(route[0]);
+        }
+
+        if (distance == RouteTable.UNREACHABLE || movement < 0) {
+            return "\n" + "Hint: there's no way to the " + goal + " from here." + "\n";
+        }
+
+        return "\n" + "Hint: go " + currentRoom.getPossibleMovements().get(movement).getMovementDirection() +
+               ". The " + goal + " is " + distance + (distance == 1 ? " room" : " rooms") + " away." + "\n";
+    }
+
+    /**
+     * Helper method to find the rooms of this game's map currently holding the escape item.
+     *
+     * @return the indices of the rooms holding the escape item.
+     */
+    private BitSet findEscapeItemRooms() {
+        int itemId = templateMap.getItemDictionary().findItemId(REQUIRED_ESCAPE_ITEM);
+        BitSet itemRooms = new BitSet(templateMap.findMapSize());
+
+        for (int roomIndex = 0; roomIndex < templateMap.findMapSize(); roomIndex++) {
+            itemRooms.set(roomIndex, retrieveGameRoom(roomIndex).containsItemId(itemId));
+        }
+
+        return itemRooms;
+    }
+
+    /**
+     * Helper method to find the movement from the current room into a neighboring room.
+     *
+     * @param roomIndex the index of the neighboring room.
+     *
+     * @return the index of the movement in the current room's possible movements, or -1.
+     */
+    private int findMovementTo(int roomIndex) {
+        List<PlayerMovement> possibleMovements = currentRoom.getPossibleMovements();
+
+        for (int movement = 0; movement < possibleMovements.size(); movement++) {
+            if (roomNumbersToIndices.get(possibleMovements.get(movement).getMovedRoomNumber()) == roomIndex) {
+                return movement;
+            }
+        }
+
+        return -1;
+    }
+
     /**
      * Handles a player command to take an item from the current room.
      *
@@ -323,15 +670,24 @@ public class GameEngine {
             return "\n" + "I can't go " + direction.name() + ". Try again: \n";
         }
 
-        int newRoomIndex = roomNumbersToIndices.get(newRoomNumber);
-        currentRoom = gameMap.retrieveRoomAt(newRoomIndex);
-
-        orderedVisitedRooms.add(gameMap.indexOfRoom(currentRoom));
-        gamePlayer.addToScore();
+        enterRoom(roomNumbersToIndices.get(newRoomNumber));
 
         return "\n" + "You have moved to: " + currentRoom.getRoomName() + "." + "\n";
     }
 
+    /**
+     * Moves the player into a room, counting it as visited.
+     *
+     * @param roomIndex the index of the room to move into.
+     */
+    private void enterRoom(int roomIndex) {
+        currentRoomIndex = roomIndex;
+        currentRoom = retrieveGameRoom(roomIndex);
+
+        orderedVisitedRooms.recordVisit(roomIndex);
+        gamePlayer.addToScore();
+    }
+
     /**
      * Given an item the player wants to take, remove the item from the room and
      * place into the player's inventory.
@@ -349,6 +705,7 @@ public class GameEngine {
             return "\n" + "There is no " + itemName + " in the room.";
         }
 
+        currentRoom = fetchChangedRoom(currentRoomIndex);
         currentRoom.removeItemFromRoom(itemName);
         String gameResponse = "\n" + "You have picked up: " + itemName + "." + "\n";
 
@@ -381,10 +738,15 @@ public class GameEngine {
 
         gamePlayer.removeFromInventory(itemName);
 
+        if (itemName.equals(REQUIRED_ESCAPE_ITEM)) {
+            escapeItemMoved = true;
+        }
+
         if (currentRoom.containsItem(itemName)) {
             return "\n" + "The item " + itemName + " is already in this room!";
         }
 
+        currentRoom = fetchChangedRoom(currentRoomIndex);
         currentRoom.addItemToRoom(itemName);
 
         return "\n" + "You've dropped: " + itemName + "." + "\n";
@@ -406,4 +768,167 @@ public class GameEngine {
             return "\n" + "You seem to be missing a " + REQUIRED_ESCAPE_ITEM + "\n";
         }
     }
+
+    /**
+     * Helper method to find a room as this game sees it: its own copy if the game has
+     * changed the room's items, else the map's room.
+     *
+     * @param roomIndex the index of the room.
+     *
+     * @return the room.
+     */
+    private Room retrieveGameRoom(int roomIndex) {
+        Room changedRoom = changedRooms.get(roomIndex);
+
+        return changedRoom != null ? changedRoom : templateMap.retrieveRoomAt(roomIndex);
+    }
+
+    /**
+     * Helper method to find this game's own copy of a room, about to have its items changed,
+     * copying the map's room the first time.
+     *
+     * @param roomIndex the index of the room.
+     *
+     * @return the game's copy of the room.
+     */
+    private Room fetchChangedRoom(int roomIndex) {
+        Room changedRoom = changedRooms.get(roomIndex);
+
+        if (changedRoom == null) {
+            changedRoom = new Room(templateMap.retrieveRoomAt(roomIndex));
+            changedRooms.put(roomIndex, changedRoom);
+            changedItemRooms.set(roomIndex);
+        }
+
+        return changedRoom;
+    }
+
+    /**
+     * Helper method to read a count for readGameState, checking the rest of the state is long
+     * enough to hold that many entries.
+     *
+     * @param input      the stream to read from.
+     * @param entryBytes the fewest bytes each entry takes.
+     *
+     * @throws IOException if the count can't be read, or is negative or too large.
+     *
+     * @return the count.
+     */
+    private static int readCount(DataInputStream input, int entryBytes) throws IOException {
+        int count = input.readInt();
+
+        if (count < 0 || (long) count * entryBytes > input.available()) {
+            throw new InvalidObjectException("Game state declares " + count + " entries, which don't fit in " +
+                                             input.available() + " bytes.");
+        }
+
+        return count;
+    }
+
+    /**
+     * Helper method to read a room index for readGameState, checking it's on this game's map.
+     *
+     * @param input the stream to read from.
+     *
+     * @throws IOException if the index can't be read or is out of range.
+     *
+     * @return the room index.
+     */
+    private int readRoomIndex(DataInputStream input) throws IOException {
+        int roomIndex = input.readInt();
+
+        if (roomIndex < 0 || roomIndex >= templateMap.findMapSize()) {
+            throw new InvalidObjectException("Game state refers to room index " + roomIndex +
+                                             ", which isn't on this map.");
+        }
+
+        return roomIndex;
+    }
+
+    /**
+     * Helper method to write a list of item names.
+     *
+     * @param output    the stream to write to.
+     * @param itemNames the item names to write.
+     *
+     * @throws IOException if the names can't be written.
+     */
+    private static void writeItemNames(DataOutput output, List<String> itemNames) throws IOException {
+        output.writeInt(itemNames.size());
+
+        for (String itemName: itemNames) {
+            output.writeUTF(itemName);
+        }
+    }
+
+    /**
+     * Helper method to read a list of item names written by writeItemNames, checking each
+     * item is on this game's map, so a state can't add items to the map's shared dictionary.
+     *
+     * @param input the stream to read from.
+     *
+     * @throws IOException if the names can't be read, or name an item not on the map.
+     *
+     * @return the item names.
+     */
+    private List<String> readItemNames(DataInputStream input) throws IOException {
+        int numberItems = readCount(input, 2);
+        List<String> itemNames = new ArrayList<>(numberItems);
+
+        for (int item = 0; item < numberItems; item++) {
+            String itemName = input.readUTF();
+
+            if (templateMap.getItemDictionary().findItemId(itemName) == ItemDictionary.UNKNOWN_ITEM) {
+                throw new InvalidObjectException("Game state holds item '" + itemName + "', which isn't on this map.");
+            }
+            itemNames.add(itemName);
+        }
+
+        return itemNames;
+    }
+
+    /**
+     * Helper method to write a string of any length as UTF-8, unlike writeUTF.
+     *
+     * @param output the stream to write to.
+     * @param string the string to write; may be null.
+     *
+     * @throws IOException if the string can't be written.
+     */
+    private static void writeLongString(DataOutput output, String string) throws IOException {
+        if (string == null) {
+            output.writeInt(-1);
+            return;
+        }
+
+        byte[] stringBytes = string.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(stringBytes.length);
+        output.write(stringBytes);
+    }
+
+    /**
+     * Helper method to read a string written by writeLongString.
+     *
+     * @param input the stream to read from.
+     *
+     * @throws IOException if the string can't be read.
+     *
+     * @return the string read, or null.
+     */
+    private static String readLongString(DataInputStream input) throws IOException {
+        int stringLength = input.readInt();
+
+        if (stringLength < 0) {
+            return null;
+        }
+        if (stringLength > input.available()) {
+            throw new InvalidObjectException("Game state declares a string of " + stringLength +
+                                             " bytes, which doesn't fit in " + input.available() + " bytes.");
+        }
+
+        byte[] stringBytes = new byte[stringLength];
+        input.readFully(stringBytes);
+
+        return new String(stringBytes, StandardCharsets.UTF_8);
+    }
 }
@@ -1,10 +1,11 @@
 package student.adventure;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.zip.CRC32;
 
 /**
  * Represents the map of a game with all of the Rooms.
@@ -14,6 +15,10 @@ import java.util.HashSet;
  */
 public class GameMap {
     private List<Room> allRooms;
+    private ItemDictionary itemDictionary; //shared by every room of this map
+    private volatile RouteTable routeTable; //shortest routes between rooms; null until first needed
+    private RoomTextIndex roomTextIndex; //where lazily loaded room text is read from; null if loaded eagerly
+    private volatile long layoutVersion; //checksum of the rooms' layout; -1 until first needed
 
     /**
      * Default constructor for objects of class GameMap.
@@ -21,10 +26,131 @@ public class GameMap {
      */
     public GameMap() {
         allRooms = new ArrayList<>();
+        itemDictionary = new ItemDictionary();
+        layoutVersion = -1;
     }
 
+    public ItemDictionary getItemDictionary() {
+        return itemDictionary;
+    }
+
+    public RoomTextIndex getRoomTextIndex() {
+        return roomTextIndex;
+    }
+
+    public void setRoomTextIndex(RoomTextIndex roomTextIndex) {
+        this.roomTextIndex = roomTextIndex;
+    }
+
+    /**
+     * Determines whether this map's room text is read from its file when needed.
+     *
+     * @return true if room text is loaded lazily, else false.
+     */
+    public boolean hasLazyRoomText() {
+        return roomTextIndex != null;
+    }
+
+    /**
+     * Sets the rooms of this map, interning every room's items into this map's
+     * item dictionary.
+     *
+     * @param allRooms the list of all rooms in this map.
+     */
     public void setAllRooms(List<Room> allRooms) {
         this.allRooms = allRooms;
+        routeTable = null;
+        layoutVersion = -1;
+
+        for (Room room: allRooms) {
+            room.bindItemDictionary(itemDictionary);
+        }
+    }
+
+    /**
+     * Finds the shortest routes through this map, computing them the first time they
+     * are needed. Maps loaded by MapDataReader have them computed at load time.
+     * The routes lead toward the rooms holding the required escape item when they were computed.
+     *
+     * @return the route table of this map.
+     */
+    public RouteTable fetchRouteTable() {
+        RouteTable currentTable = routeTable;
+
+        if (currentTable == null) {
+            synchronized (this) {
+                currentTable = routeTable;
+
+                if (currentTable == null) {
+                    currentTable = RouteTable.buildRouteTable(this, GameEngine.REQUIRED_ESCAPE_ITEM);
+                    routeTable = currentTable;
+                }
+            }
+        }
+
+        return currentTable;
+    }
+
+    /**
+     * Finds the version of this map's layout: a checksum of the rooms' numbers and order,
+     * exits, end rooms and starting items, computed the first time it's needed. Saved game
+     * states refer to rooms by index and items by name, so a state can be moved to another
+     * copy of the map only if their layout versions match. Room text isn't included, so
+     * rewording a map keeps its version.
+     * Copies of this map keep the version of this map's starting layout as items move.
+     *
+     * @return the layout version, between 0 and 2^32 - 1.
+     */
+    public long findLayoutVersion() {
+        long currentVersion = layoutVersion;
+
+        if (currentVersion < 0) {
+            CRC32 layoutChecksum = new CRC32();
+
+            for (Room room: allRooms) {
+                updateChecksum(layoutChecksum, room.getRoomNumber());
+                updateChecksum(layoutChecksum, room.isEndRoom() ? 1 : 0);
+
+                for (PlayerMovement movement: room.getPossibleMovements()) {
+                    Direction direction = movement.getMovementDirection();
+                    updateChecksum(layoutChecksum, direction == null ? -1 : direction.ordinal());
+                    updateChecksum(layoutChecksum, movement.getMovedRoomNumber());
+                }
+
+                for (String itemName: room.fetchItemsVisible()) {
+                    byte[] nameBytes = itemName.getBytes(StandardCharsets.UTF_8);
+                    updateChecksum(layoutChecksum, nameBytes.length);
+                    layoutChecksum.update(nameBytes, 0, nameBytes.length);
+                }
+                updateChecksum(layoutChecksum, -1);
+            }
+
+            currentVersion = layoutChecksum.getValue();
+            layoutVersion = currentVersion;
+        }
+
+        return currentVersion;
+    }
+
+    /**
+     * Estimates the memory taken by the names, descriptions and image URLs of this map's
+     * rooms: the text every game would hold if it didn't share this map's.
+     *
+     * @return the approximate number of bytes of room text, or 0 if room text is loaded lazily.
+     */
+    public long estimateRoomTextBytes() {
+        if (hasLazyRoomText()) {
+            return 0;
+        }
+
+        long roomTextBytes = 0;
+        for (Room room: allRooms) {
+            roomTextBytes += StringPool.estimateStringBytes(room.getRoomName())
+                                 + StringPool.estimateStringBytes(room.getRoomDescription())
+                                 + StringPool.estimateStringBytes(room.getRoomImageURL());
+        }
+
+        return roomTextBytes;
     }
 
     /**
@@ -56,6 +182,19 @@ public class GameMap {
         return allRooms.indexOf(room);
     }
 
+    /**
+     * Helper method to add the four bytes of a number to a checksum.
+     *
+     * @param checksum the checksum to update.
+     * @param number   the number to add.
+     */
+    private static void updateChecksum(CRC32 checksum, int number) {
+        checksum.update(number >>> 24);
+        checksum.update(number >>> 16);
+        checksum.update(number >>> 8);
+        checksum.update(number);
+    }
+
     /**
      * Builds a map linking each room's number to its index in the list of all rooms.
      * Helps to transition to different rooms during a game.
@@ -72,66 +211,4 @@ public class GameMap {
 
         return roomNumberIndexLinks;
     }
-
-    /**
-     * Determines whether this map has rooms with valid properties.
-     * Helps check if this is a valid map for a game.
-     *
-     * @return true  if this map has valid rooms, else
-     *         false if this map doesn't have valid rooms.
-     */
-    public boolean hasValidRooms() {
-        for (Room currentRoom: allRooms) {
-            if (!currentRoom.isValidRoom()) {
-                return false;
-            }
-
-            //Check if any rooms lead to nonexistent rooms
-            List<Integer> possibleRoomNumbers = currentRoom.fetchPossibleRoomNumbers();
-            for (int roomNumber: possibleRoomNumbers) {
-                if (roomNumber > allRooms.size()) {
-                    return false;
-                }
-            }
-        }
-
-        return true;
-    }
-
-    /**
-     * Determines whether this map has exactly one end room.
-     * Helps check if this is a valid map for a game.
-     *
-     * @return true  if this map has exactly one end room, else
-     *         false if this map doesn't have exactly one end room.
-     */
-    public boolean hasSingleEndRoom() {
-        int numEndRooms = 0;
-
-        for (Room currentRoom: allRooms) {
-            if (currentRoom.isEndRoom()) {
-                numEndRooms++;
-            }
-        }
-
-        return numEndRooms == 1;
-    }
-
-    /**
-     * Determines whether this map has rooms with unique numbers;
-     * No two rooms should have the same room number.
-     * Helps check if this is a valid map for a game.
-     *
-     * @return true  if this map has unique room numbers, else
-     *         false if this map has two or more rooms with the same number.
-     */
-    public boolean hasUniqueRoomNumbers() {
-        HashSet<Integer> roomNumbers = new HashSet<>();
-
-        for (Room currentRoom: allRooms) {
-            roomNumbers.add(currentRoom.getRoomNumber());
-        }
-
-        return roomNumbers.size() == allRooms.size();
-    }
 }
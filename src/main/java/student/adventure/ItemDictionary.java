@@ -0,0 +1,98 @@
+package student.adventure;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary interning the names of items in a game map to small integer ids.
+ * Rooms and players store items by these ids, so item lookups don't compare Strings.
+ * Safe to share between games running on different threads.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class ItemDictionary {
+    public static final int UNKNOWN_ITEM = -1;
+
+    private final Map<String, Integer> itemIds;
+    private volatile String[] itemNames; //item name at each id
+    private int numberItems;
+
+    /**
+     * Default constructor for objects of class ItemDictionary.
+     * Initiates an empty dictionary with no items.
+     */
+    public ItemDictionary() {
+        itemIds = new ConcurrentHashMap<>();
+        itemNames = new String[8];
+        numberItems = 0;
+    }
+
+    /**
+     * Determines the number of distinct items in this dictionary.
+     *
+     * @return the number of interned items.
+     */
+    public synchronized int findNumberItems() {
+        return numberItems;
+    }
+
+    /**
+     * Finds the id of a given item, adding the item to this dictionary if it is new.
+     *
+     * @param itemName the name of the item.
+     *
+     * @return the id of the item.
+     */
+    public int internItem(String itemName) {
+        Integer itemId = itemIds.get(itemName);
+        if (itemId != null) {
+            return itemId;
+        }
+
+        synchronized (this) {
+            itemId = itemIds.get(itemName);
+            if (itemId != null) {
+                return itemId;
+            }
+
+            if (numberItems == itemNames.length) {
+                itemNames = Arrays.copyOf(itemNames, numberItems * 2);
+            }
+
+            itemName = StringPool.dedupe(itemName);
+            itemNames[numberItems] = itemName;
+            itemIds.put(itemName, numberItems);
+
+            return numberItems++;
+        }
+    }
+
+    /**
+     * Finds the id of a given item without adding it to this dictionary.
+     *
+     * @param itemName the name of the item.
+     *
+     * @return the id of the item, or UNKNOWN_ITEM if the item is not in this dictionary.
+     */
+    public int findItemId(String itemName) {
+        if (itemName == null) {
+            return UNKNOWN_ITEM;
+        }
+
+        Integer itemId = itemIds.get(itemName);
+        return itemId == null ? UNKNOWN_ITEM : itemId;
+    }
+
+    /**
+     * Finds the name of the item with the given id.
+     *
+     * @param itemId the id of the item.
+     *
+     * @return the name of the item.
+     */
+    public String retrieveItemName(int itemId) {
+        return itemNames[itemId];
+    }
+}
@@ -0,0 +1,223 @@
+package student.adventure;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static student.adventure.MapDataReader.checkMapFile;
+
+/**
+ * Checks every map file in a directory (and its subdirectories) at once, with the same
+ * rules the server loads maps with. Files are checked concurrently on a fixed number of
+ * threads, and the results are written as a JSON report: for each file, whether it's
+ * valid, how long it took to load, its number of rooms and its problems.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class MapBatchValidator {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * The outcome of checking a single map file.
+     */
+    public static class ValidationResult {
+        private final String mapFile;
+        private final long loadMillis;
+        private final int numberRooms;
+        private final List<String> mapProblems;
+
+        ValidationResult(String mapFile, long loadMillis, int numberRooms, List<String> mapProblems) {
+            this.mapFile = mapFile;
+            this.loadMillis = loadMillis;
+            this.numberRooms = numberRooms;
+            this.mapProblems = mapProblems;
+        }
+
+        public String getMapFile() {
+            return mapFile;
+        }
+
+        public long getLoadMillis() {
+            return loadMillis;
+        }
+
+        public int getNumberRooms() {
+            return numberRooms;
+        }
+
+        public List<String> getMapProblems() {
+            return mapProblems;
+        }
+
+        public boolean isValid() {
+            return mapProblems.isEmpty();
+        }
+    }
+
+    /**
+     * Checks every map file in a directory and prints the JSON report.
+     * Usage: MapBatchValidator DIRECTORY [THREADS]
+     * Exits with status 1 if any map is invalid.
+     *
+     * @param args the directory to check, and optionally the number of threads to use.
+     *
+     * @throws IOException if the directory can't be read or the report can't be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: MapBatchValidator <directory> [threads]");
+            System.exit(2);
+        }
+
+        int numberThreads = args.length == 2 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        long startTime = System.nanoTime();
+        List<ValidationResult> results = validateDirectory(Paths.get(args[0]), numberThreads);
+        long totalMillis = (System.nanoTime() - startTime) / 1000000;
+
+        writeReport(results, totalMillis, System.out);
+        System.out.println();
+
+        for (ValidationResult result: results) {
+            if (!result.isValid()) {
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Checks every JSON and binary map file in a directory and its subdirectories.
+     *
+     * @param directory     the directory holding the map files.
+     * @param numberThreads the number of files to check at a time.
+     *
+     * @throws IOException if the directory can't be read.
+     *
+     * @return the result of checking each file, ordered by file path.
+     */
+    public static List<ValidationResult> validateDirectory(Path directory, int numberThreads) throws IOException {
+        List<Path> mapFiles;
+        try (Stream<Path> directoryFiles = Files.walk(directory)) {
+            mapFiles = directoryFiles
+                    .filter(Files::isRegularFile)
+                    .filter(file -> file.toString().endsWith(".json")
+                                        || file.toString().endsWith(MapCompiler.COMPILED_MAP_EXTENSION))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        ExecutorService validationPool = Executors.newFixedThreadPool(Math.max(1, numberThreads));
+        try {
+            List<Future<ValidationResult>> pendingResults = new ArrayList<>(mapFiles.size());
+            for (Path mapFile: mapFiles) {
+                pendingResults.add(validationPool.submit(() -> validateFile(mapFile.toString())));
+            }
+
+            List<ValidationResult> results = new ArrayList<>(mapFiles.size());
+            for (Future<ValidationResult> pendingResult: pendingResults) {
+                results.add(pendingResult.get());
+            }
+
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while checking maps.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not check maps.", e.getCause());
+        } finally {
+            validationPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Checks a single map file, turning any failure to load it into the problems found.
+     *
+     * @param mapFile the name of the map file.
+     *
+     * @return the result of checking the file.
+     */
+    public static ValidationResult validateFile(String mapFile) {
+        long startTime = System.nanoTime();
+        int numberRooms = 0;
+        List<String> mapProblems;
+
+        try {
+            numberRooms = checkMapFile(mapFile).findMapSize();
+            mapProblems = Collections.emptyList();
+        } catch (InvalidObjectException e) {
+            mapProblems = Arrays.asList(e.getMessage().split("\n"));
+        } catch (IOException | RuntimeException e) {
+            mapProblems = Collections.singletonList(e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+
+        return new ValidationResult(mapFile, (System.nanoTime() - startTime) / 1000000, numberRooms, mapProblems);
+    }
+
+    /**
+     * Writes the results of checking map files as a JSON report. The stream is left open.
+     *
+     * @param results     the results of checking each file.
+     * @param totalMillis the time taken to check every file.
+     * @param output      the stream to write the report to.
+     *
+     * @throws IOException if the report can't be written.
+     */
+    public static void writeReport(List<ValidationResult> results, long totalMillis, OutputStream output)
+            throws IOException {
+        int numberValid = 0;
+        for (ValidationResult result: results) {
+            if (result.isValid()) {
+                numberValid++;
+            }
+        }
+
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(output, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.useDefaultPrettyPrinter();
+
+            generator.writeStartObject();
+            generator.writeNumberField("files", results.size());
+            generator.writeNumberField("valid", numberValid);
+            generator.writeNumberField("invalid", results.size() - numberValid);
+            generator.writeNumberField("totalMillis", totalMillis);
+
+            generator.writeArrayFieldStart("results");
+            for (ValidationResult result: results) {
+                generator.writeStartObject();
+                generator.writeStringField("file", result.getMapFile());
+                generator.writeBooleanField("valid", result.isValid());
+                generator.writeNumberField("loadMillis", result.getLoadMillis());
+                generator.writeNumberField("rooms", result.getNumberRooms());
+
+                generator.writeArrayFieldStart("errors");
+                for (String mapProblem: result.getMapProblems()) {
+                    generator.writeString(mapProblem);
+                }
+                generator.writeEndArray();
+
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package student.adventure;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static student.adventure.MapDataReader.deserializeFile;
+
+/**
+ * Compiles a validated game map into a compact binary map file, which MapDataReader can
+ * load through memory-mapped I/O much faster than parsing JSON.
+ *
+ * File layout (all numbers big-endian ints unless noted):
+ * magic, version,
+ * string table: string count, (count + 1) byte offsets, UTF-8 bytes of every string,
+ * rooms: room count, then per room: number, name id, description id, image URL id, end room flag (byte),
+ * items: (room count + 1) offsets, item count, item string ids,
+ * movements: (room count + 1) offsets, movement count, direction ordinals (bytes), target room numbers.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class MapCompiler {
+    public static final int COMPILED_MAP_MAGIC = 0x4B4D4150; //"KMAP"
+    public static final int COMPILED_MAP_VERSION = 1;
+    public static final String COMPILED_MAP_EXTENSION = ".kmap";
+
+    /**
+     * Compiles a JSON map file into a binary map file.
+     *
+     * @param args the JSON map file to compile, and the binary map file to write.
+     *
+     * @throws IOException if the JSON map is invalid or the binary map can't be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: MapCompiler <map.json> <map" + COMPILED_MAP_EXTENSION + ">");
+            System.exit(2);
+        }
+
+        GameMap gameMap = deserializeFile(args[0]);
+        compileMap(gameMap, args[1]);
+
+        System.out.println("Compiled " + gameMap.findMapSize() + " rooms into " + args[1]);
+    }
+
+    /**
+     * Writes a game map to a binary map file.
+     *
+     * @param gameMap    the validated game map to compile.
+     * @param outputFile the name of the binary map file to write.
+     *
+     * @throws IOException if the file can't be written.
+     */
+    public static void compileMap(GameMap gameMap, String outputFile) throws IOException {
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        int mapSize = gameMap.findMapSize();
+
+        //intern every string once, so repeated names, descriptions and items are stored once
+        int[] roomStringIds = new int[mapSize * 3];
+        int numberItems = 0;
+        int numberMovements = 0;
+        for (int roomIndex = 0; roomIndex < mapSize; roomIndex++) {
+            Room room = gameMap.retrieveRoomAt(roomIndex);
+            roomStringIds[roomIndex * 3] = internString(room.getRoomName(), stringIds, strings);
+            roomStringIds[roomIndex * 3 + 1] = internString(room.getRoomDescription(), stringIds, strings);
+            roomStringIds[roomIndex * 3 + 2] = internString(room.getRoomImageURL(), stringIds, strings);
+
+            for (String itemName: room.fetchItemsVisible()) {
+                internString(itemName, stringIds, strings);
+                numberItems++;
+            }
+
+            numberMovements += room.getPossibleMovements().size();
+        }
+
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(Paths.get(outputFile))))) {
+            output.writeInt(COMPILED_MAP_MAGIC);
+            output.writeInt(COMPILED_MAP_VERSION);
+
+            writeStringTable(output, strings);
+
+            output.writeInt(mapSize);
+            for (int roomIndex = 0; roomIndex < mapSize; roomIndex++) {
+                Room room = gameMap.retrieveRoomAt(roomIndex);
+                output.writeInt(room.getRoomNumber());
+                output.writeInt(roomStringIds[roomIndex * 3]);
+                output.writeInt(roomStringIds[roomIndex * 3 + 1]);
+                output.writeInt(roomStringIds[roomIndex * 3 + 2]);
+                output.writeByte(room.isEndRoom() ? 1 : 0);
+            }
+
+            //item table
+            int itemOffset = 0;
+            for (int roomIndex = 0; roomIndex < mapSize; roomIndex++) {
+                output.writeInt(itemOffset);
+                itemOffset += gameMap.retrieveRoomAt(roomIndex).fetchItemsVisible().size();
+            }
+            output.writeInt(itemOffset);
+            output.writeInt(numberItems);
+            for (int roomIndex = 0; roomIndex < mapSize; roomIndex++) {
+                for (String itemName: gameMap.retrieveRoomAt(roomIndex).fetchItemsVisible()) {
+                    output.writeInt(stringIds.get(itemName));
+                }
+            }
+
+            //adjacency arrays
+            int movementOffset = 0;
+            for (int roomIndex = 0; roomIndex < mapSize; roomIndex++) {
+                output.writeInt(movementOffset);
+                movementOffset += gameMap.retrieveRoomAt(roomIndex).getPossibleMovements().size();
+            }
+            output.writeInt(movementOffset);
+            output.writeInt(numberMovements);
+            for (int roomIndex = 0; roomIndex < mapSize; roomIndex++) {
+                for (PlayerMovement movement: gameMap.retrieveRoomAt(roomIndex).getPossibleMovements()) {
+                    output.writeByte(movement.getMovementDirection().ordinal());
+                }
+            }
+            for (int roomIndex = 0; roomIndex < mapSize; roomIndex++) {
+                for (PlayerMovement movement: gameMap.retrieveRoomAt(roomIndex).getPossibleMovements()) {
+                    output.writeInt(movement.getMovedRoomNumber());
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper method to find the id of a string in the string table, adding it if new.
+     *
+     * @param string    the string to intern.
+     * @param stringIds the ids of strings already in the table.
+     * @param strings   the strings in the table, in id order.
+     *
+     * @return the id of the string.
+     */
+    private static int internString(String string, Map<String, Integer> stringIds, List<String> strings) {
+        Integer stringId = stringIds.get(string);
+
+        if (stringId == null) {
+            stringId = strings.size();
+            stringIds.put(string, stringId);
+            strings.add(string);
+        }
+
+        return stringId;
+    }
+
+    /**
+     * Helper method to write the string table: the number of strings, the offset of each
+     * string, then the strings' UTF-8 bytes back to back.
+     *
+     * @param output  the stream to write to.
+     * @param strings the strings in the table, in id order.
+     *
+     * @throws IOException if the table can't be written.
+     */
+    private static void writeStringTable(DataOutputStream output, List<String> strings) throws IOException {
+        List<byte[]> encodedStrings = new ArrayList<>(strings.size());
+        for (String string: strings) {
+            encodedStrings.add(string.getBytes(StandardCharsets.UTF_8));
+        }
+
+        output.writeInt(strings.size());
+
+        int byteOffset = 0;
+        for (byte[] encodedString: encodedStrings) {
+            output.writeInt(byteOffset);
+            byteOffset += encodedString.length;
+        }
+        output.writeInt(byteOffset);
+
+        for (byte[] encodedString: encodedStrings) {
+            output.write(encodedString);
+        }
+    }
+}
@@ -1,24 +1,62 @@
 package student.adventure;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InvalidObjectException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Object handling reading in data from any JSON file to a GameMap.
+ * Maps are parsed as a stream straight into Rooms, then checked by MapValidator.
+ * Binary map files made by MapCompiler are loaded through memory-mapped I/O instead.
+ * Room text is deduplicated through the StringPool, so text shared between maps is held once.
+ * Large JSON maps can be loaded with lazy room text: the room graph and items are loaded
+ * as usual, but room names, descriptions and image URLs are read from the file when needed.
  *
  * @author  Annabelle Ju
  * @version 9/21/2020
  */
 public class MapDataReader {
+    /**
+     * Largest map file that will be read, in bytes.
+     */
+    public static final long MAX_MAP_FILE_SIZE = 1L << 30;
+
+    /**
+     * JSON map files larger than this, in bytes, are loaded with lazy room text by default.
+     */
+    public static final long LAZY_ROOM_TEXT_FILE_SIZE = 64L << 20;
+
+    /**
+     * Number of rooms whose text is kept in memory for a map loaded with lazy room text.
+     */
+    public static final int ROOM_TEXT_CACHE_CAPACITY = 4096;
+
+    //thread-safe and reusable, so shared by every read
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
     /**
      * Given the name of a JSON file, deserializes the file if it's valid.
+     * Files ending in MapCompiler.COMPILED_MAP_EXTENSION are loaded as binary map files.
+     * Files larger than LAZY_ROOM_TEXT_FILE_SIZE are loaded with lazy room text.
      *
      * @throws IllegalArgumentException if given file name is invalid
-     * @throws IOException              if file doesn't exist
+     * @throws IOException              if file doesn't exist or is too large
      * @throws NullPointerException     if file is empty
      * @throws InvalidObjectException   if GameMap given by file is invalid.
      *
@@ -30,44 +68,535 @@ public class MapDataReader {
             throw new IllegalArgumentException("Invalid file name.");
         }
 
-        BufferedReader dataFile = new BufferedReader(new FileReader(fileName));
+        if (fileName.endsWith(MapCompiler.COMPILED_MAP_EXTENSION)) {
+            return loadCompiledMap(fileName);
+        }
+
+        return deserializeFile(fileName, Files.size(Paths.get(fileName)) > LAZY_ROOM_TEXT_FILE_SIZE);
+    }
+
+    /**
+     * Given the name of a JSON file, deserializes the file if it's valid, choosing whether
+     * room text is loaded lazily. With lazy room text, only the offset of each room's text
+     * in the file is kept, and the text is read back (and cached for recently used rooms)
+     * when it's needed. Lazy room text needs a UTF-8 file; other encodings load eagerly.
+     *
+     * @param fileName     the name of the JSON file.
+     * @param lazyRoomText whether to load room names, descriptions and image URLs lazily.
+     *
+     * @throws IllegalArgumentException if given file name is invalid
+     * @throws IOException              if file doesn't exist or is too large
+     * @throws NullPointerException     if file is empty
+     * @throws InvalidObjectException   if GameMap given by file is invalid.
+     *
+     * @return the Object containing the deserialized data.
+     */
+    public static GameMap deserializeFile(String fileName, boolean lazyRoomText) throws IOException {
+        GameMap deserializedMap = readMapFile(fileName, lazyRoomText);
+        deserializedMap.fetchRouteTable();
+
+        return deserializedMap;
+    }
 
-        //add bookmark at start of file to return to after error check:
-        dataFile.mark(100);
+    /**
+     * Given the name of a map file, loads and checks it with the same rules as
+     * deserializeFile, but skips the work only needed to play on it (e.g. route tables).
+     *
+     * @param fileName the name of the JSON or binary map file.
+     *
+     * @throws IllegalArgumentException if given file name is invalid
+     * @throws IOException              if file doesn't exist or is too large
+     * @throws NullPointerException     if file is empty
+     * @throws InvalidObjectException   if GameMap given by file is invalid.
+     *
+     * @return the checked game map.
+     */
+    public static GameMap checkMapFile(String fileName) throws IOException {
+        return readMapFile(fileName, false);
+    }
 
-        //error check: data file is empty
-        if (dataFile.readLine() == null) {
+    /**
+     * Helper function to read and validate a JSON or binary map file.
+     *
+     * @param fileName     the name of the map file.
+     * @param lazyRoomText whether to load room text of a JSON map lazily.
+     *
+     * @throws IllegalArgumentException if given file name is invalid
+     * @throws IOException              if file doesn't exist or is too large
+     * @throws NullPointerException     if file is empty
+     * @throws InvalidObjectException   if GameMap given by file is invalid.
+     *
+     * @return the validated game map.
+     */
+    private static GameMap readMapFile(String fileName, boolean lazyRoomText) throws IOException {
+        //error check: given file name is invalid
+        if (fileName == null || fileName.length() == 0) {
+            throw new IllegalArgumentException("Invalid file name.");
+        }
+
+        if (fileName.endsWith(MapCompiler.COMPILED_MAP_EXTENSION)) {
+            return readCompiledMapFile(fileName);
+        }
+
+        Path dataFile = Paths.get(fileName);
+        long fileSize = Files.size(dataFile);
+
+        //error check: data file is empty or too large
+        if (fileSize == 0) {
             throw new NullPointerException("Data file is empty.");
         }
+        else if (fileSize > MAX_MAP_FILE_SIZE) {
+            throw new IOException("Data file is larger than " + MAX_MAP_FILE_SIZE + " bytes.");
+        }
 
-        //reset pointer of file reader to the bookmark at start of file:
-        dataFile.reset();
+        //parser detects the file's encoding (UTF-8 unless marked otherwise)
+        try (InputStream dataStream = Files.newInputStream(dataFile);
+             JsonParser parser = JSON_FACTORY.createParser(dataStream)) {
+            //error check: data file has only whitespace
+            if (parser.nextToken() == null) {
+                throw new NullPointerException("Data file is empty.");
+            }
 
-        GameMap deserializedMap = new ObjectMapper().readValue(dataFile, GameMap.class);
-        checkMapStructureValidity(deserializedMap);
+            RoomTextIndex textIndex = lazyRoomText ? new RoomTextIndex(dataFile, ROOM_TEXT_CACHE_CAPACITY) : null;
+            try {
+                GameMap deserializedMap = parseGameMap(parser, textIndex);
+                MapValidator.checkMapValidity(deserializedMap);
 
-        return deserializedMap;
+                return deserializedMap;
+            } catch (IOException | RuntimeException e) {
+                //no game will play the map, so its file needn't stay open
+                if (textIndex != null) {
+                    textIndex.close();
+                }
+                throw e;
+            }
+        }
     }
 
     /**
-     * Helper function to check if a given game map has valid structure and values.
+     * Helper function to parse a game map, starting at the map's opening brace.
+     *
+     * @param parser    the parser positioned at the start of the map object.
+     * @param textIndex the index to record room text in, or null to load it eagerly.
      *
-     * @param gameMap the game map to be checked.
+     * @throws IOException            if the JSON is malformed.
+     * @throws InvalidObjectException if the map has an unknown property.
      *
-     * @throws InvalidObjectException if the given map is not valid.
+     * @return the parsed game map.
      */
-    private static void checkMapStructureValidity(GameMap gameMap) throws InvalidObjectException {
-        //error check: deserialized game map has invalid structure
-        if (!gameMap.hasSingleEndRoom()) {
-            throw new InvalidObjectException("Game map does not have an end room, or too many end rooms.");
+    private static GameMap parseGameMap(JsonParser parser, RoomTextIndex textIndex) throws IOException {
+        expectToken(parser.currentToken(), JsonToken.START_OBJECT);
+
+        GameMap gameMap = new GameMap();
+        gameMap.setRoomTextIndex(textIndex);
+        List<Room> allRooms = new ArrayList<>();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+
+            if (!fieldName.equals("allRooms")) {
+                throw new InvalidObjectException("Unknown game map property: " + fieldName + ".");
+            }
+
+            expectToken(parser.currentToken(), JsonToken.START_ARRAY);
+
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                allRooms.add(parseRoom(parser, gameMap.getItemDictionary(), textIndex));
+            }
+
+            expectToken(parser.currentToken(), JsonToken.END_ARRAY);
         }
-        else if (!gameMap.hasUniqueRoomNumbers()) {
-            throw new InvalidObjectException("Two or more rooms have same room number.");
+
+        gameMap.setAllRooms(allRooms);
+        return gameMap;
+    }
+
+    /**
+     * Given the name of a binary map file written by MapCompiler, loads the file through
+     * memory-mapped I/O if it's valid. The operating system's page cache holds the file,
+     * so processes on the same host loading the same map share its pages.
+     *
+     * @param fileName the name of the binary map file.
+     *
+     * @throws IOException            if file doesn't exist.
+     * @throws NullPointerException   if file is empty.
+     * @throws InvalidObjectException if the file is not a valid binary map.
+     *
+     * @return the loaded game map.
+     */
+    public static GameMap loadCompiledMap(String fileName) throws IOException {
+        GameMap compiledMap = readCompiledMapFile(fileName);
+        compiledMap.fetchRouteTable();
+
+        return compiledMap;
+    }
+
+    /**
+     * Helper function to load and validate a binary map file through memory-mapped I/O.
+     *
+     * @param fileName the name of the binary map file.
+     *
+     * @throws IOException            if file doesn't exist.
+     * @throws NullPointerException   if file is empty.
+     * @throws InvalidObjectException if the file is not a valid binary map.
+     *
+     * @return the validated game map.
+     */
+    private static GameMap readCompiledMapFile(String fileName) throws IOException {
+        MappedByteBuffer mapData;
+
+        try (FileChannel mapChannel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            //error check: data file is empty
+            if (mapChannel.size() == 0) {
+                throw new NullPointerException("Data file is empty.");
+            }
+
+            mapData = mapChannel.map(FileChannel.MapMode.READ_ONLY, 0, mapChannel.size());
+        }
+
+        try {
+            GameMap compiledMap = readCompiledMap(mapData);
+            MapValidator.checkMapValidity(compiledMap);
+
+            return compiledMap;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new InvalidObjectException("Binary map file is truncated or corrupt.");
         }
+    }
 
-        //error check: deserialized game map has invalid values
-        if (!gameMap.hasValidRooms()) {
-            throw new InvalidObjectException("One or more rooms have invalid attribute values.");
+    /**
+     * Helper function to read the rooms of a binary map file. Section positions are worked
+     * out from the counts at their start, each checked against the bytes left in the file
+     * before anything is allocated for it, and room data is read in place from the buffer.
+     *
+     * @param mapData the contents of the binary map file.
+     *
+     * @throws InvalidObjectException if the file is not a valid binary map.
+     *
+     * @return the game map read from the file.
+     */
+    private static GameMap readCompiledMap(ByteBuffer mapData) throws InvalidObjectException {
+        if (mapData.getInt(0) != MapCompiler.COMPILED_MAP_MAGIC) {
+            throw new InvalidObjectException("Not a binary map file.");
+        }
+        else if (mapData.getInt(4) != MapCompiler.COMPILED_MAP_VERSION) {
+            throw new InvalidObjectException("Unsupported binary map version: " + mapData.getInt(4) + ".");
         }
+
+        //string table
+        int numberStrings = readCount(mapData, 8, Integer.BYTES);
+        int stringOffsetsStart = 12;
+        int stringDataStart = stringOffsetsStart + (numberStrings + 1) * Integer.BYTES;
+        String[] strings = new String[numberStrings];
+        for (int stringId = 0; stringId < numberStrings; stringId++) {
+            int stringStart = stringDataStart + mapData.getInt(stringOffsetsStart + stringId * Integer.BYTES);
+            int stringEnd = stringDataStart + mapData.getInt(stringOffsetsStart + (stringId + 1) * Integer.BYTES);
+
+            ByteBuffer stringBytes = mapData.duplicate();
+            stringBytes.limit(stringEnd).position(stringStart);
+            strings[stringId] = StringPool.dedupe(StandardCharsets.UTF_8.decode(stringBytes).toString());
+        }
+
+        //rooms
+        int roomCountPosition = stringDataStart + mapData.getInt(stringOffsetsStart + numberStrings * Integer.BYTES);
+        int mapSize = readCount(mapData, roomCountPosition, 4 * Integer.BYTES + 1);
+        int roomsStart = roomCountPosition + Integer.BYTES;
+        int roomRecordSize = 4 * Integer.BYTES + 1;
+
+        //item table
+        int itemOffsetsStart = roomsStart + mapSize * roomRecordSize;
+        int numberItems = readCount(mapData, itemOffsetsStart + (mapSize + 1) * Integer.BYTES, Integer.BYTES);
+        int itemsStart = itemOffsetsStart + (mapSize + 2) * Integer.BYTES;
+
+        //adjacency arrays
+        int movementOffsetsStart = itemsStart + numberItems * Integer.BYTES;
+        int numberMovements = readCount(mapData, movementOffsetsStart + (mapSize + 1) * Integer.BYTES,
+                                        Integer.BYTES + 1);
+        int directionsStart = movementOffsetsStart + (mapSize + 2) * Integer.BYTES;
+        int targetsStart = directionsStart + numberMovements;
+
+        GameMap compiledMap = new GameMap();
+        List<Room> allRooms = new ArrayList<>(mapSize);
+        Direction[] directions = Direction.values();
+
+        for (int roomIndex = 0; roomIndex < mapSize; roomIndex++) {
+            int roomStart = roomsStart + roomIndex * roomRecordSize;
+
+            Room room = new Room(compiledMap.getItemDictionary());
+            room.setRoomNumber(mapData.getInt(roomStart));
+            room.setRoomName(strings[mapData.getInt(roomStart + Integer.BYTES)]);
+            room.setRoomDescription(strings[mapData.getInt(roomStart + 2 * Integer.BYTES)]);
+            room.setRoomImageURL(strings[mapData.getInt(roomStart + 3 * Integer.BYTES)]);
+            room.setIsEndRoom(mapData.get(roomStart + 4 * Integer.BYTES) != 0);
+
+            int firstItem = mapData.getInt(itemOffsetsStart + roomIndex * Integer.BYTES);
+            int lastItem = mapData.getInt(itemOffsetsStart + (roomIndex + 1) * Integer.BYTES);
+            checkOffsets(firstItem, lastItem, numberItems);
+            for (int item = firstItem; item < lastItem; item++) {
+                room.addItemToRoom(strings[mapData.getInt(itemsStart + item * Integer.BYTES)]);
+            }
+
+            int firstMovement = mapData.getInt(movementOffsetsStart + roomIndex * Integer.BYTES);
+            int lastMovement = mapData.getInt(movementOffsetsStart + (roomIndex + 1) * Integer.BYTES);
+            checkOffsets(firstMovement, lastMovement, numberMovements);
+            List<PlayerMovement> possibleMovements = new ArrayList<>(lastMovement - firstMovement);
+            for (int movement = firstMovement; movement < lastMovement; movement++) {
+                Direction direction = directions[mapData.get(directionsStart + movement)];
+                int movedRoomNumber = mapData.getInt(targetsStart + movement * Integer.BYTES);
+                possibleMovements.add(new PlayerMovement(direction, movedRoomNumber));
+            }
+            room.setPossibleMovements(possibleMovements);
+
+            allRooms.add(room);
+        }
+
+        compiledMap.setAllRooms(allRooms);
+        return compiledMap;
+    }
+
+    /**
+     * Helper function to read a count in a binary map file, checking the rest of the file is
+     * long enough to hold that many entries.
+     *
+     * @param mapData    the contents of the binary map file.
+     * @param position   the position of the count.
+     * @param entryBytes the fewest bytes each entry takes.
+     *
+     * @throws InvalidObjectException if the count is negative or too large.
+     *
+     * @return the count.
+     */
+    private static int readCount(ByteBuffer mapData, int position, int entryBytes) throws InvalidObjectException {
+        int count = mapData.getInt(position);
+        long bytesLeft = mapData.limit() - (long) position - Integer.BYTES;
+
+        if (count < 0 || (long) count * entryBytes > bytesLeft) {
+            throw new InvalidObjectException("Binary map file declares " + count + " entries, which don't fit in " +
+                                             bytesLeft + " bytes.");
+        }
+
+        return count;
+    }
+
+    /**
+     * Helper function to check a room's range of entries in a binary map file lies within
+     * the entries the file declares.
+     *
+     * @param first         the offset of the room's first entry.
+     * @param last          the offset just past the room's last entry.
+     * @param numberEntries the number of entries the file declares.
+     *
+     * @throws InvalidObjectException if the range is out of order or out of bounds.
+     */
+    private static void checkOffsets(int first, int last, int numberEntries) throws InvalidObjectException {
+        if (first < 0 || first > last || last > numberEntries) {
+            throw new InvalidObjectException("Binary map file has room entries " + first + " to " + last +
+                                             " outside its " + numberEntries + " entries.");
+        }
+    }
+
+    /**
+     * Helper function to parse a single room, starting at the room's opening brace.
+     *
+     * @param parser     the parser positioned at the start of the room object.
+     * @param dictionary the item dictionary of the map the room belongs to.
+     * @param textIndex  the index to record the room's text in, or null to load it eagerly.
+     *
+     * @throws IOException            if the JSON is malformed.
+     * @throws InvalidObjectException if the room has an unknown property or direction, or a
+     *                                property's value is of the wrong type.
+     *
+     * @return the parsed room.
+     */
+    private static Room parseRoom(JsonParser parser, ItemDictionary dictionary, RoomTextIndex textIndex)
+            throws IOException {
+        Room room = new Room(dictionary);
+
+        int roomTextId = 0;
+        if (textIndex != null) {
+            roomTextId = textIndex.addRoom();
+            room.bindRoomText(textIndex, roomTextId);
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken valueToken = parser.nextToken();
+
+            switch (fieldName) {
+                case "roomName":
+                    parseRoomText(parser, room, textIndex, roomTextId, RoomTextIndex.ROOM_NAME);
+                    break;
+                case "roomDescription":
+                    parseRoomText(parser, room, textIndex, roomTextId, RoomTextIndex.ROOM_DESCRIPTION);
+                    break;
+                case "roomNumber":
+                    expectFieldToken(valueToken, fieldName, JsonToken.VALUE_NUMBER_INT);
+                    room.setRoomNumber(parser.getIntValue());
+                    break;
+                case "isEndRoom":
+                    expectFieldToken(valueToken, fieldName, JsonToken.VALUE_TRUE, JsonToken.VALUE_FALSE);
+                    room.setIsEndRoom(parser.getBooleanValue());
+                    break;
+                case "roomImageURL":
+                    parseRoomText(parser, room, textIndex, roomTextId, RoomTextIndex.ROOM_IMAGE_URL);
+                    break;
+                case "itemsVisible":
+                    expectToken(valueToken, JsonToken.START_ARRAY);
+                    while (parser.nextToken() == JsonToken.VALUE_STRING) {
+                        room.addItemToRoom(parser.getText());
+                    }
+                    expectToken(parser.currentToken(), JsonToken.END_ARRAY);
+                    break;
+                case "possibleMovements":
+                    room.setPossibleMovements(parseMovements(parser));
+                    break;
+                default:
+                    throw new InvalidObjectException("Unknown room property: " + fieldName + ".");
+            }
+        }
+
+        expectToken(parser.currentToken(), JsonToken.END_OBJECT);
+        return room;
+    }
+
+    /**
+     * Helper function to parse a room's name, description or image URL. With a text index,
+     * only records where the string is in the file; otherwise sets it on the room.
+     *
+     * @param parser     the parser positioned at the text's value.
+     * @param room       the room being parsed.
+     * @param textIndex  the index to record the text in, or null to load it eagerly.
+     * @param roomTextId the id of the room's text in the index.
+     * @param textField  RoomTextIndex.ROOM_NAME, ROOM_DESCRIPTION or ROOM_IMAGE_URL.
+     *
+     * @throws IOException            if the JSON is malformed.
+     * @throws InvalidObjectException if the text isn't a string.
+     */
+    private static void parseRoomText(JsonParser parser, Room room, RoomTextIndex textIndex, int roomTextId,
+                                      int textField) throws IOException {
+        expectFieldToken(parser.currentToken(), parser.getCurrentName(), JsonToken.VALUE_STRING);
+        long startOffset = parser.getTokenLocation().getByteOffset();
+        String text = parser.getText();
+
+        //byte offsets are only known for UTF-8 files
+        if (textIndex != null && startOffset >= 0) {
+            textIndex.recordText(roomTextId, textField, startOffset, parser.getCurrentLocation().getByteOffset(),
+                                 text.isEmpty());
+            return;
+        }
+
+        text = StringPool.dedupe(text);
+
+        switch (textField) {
+            case RoomTextIndex.ROOM_NAME:
+                room.setRoomName(text);
+                break;
+            case RoomTextIndex.ROOM_DESCRIPTION:
+                room.setRoomDescription(text);
+                break;
+            default:
+                room.setRoomImageURL(text);
+                break;
+        }
+    }
+
+    /**
+     * Helper function to parse the list of possible movements of a room, starting at the
+     * list's opening bracket.
+     *
+     * @param parser the parser positioned at the start of the movement list.
+     *
+     * @throws IOException            if the JSON is malformed.
+     * @throws InvalidObjectException if a movement has an unknown property or direction, or a
+     *                                property's value is of the wrong type.
+     *
+     * @return the parsed list of movements.
+     */
+    private static List<PlayerMovement> parseMovements(JsonParser parser) throws IOException {
+        expectToken(parser.currentToken(), JsonToken.START_ARRAY);
+        List<PlayerMovement> possibleMovements = new ArrayList<>();
+
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            PlayerMovement movement = new PlayerMovement();
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken valueToken = parser.nextToken();
+
+                if (fieldName.equals("movementDirection")) {
+                    expectFieldToken(valueToken, fieldName, JsonToken.VALUE_STRING);
+                    movement.setMovementDirection(parseDirection(parser.getText()));
+                }
+                else if (fieldName.equals("movedRoomNumber")) {
+                    expectFieldToken(valueToken, fieldName, JsonToken.VALUE_NUMBER_INT);
+                    movement.setMovedRoomNumber(parser.getIntValue());
+                }
+                else {
+                    throw new InvalidObjectException("Unknown movement property: " + fieldName + ".");
+                }
+            }
+
+            possibleMovements.add(movement);
+        }
+
+        expectToken(parser.currentToken(), JsonToken.END_ARRAY);
+        return possibleMovements;
+    }
+
+    /**
+     * Helper function to find the Direction named in a map file, e.g. "North".
+     *
+     * @param directionName the name of the direction.
+     *
+     * @throws InvalidObjectException if there is no such direction.
+     *
+     * @return the named direction.
+     */
+    private static Direction parseDirection(String directionName) throws InvalidObjectException {
+        for (Direction direction: Direction.values()) {
+            if (direction.name().equalsIgnoreCase(directionName)) {
+                return direction;
+            }
+        }
+
+        throw new InvalidObjectException("Unknown direction: " + directionName + ".");
+    }
+
+    /**
+     * Helper function to check that the parser is at an expected token.
+     *
+     * @param actualToken   the token the parser is at.
+     * @param expectedToken the token expected at this point of the file.
+     *
+     * @throws InvalidObjectException if the tokens don't match.
+     */
+    private static void expectToken(JsonToken actualToken, JsonToken expectedToken) throws InvalidObjectException {
+        if (actualToken != expectedToken) {
+            throw new InvalidObjectException("Expected " + expectedToken + " in data file but found "
+                                                 + actualToken + ".");
+        }
+    }
+
+    /**
+     * Helper function to check that a property's value is of a type it can have, rather
+     * than converting it leniently.
+     *
+     * @param actualToken    the token of the property's value.
+     * @param fieldName      the name of the property.
+     * @param expectedTokens the tokens the value may be.
+     *
+     * @throws InvalidObjectException if the value is none of the expected tokens.
+     */
+    private static void expectFieldToken(JsonToken actualToken, String fieldName, JsonToken... expectedTokens)
+            throws InvalidObjectException {
+        for (JsonToken expectedToken: expectedTokens) {
+            if (actualToken == expectedToken) {
+                return;
+            }
+        }
+
+        throw new InvalidObjectException("Expected " + Arrays.toString(expectedTokens) + " for property " +
+                                             fieldName + " in data file but found " + actualToken + ".");
     }
 }
@@ -0,0 +1,521 @@
+package student.adventure;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates large, valid game maps for scale and load testing.
+ * Rooms are laid out on a grid and joined by a random spanning tree of two-way passages,
+ * so every room can be reached from every other; extra passages add loops. The same seed
+ * and settings always give the same map. Maps can be built in memory, or streamed to a
+ * JSON map file without holding the rooms in memory.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class MapGenerator {
+    /**
+     * Where the end room is placed.
+     */
+    public enum EndRoomPlacement {
+        FARTHEST, //the room farthest from the start room
+        RANDOM,   //any room but the start room
+        LAST      //the room with the highest room number
+    }
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final String[] ROOM_ADJECTIVES = {"Dusty", "Narrow", "Flooded", "Abandoned", "Dim",
+                                                     "Cold", "Cluttered", "Echoing"};
+    private static final String[] ROOM_KINDS = {"Corridor", "Storage Room", "Office", "Stairwell",
+                                                "Laboratory", "Cell", "Archive", "Workshop"};
+    private static final String[] FILLER_ITEMS = {"chair", "rope", "lamp", "crowbar", "map", "flashlight",
+                                                  "microscope", "bucket"};
+
+    private static final byte NO_ITEM = -1;
+    private static final byte ESCAPE_ITEM = -2;
+
+    private final long seed;
+    private final int numberRooms;
+    private double branchingRate;
+    private double itemDensity;
+    private EndRoomPlacement endRoomPlacement;
+
+    /**
+     * The generated structure of a map: the passages out of each room, and where the
+     * items and end room are.
+     */
+    private static class MapLayout {
+        private final int gridWidth;
+        private final byte[] openDirections; //bit per Direction ordinal, for each room
+        private final byte[] roomItems;      //filler item, escape item or no item, for each room
+        private int endRoomIndex;
+
+        MapLayout(int numberRooms, int gridWidth) {
+            this.gridWidth = gridWidth;
+            openDirections = new byte[numberRooms];
+            roomItems = new byte[numberRooms];
+        }
+    }
+
+    /**
+     * Constructor for objects of class MapGenerator.
+     * Defaults to a map with no loops, no filler items, and the end room farthest from the start.
+     *
+     * @param seed        the seed for the random choices; the same seed gives the same map.
+     * @param numberRooms the number of rooms in the map, at least 2.
+     */
+    public MapGenerator(long seed, int numberRooms) {
+        if (numberRooms < 2) {
+            throw new IllegalArgumentException("A map needs at least 2 rooms.");
+        }
+
+        this.seed = seed;
+        this.numberRooms = numberRooms;
+        branchingRate = 0;
+        itemDensity = 0;
+        endRoomPlacement = EndRoomPlacement.FARTHEST;
+    }
+
+    /**
+     * Sets the chance that each pair of neighboring rooms not joined by the spanning tree
+     * gets a passage anyway, adding branches and loops.
+     *
+     * @param branchingRate the chance of an extra passage, from 0 to 1.
+     */
+    public void setBranchingRate(double branchingRate) {
+        this.branchingRate = branchingRate;
+    }
+
+    /**
+     * Sets the chance that each room holds a filler item.
+     *
+     * @param itemDensity the chance of a room having an item, from 0 to 1.
+     */
+    public void setItemDensity(double itemDensity) {
+        this.itemDensity = itemDensity;
+    }
+
+    public void setEndRoomPlacement(EndRoomPlacement endRoomPlacement) {
+        this.endRoomPlacement = endRoomPlacement;
+    }
+
+    /**
+     * Generates a map and streams it to a JSON map file.
+     * Usage: MapGenerator --rooms=N --output=FILE [--seed=N] [--branching=RATE]
+     * [--items=DENSITY] [--end=farthest|random|last]
+     *
+     * @param args the generator settings.
+     *
+     * @throws IOException if the map file can't be written.
+     */
+    public static void main(String[] args) throws IOException {
+        long seed = 0;
+        int numberRooms = 0;
+        String outputFile = null;
+        double branchingRate = 0;
+        double itemDensity = 0;
+        EndRoomPlacement endRoomPlacement = EndRoomPlacement.FARTHEST;
+
+        for (String arg: args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+
+            if (arg.startsWith("--rooms=")) {
+                numberRooms = Integer.parseInt(value);
+            }
+            else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(value);
+            }
+            else if (arg.startsWith("--output=")) {
+                outputFile = value;
+            }
+            else if (arg.startsWith("--branching=")) {
+                branchingRate = Double.parseDouble(value);
+            }
+            else if (arg.startsWith("--items=")) {
+                itemDensity = Double.parseDouble(value);
+            }
+            else if (arg.startsWith("--end=")) {
+                endRoomPlacement = EndRoomPlacement.valueOf(value.toUpperCase());
+            }
+        }
+
+        if (numberRooms < 2 || outputFile == null) {
+            System.err.println("Usage: MapGenerator --rooms=N --output=FILE [--seed=N] [--branching=RATE] "
+                                   + "[--items=DENSITY] [--end=farthest|random|last]");
+            System.exit(2);
+        }
+
+        MapGenerator generator = new MapGenerator(seed, numberRooms);
+        generator.setBranchingRate(branchingRate);
+        generator.setItemDensity(itemDensity);
+        generator.setEndRoomPlacement(endRoomPlacement);
+        generator.writeMap(outputFile);
+
+        System.out.println("Generated " + numberRooms + " rooms into " + outputFile);
+    }
+
+    /**
+     * Generates a map and builds its rooms in memory.
+     *
+     * @return the generated game map.
+     */
+    public GameMap generateMap() {
+        MapLayout layout = generateLayout();
+        GameMap gameMap = new GameMap();
+        List<Room> allRooms = new ArrayList<>(numberRooms);
+
+        for (int roomIndex = 0; roomIndex < numberRooms; roomIndex++) {
+            Room room = new Room(gameMap.getItemDictionary());
+            room.setRoomName(findRoomName(roomIndex));
+            room.setRoomDescription(findRoomDescription(layout, roomIndex));
+            room.setRoomNumber(roomIndex + 1);
+            room.setIsEndRoom(roomIndex == layout.endRoomIndex);
+            room.setItemsVisible(findRoomItems(layout, roomIndex));
+
+            List<PlayerMovement> possibleMovements = new ArrayList<>();
+            for (Direction direction: Direction.values()) {
+                if (isOpen(layout, roomIndex, direction)) {
+                    possibleMovements.add(new PlayerMovement(direction,
+                                                             findNeighborIndex(layout, roomIndex, direction) + 1));
+                }
+            }
+            room.setPossibleMovements(possibleMovements);
+
+            allRooms.add(room);
+        }
+
+        gameMap.setAllRooms(allRooms);
+        return gameMap;
+    }
+
+    /**
+     * Generates a map and streams it to a JSON map file, one room at a time.
+     *
+     * @param outputFile the name of the map file to write.
+     *
+     * @throws IOException if the file can't be written.
+     */
+    public void writeMap(String outputFile) throws IOException {
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(Paths.get(outputFile)))) {
+            writeMap(output);
+        }
+    }
+
+    /**
+     * Generates a map and streams it as JSON, in the same format as the map files read by
+     * MapDataReader. The stream is left open.
+     *
+     * @param output the stream to write the map to.
+     *
+     * @throws IOException if the map can't be written.
+     */
+    public void writeMap(OutputStream output) throws IOException {
+        MapLayout layout = generateLayout();
+
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(output, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("allRooms");
+
+            for (int roomIndex = 0; roomIndex < numberRooms; roomIndex++) {
+                generator.writeStartObject();
+                generator.writeStringField("roomName", findRoomName(roomIndex));
+                generator.writeStringField("roomDescription", findRoomDescription(layout, roomIndex));
+                generator.writeNumberField("roomNumber", roomIndex + 1);
+                generator.writeBooleanField("isEndRoom", roomIndex == layout.endRoomIndex);
+
+                generator.writeArrayFieldStart("itemsVisible");
+                for (String itemName: findRoomItems(layout, roomIndex)) {
+                    generator.writeString(itemName);
+                }
+                generator.writeEndArray();
+
+                generator.writeArrayFieldStart("possibleMovements");
+                for (Direction direction: Direction.values()) {
+                    if (isOpen(layout, roomIndex, direction)) {
+                        generator.writeStartObject();
+                        generator.writeStringField("movementDirection", findDirectionName(direction));
+                        generator.writeNumberField("movedRoomNumber", findNeighborIndex(layout, roomIndex, direction) + 1);
+                        generator.writeEndObject();
+                    }
+                }
+                generator.writeEndArray();
+
+                generator.writeStringField("roomImageURL", "");
+                generator.writeEndObject();
+            }
+
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Helper method to make the random choices of a map: the passages, the end room and
+     * the items. Uses a fresh generator from the seed, so each call gives the same layout.
+     *
+     * @return the layout of the map.
+     */
+    private MapLayout generateLayout() {
+        Random random = new Random(seed);
+        int gridWidth = (int) Math.ceil(Math.sqrt(numberRooms));
+        MapLayout layout = new MapLayout(numberRooms, gridWidth);
+
+        //spanning tree: each room joins its north or west neighbor, whichever exist
+        for (int roomIndex = 1; roomIndex < numberRooms; roomIndex++) {
+            boolean hasNorth = roomIndex >= gridWidth;
+            boolean hasWest = roomIndex % gridWidth > 0;
+
+            if (hasNorth && (!hasWest || random.nextBoolean())) {
+                openPassage(layout, roomIndex, Direction.north);
+            }
+            else {
+                openPassage(layout, roomIndex, Direction.west);
+            }
+        }
+
+        //extra passages east and south add branches and loops
+        if (branchingRate > 0) {
+            for (int roomIndex = 0; roomIndex < numberRooms; roomIndex++) {
+                for (Direction direction: new Direction[] {Direction.east, Direction.south}) {
+                    if (findNeighborIndex(layout, roomIndex, direction) >= 0
+                            && !isOpen(layout, roomIndex, direction) && random.nextDouble() < branchingRate) {
+                        openPassage(layout, roomIndex, direction);
+                    }
+                }
+            }
+        }
+
+        layout.endRoomIndex = placeEndRoom(layout, random);
+
+        Arrays.fill(layout.roomItems, NO_ITEM);
+        if (itemDensity > 0) {
+            for (int roomIndex = 0; roomIndex < numberRooms; roomIndex++) {
+                if (random.nextDouble() < itemDensity) {
+                    layout.roomItems[roomIndex] = (byte) random.nextInt(FILLER_ITEMS.length);
+                }
+            }
+        }
+
+        //every room is reachable, so the key can go anywhere but the end room
+        int keyRoomIndex = random.nextInt(numberRooms - 1);
+        if (keyRoomIndex >= layout.endRoomIndex) {
+            keyRoomIndex++;
+        }
+        layout.roomItems[keyRoomIndex] = ESCAPE_ITEM;
+
+        return layout;
+    }
+
+    /**
+     * Helper method to choose the end room according to the end room placement.
+     *
+     * @param layout the layout of the map, with its passages open.
+     * @param random the random generator of the layout.
+     *
+     * @return the index of the end room.
+     */
+    private int placeEndRoom(MapLayout layout, Random random) {
+        switch (endRoomPlacement) {
+            case RANDOM:
+                return 1 + random.nextInt(numberRooms - 1);
+            case LAST:
+                return numberRooms - 1;
+            default:
+                return findFarthestRoom(layout);
+        }
+    }
+
+    /**
+     * Helper method to find the room farthest from the start room, by breadth-first search.
+     *
+     * @param layout the layout of the map, with its passages open.
+     *
+     * @return the index of the farthest room.
+     */
+    private int findFarthestRoom(MapLayout layout) {
+        boolean[] reachedRooms = new boolean[numberRooms];
+        int[] roomsToVisit = new int[numberRooms];
+        int queueStart = 0;
+        int queueEnd = 0;
+
+        reachedRooms[0] = true;
+        roomsToVisit[queueEnd++] = 0;
+
+        while (queueStart < queueEnd) {
+            int roomIndex = roomsToVisit[queueStart++];
+
+            for (Direction direction: Direction.values()) {
+                if (isOpen(layout, roomIndex, direction)) {
+                    int neighborIndex = findNeighborIndex(layout, roomIndex, direction);
+
+                    if (!reachedRooms[neighborIndex]) {
+                        reachedRooms[neighborIndex] = true;
+                        roomsToVisit[queueEnd++] = neighborIndex;
+                    }
+                }
+            }
+        }
+
+        //rooms are queued in order of distance, so the last one is the farthest
+        return roomsToVisit[queueEnd - 1];
+    }
+
+    /**
+     * Helper method to open a two-way passage between a room and its neighbor.
+     *
+     * @param layout    the layout of the map.
+     * @param roomIndex the index of the room.
+     * @param direction the direction of the neighbor.
+     */
+    private static void openPassage(MapLayout layout, int roomIndex, Direction direction) {
+        int neighborIndex = findNeighborIndex(layout, roomIndex, direction);
+
+        layout.openDirections[roomIndex] |= 1 << direction.ordinal();
+        layout.openDirections[neighborIndex] |= 1 << findOppositeDirection(direction).ordinal();
+    }
+
+    /**
+     * Helper method to determine whether a room has a passage in a direction.
+     *
+     * @param layout    the layout of the map.
+     * @param roomIndex the index of the room.
+     * @param direction the direction to check.
+     *
+     * @return true if there is a passage, else false.
+     */
+    private static boolean isOpen(MapLayout layout, int roomIndex, Direction direction) {
+        return (layout.openDirections[roomIndex] & (1 << direction.ordinal())) != 0;
+    }
+
+    /**
+     * Helper method to find the room next to a room on the grid.
+     *
+     * @param layout    the layout of the map.
+     * @param roomIndex the index of the room.
+     * @param direction the direction of the neighbor.
+     *
+     * @return the index of the neighbor, or -1 if there is no room there.
+     */
+    private static int findNeighborIndex(MapLayout layout, int roomIndex, Direction direction) {
+        int gridWidth = layout.gridWidth;
+        int column = roomIndex % gridWidth;
+        int neighborIndex;
+
+        switch (direction) {
+            case north:
+                neighborIndex = roomIndex - gridWidth;
+                break;
+            case south:
+                neighborIndex = roomIndex + gridWidth;
+                break;
+            case east:
+                neighborIndex = column == gridWidth - 1 ? -1 : roomIndex + 1;
+                break;
+            default:
+                neighborIndex = column == 0 ? -1 : roomIndex - 1;
+                break;
+        }
+
+        return neighborIndex < layout.openDirections.length ? neighborIndex : -1;
+    }
+
+    /**
+     * Helper method to find the direction leading back the way a direction came.
+     *
+     * @param direction the direction to reverse.
+     *
+     * @return the opposite direction.
+     */
+    private static Direction findOppositeDirection(Direction direction) {
+        switch (direction) {
+            case north:
+                return Direction.south;
+            case south:
+                return Direction.north;
+            case east:
+                return Direction.west;
+            default:
+                return Direction.east;
+        }
+    }
+
+    /**
+     * Helper method to write a direction the way map files do, e.g. "North".
+     *
+     * @param direction the direction to write.
+     *
+     * @return the direction's name in a map file.
+     */
+    private static String findDirectionName(Direction direction) {
+        return Character.toUpperCase(direction.name().charAt(0)) + direction.name().substring(1);
+    }
+
+    /**
+     * Helper method to name a room from its index, e.g. "Dusty Corridor 1".
+     *
+     * @param roomIndex the index of the room.
+     *
+     * @return the name of the room.
+     */
+    private static String findRoomName(int roomIndex) {
+        return ROOM_ADJECTIVES[roomIndex % ROOM_ADJECTIVES.length] + " "
+                   + ROOM_KINDS[(roomIndex / ROOM_ADJECTIVES.length) % ROOM_KINDS.length] + " " + (roomIndex + 1);
+    }
+
+    /**
+     * Helper method to describe a room, including where its passages lead.
+     *
+     * @param layout    the layout of the map.
+     * @param roomIndex the index of the room.
+     *
+     * @return the description of the room.
+     */
+    private static String findRoomDescription(MapLayout layout, int roomIndex) {
+        StringBuilder description = new StringBuilder("A ")
+                .append(ROOM_ADJECTIVES[roomIndex % ROOM_ADJECTIVES.length].toLowerCase())
+                .append(" room. Passages lead");
+
+        for (Direction direction: Direction.values()) {
+            if (isOpen(layout, roomIndex, direction)) {
+                description.append(' ').append(direction.name());
+            }
+        }
+
+        return description.append('.').toString();
+    }
+
+    /**
+     * Helper method to list the items in a room.
+     *
+     * @param layout    the layout of the map.
+     * @param roomIndex the index of the room.
+     *
+     * @return the names of the room's items.
+     */
+    private static List<String> findRoomItems(MapLayout layout, int roomIndex) {
+        byte roomItem = layout.roomItems[roomIndex];
+
+        if (roomItem == NO_ITEM) {
+            return Collections.emptyList();
+        }
+        else if (roomItem == ESCAPE_ITEM) {
+            return Collections.singletonList(GameEngine.REQUIRED_ESCAPE_ITEM);
+        }
+
+        return Collections.singletonList(FILLER_ITEMS[roomItem]);
+    }
+}
@@ -0,0 +1,238 @@
+package student.adventure;
+
+import java.io.InvalidObjectException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Checks that a game map is valid and winnable, reporting every problem found rather
+ * than just the first. Rooms are checked in a single pass (in parallel on large maps),
+ * movement targets are resolved against the actual room numbers, and a search from the
+ * start room checks the key and end room can be reached.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class MapValidator {
+    /**
+     * Maps with at least this many rooms have their rooms checked in parallel.
+     */
+    public static final int PARALLEL_THRESHOLD = 10000;
+
+    private static final int NO_ROOM = -1;
+
+    /**
+     * Checks that a game map is valid, using the item the engine requires to escape.
+     *
+     * @param gameMap the game map to be checked.
+     *
+     * @throws InvalidObjectException if the map is not valid, listing every problem found.
+     */
+    public static void checkMapValidity(GameMap gameMap) throws InvalidObjectException {
+        List<String> mapProblems = findMapProblems(gameMap, GameEngine.REQUIRED_ESCAPE_ITEM);
+
+        if (!mapProblems.isEmpty()) {
+            throw new InvalidObjectException(String.join("\n", mapProblems));
+        }
+    }
+
+    /**
+     * Finds every problem with a game map: rooms with invalid attributes, duplicate room
+     * numbers, movements to nonexistent rooms, not exactly one end room, and a required
+     * item or end room that can't be reached from the start room.
+     *
+     * @param gameMap      the game map to be checked.
+     * @param requiredItem the item the player needs to escape through the end room.
+     *
+     * @return the list of problems found, empty if the map is valid.
+     */
+    public static List<String> findMapProblems(GameMap gameMap, String requiredItem) {
+        int mapSize = gameMap.findMapSize();
+        if (mapSize == 0) {
+            return Collections.singletonList("Game map has no rooms.");
+        }
+
+        List<String> mapProblems = new ArrayList<>();
+        Map<Integer, Integer> roomNumbersToIndices = new HashMap<>(mapSize * 2);
+
+        for (int roomIndex = 0; roomIndex < mapSize; roomIndex++) {
+            int roomNumber = gameMap.retrieveRoomAt(roomIndex).getRoomNumber();
+            Integer previousIndex = roomNumbersToIndices.putIfAbsent(roomNumber, roomIndex);
+
+            if (previousIndex != null) {
+                mapProblems.add("Two or more rooms have same room number: " + roomNumber + ".");
+            }
+        }
+
+        //targets of each room's movements, resolved to room indices
+        int[][] movementTargets = new int[mapSize][];
+
+        IntStream roomIndices = IntStream.range(0, mapSize);
+        if (mapSize >= PARALLEL_THRESHOLD) {
+            roomIndices = roomIndices.parallel();
+        }
+
+        mapProblems.addAll(roomIndices
+                .mapToObj(roomIndex -> findRoomProblems(gameMap.retrieveRoomAt(roomIndex), roomNumbersToIndices,
+                                                        movementTargets, roomIndex))
+                .flatMap(List::stream)
+                .collect(Collectors.toList()));
+
+        int endRoomIndex = NO_ROOM;
+        int numEndRooms = 0;
+        BitSet requiredItemRooms = new BitSet(mapSize);
+
+        for (int roomIndex = 0; roomIndex < mapSize; roomIndex++) {
+            Room room = gameMap.retrieveRoomAt(roomIndex);
+
+            if (room.isEndRoom()) {
+                endRoomIndex = roomIndex;
+                numEndRooms++;
+            }
+
+            if (room.containsItem(requiredItem)) {
+                requiredItemRooms.set(roomIndex);
+            }
+        }
+
+        if (numEndRooms != 1) {
+            mapProblems.add("Game map does not have an end room, or too many end rooms (found "
+                                + numEndRooms + ").");
+            return mapProblems;
+        }
+
+        mapProblems.addAll(findReachabilityProblems(gameMap, movementTargets, endRoomIndex, requiredItemRooms,
+                                                    requiredItem));
+        return mapProblems;
+    }
+
+    /**
+     * Helper method to find the problems with a single room, and resolve the targets of its
+     * movements. Safe to run for different rooms at the same time.
+     *
+     * @param room                 the room to check.
+     * @param roomNumbersToIndices the index of every room number in the map.
+     * @param movementTargets      the resolved movement targets of every room, filled in for this room.
+     * @param roomIndex            the index of the room in the map.
+     *
+     * @return the list of problems with this room.
+     */
+    private static List<String> findRoomProblems(Room room, Map<Integer, Integer> roomNumbersToIndices,
+                                                 int[][] movementTargets, int roomIndex) {
+        List<String> roomProblems = new ArrayList<>();
+        String roomLabel = "Room number " + room.getRoomNumber() + " (index " + roomIndex + ")";
+
+        if (!room.hasRoomName()) {
+            roomProblems.add(roomLabel + " has an empty name.");
+        }
+        if (!room.hasRoomDescription()) {
+            roomProblems.add(roomLabel + " has an empty description.");
+        }
+        if (room.getRoomNumber() <= 0) {
+            roomProblems.add(roomLabel + " has a room number that isn't positive.");
+        }
+
+        List<PlayerMovement> possibleMovements = room.getPossibleMovements();
+        if (possibleMovements.isEmpty()) {
+            roomProblems.add(roomLabel + " has no possible movements.");
+        }
+
+        int[] targets = new int[possibleMovements.size()];
+        for (int movement = 0; movement < targets.length; movement++) {
+            int movedRoomNumber = possibleMovements.get(movement).getMovedRoomNumber();
+            Integer targetIndex = roomNumbersToIndices.get(movedRoomNumber);
+
+            if (targetIndex == null) {
+                roomProblems.add(roomLabel + " leads to nonexistent room number " + movedRoomNumber + ".");
+                targets[movement] = NO_ROOM;
+            }
+            else {
+                targets[movement] = targetIndex;
+            }
+        }
+
+        movementTargets[roomIndex] = targets;
+        return roomProblems;
+    }
+
+    /**
+     * Helper method to check that the player can reach the required item from the start
+     * room, and then the end room from the required item.
+     *
+     * @param gameMap           the game map being checked.
+     * @param movementTargets   the resolved movement targets of every room.
+     * @param endRoomIndex      the index of the end room.
+     * @param requiredItemRooms the indices of the rooms holding the required item.
+     * @param requiredItem      the item the player needs to escape.
+     *
+     * @return the list of reachability problems.
+     */
+    private static List<String> findReachabilityProblems(GameMap gameMap, int[][] movementTargets, int endRoomIndex,
+                                                         BitSet requiredItemRooms, String requiredItem) {
+        List<String> reachabilityProblems = new ArrayList<>();
+        String endRoomLabel = "End room number " + gameMap.retrieveRoomAt(endRoomIndex).getRoomNumber();
+
+        BitSet startSources = new BitSet();
+        startSources.set(0);
+        BitSet reachableFromStart = findReachableRooms(movementTargets, startSources);
+
+        if (!reachableFromStart.get(endRoomIndex)) {
+            reachabilityProblems.add(endRoomLabel + " can't be reached from the start room.");
+        }
+
+        if (requiredItemRooms.isEmpty()) {
+            reachabilityProblems.add("No room holds the " + requiredItem + " needed to escape.");
+            return reachabilityProblems;
+        }
+
+        BitSet reachableItemRooms = (BitSet) requiredItemRooms.clone();
+        reachableItemRooms.and(reachableFromStart);
+
+        if (reachableItemRooms.isEmpty()) {
+            reachabilityProblems.add("The " + requiredItem + " can't be reached from the start room.");
+        }
+        else if (!findReachableRooms(movementTargets, reachableItemRooms).get(endRoomIndex)) {
+            reachabilityProblems.add(endRoomLabel + " can't be reached after picking up the " + requiredItem + ".");
+        }
+
+        return reachabilityProblems;
+    }
+
+    /**
+     * Helper method to find every room reachable from a set of rooms, by breadth-first search.
+     *
+     * @param movementTargets the resolved movement targets of every room.
+     * @param sourceRooms     the indices of the rooms to search from.
+     *
+     * @return the indices of every room reachable from the source rooms, including themselves.
+     */
+    private static BitSet findReachableRooms(int[][] movementTargets, BitSet sourceRooms) {
+        BitSet reachedRooms = (BitSet) sourceRooms.clone();
+
+        //each room is queued at most once, so the queue never holds more than every room
+        int[] roomsToVisit = new int[movementTargets.length];
+        int queueStart = 0;
+        int queueEnd = 0;
+
+        for (int roomIndex = sourceRooms.nextSetBit(0); roomIndex >= 0; roomIndex = sourceRooms.nextSetBit(roomIndex + 1)) {
+            roomsToVisit[queueEnd++] = roomIndex;
+        }
+
+        while (queueStart < queueEnd) {
+            for (int targetIndex: movementTargets[roomsToVisit[queueStart++]]) {
+                if (targetIndex != NO_ROOM && !reachedRooms.get(targetIndex)) {
+                    reachedRooms.set(targetIndex);
+                    roomsToVisit[queueEnd++] = targetIndex;
+                }
+            }
+        }
+
+        return reachedRooms;
+    }
+}
@@ -1,7 +1,7 @@
 package student.adventure;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 
@@ -13,7 +13,9 @@ import java.util.List;
  */
 public class Player {
     private String playerName;
-    private List<String> playerInventory;
+    private BitSet playerInventory; //ids of the items held, from this player's item dictionary
+    private ItemDictionary itemDictionary;
+    private List<String> inventoryNames; //rebuilt only after the inventory changes; null if stale
     private int playerScore; //player's score = how many rooms they have visited
 
     /**
@@ -21,8 +23,20 @@ public class Player {
      * Initializes a new player with no name and no items in inventory.
      */
     public Player() {
+        this(new ItemDictionary());
+    }
+
+    /**
+     * Constructor for objects of class Player storing their inventory in a given dictionary,
+     * usually the dictionary of the map being played.
+     * Initializes a new player with no name and no items in inventory.
+     *
+     * @param dictionary the item dictionary to use for this player.
+     */
+    public Player(ItemDictionary dictionary) {
         playerName = "";
-        playerInventory = new ArrayList<>();
+        playerInventory = new BitSet();
+        itemDictionary = dictionary;
         playerScore = 0;
     }
 
@@ -34,7 +48,8 @@ public class Player {
      */
     public Player(String playerName) {
         this.playerName = playerName;
-        playerInventory = new ArrayList<>();
+        playerInventory = new BitSet();
+        itemDictionary = new ItemDictionary();
         playerScore = 0;
     }
 
@@ -55,15 +70,56 @@ public class Player {
     }
 
     /**
-     * Makes a copied list of items in the player's inventory.
+     * Switches this player to store their inventory by item ids in a given dictionary,
+     * usually the dictionary of the map being played.
      *
-     * @return a list of items in this player's inventory.
+     * @param dictionary the item dictionary to use for this player.
+     */
+    public void bindItemDictionary(ItemDictionary dictionary) {
+        if (dictionary == itemDictionary) {
+            return;
+        }
+
+        BitSet reboundInventory = new BitSet();
+
+        for (int itemId = playerInventory.nextSetBit(0); itemId >= 0;
+             itemId = playerInventory.nextSetBit(itemId + 1)) {
+            reboundInventory.set(dictionary.internItem(itemDictionary.retrieveItemName(itemId)));
+        }
+
+        itemDictionary = dictionary;
+        playerInventory = reboundInventory;
+        inventoryNames = null;
+    }
+
+    /**
+     * Finds the list of items in the player's inventory. The list is only rebuilt
+     * after the inventory changes.
+     *
+     * @return an unmodifiable list of items in this player's inventory.
      */
     public List<String> fetchPlayerInventory() {
-        List<String> copiedList = Arrays.asList(new String[playerInventory.size()]);
-        Collections.copy(copiedList, playerInventory);
+        if (inventoryNames == null) {
+            List<String> itemNames = new ArrayList<>(playerInventory.cardinality());
+
+            for (int itemId = playerInventory.nextSetBit(0); itemId >= 0;
+                 itemId = playerInventory.nextSetBit(itemId + 1)) {
+                itemNames.add(itemDictionary.retrieveItemName(itemId));
+            }
 
-        return copiedList;
+            inventoryNames = Collections.unmodifiableList(itemNames);
+        }
+
+        return inventoryNames;
+    }
+
+    /**
+     * Makes a copy of the ids of the items in the player's inventory.
+     *
+     * @return the set of item ids in this player's inventory.
+     */
+    public BitSet fetchInventoryIds() {
+        return (BitSet) playerInventory.clone();
     }
 
     /**
@@ -80,7 +136,7 @@ public class Player {
      * @return the number of items in the player's inventory.
      */
     public int findSizeOfInventory() {
-        return playerInventory.size();
+        return playerInventory.cardinality();
     }
 
     /**
@@ -92,7 +148,19 @@ public class Player {
      *         false if the inventory does not contain the item.
      */
     public boolean inventoryContains(String itemName) {
-        return playerInventory.contains(itemName);
+        return inventoryContainsId(itemDictionary.findItemId(itemName));
+    }
+
+    /**
+     * Determines if the player's inventory contains the item with a given id.
+     *
+     * @param itemId the id of the item in this player's item dictionary.
+     *
+     * @return true  if the player's inventory contains this item, else
+     *         false if the inventory does not contain the item.
+     */
+    public boolean inventoryContainsId(int itemId) {
+        return itemId != ItemDictionary.UNKNOWN_ITEM && playerInventory.get(itemId);
     }
 
     /**
@@ -101,7 +169,8 @@ public class Player {
      * @param itemName the item to be added.
      */
     public void addToInventory(String itemName) {
-        playerInventory.add(itemName);
+        playerInventory.set(itemDictionary.internItem(itemName));
+        inventoryNames = null;
     }
 
     /**
@@ -110,6 +179,11 @@ public class Player {
      * @param itemName the item to be removed.
      */
     public void removeFromInventory(String itemName) {
-        playerInventory.remove(itemName);
+        int itemId = itemDictionary.findItemId(itemName);
+
+        if (itemId != ItemDictionary.UNKNOWN_ITEM) {
+            playerInventory.clear(itemId);
+            inventoryNames = null;
+        }
     }
 }
@@ -1,7 +1,7 @@
 package student.adventure;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 
@@ -17,31 +17,79 @@ public class Room {
     private String roomDescription;
     private int roomNumber;
     private boolean isEndRoom;
-    private List<String> itemsVisible;
+    private BitSet itemsVisible; //ids of the visible items, from this room's item dictionary
+    private ItemDictionary itemDictionary;
     private List<PlayerMovement> possibleMovements;
     private String roomImageURL;
 
+    //where the text fields left null are read from, for maps loaded with lazy room text
+    private RoomTextIndex roomTextIndex;
+    private int roomTextId;
+
+    //immutable option lists, shared by every game status that shows this room
+    private List<String> possibleDirections;
+    private List<String> itemsVisibleNames; //rebuilt only after items change; null if stale
+    private String[] sharedOverview; //holds the unchanging part of toString once built; shared with copies
+
     /**
      * Default constructor for objects of class Room.
      * Initiates Room attributes to default values.
      */
     public Room() {
+        this(new ItemDictionary());
+    }
+
+    /**
+     * Constructor for objects of class Room storing its items in a given dictionary,
+     * usually the dictionary shared by every room of a map.
+     * Initiates the other Room attributes to default values.
+     *
+     * @param dictionary the item dictionary to use for this room.
+     */
+    public Room(ItemDictionary dictionary) {
         roomName = "";
         roomDescription = "";
         roomNumber = 0;
         isEndRoom = false;
-        itemsVisible = new ArrayList<>();
+        itemsVisible = new BitSet();
+        itemDictionary = dictionary;
         possibleMovements = new ArrayList<>();
         roomImageURL = "";
+        possibleDirections = Collections.emptyList();
+        itemsVisibleNames = null;
+        sharedOverview = new String[1];
+    }
+
+    /**
+     * Copy constructor for objects of class Room.
+     * The copy has its own set of visible items; all other room details are shared.
+     *
+     * @param room the room to copy.
+     */
+    public Room(Room room) {
+        roomName = room.roomName;
+        roomDescription = room.roomDescription;
+        roomNumber = room.roomNumber;
+        isEndRoom = room.isEndRoom;
+        itemsVisible = (BitSet) room.itemsVisible.clone();
+        itemDictionary = room.itemDictionary;
+        possibleMovements = room.possibleMovements;
+        roomImageURL = room.roomImageURL;
+        roomTextIndex = room.roomTextIndex;
+        roomTextId = room.roomTextId;
+        possibleDirections = room.possibleDirections;
+        itemsVisibleNames = room.itemsVisibleNames;
+        sharedOverview = room.sharedOverview;
     }
 
     //Getters:
     public String getRoomName() {
-        return roomName;
+        return roomName != null ? roomName : roomTextIndex.fetchText(roomTextId, RoomTextIndex.ROOM_NAME);
     }
 
     public String getRoomDescription () {
-        return roomDescription;
+        return roomDescription != null ? roomDescription
+                                       : roomTextIndex.fetchText(roomTextId, RoomTextIndex.ROOM_DESCRIPTION);
     }
 
     public int getRoomNumber() {
@@ -49,20 +97,31 @@ public class Room {
     }
 
     public String getRoomImageURL() {
-        return roomImageURL;
+        return roomImageURL != null ? roomImageURL
+                                    : roomTextIndex.fetchText(roomTextId, RoomTextIndex.ROOM_IMAGE_URL);
     }
 
     public boolean isEndRoom() {
         return isEndRoom;
     }
 
+    public List<PlayerMovement> getPossibleMovements() {
+        return Collections.unmodifiableList(possibleMovements);
+    }
+
+    public ItemDictionary getItemDictionary() {
+        return itemDictionary;
+    }
+
     //Setters:
     public void setRoomName(String roomName) {
         this.roomName = roomName;
+        sharedOverview = new String[1];
     }
 
     public void setRoomDescription(String roomDescription) {
         this.roomDescription = roomDescription;
+        sharedOverview = new String[1];
     }
 
     public void setRoomNumber(int roomNumber) {
@@ -74,24 +133,97 @@ public class Room {
     }
 
     public void setItemsVisible(List<String> itemsVisible) {
-        this.itemsVisible = itemsVisible;
+        this.itemsVisible = new BitSet();
+        itemsVisibleNames = null;
+
+        for (String itemName: itemsVisible) {
+            addItemToRoom(itemName);
+        }
     }
 
     public void setPossibleMovements(List<PlayerMovement> possibleMovements) {
         this.possibleMovements = possibleMovements;
+        sharedOverview = new String[1];
+
+        List<String> stringDirections = new ArrayList<>();
+        for (PlayerMovement movement: possibleMovements) {
+            Direction direction = movement.getMovementDirection();
+            stringDirections.add(direction.toString());
+        }
+
+        possibleDirections = Collections.unmodifiableList(stringDirections);
     }
 
     public void setRoomImageURL(String roomImageURL) {
         this.roomImageURL = roomImageURL;
     }
 
+    /**
+     * Switches this room to read its name, description and image URL from a room text
+     * index when they're needed, instead of holding them. Text set afterwards is held as usual.
+     *
+     * @param textIndex  the index of the map file this room was loaded from.
+     * @param textId     the id of this room's text in the index.
+     */
+    public void bindRoomText(RoomTextIndex textIndex, int textId) {
+        roomTextIndex = textIndex;
+        roomTextId = textId;
+        roomName = null;
+        roomDescription = null;
+        roomImageURL = null;
+        sharedOverview = new String[1];
+    }
+
+    /**
+     * Determines whether this room has a name, without reading lazily loaded text.
+     *
+     * @return true if the room name isn't empty, else false.
+     */
+    public boolean hasRoomName() {
+        return roomName != null ? !roomName.isEmpty()
+                                : !roomTextIndex.isTextEmpty(roomTextId, RoomTextIndex.ROOM_NAME);
+    }
+
+    /**
+     * Determines whether this room has a description, without reading lazily loaded text.
+     *
+     * @return true if the room description isn't empty, else false.
+     */
+    public boolean hasRoomDescription() {
+        return roomDescription != null ? !roomDescription.isEmpty()
+                                       : !roomTextIndex.isTextEmpty(roomTextId, RoomTextIndex.ROOM_DESCRIPTION);
+    }
+
+    /**
+     * Switches this room to store its items by their ids in a given dictionary,
+     * usually the dictionary shared by every room of a map.
+     *
+     * @param dictionary the item dictionary to use for this room.
+     */
+    public void bindItemDictionary(ItemDictionary dictionary) {
+        if (dictionary == itemDictionary) {
+            return;
+        }
+
+        BitSet reboundItems = new BitSet();
+
+        for (int itemId = itemsVisible.nextSetBit(0); itemId >= 0; itemId = itemsVisible.nextSetBit(itemId + 1)) {
+            reboundItems.set(dictionary.internItem(itemDictionary.retrieveItemName(itemId)));
+        }
+
+        itemDictionary = dictionary;
+        itemsVisible = reboundItems;
+        itemsVisibleNames = null;
+    }
+
     /**
      * Adds an item to the visible items in this room.
      *
      * @param itemName name of the item to add to this room.
      */
     public void addItemToRoom(String itemName) {
-        itemsVisible.add(itemName);
+        itemsVisible.set(itemDictionary.internItem(itemName));
+        itemsVisibleNames = null;
     }
 
     /**
@@ -100,7 +232,12 @@ public class Room {
      * @param itemName the name of the item to remove.
      */
     public void removeItemFromRoom(String itemName) {
-        itemsVisible.remove(itemName);
+        int itemId = itemDictionary.findItemId(itemName);
+
+        if (itemId != ItemDictionary.UNKNOWN_ITEM) {
+            itemsVisible.clear(itemId);
+            itemsVisibleNames = null;
+        }
     }
 
     /**
@@ -112,24 +249,38 @@ public class Room {
      *         false if this room doesn't contain this item.
      */
     public boolean containsItem(String itemName) {
-        return itemsVisible.contains(itemName);
+        return containsItemId(itemDictionary.findItemId(itemName));
+    }
+
+    /**
+     * Determines whether this room contains the item with a given id.
+     *
+     * @param itemId the id of the item in this room's item dictionary.
+     *
+     * @return true  if this room contains this item, else
+     *         false if this room doesn't contain this item.
+     */
+    public boolean containsItemId(int itemId) {
+        return itemId != ItemDictionary.UNKNOWN_ITEM && itemsVisible.get(itemId);
+    }
+
+    /**
+     * Makes a copy of the ids of the items visible in this room.
+     *
+     * @return the set of item ids in this room.
+     */
+    public BitSet fetchItemIds() {
+        return (BitSet) itemsVisible.clone();
     }
 
     /**
      * Finds the string direction values of the possible ways a player can move from
      * this room.
      *
-     * @return a list of the possible directions as Strings.
+     * @return an unmodifiable list of the possible directions as Strings.
      */
     public List<String> fetchPossibleDirections() {
-        List<String> stringDirections = new ArrayList<>();
-
-        for (PlayerMovement movement: possibleMovements) {
-            Direction direction = movement.getMovementDirection();
-            stringDirections.add(direction.toString());
-        }
-
-        return stringDirections;
+        return possibleDirections;
     }
 
     /**
@@ -148,15 +299,23 @@ public class Room {
     }
 
     /**
-     * Makes a copied list of items visible in this room.
+     * Finds the list of items visible in this room. The list is only rebuilt after
+     * the items in this room change.
      *
-     * @return a list of all items in the room.
+     * @return an unmodifiable list of all items in the room.
      */
     public List<String> fetchItemsVisible() {
-        List<String> copiedList = Arrays.asList(new String[itemsVisible.size()]);
-        Collections.copy(copiedList, itemsVisible);
+        if (itemsVisibleNames == null) {
+            List<String> itemNames = new ArrayList<>(itemsVisible.cardinality());
 
-        return copiedList;
+            for (int itemId = itemsVisible.nextSetBit(0); itemId >= 0; itemId = itemsVisible.nextSetBit(itemId + 1)) {
+                itemNames.add(itemDictionary.retrieveItemName(itemId));
+            }
+
+            itemsVisibleNames = Collections.unmodifiableList(itemNames);
+        }
+
+        return itemsVisibleNames;
     }
 
     /**
@@ -185,7 +344,7 @@ public class Room {
      *         false if this room has at least one invalid property.
      */
     public boolean isValidRoom() {
-        if (roomName.isEmpty() || roomDescription.isEmpty()) {
+        if (!hasRoomName() || !hasRoomDescription()) {
             return false;
         } else if (roomNumber <= 0) {
             return false;
@@ -198,35 +357,59 @@ public class Room {
 
     @Override
     public String toString() {
-        String roomDetails = "You are currently in: " + roomName + "\n" + roomDescription + ". \n" +
-                "From here, you can go: ";
+        StringBuilder roomDetails = new StringBuilder(fetchRoomOverview());
+        roomDetails.append("Items visible: ");
 
-        //loop to concatenate possible directions the player can move from here
-        for (int index = 0; index < possibleMovements.size(); index++) {
-            String currentDirection = possibleMovements.get(index).getMovementDirection().toString();
+        //loop to concatenate all items visible to player in this room
+        for (int itemId = itemsVisible.nextSetBit(0); itemId >= 0; itemId = itemsVisible.nextSetBit(itemId + 1)) {
+            roomDetails.append(itemDictionary.retrieveItemName(itemId));
 
-            if (index == possibleMovements.size() - 1) {
-                roomDetails += "or " + currentDirection + ". \n";
+            if (itemsVisible.nextSetBit(itemId + 1) >= 0) {
+                roomDetails.append(", ");
             }
             else {
-                roomDetails += currentDirection + ", ";
+                roomDetails.append(". \n");
             }
         }
 
-        roomDetails += "Items visible: ";
+        return roomDetails.toString();
+    }
 
-        //loop to concatenate all items visible to player in this room
-        for (int index = 0; index < itemsVisible.size(); index++) {
-            roomDetails += itemsVisible.get(index);
+    /**
+     * Helper method to describe the parts of this room that don't change during a game:
+     * its name, description and the directions a player can go. Built once and shared by
+     * every copy of the room, unless the room's text is loaded lazily.
+     *
+     * @return the overview of this room.
+     */
+    private String fetchRoomOverview() {
+        String cachedOverview = sharedOverview[0];
+        if (cachedOverview != null) {
+            return cachedOverview;
+        }
 
-            if (index < itemsVisible.size() - 1) {
-                roomDetails += ", ";
+        StringBuilder overview = new StringBuilder("You are currently in: ").append(getRoomName()).append("\n")
+                .append(getRoomDescription()).append(". \n").append("From here, you can go: ");
+
+        //loop to concatenate possible directions the player can move from here
+        for (int index = 0; index < possibleMovements.size(); index++) {
+            String currentDirection = possibleMovements.get(index).getMovementDirection().toString();
+
+            if (index == possibleMovements.size() - 1) {
+                overview.append("or ").append(currentDirection).append(". \n");
             }
             else {
-                roomDetails += ". \n";
+                overview.append(currentDirection).append(", ");
             }
         }
 
-        return roomDetails;
+        //text read from a room text index stays in its bounded cache instead
+        if (roomTextIndex != null) {
+            return overview.toString();
+        }
+
+        cachedOverview = StringPool.dedupe(overview.toString());
+        sharedOverview[0] = cachedOverview;
+        return cachedOverview;
     }
 }
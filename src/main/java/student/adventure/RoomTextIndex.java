@@ -0,0 +1,299 @@
+package student.adventure;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Index of where each room's name, description and image URL sit in a UTF-8 JSON map
+ * file, for maps loaded with lazy room text. Only the offsets stay in memory; a room's
+ * text is read back from the file the first time it's needed, and kept in a bounded
+ * cache of recently used rooms. The file stays open until the index is closed, so a map
+ * file replaced (renamed over) while games use it keeps serving the old text. A file
+ * rewritten in place no longer matches the offsets: reads check the file's size and
+ * modified time against those it was indexed with, and fail rather than return wrong text.
+ * Before closing the index of a map that games still play, retainText reads every room's
+ * text into memory so they can keep going without the file.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class RoomTextIndex implements Closeable {
+    public static final int ROOM_NAME = 0;
+    public static final int ROOM_DESCRIPTION = 1;
+    public static final int ROOM_IMAGE_URL = 2;
+
+    private static final int NUMBER_TEXT_FIELDS = 3;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final Path mapFile;
+    private final FileChannel mapChannel;
+    private final long indexedSize;
+    private final FileTime indexedModifiedTime;
+    private final Object indexedFileKey; //identifies the file indexed, or null if the platform can't
+    private String[][] retainedRoomText; //every room's text once retained, else null
+    private final Map<Integer, String[]> cachedRoomText; //room text id to its text fields, least recently used first
+    private long[] textOffsets;  //start and end byte offset of each text field of each room
+    private final BitSet emptyTexts; //text fields that are empty strings
+    private int numberRooms;
+    private long numberReads;
+
+    /**
+     * Constructor for objects of class RoomTextIndex.
+     * Opens the map file the offsets will point into.
+     *
+     * @param mapFile       the path of the JSON map file.
+     * @param cacheCapacity the maximum number of rooms whose text is kept in memory.
+     *
+     * @throws IOException if the map file can't be opened.
+     */
+    public RoomTextIndex(Path mapFile, int cacheCapacity) throws IOException {
+        this.mapFile = mapFile;
+        mapChannel = FileChannel.open(mapFile, StandardOpenOption.READ);
+        BasicFileAttributes fileAttributes = Files.readAttributes(mapFile, BasicFileAttributes.class);
+        indexedSize = mapChannel.size();
+        indexedModifiedTime = fileAttributes.lastModifiedTime();
+        indexedFileKey = fileAttributes.fileKey();
+        textOffsets = new long[NUMBER_TEXT_FIELDS * 2 * 64];
+        emptyTexts = new BitSet();
+        numberRooms = 0;
+        numberReads = 0;
+
+        cachedRoomText = new LinkedHashMap<Integer, String[]>(cacheCapacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String[]> eldest) {
+                return size() > cacheCapacity;
+            }
+        };
+    }
+
+    /**
+     * Adds a room to the index, with no text recorded yet.
+     *
+     * @return the id of the room's text in this index.
+     */
+    public synchronized int addRoom() {
+        if ((numberRooms + 1) * NUMBER_TEXT_FIELDS * 2 > textOffsets.length) {
+            textOffsets = Arrays.copyOf(textOffsets, textOffsets.length * 2);
+        }
+
+        Arrays.fill(textOffsets, numberRooms * NUMBER_TEXT_FIELDS * 2, (numberRooms + 1) * NUMBER_TEXT_FIELDS * 2, -1);
+        return numberRooms++;
+    }
+
+    /**
+     * Records where a text field of a room sits in the map file.
+     *
+     * @param roomTextId  the id of the room's text.
+     * @param textField   ROOM_NAME, ROOM_DESCRIPTION or ROOM_IMAGE_URL.
+     * @param startOffset the byte offset of the JSON string's opening quote.
+     * @param endOffset   the byte offset just past the JSON string's closing quote.
+     * @param isEmpty     whether the text is an empty string.
+     */
+    public synchronized void recordText(int roomTextId, int textField, long startOffset, long endOffset,
+                                        boolean isEmpty) {
+        int fieldPosition = roomTextId * NUMBER_TEXT_FIELDS + textField;
+
+        textOffsets[fieldPosition * 2] = startOffset;
+        textOffsets[fieldPosition * 2 + 1] = endOffset;
+        emptyTexts.set(fieldPosition, isEmpty);
+    }
+
+    /**
+     * Determines whether a text field of a room was recorded in this index.
+     *
+     * @param roomTextId the id of the room's text.
+     * @param textField  ROOM_NAME, ROOM_DESCRIPTION or ROOM_IMAGE_URL.
+     *
+     * @return true if the field was recorded, else false.
+     */
+    public synchronized boolean hasText(int roomTextId, int textField) {
+        return textOffsets[(roomTextId * NUMBER_TEXT_FIELDS + textField) * 2] >= 0;
+    }
+
+    /**
+     * Determines whether a recorded text field of a room is empty, without reading it.
+     *
+     * @param roomTextId the id of the room's text.
+     * @param textField  ROOM_NAME, ROOM_DESCRIPTION or ROOM_IMAGE_URL.
+     *
+     * @return true if the text is empty or wasn't recorded, else false.
+     */
+    public synchronized boolean isTextEmpty(int roomTextId, int textField) {
+        return !hasText(roomTextId, textField) || emptyTexts.get(roomTextId * NUMBER_TEXT_FIELDS + textField);
+    }
+
+    /**
+     * Finds a text field of a room, reading the room's text from the map file if it
+     * isn't cached.
+     *
+     * @param roomTextId the id of the room's text.
+     * @param textField  ROOM_NAME, ROOM_DESCRIPTION or ROOM_IMAGE_URL.
+     *
+     * @throws UncheckedIOException if the map file can't be read.
+     *
+     * @return the text, or an empty string if it wasn't recorded.
+     */
+    public synchronized String fetchText(int roomTextId, int textField) {
+        if (retainedRoomText != null) {
+            return retainedRoomText[roomTextId][textField];
+        }
+
+        String[] roomText = cachedRoomText.get(roomTextId);
+
+        if (roomText == null) {
+            try {
+                roomText = readRoomText(roomTextId);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read room text from map file.", e);
+            }
+
+            cachedRoomText.put(roomTextId, roomText);
+        }
+
+        return roomText[textField];
+    }
+
+    /**
+     * Determines the number of rooms whose text is currently cached.
+     *
+     * @return the number of cached rooms.
+     */
+    public synchronized int findNumberCachedRooms() {
+        return cachedRoomText.size();
+    }
+
+    /**
+     * Determines the number of times room text has been read from the map file.
+     *
+     * @return the number of reads.
+     */
+    public synchronized long findNumberReads() {
+        return numberReads;
+    }
+
+    /**
+     * Reads every room's text into memory, so the map file is no longer needed and the
+     * index can be closed while games still play the map.
+     *
+     * @throws IOException if the map file can't be read, or was rewritten since it was indexed.
+     */
+    public synchronized void retainText() throws IOException {
+        if (retainedRoomText != null) {
+            return;
+        }
+
+        String[][] allRoomText = new String[numberRooms][];
+        for (int roomTextId = 0; roomTextId < numberRooms; roomTextId++) {
+            String[] roomText = cachedRoomText.get(roomTextId);
+            allRoomText[roomTextId] = roomText != null ? roomText : readRoomText(roomTextId);
+        }
+
+        retainedRoomText = allRoomText;
+        cachedRoomText.clear();
+    }
+
+    /**
+     * Closes the map file. Text not yet read (or retained) can't be fetched afterwards.
+     *
+     * @throws IOException if the file can't be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        mapChannel.close();
+    }
+
+    /**
+     * Helper method to check the map file is still the one the offsets were recorded in:
+     * the same size, and not modified since, unless it was replaced by another file (which
+     * leaves the open file untouched).
+     *
+     * @throws IOException if the map file was rewritten in place.
+     */
+    private void checkFileUnchanged() throws IOException {
+        boolean rewritten = mapChannel.size() != indexedSize;
+
+        if (!rewritten) {
+            try {
+                BasicFileAttributes fileAttributes = Files.readAttributes(mapFile, BasicFileAttributes.class);
+                boolean sameFile = indexedFileKey == null || indexedFileKey.equals(fileAttributes.fileKey());
+
+                rewritten = sameFile && !indexedModifiedTime.equals(fileAttributes.lastModifiedTime());
+            } catch (NoSuchFileException e) {
+                //deleted or moved away, which leaves the open file untouched
+            }
+        }
+
+        if (rewritten) {
+            throw new IOException("Map file " + mapFile + " was rewritten in place since its room text was " +
+                                      "indexed; reload the map instead.");
+        }
+    }
+
+    /**
+     * Helper method to read every text field of a room from the map file, in one read
+     * spanning all of them.
+     *
+     * @param roomTextId the id of the room's text.
+     *
+     * @throws IOException if the map file can't be read or doesn't hold the expected strings.
+     *
+     * @return the room's text fields, indexed by field.
+     */
+    private String[] readRoomText(int roomTextId) throws IOException {
+        long spanStart = Long.MAX_VALUE;
+        long spanEnd = -1;
+
+        for (int textField = 0; textField < NUMBER_TEXT_FIELDS; textField++) {
+            if (hasText(roomTextId, textField)) {
+                int fieldPosition = roomTextId * NUMBER_TEXT_FIELDS + textField;
+                spanStart = Math.min(spanStart, textOffsets[fieldPosition * 2]);
+                spanEnd = Math.max(spanEnd, textOffsets[fieldPosition * 2 + 1]);
+            }
+        }
+
+        String[] roomText = {"", "", ""};
+        if (spanEnd < 0) {
+            return roomText;
+        }
+
+        checkFileUnchanged();
+        ByteBuffer span = ByteBuffer.allocate((int) (spanEnd - spanStart));
+        while (span.hasRemaining()) {
+            if (mapChannel.read(span, spanStart + span.position()) < 0) {
+                throw new IOException("Map file is shorter than its room text index.");
+            }
+        }
+        numberReads++;
+
+        for (int textField = 0; textField < NUMBER_TEXT_FIELDS; textField++) {
+            if (hasText(roomTextId, textField)) {
+                int fieldPosition = roomTextId * NUMBER_TEXT_FIELDS + textField;
+                int textStart = (int) (textOffsets[fieldPosition * 2] - spanStart);
+                int textLength = (int) (textOffsets[fieldPosition * 2 + 1] - textOffsets[fieldPosition * 2]);
+
+                try (JsonParser parser = JSON_FACTORY.createParser(span.array(), textStart, textLength)) {
+                    parser.nextToken();
+                    roomText[textField] = StringPool.dedupe(parser.getValueAsString(""));
+                }
+            }
+        }
+
+        return roomText;
+    }
+}
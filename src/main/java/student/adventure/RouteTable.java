@@ -0,0 +1,406 @@
+package student.adventure;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Shortest routes through the rooms of a game map, computed once when the map is loaded.
+ * Keeps the distance from every room to the end room and to the nearest room holding the
+ * required item, so hints are a table lookup. On maps of up to ALL_PAIRS_ROOM_LIMIT rooms,
+ * also keeps the first move of the shortest route between every pair of rooms; routes on
+ * larger maps are found by a search when asked for.
+ * Never changed after it is built, so it is shared by every game playing the map.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class RouteTable {
+    /**
+     * Maps with at most this many rooms get the table of routes between every pair of rooms
+     * (one byte per pair).
+     */
+    public static final int ALL_PAIRS_ROOM_LIMIT = 2048;
+
+    /**
+     * Distance to a room that can't be reached.
+     */
+    public static final int UNREACHABLE = -1;
+
+    private static final byte NO_MOVE = -1;
+
+    private final int mapSize;
+    private final int[][] movementTargets;  //index of the room each movement of each room leads to
+    private final int[] exitDistances;      //moves from each room to the end room
+    private final int[] itemDistances;      //moves from each room to the nearest room holding the required item
+    private final byte[] firstMoves;        //movement to take from one room toward another, or null if not kept
+
+    /**
+     * Constructor for objects of class RouteTable.
+     *
+     * @param mapSize         the number of rooms in the map.
+     * @param movementTargets the room index each movement of each room leads to.
+     * @param exitDistances   the distance from each room to the end room.
+     * @param itemDistances   the distance from each room to the required item.
+     * @param firstMoves      the first move between each pair of rooms, or null.
+     */
+    private RouteTable(int mapSize, int[][] movementTargets, int[] exitDistances, int[] itemDistances,
+                       byte[] firstMoves) {
+        this.mapSize = mapSize;
+        this.movementTargets = movementTargets;
+        this.exitDistances = exitDistances;
+        this.itemDistances = itemDistances;
+        this.firstMoves = firstMoves;
+    }
+
+    /**
+     * Computes the routes through a map, with breadth-first searches run in parallel.
+     *
+     * @param gameMap      the map to compute routes through; its movements must lead to existing rooms.
+     * @param requiredItem the item the player needs to escape.
+     *
+     * @return the routes through the map.
+     */
+    public static RouteTable buildRouteTable(GameMap gameMap, String requiredItem) {
+        int mapSize = gameMap.findMapSize();
+        int[][] movementTargets = resolveMovementTargets(gameMap);
+
+        BitSet endRooms = new BitSet(mapSize);
+        BitSet itemRooms = new BitSet(mapSize);
+        int itemId = gameMap.getItemDictionary().findItemId(requiredItem);
+        boolean fitsMoveTable = true;
+
+        for (int roomIndex = 0; roomIndex < mapSize; roomIndex++) {
+            Room room = gameMap.retrieveRoomAt(roomIndex);
+            endRooms.set(roomIndex, room.isEndRoom());
+            itemRooms.set(roomIndex, room.containsItemId(itemId));
+            fitsMoveTable &= movementTargets[roomIndex].length <= Byte.MAX_VALUE;
+        }
+
+        int[][] reverseTargets = reverseMovements(movementTargets);
+        int[][] targetDistances = IntStream.range(0, 2).parallel()
+                .mapToObj(search -> findDistancesTo(reverseTargets, search == 0 ? endRooms : itemRooms))
+                .toArray(int[][]::new);
+
+        byte[] firstMoves = null;
+        if (mapSize <= ALL_PAIRS_ROOM_LIMIT && fitsMoveTable) {
+            byte[] allFirstMoves = new byte[mapSize * mapSize];
+            IntStream.range(0, mapSize).parallel()
+                     .forEach(sourceIndex -> fillFirstMoves(movementTargets, sourceIndex, allFirstMoves));
+            firstMoves = allFirstMoves;
+        }
+
+        return new RouteTable(mapSize, movementTargets, targetDistances[0], targetDistances[1], firstMoves);
+    }
+
+    /**
+     * Determines whether routes between every pair of rooms were computed up front.
+     *
+     * @return true if routes are looked up, else false if they are searched for.
+     */
+    public boolean hasAllPairRoutes() {
+        return firstMoves != null;
+    }
+
+    /**
+     * Finds the number of moves from a room to the end room.
+     *
+     * @param roomIndex the index of the room.
+     *
+     * @return the number of moves, or UNREACHABLE.
+     */
+    public int findExitDistance(int roomIndex) {
+        return exitDistances[roomIndex];
+    }
+
+    /**
+     * Finds the number of moves from a room to the nearest room that held the required
+     * item when the map was loaded.
+     *
+     * @param roomIndex the index of the room.
+     *
+     * @return the number of moves, or UNREACHABLE.
+     */
+    public int findItemDistance(int roomIndex) {
+        return itemDistances[roomIndex];
+    }
+
+    /**
+     * Finds the movement to take from a room to get one step closer to the end room.
+     *
+     * @param roomIndex the index of the room.
+     *
+     * @return the index of the movement in the room's possible movements, or -1 if the
+     *         end room can't be reached or this is the end room.
+     */
+    public int findMoveTowardExit(int roomIndex) {
+        return findMoveDownhill(exitDistances, roomIndex);
+    }
+
+    /**
+     * Finds the movement to take from a room to get one step closer to the required item.
+     *
+     * @param roomIndex the index of the room.
+     *
+     * @return the index of the movement in the room's possible movements, or -1 if the
+     *         item can't be reached or is in this room.
+     */
+    public int findMoveTowardItem(int roomIndex) {
+        return findMoveDownhill(itemDistances, roomIndex);
+    }
+
+    /**
+     * Finds the rooms along a shortest route from one room to another.
+     *
+     * @param sourceIndex the index of the room to start from.
+     * @param targetIndex the index of the room to go to.
+     *
+     * @return the indices of the rooms moved through, ending with the target room, or
+     *         null if the target can't be reached.
+     */
+    public int[] findRoute(int sourceIndex, int targetIndex) {
+        if (firstMoves == null) {
+            BitSet targetRooms = new BitSet(mapSize);
+            targetRooms.set(targetIndex);
+            return findRouteToNearest(sourceIndex, targetRooms);
+        }
+
+        if (sourceIndex == targetIndex) {
+            return new int[0];
+        }
+
+        if (firstMoves[sourceIndex * mapSize + targetIndex] == NO_MOVE) {
+            return null;
+        }
+
+        int[] route = new int[mapSize];
+        int routeLength = 0;
+
+        for (int roomIndex = sourceIndex; roomIndex != targetIndex; ) {
+            roomIndex = movementTargets[roomIndex][firstMoves[roomIndex * mapSize + targetIndex]];
+            route[routeLength++] = roomIndex;
+        }
+
+        return Arrays.copyOf(route, routeLength);
+    }
+
+    /**
+     * Finds the rooms along a shortest route from a room to the nearest of a set of rooms,
+     * by breadth-first search.
+     *
+     * @param sourceIndex the index of the room to start from.
+     * @param targetRooms the indices of the rooms to go to.
+     *
+     * @return the indices of the rooms moved through, ending with a target room, or null
+     *         if no target can be reached.
+     */
+    public int[] findRouteToNearest(int sourceIndex, BitSet targetRooms) {
+        int[] previousRooms = new int[mapSize];
+        Arrays.fill(previousRooms, UNREACHABLE);
+        previousRooms[sourceIndex] = sourceIndex;
+
+        int[] roomsToVisit = new int[mapSize];
+        int queueStart = 0;
+        int queueEnd = 0;
+        roomsToVisit[queueEnd++] = sourceIndex;
+
+        while (queueStart < queueEnd) {
+            int roomIndex = roomsToVisit[queueStart++];
+
+            if (targetRooms.get(roomIndex)) {
+                return traceRoute(previousRooms, sourceIndex, roomIndex);
+            }
+
+            for (int targetIndex: movementTargets[roomIndex]) {
+                if (previousRooms[targetIndex] == UNREACHABLE) {
+                    previousRooms[targetIndex] = roomIndex;
+                    roomsToVisit[queueEnd++] = targetIndex;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Helper method to resolve the room number each movement leads to into a room index.
+     *
+     * @param gameMap the map to resolve the movements of.
+     *
+     * @return the room index each movement of each room leads to.
+     */
+    private static int[][] resolveMovementTargets(GameMap gameMap) {
+        Map<Integer, Integer> roomNumbersToIndices = gameMap.mapRoomNumbersToIndex();
+        int[][] movementTargets = new int[gameMap.findMapSize()][];
+
+        for (int roomIndex = 0; roomIndex < movementTargets.length; roomIndex++) {
+            List<PlayerMovement> possibleMovements = gameMap.retrieveRoomAt(roomIndex).getPossibleMovements();
+            movementTargets[roomIndex] = new int[possibleMovements.size()];
+
+            for (int movement = 0; movement < possibleMovements.size(); movement++) {
+                movementTargets[roomIndex][movement] =
+                        roomNumbersToIndices.get(possibleMovements.get(movement).getMovedRoomNumber());
+            }
+        }
+
+        return movementTargets;
+    }
+
+    /**
+     * Helper method to reverse every movement, to search backward from target rooms.
+     *
+     * @param movementTargets the room index each movement of each room leads to.
+     *
+     * @return the indices of the rooms with a movement leading to each room.
+     */
+    private static int[][] reverseMovements(int[][] movementTargets) {
+        int[] numberIncoming = new int[movementTargets.length];
+        for (int[] targets: movementTargets) {
+            for (int targetIndex: targets) {
+                numberIncoming[targetIndex]++;
+            }
+        }
+
+        int[][] reverseTargets = new int[movementTargets.length][];
+        for (int roomIndex = 0; roomIndex < reverseTargets.length; roomIndex++) {
+            reverseTargets[roomIndex] = new int[numberIncoming[roomIndex]];
+            numberIncoming[roomIndex] = 0;
+        }
+
+        for (int roomIndex = 0; roomIndex < movementTargets.length; roomIndex++) {
+            for (int targetIndex: movementTargets[roomIndex]) {
+                reverseTargets[targetIndex][numberIncoming[targetIndex]++] = roomIndex;
+            }
+        }
+
+        return reverseTargets;
+    }
+
+    /**
+     * Helper method to find the number of moves from every room to the nearest of a set of
+     * rooms, by breadth-first search over the reversed movements.
+     *
+     * @param reverseTargets the rooms with a movement leading to each room.
+     * @param targetRooms    the indices of the rooms to find the distance to.
+     *
+     * @return the distance from each room, or UNREACHABLE.
+     */
+    private static int[] findDistancesTo(int[][] reverseTargets, BitSet targetRooms) {
+        int[] distances = new int[reverseTargets.length];
+        Arrays.fill(distances, UNREACHABLE);
+
+        int[] roomsToVisit = new int[reverseTargets.length];
+        int queueStart = 0;
+        int queueEnd = 0;
+
+        for (int roomIndex = targetRooms.nextSetBit(0); roomIndex >= 0; roomIndex = targetRooms.nextSetBit(roomIndex + 1)) {
+            distances[roomIndex] = 0;
+            roomsToVisit[queueEnd++] = roomIndex;
+        }
+
+        while (queueStart < queueEnd) {
+            int roomIndex = roomsToVisit[queueStart++];
+
+            for (int previousIndex: reverseTargets[roomIndex]) {
+                if (distances[previousIndex] == UNREACHABLE) {
+                    distances[previousIndex] = distances[roomIndex] + 1;
+                    roomsToVisit[queueEnd++] = previousIndex;
+                }
+            }
+        }
+
+        return distances;
+    }
+
+    /**
+     * Helper method to fill in the first move from one room toward every other room, by
+     * breadth-first search. Safe to run for different source rooms at the same time.
+     *
+     * @param movementTargets the room index each movement of each room leads to.
+     * @param sourceIndex     the index of the room to search from.
+     * @param firstMoves      the first moves between every pair of rooms, filled in for this source.
+     */
+    private static void fillFirstMoves(int[][] movementTargets, int sourceIndex, byte[] firstMoves) {
+        int mapSize = movementTargets.length;
+        int rowStart = sourceIndex * mapSize;
+        Arrays.fill(firstMoves, rowStart, rowStart + mapSize, NO_MOVE);
+
+        BitSet reachedRooms = new BitSet(mapSize);
+        reachedRooms.set(sourceIndex);
+
+        int[] roomsToVisit = new int[mapSize];
+        int queueStart = 0;
+        int queueEnd = 0;
+
+        int[] sourceTargets = movementTargets[sourceIndex];
+        for (int movement = 0; movement < sourceTargets.length; movement++) {
+            if (!reachedRooms.get(sourceTargets[movement])) {
+                reachedRooms.set(sourceTargets[movement]);
+                firstMoves[rowStart + sourceTargets[movement]] = (byte) movement;
+                roomsToVisit[queueEnd++] = sourceTargets[movement];
+            }
+        }
+
+        while (queueStart < queueEnd) {
+            int roomIndex = roomsToVisit[queueStart++];
+
+            for (int targetIndex: movementTargets[roomIndex]) {
+                if (!reachedRooms.get(targetIndex)) {
+                    reachedRooms.set(targetIndex);
+                    firstMoves[rowStart + targetIndex] = firstMoves[rowStart + roomIndex];
+                    roomsToVisit[queueEnd++] = targetIndex;
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper method to find the movement from a room to a neighbor one move closer to a
+     * target, given every room's distance to that target.
+     *
+     * @param distances the distance from each room to the target.
+     * @param roomIndex the index of the room to move from.
+     *
+     * @return the index of the movement, or -1 if there is none.
+     */
+    private int findMoveDownhill(int[] distances, int roomIndex) {
+        if (distances[roomIndex] <= 0) {
+            return -1;
+        }
+
+        int[] targets = movementTargets[roomIndex];
+        for (int movement = 0; movement < targets.length; movement++) {
+            if (distances[targets[movement]] == distances[roomIndex] - 1) {
+                return movement;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Helper method to list the rooms on a route found by search, from the room each room
+     * was reached from.
+     *
+     * @param previousRooms the room each reached room was reached from.
+     * @param sourceIndex   the index of the room the search started from.
+     * @param targetIndex   the index of the room reached.
+     *
+     * @return the indices of the rooms moved through, ending with the target room.
+     */
+    private static int[] traceRoute(int[] previousRooms, int sourceIndex, int targetIndex) {
+        int routeLength = 0;
+        for (int roomIndex = targetIndex; roomIndex != sourceIndex; roomIndex = previousRooms[roomIndex]) {
+            routeLength++;
+        }
+
+        int[] route = new int[routeLength];
+        for (int roomIndex = targetIndex; roomIndex != sourceIndex; roomIndex = previousRooms[roomIndex]) {
+            route[--routeLength] = roomIndex;
+        }
+
+        return route;
+    }
+}
@@ -0,0 +1,130 @@
+package student.adventure;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JVM-wide pool deduplicating the text of loaded maps: room names, descriptions, image
+ * URLs and item names. Loading a map through the pool keeps one copy of each distinct
+ * string, however many maps (or versions of a map) use it. Strings are held weakly, so
+ * text no longer used by any loaded map can still be garbage collected.
+ * The pool is split into stripes by hash, each with its own lock, so threads loading maps
+ * or rendering rooms at the same time rarely wait on each other.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class StringPool {
+    /**
+     * Approximate memory of a String besides its characters: object and array headers,
+     * hash and length fields.
+     */
+    public static final int STRING_OVERHEAD_BYTES = 40;
+
+    //number of stripes the pool is split into; a power of two
+    private static final int NUMBER_STRIPES = 64;
+
+    private static final WeakHashMap<String, WeakReference<String>>[] POOL_STRIPES = createStripes();
+    private static final LongAdder numberDeduplicated = new LongAdder();
+    private static final LongAdder bytesDeduplicated = new LongAdder();
+
+    /**
+     * Finds the pooled copy of a string, adding the string to the pool if it's new.
+     *
+     * @param string the string to deduplicate; may be null.
+     *
+     * @return the pooled string equal to the given one, or null if given null.
+     */
+    public static String dedupe(String string) {
+        if (string == null) {
+            return null;
+        }
+
+        //fold the high bits of the hash in, so strings differing only there still land in different stripes
+        int hash = string.hashCode();
+        WeakHashMap<String, WeakReference<String>> stripe = POOL_STRIPES[(hash ^ (hash >>> 16)) &
+                                                                         (NUMBER_STRIPES - 1)];
+        String pooledString;
+
+        synchronized (stripe) {
+            WeakReference<String> pooledReference = stripe.get(string);
+            pooledString = pooledReference == null ? null : pooledReference.get();
+
+            if (pooledString == null) {
+                stripe.put(string, new WeakReference<>(string));
+                return string;
+            }
+        }
+
+        if (pooledString != string) {
+            numberDeduplicated.increment();
+            bytesDeduplicated.add(estimateStringBytes(string));
+        }
+
+        return pooledString;
+    }
+
+    /**
+     * Determines the number of distinct strings in the pool.
+     *
+     * @return the number of pooled strings, including ones about to be collected.
+     */
+    public static int findNumberPooledStrings() {
+        int numberPooled = 0;
+
+        for (WeakHashMap<String, WeakReference<String>> stripe: POOL_STRIPES) {
+            synchronized (stripe) {
+                numberPooled += stripe.size();
+            }
+        }
+
+        return numberPooled;
+    }
+
+    /**
+     * Determines the number of duplicate strings replaced by a pooled copy so far.
+     *
+     * @return the number of duplicates dropped.
+     */
+    public static long findNumberDeduplicated() {
+        return numberDeduplicated.sum();
+    }
+
+    /**
+     * Determines roughly how much memory deduplication has saved so far.
+     *
+     * @return the approximate number of bytes of the duplicates dropped.
+     */
+    public static long findBytesDeduplicated() {
+        return bytesDeduplicated.sum();
+    }
+
+    /**
+     * Estimates the memory a string takes up, assuming one byte per character as for
+     * the mostly-Latin text of maps.
+     *
+     * @param string the string to measure.
+     *
+     * @return the approximate number of bytes the string takes up.
+     */
+    public static long estimateStringBytes(String string) {
+        return STRING_OVERHEAD_BYTES + string.length();
+    }
+
+    /**
+     * Helper method to create the empty stripes of the pool.
+     *
+     * @return the stripes.
+     */
+    @SuppressWarnings("unchecked")
+    private static WeakHashMap<String, WeakReference<String>>[] createStripes() {
+        WeakHashMap<String, WeakReference<String>>[] stripes = new WeakHashMap[NUMBER_STRIPES];
+
+        for (int stripe = 0; stripe < NUMBER_STRIPES; stripe++) {
+            stripes[stripe] = new WeakHashMap<>();
+        }
+
+        return stripes;
+    }
+}
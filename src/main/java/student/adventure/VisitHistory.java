@@ -0,0 +1,170 @@
+package student.adventure;
+
+/**
+ * Compact record of the rooms a player has visited, stored as primitive room indices.
+ * Keeps at most a given number of the most recent visits (the retention limit), while
+ * still counting every visit ever recorded.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class VisitHistory {
+    public static final int UNBOUNDED = 0;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] retainedVisits; //circular buffer of room indices, oldest visit at firstPosition
+    private int firstPosition;
+    private int numberRetained;
+    private int totalVisits;
+    private final int retentionLimit;
+
+    /**
+     * Default constructor for objects of class VisitHistory.
+     * Initiates an empty history that retains every visit.
+     */
+    public VisitHistory() {
+        this(UNBOUNDED);
+    }
+
+    /**
+     * Constructor for objects of class VisitHistory.
+     * Initiates an empty history that retains only the most recent visits.
+     *
+     * @param retentionLimit the maximum number of visits to retain, or UNBOUNDED to keep all.
+     */
+    public VisitHistory(int retentionLimit) {
+        if (retentionLimit < 0) {
+            throw new IllegalArgumentException("Retention limit cannot be negative.");
+        }
+
+        this.retentionLimit = retentionLimit;
+
+        if (retentionLimit == UNBOUNDED) {
+            retainedVisits = new int[INITIAL_CAPACITY];
+        }
+        else {
+            retainedVisits = new int[Math.min(INITIAL_CAPACITY, retentionLimit)];
+        }
+
+        clear();
+    }
+
+    public int getRetentionLimit() {
+        return retentionLimit;
+    }
+
+    /**
+     * Determines the total number of visits recorded, including visits no longer retained.
+     *
+     * @return the total number of recorded visits.
+     */
+    public int findTotalVisits() {
+        return totalVisits;
+    }
+
+    /**
+     * Determines the number of visits currently retained in this history.
+     *
+     * @return the number of retained visits.
+     */
+    public int findNumberRetained() {
+        return numberRetained;
+    }
+
+    /**
+     * Determines whether older visits have been dropped due to the retention limit.
+     *
+     * @return true  if some visits are no longer retained, else
+     *         false if every recorded visit is still retained.
+     */
+    public boolean hasDroppedVisits() {
+        return totalVisits > numberRetained;
+    }
+
+    /**
+     * Records a visit to the room at the given index, dropping the oldest retained
+     * visit if this history is full.
+     *
+     * @param roomIndex the index of the visited room in the map's list of all rooms.
+     */
+    public void recordVisit(int roomIndex) {
+        totalVisits++;
+
+        if (retentionLimit != UNBOUNDED && numberRetained == retentionLimit) {
+            retainedVisits[firstPosition] = roomIndex;
+            firstPosition = (firstPosition + 1) % retainedVisits.length;
+            return;
+        }
+
+        if (numberRetained == retainedVisits.length) {
+            growCapacity();
+        }
+
+        retainedVisits[(firstPosition + numberRetained) % retainedVisits.length] = roomIndex;
+        numberRetained++;
+    }
+
+    /**
+     * Retrieves a retained visit, in order of when the player visited the room.
+     *
+     * @param position the position of the visit, 0 being the oldest retained visit.
+     *
+     * @return the index of the room visited at that position.
+     */
+    public int retrieveVisitAt(int position) {
+        if (position < 0 || position >= numberRetained) {
+            throw new IndexOutOfBoundsException("No retained visit at position " + position + ".");
+        }
+
+        return retainedVisits[(firstPosition + position) % retainedVisits.length];
+    }
+
+    /**
+     * Replaces this history with previously saved visits, e.g. when restoring a game.
+     * Visits beyond the retention limit are dropped, oldest first.
+     *
+     * @param totalVisits    the total number of visits ever recorded.
+     * @param retainedVisits the room indices of the retained visits, oldest first.
+     */
+    public void restoreVisits(int totalVisits, int[] retainedVisits) {
+        if (totalVisits < retainedVisits.length) {
+            throw new IllegalArgumentException("Total visits cannot be fewer than retained visits.");
+        }
+
+        clear();
+        for (int roomIndex: retainedVisits) {
+            recordVisit(roomIndex);
+        }
+
+        this.totalVisits = totalVisits;
+    }
+
+    /**
+     * Removes every recorded visit from this history.
+     */
+    public void clear() {
+        firstPosition = 0;
+        numberRetained = 0;
+        totalVisits = 0;
+    }
+
+    /**
+     * Helper method to double the capacity of the buffer, capped at the retention limit.
+     * Unrolls the circular buffer so the oldest visit is at the start again.
+     */
+    private void growCapacity() {
+        int newCapacity = retainedVisits.length * 2;
+        if (retentionLimit != UNBOUNDED) {
+            newCapacity = Math.min(newCapacity, retentionLimit);
+        }
+
+        int[] grownVisits = new int[newCapacity];
+        for (int position = 0; position < numberRetained; position++) {
+            grownVisits[position] = retrieveVisitAt(position);
+        }
+
+        retainedVisits = grownVisits;
+        firstPosition = 0;
+    }
+}
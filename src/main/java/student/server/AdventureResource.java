@@ -1,9 +1,15 @@
 package student.server;
 
 import javax.ws.rs.*;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 
+import java.io.InputStream;
+
 @Path("/")
 public class AdventureResource {
     /**
@@ -11,6 +17,24 @@ public class AdventureResource {
      */
     private static AdventureService service = new KidnappedService();
 
+    /**
+     * The serialized leaderboards served by this API, reused until a leaderboard changes.
+     */
+    private static LeaderboardResponseCache leaderboardCache = new LeaderboardResponseCache();
+
+    /**
+     * How long clients and proxies may reuse a leaderboard response before revalidating it.
+     */
+    public final static int LEADERBOARD_MAX_AGE_SECONDS = 5;
+
+    /**
+     * Returns the service behind this API, starting it if no request has yet.
+     * @return the adventure service
+     */
+    public static AdventureService getService() {
+        return service;
+    }
+
     /**
      * The API endpoint to test connectivity.
      * @return the string "pong" if connection was successful
@@ -34,14 +58,15 @@ public class AdventureResource {
 
     /**
      * The API endpoint to create a new instance of the adventure game.
+     * @param mapID the id of the map to play, or null for the default map
      * @return the state of the newly created game
      * @throws AdventureException if a game could not be created
      */
     @POST
     @Path("create")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response create() throws AdventureException {
-        int id = service.newGame();
+    public Response create(@QueryParam("map") String mapID) throws AdventureException {
+        int id = service.newGame(mapID);
         return getGame(id);
     }
 
@@ -93,15 +118,143 @@ public class AdventureResource {
         return getGame(id);
     }
 
+    /**
+     * The API endpoint to export a game instance, so it can be imported by another server.
+     * @param id the ID of the game instance to export
+     * @return the exported session; an error response if not found
+     */
+    @GET
+    @Path("instance/{id: \\d+}/export")
+    @Produces({MediaType.APPLICATION_OCTET_STREAM, MediaType.APPLICATION_JSON})
+    public Response exportGame(@PathParam("id") int id) {
+        byte[] exportedSession = service.exportGame(id);
+        if (exportedSession == null) {
+            return instanceNotFound(id);
+        }
+
+        return Response.ok(exportedSession, MediaType.APPLICATION_OCTET_STREAM).build();
+    }
+
+    /**
+     * The API endpoint to import exported game instances, written one after another.
+     * @param sessionStream the exported sessions
+     * @return a response with the new IDs of the imported games
+     * @throws AdventureException if a session could not be imported
+     */
+    @POST
+    @Path("import")
+    @Consumes(MediaType.APPLICATION_OCTET_STREAM)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response importGames(InputStream sessionStream) throws AdventureException {
+        return Response.ok(service.importGames(sessionStream)).build();
+    }
+
     /**
      * The API endpoint to return an ordered mapping of players to "high" scores.
-     * @return a response with a sorted map of "high" scores
+     * Responses carry an ETag and may be reused for a few seconds; a request whose If-None-Match
+     * tag is still current gets a 304 (Not Modified) response without a body.
+     * @param mapID the id of the map to return scores on, or null for every map
+     * @param windowName "day", "week" or "all" (the default) to return scores from
+     * @param request the request, to check its cache preconditions
+     * @return a response with a sorted map of "high" scores; an error response if the window is unknown
      */
     @GET
     @Path("leaderboard")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response fetchLeaderboard() {
-        return Response.ok(service.fetchLeaderboard()).build();
+    public Response fetchLeaderboard(@QueryParam("map") String mapID, @QueryParam("window") String windowName,
+                                     @Context Request request) {
+        LeaderboardWindow window;
+        try {
+            window = LeaderboardWindow.findWindow(windowName);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+
+        String leaderboardTag = service.fetchLeaderboardTag(mapID, window);
+        if (leaderboardTag == null) {
+            return Response.ok(service.fetchLeaderboard(mapID, window)).build();
+        }
+
+        EntityTag entityTag = new EntityTag(leaderboardTag);
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setMaxAge(LEADERBOARD_MAX_AGE_SECONDS);
+
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(entityTag);
+        if (notModified != null) {
+            return notModified.cacheControl(cacheControl).build();
+        }
+
+        byte[] leaderboard = leaderboardCache.fetchResponse(mapID, window, leaderboardTag,
+                                                            () -> service.fetchLeaderboard(mapID, window));
+        if (leaderboard == null) {
+            return Response.ok().build();
+        }
+
+        return Response.ok(leaderboard, MediaType.APPLICATION_JSON).tag(entityTag).cacheControl(cacheControl).build();
+    }
+
+    /**
+     * The API endpoint to return where a player stands on a leaderboard.
+     * @param playerName the name of the player
+     * @param mapID the id of the map to rank the player on, or null for every map
+     * @param windowName "day", "week" or "all" (the default) to rank the player over
+     * @param numberNeighbours the number of players to return from above and from below the player
+     * @return a response with the player's rank, score and neighbours; an error response if they have no score
+     */
+    @GET
+    @Path("leaderboard/player/{name}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response fetchPlayerStanding(@PathParam("name") String playerName, @QueryParam("map") String mapID,
+                                        @QueryParam("window") String windowName,
+                                        @QueryParam("neighbours") @DefaultValue("2") int numberNeighbours) {
+        LeaderboardWindow window;
+        try {
+            window = LeaderboardWindow.findWindow(windowName);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+
+        PlayerStanding standing = service.fetchPlayerStanding(playerName, mapID, window,
+                                                              Math.max(numberNeighbours, 0));
+        if (standing == null) {
+            return badRequest("No score found for player '" + playerName + "'.");
+        }
+
+        return Response.ok(standing).build();
+    }
+
+    /**
+     * The API endpoint to return the number of games running on each hosted map.
+     * @return a response with a map of map ids to game counts
+     */
+    @GET
+    @Path("maps")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response fetchSessionCounts() {
+        return Response.ok(service.fetchSessionCounts()).build();
+    }
+
+    /**
+     * The API endpoint to return a report of the memory used and saved by running games.
+     * @return a response with a map of report entries to values
+     */
+    @GET
+    @Path("memory")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response fetchMemoryReport() {
+        return Response.ok(service.fetchMemoryReport()).build();
+    }
+
+    /**
+     * The API endpoint to return a report of the replication of games between this service and its standby or
+     * primary, such as how far the standby is behind.
+     * @return a response with a map of report entries to values
+     */
+    @GET
+    @Path("replication")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response fetchReplicationReport() {
+        return Response.ok(service.fetchReplicationReport()).build();
     }
 
     /**
@@ -109,9 +262,17 @@ public class AdventureResource {
      * @param id the instance ID
      */
     private Response instanceNotFound(int id) {
+        return badRequest("No game found with id '" + id + "'.");
+    }
+
+    /**
+     * Helper method to build a bad request error.
+     * @param message the error message
+     */
+    private Response badRequest(String message) {
         return Response
                 .status(Response.Status.BAD_REQUEST)
-                .entity(new Error("No game found with id '" + id + "'."))
+                .entity(new Error(message))
                 .build();
     }
 
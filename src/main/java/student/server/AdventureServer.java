@@ -21,6 +21,12 @@ import org.glassfish.jersey.server.ResourceConfig;
 
 public class AdventureServer {
     private static final URI BASE_URI = URI.create("https://0.0.0.0:8080/adventure/v1");
+
+    /**
+     * System property naming the URI to serve on instead of BASE_URI, so several servers can run on one
+     * machine. An http URI serves without SSL.
+     */
+    public static final String BASE_URI_PROPERTY = "adventure.baseUri";
     private static final String KEYSTORE_SERVER_FILE = "src/main/resources/keystore_server";
     private static final String KEYSTORE_SERVER_PWD = "asdfgh";
     private static final String TRUSTORE_SERVER_FILE = "src/main/resources/truststore_server";
@@ -37,7 +43,8 @@ public class AdventureServer {
             headers.add("Access-Control-Allow-Origin", "*");
             headers.add("Access-Control-Allow-Methods", "GET, POST, DELETE, PATCH, OPTIONS, PUT, HEAD");
             headers.add("Access-Control-Allow-Credentials", "true");
-            headers.add("Access-Control-Allow-Headers", "Origin, X-Requested-With, Content-Type, Accept, Authorization");
+            headers.add("Access-Control-Allow-Headers", "Origin, X-Requested-With, Content-Type, Accept, Authorization, If-None-Match");
+            headers.add("Access-Control-Expose-Headers", "ETag");
         }
     }
 
@@ -48,6 +55,16 @@ public class AdventureServer {
         );
         resourceConfig.register(CORSResponseFilter.class);
 
+        ShardRouter shardRouter = ShardRouter.fromSystemProperties();
+        if (shardRouter != null) {
+            resourceConfig.register(new ShardRoutingFilter(shardRouter));
+        }
+
+        URI baseUri = URI.create(System.getProperty(BASE_URI_PROPERTY, BASE_URI.toString()));
+        if ("http".equals(baseUri.getScheme())) {
+            return GrizzlyHttpServerFactory.createHttpServer(baseUri, resourceConfig);
+        }
+
         // Grizzly ssl configuration
         SSLContextConfigurator sslContext = new SSLContextConfigurator();
 
@@ -64,7 +81,7 @@ public class AdventureServer {
         }
 
         final HttpServer server = GrizzlyHttpServerFactory.createHttpServer(
-                BASE_URI,
+                baseUri,
                 resourceConfig,
                 true /* secure */,
                 new SSLEngineConfigurator(sslContext).setClientMode(false).setNeedClientAuth(false)
@@ -1,5 +1,8 @@
 package student.server;
 
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -17,6 +20,20 @@ public interface AdventureService {
      */
     int newGame() throws AdventureException;
 
+    /**
+     * Creates a new Adventure game on the map with the given id and stores it.
+     * Services hosting a single map only accept a null map id, meaning their own map.
+     * @param mapID the id of the map to play, or null for the default map
+     * @return the id of the game.
+     */
+    default int newGame(String mapID) throws AdventureException {
+        if (mapID != null) {
+            throw new AdventureException("No map found with id '" + mapID + "'.");
+        }
+
+        return newGame();
+    }
+
     /**
      * Returns the state of the game instance associated with the given ID.
      * @param id the instance id
@@ -38,9 +55,97 @@ public interface AdventureService {
      */
     void executeCommand(int id, Command command);
 
+    /**
+     * Exports the session of a game instance in a portable binary form, so it can be imported by another service.
+     * The game keeps running here.
+     * @param id the instance id
+     * @return the exported session, or null if the instance could not be found or exported
+     */
+    default byte[] exportGame(int id) {
+        return null;
+    }
+
+    /**
+     * Imports game sessions exported by exportGame, written one after another, and runs them under new ids.
+     * @param sessionStream the exported sessions
+     * @return the new ids of the imported games, in the order they were read
+     * @throws AdventureException if a session could not be read or imported
+     */
+    default List<Integer> importGames(InputStream sessionStream) throws AdventureException {
+        throw new AdventureException("This service does not import games.");
+    }
+
     /**
      * Returns a sorted leaderboard of player "high" scores.
      * @return a sorted map of player names to scores
      */
     Map<String, Integer> fetchLeaderboard();
+
+    /**
+     * Returns a sorted leaderboard of player "high" scores on a single map.
+     * @param mapID the id of the map, or null for every map
+     * @return a sorted map of player names to scores
+     */
+    default Map<String, Integer> fetchLeaderboard(String mapID) {
+        return mapID == null ? fetchLeaderboard() : Collections.emptyMap();
+    }
+
+    /**
+     * Returns a sorted leaderboard of player "high" scores over a window of time.
+     * Services keeping no windowed leaderboards only have an all-time one.
+     * @param mapID the id of the map, or null for every map
+     * @param window the current day, the current week, or all time
+     * @return a sorted map of player names to scores
+     */
+    default Map<String, Integer> fetchLeaderboard(String mapID, LeaderboardWindow window) {
+        return window == LeaderboardWindow.ALL ? fetchLeaderboard(mapID) : Collections.emptyMap();
+    }
+
+    /**
+     * Returns a tag naming the current contents of a leaderboard, which changes whenever the leaderboard does,
+     * so responses built from it can be cached and revalidated.
+     * @param mapID the id of the map, or null for every map
+     * @param window the current day, the current week, or all time
+     * @return the leaderboard's tag, or null if the leaderboard can't be cached
+     */
+    default String fetchLeaderboardTag(String mapID, LeaderboardWindow window) {
+        return null;
+    }
+
+    /**
+     * Returns where a player stands on a leaderboard: their rank, best score and the players around them.
+     * @param playerName the name of the player
+     * @param mapID the id of the map, or null for every map
+     * @param window the current day, the current week, or all time
+     * @param numberNeighbours the number of players to return from above and from below the player
+     * @return the player's standing, or null if they have no score on the leaderboard
+     */
+    default PlayerStanding fetchPlayerStanding(String playerName, String mapID, LeaderboardWindow window,
+                                               int numberNeighbours) {
+        return null;
+    }
+
+    /**
+     * Returns the number of games running on each map hosted by this service.
+     * @return a map of map ids to game counts
+     */
+    default Map<String, Integer> fetchSessionCounts() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Returns a report of the memory used and saved by the games on this service.
+     * @return a map of report entries to values
+     */
+    default Map<String, Long> fetchMemoryReport() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Returns a report of the replication of this service's games to or from another service.
+     * @return a map of report entries to values, empty if games aren't replicated
+     */
+    default Map<String, Long> fetchReplicationReport() {
+        return Collections.emptyMap();
+    }
 }
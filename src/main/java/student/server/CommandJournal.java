@@ -0,0 +1,868 @@
+package student.server;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal of the changes made to the games of a service: games started and
+ * destroyed, commands taken and service resets. Replaying the journal through fresh game
+ * engines rebuilds every game exactly, since games are deterministic.
+ * Records of all games go to one file, written by a single thread. Records appended while
+ * the disk is syncing are written and synced together with the next batch (group commit),
+ * so many games' commands share one sync. Each record carries a checksum; a record torn by
+ * a crash is dropped from the end of the journal when it's reopened. Once a write or sync
+ * fails the journal refuses every later record, since records written after the torn ones
+ * would be dropped with them on reopening.
+ * Every record is numbered with a log sequence number (LSN). The journal is split into
+ * segment files, each named by the LSN of its first record, so the part of the journal
+ * covered by a snapshot can be deleted a whole segment at a time.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class CommandJournal {
+    private static final Logger LOGGER = Logger.getLogger(CommandJournal.class.getName());
+
+    public final static String SEGMENT_PREFIX = "journal-";
+    public final static String SEGMENT_EXTENSION = ".log";
+
+    //most records written and synced together
+    private final static int MAX_BATCH_SIZE = 4096;
+
+    private final static int RECORD_HEADER_BYTES = 8; //record length and checksum
+
+    //largest record read from a stream, so a damaged length can't exhaust memory;
+    //room for an imported session's largest game state
+    final static int MAX_RECORD_BYTES = 32 << 20;
+
+    //queued by close to tell the writer thread to stop once earlier records are written
+    private final static PendingRecord CLOSE_MARKER = new PendingRecord(ByteBuffer.allocate(0), -1);
+
+    private final Path journalDirectory;
+    private FileChannel segmentChannel; //only used by the writer thread once it's started
+    private Path segmentFile;
+    private final BlockingQueue<PendingRecord> pendingRecords;
+    private final Thread writerThread;
+    private final AtomicLong numberRecords;
+    private final AtomicLong numberSyncs;
+    private long nextLSN;
+    private volatile boolean closed;
+    private volatile IOException writeFailure; //null until a write or sync fails
+    private volatile RecordListener recordListener; //null if no one follows the journal
+
+    /**
+     * Kinds of change recorded in the journal.
+     */
+    public enum RecordType {
+        NEW_GAME, COMMAND, DESTROY_GAME, RESET, IMPORT_GAME
+    }
+
+    /**
+     * A single change to the games of a service.
+     */
+    public static class JournalRecord {
+        private final RecordType recordType;
+        private final int gameID;
+        private final String mapID;
+        private final long mapVersion;
+        private final Command command;
+        private final byte[] exportedSession;
+        private final long lsn;
+
+        private JournalRecord(RecordType recordType, int gameID, String mapID, Command command, long lsn) {
+            this(recordType, gameID, mapID, -1, command, null, lsn);
+        }
+
+        private JournalRecord(RecordType recordType, int gameID, String mapID, long mapVersion, Command command,
+                              byte[] exportedSession, long lsn) {
+            this.recordType = recordType;
+            this.gameID = gameID;
+            this.mapID = mapID;
+            this.mapVersion = mapVersion;
+            this.command = command;
+            this.exportedSession = exportedSession;
+            this.lsn = lsn;
+        }
+
+        public static JournalRecord newGame(int gameID, String mapID, long mapVersion) {
+            return new JournalRecord(RecordType.NEW_GAME, gameID, mapID, mapVersion, null, null, -1);
+        }
+
+        public static JournalRecord command(int gameID, Command command) {
+            return new JournalRecord(RecordType.COMMAND, gameID, null, command, -1);
+        }
+
+        public static JournalRecord destroyGame(int gameID) {
+            return new JournalRecord(RecordType.DESTROY_GAME, gameID, null, null, -1);
+        }
+
+        public static JournalRecord reset() {
+            return new JournalRecord(RecordType.RESET, -1, null, null, -1);
+        }
+
+        public static JournalRecord importGame(int gameID, String mapID, byte[] exportedSession) {
+            return new JournalRecord(RecordType.IMPORT_GAME, gameID, mapID, -1, null, exportedSession, -1);
+        }
+
+        public RecordType getRecordType() {
+            return recordType;
+        }
+
+        public int getGameID() {
+            return gameID;
+        }
+
+        public String getMapID() {
+            return mapID;
+        }
+
+        /**
+         * Finds the layout version of the map a new game started on.
+         *
+         * @return the map's layout version, or -1 if the record doesn't start a new game.
+         */
+        public long getMapVersion() {
+            return mapVersion;
+        }
+
+        public Command getCommand() {
+            return command;
+        }
+
+        /**
+         * Finds the session an imported game started from.
+         *
+         * @return the session as written by ExportedSession.toByteArray, or null if the
+         *         record doesn't import a game.
+         */
+        public byte[] getExportedSession() {
+            return exportedSession;
+        }
+
+        /**
+         * Finds the sequence number the journal gave this record.
+         *
+         * @return the record's LSN, or -1 for a record not read from a journal.
+         */
+        public long getLSN() {
+            return lsn;
+        }
+    }
+
+    /**
+     * Follower of the records written to the journal, e.g. to copy them to another service.
+     */
+    public interface RecordListener {
+        /**
+         * Takes a batch of records just synced to disk. Called on the journal's writer
+         * thread, in LSN order, before the records' appenders are told they're durable,
+         * so it must not block.
+         *
+         * @param encodedRecords the records, encoded as in the journal's segments; not to be changed.
+         * @param lastLSN        the LSN of the last record of the batch.
+         */
+        void recordsWritten(List<ByteBuffer> encodedRecords, long lastLSN);
+    }
+
+    /**
+     * An encoded record (or a request to start a new segment) waiting to be written, and
+     * the future completed with its LSN once it's on disk.
+     */
+    private static class PendingRecord {
+        private final ByteBuffer encodedRecord;
+        private final long lsn;
+        private final boolean startsSegment;
+        private final CompletableFuture<Long> durableFuture;
+
+        PendingRecord(ByteBuffer encodedRecord, long lsn) {
+            this(encodedRecord, lsn, false);
+        }
+
+        PendingRecord(ByteBuffer encodedRecord, long lsn, boolean startsSegment) {
+            this.encodedRecord = encodedRecord;
+            this.lsn = lsn;
+            this.startsSegment = startsSegment;
+            this.durableFuture = new CompletableFuture<>();
+        }
+    }
+
+    /**
+     * Constructor for objects of class CommandJournal.
+     * Opens (or creates) the journal in a directory, drops a torn record left at the end
+     * of its last segment by a crash, and starts the thread writing new records.
+     *
+     * @param journalDirectory the directory holding the journal segments.
+     *
+     * @throws IOException if the journal can't be opened or checked.
+     */
+    public CommandJournal(String journalDirectory) throws IOException {
+        this.journalDirectory = Paths.get(journalDirectory);
+        Files.createDirectories(this.journalDirectory);
+
+        TreeMap<Long, Path> segmentFiles = fetchSegmentFiles();
+        if (segmentFiles.isEmpty()) {
+            nextLSN = 0;
+            segmentFile = this.journalDirectory.resolve(writeSegmentName(0));
+        } else {
+            nextLSN = segmentFiles.lastKey();
+            segmentFile = segmentFiles.lastEntry().getValue();
+        }
+
+        segmentChannel = FileChannel.open(segmentFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                          StandardOpenOption.WRITE);
+
+        long validLength = scanSegment(segmentFile, record -> nextLSN = record.getLSN() + 1);
+        if (validLength < segmentChannel.size()) {
+            LOGGER.warning("Dropping " + (segmentChannel.size() - validLength) + " bytes of torn records from " +
+                               segmentFile);
+            segmentChannel.truncate(validLength);
+            segmentChannel.force(true);
+        }
+        segmentChannel.position(validLength);
+
+        pendingRecords = new LinkedBlockingQueue<>();
+        numberRecords = new AtomicLong(0);
+        numberSyncs = new AtomicLong(0);
+        closed = false;
+
+        writerThread = new Thread(this::writeRecords, "command-journal-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    public Path getJournalDirectory() {
+        return journalDirectory;
+    }
+
+    /**
+     * Sets the listener given every record written from now on, replacing any earlier one.
+     * A batch being synced when the listener is set may or may not be given to it.
+     *
+     * @param recordListener the listener, or null to stop following the journal.
+     */
+    public void setRecordListener(RecordListener recordListener) {
+        this.recordListener = recordListener;
+    }
+
+    /**
+     * Determines the number of records written since the journal was opened.
+     *
+     * @return the number of records written.
+     */
+    public long findNumberRecords() {
+        return numberRecords.get();
+    }
+
+    /**
+     * Determines the number of times the journal has been synced to disk since it was opened.
+     * Fewer syncs than records means records were committed in groups.
+     *
+     * @return the number of syncs.
+     */
+    public long findNumberSyncs() {
+        return numberSyncs.get();
+    }
+
+    /**
+     * Determines the LSN the next appended record will get.
+     *
+     * @return the next LSN.
+     */
+    public synchronized long findNextLSN() {
+        return nextLSN;
+    }
+
+    /**
+     * Determines the number of segment files making up the journal.
+     *
+     * @throws IOException if the journal directory can't be read.
+     *
+     * @return the number of segments.
+     */
+    public int findNumberSegments() throws IOException {
+        return fetchSegmentFiles().size();
+    }
+
+    /**
+     * Appends a record to the journal, without waiting for it to be written.
+     * Records get increasing LSNs in the order they're appended.
+     *
+     * @param record the change to record.
+     *
+     * @throws IOException if the journal is closed.
+     *
+     * @return a future completed with the record's LSN once it's synced to disk, or
+     *         completed exceptionally if it couldn't be written.
+     */
+    public synchronized CompletableFuture<Long> appendRecord(JournalRecord record) throws IOException {
+        checkWritable();
+
+        PendingRecord pendingRecord = new PendingRecord(encodeRecord(record, nextLSN), nextLSN);
+        nextLSN++;
+        pendingRecords.add(pendingRecord);
+
+        return pendingRecord.durableFuture;
+    }
+
+    /**
+     * Appends a record to the journal and waits until it's synced to disk.
+     *
+     * @param record the change to record.
+     *
+     * @throws IOException if the record couldn't be written.
+     *
+     * @return the record's LSN.
+     */
+    public long appendRecordDurably(JournalRecord record) throws IOException {
+        return awaitDurable(appendRecord(record));
+    }
+
+    /**
+     * Appends a batch of records to the journal and waits until all of them are synced to
+     * disk, so a large batch shares a few syncs instead of taking one per record.
+     *
+     * @param records the changes to record, in order.
+     *
+     * @throws IOException if a record couldn't be written.
+     *
+     * @return the records' LSNs, in the same order.
+     */
+    public long[] appendRecordsDurably(List<JournalRecord> records) throws IOException {
+        List<CompletableFuture<Long>> durableFutures = new ArrayList<>(records.size());
+        for (JournalRecord record: records) {
+            durableFutures.add(appendRecord(record));
+        }
+
+        long[] lsns = new long[records.size()];
+        for (int index = 0; index < lsns.length; index++) {
+            lsns[index] = awaitDurable(durableFutures.get(index));
+        }
+
+        return lsns;
+    }
+
+    /**
+     * Starts a new segment: every record appended after this call goes to a new file, so
+     * the segments before it can be deleted once a snapshot covers them. Waits until
+     * earlier records are written and the new segment is open.
+     *
+     * @throws IOException if the new segment couldn't be started.
+     *
+     * @return the LSN of the first record of the new segment.
+     */
+    public long startSegment() throws IOException {
+        CompletableFuture<Long> startedFuture;
+
+        synchronized (this) {
+            checkWritable();
+
+            PendingRecord segmentStart = new PendingRecord(ByteBuffer.allocate(0), nextLSN, true);
+            pendingRecords.add(segmentStart);
+            startedFuture = segmentStart.durableFuture;
+        }
+
+        return awaitDurable(startedFuture);
+    }
+
+    /**
+     * Deletes the segments holding only records before a given LSN.
+     *
+     * @param firstKeptLSN the LSN of the oldest record to keep.
+     *
+     * @throws IOException if the journal directory can't be read.
+     *
+     * @return the number of segments deleted.
+     */
+    public int deleteSegmentsBefore(long firstKeptLSN) throws IOException {
+        TreeMap<Long, Path> segmentFiles = fetchSegmentFiles();
+        int numberDeleted = 0;
+
+        //a segment holds records up to the first LSN of the next segment
+        Long nextSegmentLSN = null;
+        for (Long segmentLSN: segmentFiles.descendingKeySet()) {
+            if (nextSegmentLSN != null && nextSegmentLSN <= firstKeptLSN) {
+                Files.deleteIfExists(segmentFiles.get(segmentLSN));
+                numberDeleted++;
+            }
+            nextSegmentLSN = segmentLSN;
+        }
+
+        return numberDeleted;
+    }
+
+    /**
+     * Reads every record in the journal from a given LSN on, oldest first. Should be called
+     * before any records are appended, e.g. to rebuild a service's games at startup.
+     *
+     * @param firstLSN      the LSN of the oldest record to read.
+     * @param recordHandler called with each record in turn.
+     *
+     * @throws IOException if the journal can't be read.
+     */
+    public void replayJournal(long firstLSN, Consumer<JournalRecord> recordHandler) throws IOException {
+        for (Path segment: fetchSegmentFiles().values()) {
+            scanSegment(segment, record -> {
+                if (record.getLSN() >= firstLSN) {
+                    recordHandler.accept(record);
+                }
+            });
+        }
+    }
+
+    /**
+     * Writes every record already appended, then stops the writer thread and closes the file.
+     * Records appended while closing may fail with an exception instead.
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            pendingRecords.add(CLOSE_MARKER);
+        }
+
+        try {
+            writerThread.join();
+            segmentChannel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            LOGGER.warning("Could not close journal segment " + segmentFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Helper method to check records can still be appended: the journal isn't closed, and
+     * no earlier write or sync has failed.
+     *
+     * @throws IOException if the journal is closed or has failed.
+     */
+    private void checkWritable() throws IOException {
+        if (closed) {
+            throw new IOException("Journal is closed.");
+        }
+        if (writeFailure != null) {
+            throw writeFailure;
+        }
+    }
+
+    /**
+     * Helper method to wait for a pending record to be written.
+     *
+     * @param durableFuture the future of the pending record.
+     *
+     * @throws IOException if the record couldn't be written.
+     *
+     * @return the record's LSN.
+     */
+    private static long awaitDurable(CompletableFuture<Long> durableFuture) throws IOException {
+        try {
+            return durableFuture.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing journal.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not write journal.", e.getCause());
+        }
+    }
+
+    /**
+     * Helper method run by the writer thread: takes every waiting record, writes them with
+     * one sync, and completes their futures, until the journal is closed.
+     */
+    private void writeRecords() {
+        List<PendingRecord> batch = new ArrayList<>();
+        boolean closing = false;
+
+        while (!closing) {
+            try {
+                batch.add(pendingRecords.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+
+            pendingRecords.drainTo(batch, MAX_BATCH_SIZE - batch.size());
+            closing = batch.remove(CLOSE_MARKER);
+
+            int numberWritten = 0;
+            try {
+                if (writeFailure != null) {
+                    throw writeFailure;
+                }
+
+                for (PendingRecord pendingRecord: batch) {
+                    if (pendingRecord.startsSegment) {
+                        openNextSegment(pendingRecord.lsn);
+                    }
+
+                    while (pendingRecord.encodedRecord.hasRemaining()) {
+                        segmentChannel.write(pendingRecord.encodedRecord);
+                    }
+                    numberWritten += pendingRecord.startsSegment ? 0 : 1;
+                }
+                segmentChannel.force(false);
+
+                numberRecords.addAndGet(numberWritten);
+                numberSyncs.incrementAndGet();
+                notifyListener(batch);
+                for (PendingRecord pendingRecord: batch) {
+                    pendingRecord.durableFuture.complete(pendingRecord.lsn);
+                }
+            } catch (IOException e) {
+                if (writeFailure == null) {
+                    LOGGER.severe("Could not write journal segment " + segmentFile + "; refusing further " +
+                                      "records: " + e.getMessage());
+                    writeFailure = new IOException("Journal failed writing segment " + segmentFile + ".", e);
+                }
+                for (PendingRecord pendingRecord: batch) {
+                    pendingRecord.durableFuture.completeExceptionally(writeFailure);
+                }
+            }
+
+            batch.clear();
+        }
+
+        IOException closedException = new IOException("Journal is closed.");
+        for (PendingRecord pendingRecord: pendingRecords) {
+            pendingRecord.durableFuture.completeExceptionally(closedException);
+        }
+    }
+
+    /**
+     * Helper method for the writer thread to sync and close the current segment, and open
+     * a new one.
+     *
+     * @param firstLSN the LSN of the first record of the new segment.
+     *
+     * @throws IOException if a segment can't be synced, closed or opened.
+     */
+    private void openNextSegment(long firstLSN) throws IOException {
+        Path nextSegmentFile = journalDirectory.resolve(writeSegmentName(firstLSN));
+        if (nextSegmentFile.equals(segmentFile)) {
+            return;
+        }
+
+        segmentChannel.force(false);
+        segmentChannel.close();
+
+        segmentFile = nextSegmentFile;
+        segmentChannel = FileChannel.open(segmentFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                          StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Helper method to find the segment files of the journal.
+     *
+     * @throws IOException if the journal directory can't be read.
+     *
+     * @return the segment files, keyed by the LSN of their first record.
+     */
+    private TreeMap<Long, Path> fetchSegmentFiles() throws IOException {
+        TreeMap<Long, Path> segmentFiles = new TreeMap<>();
+
+        try (DirectoryStream<Path> directoryFiles = Files.newDirectoryStream(journalDirectory,
+                SEGMENT_PREFIX + "*" + SEGMENT_EXTENSION)) {
+            for (Path file: directoryFiles) {
+                String fileName = file.getFileName().toString();
+
+                try {
+                    segmentFiles.put(Long.parseLong(fileName.substring(SEGMENT_PREFIX.length(),
+                                     fileName.length() - SEGMENT_EXTENSION.length())), file);
+                } catch (NumberFormatException e) {
+                    LOGGER.warning("Ignoring unexpected journal file " + file);
+                }
+            }
+        }
+
+        return segmentFiles;
+    }
+
+    /**
+     * Helper method to give a batch of records just synced to the journal's listener, if
+     * it has one.
+     *
+     * @param batch the records synced, in LSN order.
+     */
+    private void notifyListener(List<PendingRecord> batch) {
+        RecordListener listener = recordListener;
+        if (listener == null) {
+            return;
+        }
+
+        List<ByteBuffer> encodedRecords = new ArrayList<>(batch.size());
+        long lastLSN = -1;
+
+        for (PendingRecord pendingRecord: batch) {
+            if (!pendingRecord.startsSegment) {
+                ByteBuffer encodedRecord = pendingRecord.encodedRecord.duplicate();
+                encodedRecord.flip();
+                encodedRecords.add(encodedRecord);
+                lastLSN = pendingRecord.lsn;
+            }
+        }
+
+        if (encodedRecords.isEmpty()) {
+            return;
+        }
+
+        try {
+            listener.recordsWritten(encodedRecords, lastLSN);
+        } catch (RuntimeException e) {
+            LOGGER.warning("Journal listener failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Helper method to name the segment starting at a given LSN, so names sort by LSN.
+     *
+     * @param firstLSN the LSN of the segment's first record.
+     *
+     * @return the segment's file name.
+     */
+    private static String writeSegmentName(long firstLSN) {
+        return String.format("%s%020d%s", SEGMENT_PREFIX, firstLSN, SEGMENT_EXTENSION);
+    }
+
+    /**
+     * Helper method to read a segment from the start, stopping at the first record that
+     * is cut short or fails its checksum.
+     *
+     * @param segment       the segment file to read.
+     * @param recordHandler called with each intact record in turn.
+     *
+     * @throws IOException if the segment can't be read.
+     *
+     * @return the length of the intact part of the segment, in bytes.
+     */
+    private static long scanSegment(Path segment, Consumer<JournalRecord> recordHandler) throws IOException {
+        long validLength = 0;
+        CRC32 checksum = new CRC32();
+
+        FileChannel readChannel = FileChannel.open(segment, StandardOpenOption.READ);
+        try (DataInputStream segmentInput = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(readChannel), 1 << 16))) {
+            while (true) {
+                int recordLength;
+                int recordChecksum;
+                byte[] payload;
+
+                try {
+                    recordLength = segmentInput.readInt();
+                    recordChecksum = segmentInput.readInt();
+                    if (recordLength < 0 || validLength + RECORD_HEADER_BYTES + recordLength > readChannel.size()) {
+                        return validLength;
+                    }
+
+                    payload = new byte[recordLength];
+                    segmentInput.readFully(payload);
+                } catch (EOFException e) {
+                    return validLength;
+                }
+
+                checksum.reset();
+                checksum.update(payload, 0, payload.length);
+                if ((int) checksum.getValue() != recordChecksum) {
+                    return validLength;
+                }
+
+                recordHandler.accept(decodeRecord(payload));
+                validLength += RECORD_HEADER_BYTES + recordLength;
+            }
+        }
+    }
+
+    /**
+     * Helper method to encode a record with its LSN, length and checksum.
+     *
+     * @param record the record to encode.
+     * @param lsn    the LSN given to the record.
+     *
+     * @return the encoded record, ready to be written.
+     */
+    static ByteBuffer encodeRecord(JournalRecord record, long lsn) {
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(64);
+
+        try (DataOutputStream payloadOutput = new DataOutputStream(payloadBytes)) {
+            payloadOutput.writeLong(lsn);
+            payloadOutput.writeByte(record.getRecordType().ordinal());
+            payloadOutput.writeInt(record.getGameID());
+
+            if (record.getRecordType() == RecordType.NEW_GAME) {
+                writeNullableString(payloadOutput, record.getMapID());
+                payloadOutput.writeLong(record.getMapVersion());
+            } else if (record.getRecordType() == RecordType.COMMAND) {
+                writeNullableString(payloadOutput, record.getCommand().getCommandName());
+                writeNullableString(payloadOutput, record.getCommand().getCommandValue());
+                writeNullableString(payloadOutput, record.getCommand().getPlayerName());
+            } else if (record.getRecordType() == RecordType.IMPORT_GAME) {
+                writeNullableString(payloadOutput, record.getMapID());
+                payloadOutput.writeInt(record.getExportedSession().length);
+                payloadOutput.write(record.getExportedSession());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode journal record.", e);
+        }
+
+        byte[] payload = payloadBytes.toByteArray();
+        CRC32 checksum = new CRC32();
+        checksum.update(payload, 0, payload.length);
+
+        ByteBuffer encodedRecord = ByteBuffer.allocate(RECORD_HEADER_BYTES + payload.length);
+        encodedRecord.putInt(payload.length);
+        encodedRecord.putInt((int) checksum.getValue());
+        encodedRecord.put(payload);
+        encodedRecord.flip();
+
+        return encodedRecord;
+    }
+
+    /**
+     * Helper method to read a record encoded by encodeRecord from a stream.
+     *
+     * @param input the stream to read from.
+     *
+     * @throws EOFException           if the stream ends before the record does.
+     * @throws InvalidObjectException if the record's length is out of range, or it fails its checksum.
+     * @throws IOException            if the record can't be read.
+     *
+     * @return the decoded record.
+     */
+    static JournalRecord readEncodedRecord(DataInputStream input) throws IOException {
+        int recordLength = input.readInt();
+        int recordChecksum = input.readInt();
+        if (recordLength < 0 || recordLength > MAX_RECORD_BYTES) {
+            throw new InvalidObjectException("Journal record length " + recordLength + " is out of range.");
+        }
+
+        byte[] payload = new byte[recordLength];
+        input.readFully(payload);
+
+        CRC32 checksum = new CRC32();
+        checksum.update(payload, 0, payload.length);
+        if ((int) checksum.getValue() != recordChecksum) {
+            throw new InvalidObjectException("Journal record failed its checksum.");
+        }
+
+        return decodeRecord(payload);
+    }
+
+    /**
+     * Helper method to decode the payload of a record.
+     *
+     * @param payload the record's bytes, without its length and checksum.
+     *
+     * @throws IOException if the payload isn't a valid record.
+     *
+     * @return the decoded record.
+     */
+    private static JournalRecord decodeRecord(byte[] payload) throws IOException {
+        DataInputStream payloadInput = new DataInputStream(new ByteArrayInputStream(payload));
+
+        long lsn = payloadInput.readLong();
+        int typeOrdinal = payloadInput.readUnsignedByte();
+        if (typeOrdinal >= RecordType.values().length) {
+            throw new IOException("Unknown journal record type " + typeOrdinal + ".");
+        }
+
+        RecordType recordType = RecordType.values()[typeOrdinal];
+        int gameID = payloadInput.readInt();
+
+        switch (recordType) {
+            case NEW_GAME:
+                String newMapID = readNullableString(payloadInput);
+                return new JournalRecord(recordType, gameID, newMapID, payloadInput.readLong(), null, null, lsn);
+            case COMMAND:
+                Command command = new Command(readNullableString(payloadInput), readNullableString(payloadInput));
+                command.setPlayerName(readNullableString(payloadInput));
+                return new JournalRecord(recordType, gameID, null, command, lsn);
+            case IMPORT_GAME:
+                String mapID = readNullableString(payloadInput);
+                int sessionLength = payloadInput.readInt();
+                if (sessionLength < 0 || sessionLength > payloadInput.available()) {
+                    throw new InvalidObjectException("Journal record declares a session of " + sessionLength +
+                                                     " bytes, which doesn't fit in " + payloadInput.available() +
+                                                     " bytes.");
+                }
+
+                byte[] exportedSession = new byte[sessionLength];
+                payloadInput.readFully(exportedSession);
+                return new JournalRecord(recordType, gameID, mapID, -1, null, exportedSession, lsn);
+            default:
+                return new JournalRecord(recordType, gameID, null, null, lsn);
+        }
+    }
+
+    /**
+     * Helper method to write a string that may be null, as length-prefixed UTF-8 so that,
+     * unlike writeUTF, strings of any length can be written.
+     *
+     * @param output the stream to write to.
+     * @param string the string to write.
+     *
+     * @throws IOException if the string can't be written.
+     */
+    static void writeNullableString(DataOutputStream output, String string) throws IOException {
+        if (string == null) {
+            output.writeInt(-1);
+            return;
+        }
+
+        byte[] stringBytes = string.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(stringBytes.length);
+        output.write(stringBytes);
+    }
+
+    /**
+     * Helper method to read a string written by writeNullableString.
+     *
+     * @param input the stream to read from.
+     *
+     * @throws IOException if the string can't be read.
+     *
+     * @return the string read, or null.
+     */
+    static String readNullableString(DataInputStream input) throws IOException {
+        int stringLength = input.readInt();
+
+        if (stringLength < 0) {
+            return null;
+        }
+        if (stringLength > input.available()) {
+            throw new InvalidObjectException("Journal record declares a string of " + stringLength +
+                                             " bytes, which doesn't fit in " + input.available() + " bytes.");
+        }
+
+        byte[] stringBytes = new byte[stringLength];
+        input.readFully(stringBytes);
+
+        return new String(stringBytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,162 @@
+package student.server;
+
+import student.adventure.GameEngine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+
+/**
+ * A game session in a portable binary form, for moving it to another service.
+ * Holds the id and layout version of the map the game plays, and the game's state as
+ * written by GameEngine.writeGameState: the player's name, score and inventory, the
+ * current room, the items of the rooms the player changed, and the visit history.
+ * Exported sessions written one after another form a stream that can be imported in bulk.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class ExportedSession {
+    //version of the format written by writeSession
+    public final static int SESSION_FORMAT_VERSION = 1;
+
+    //largest game state read back, so a damaged length can't exhaust memory
+    private final static int MAX_STATE_BYTES = 16 << 20;
+
+    private final String mapID;
+    private final long mapVersion;
+    private final byte[] gameState;
+
+    /**
+     * Constructor for objects of class ExportedSession.
+     *
+     * @param mapID      the id of the map the game plays.
+     * @param mapVersion the layout version of the map the game plays.
+     * @param gameState  the game's state, as written by GameEngine.writeGameState.
+     */
+    public ExportedSession(String mapID, long mapVersion, byte[] gameState) {
+        this.mapID = mapID;
+        this.mapVersion = mapVersion;
+        this.gameState = gameState;
+    }
+
+    public String getMapID() {
+        return mapID;
+    }
+
+    public long getMapVersion() {
+        return mapVersion;
+    }
+
+    public byte[] getGameState() {
+        return gameState;
+    }
+
+    /**
+     * Exports the session of a running game. The caller must hold the engine's lock, or
+     * otherwise keep commands off the game, if the map id must match the state.
+     *
+     * @param mapID      the id of the map the game plays.
+     * @param gameEngine the engine running the game.
+     *
+     * @throws IOException if the state can't be written.
+     *
+     * @return the exported session.
+     */
+    public static ExportedSession exportSession(String mapID, GameEngine gameEngine) throws IOException {
+        ByteArrayOutputStream stateBytes = new ByteArrayOutputStream(256);
+
+        try (DataOutputStream stateOutput = new DataOutputStream(stateBytes)) {
+            gameEngine.writeGameState(stateOutput);
+        }
+
+        return new ExportedSession(mapID, gameEngine.getTemplateMap().findLayoutVersion(), stateBytes.toByteArray());
+    }
+
+    /**
+     * Writes this session to a stream.
+     *
+     * @param output the stream to write to.
+     *
+     * @throws IOException if the session can't be written.
+     */
+    public void writeSession(DataOutput output) throws IOException {
+        output.writeByte(SESSION_FORMAT_VERSION);
+        output.writeUTF(mapID);
+        output.writeInt((int) mapVersion);
+        output.writeInt(gameState.length);
+        output.write(gameState);
+    }
+
+    /**
+     * Writes this session into a new array.
+     *
+     * @return the written session.
+     */
+    public byte[] toByteArray() {
+        ByteArrayOutputStream sessionBytes = new ByteArrayOutputStream(gameState.length + mapID.length() + 16);
+
+        try (DataOutputStream sessionOutput = new DataOutputStream(sessionBytes)) {
+            writeSession(sessionOutput);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write session to memory.", e);
+        }
+
+        return sessionBytes.toByteArray();
+    }
+
+    /**
+     * Reads the next session written by writeSession from a stream.
+     *
+     * @param input the stream to read from.
+     *
+     * @throws IOException if the session can't be read or is cut short.
+     *
+     * @return the session read, or null if the stream ended before it.
+     */
+    public static ExportedSession readSession(DataInputStream input) throws IOException {
+        int formatVersion = input.read();
+
+        if (formatVersion < 0) {
+            return null;
+        }
+        if (formatVersion != SESSION_FORMAT_VERSION) {
+            throw new InvalidObjectException("Unknown session format version " + formatVersion + ".");
+        }
+
+        String mapID = input.readUTF();
+        long mapVersion = input.readInt() & 0xFFFFFFFFL;
+        int stateLength = input.readInt();
+        if (stateLength < 0 || stateLength > MAX_STATE_BYTES) {
+            throw new InvalidObjectException("Session state length " + stateLength + " is out of range.");
+        }
+
+        byte[] gameState = new byte[stateLength];
+        input.readFully(gameState);
+
+        return new ExportedSession(mapID, mapVersion, gameState);
+    }
+
+    /**
+     * Reads a session written by toByteArray.
+     *
+     * @param sessionBytes the written session.
+     *
+     * @throws IOException if the bytes don't hold a session.
+     *
+     * @return the session read.
+     */
+    public static ExportedSession fromByteArray(byte[] sessionBytes) throws IOException {
+        ExportedSession session = readSession(new DataInputStream(new ByteArrayInputStream(sessionBytes)));
+
+        if (session == null) {
+            throw new InvalidObjectException("No session found.");
+        }
+
+        return session;
+    }
+}
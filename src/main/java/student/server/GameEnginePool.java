@@ -0,0 +1,142 @@
+package student.server;
+
+import student.adventure.GameEngine;
+import student.adventure.GameMap;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static student.adventure.MapDataReader.deserializeFile;
+
+/**
+ * Pool of ready-to-play game engines for a single map.
+ * The map file is read once; new engines are built and finished engines are reset
+ * on a background thread, so handing out an engine doesn't wait on either.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class GameEnginePool {
+    private final GameMap templateMap;
+    private final int historyRetention;
+    private final BlockingQueue<GameEngine> readyEngines;
+    private final ExecutorService backgroundWorker;
+    private final AtomicBoolean refillScheduled;
+
+    /**
+     * Constructor for objects of class GameEnginePool.
+     * Loads the map and starts filling the pool in the background.
+     *
+     * @param mapFile          the name of the file with the map to play.
+     * @param historyRetention the number of visited rooms each game remembers.
+     * @param capacity         the maximum number of ready engines to keep.
+     *
+     * @throws IOException if the map file couldn't be loaded.
+     */
+    public GameEnginePool(String mapFile, int historyRetention, int capacity) throws IOException {
+        this(deserializeFile(mapFile), historyRetention, capacity);
+    }
+
+    /**
+     * Constructor for objects of class GameEnginePool playing an already loaded map.
+     * Starts filling the pool in the background.
+     *
+     * @param templateMap      the loaded and validated map to play.
+     * @param historyRetention the number of visited rooms each game remembers.
+     * @param capacity         the maximum number of ready engines to keep.
+     */
+    public GameEnginePool(GameMap templateMap, int historyRetention, int capacity) {
+        this.templateMap = templateMap;
+        this.historyRetention = historyRetention;
+        readyEngines = new ArrayBlockingQueue<>(capacity);
+        refillScheduled = new AtomicBoolean(false);
+
+        backgroundWorker = Executors.newSingleThreadExecutor(task -> {
+            Thread workerThread = new Thread(task, "game-engine-pool");
+            workerThread.setDaemon(true);
+            return workerThread;
+        });
+
+        scheduleRefill();
+    }
+
+    public GameMap getTemplateMap() {
+        return templateMap;
+    }
+
+    /**
+     * Determines the number of engines ready to be handed out.
+     *
+     * @return the number of ready engines.
+     */
+    public int findNumberReadyEngines() {
+        return readyEngines.size();
+    }
+
+    /**
+     * Hands out an engine ready for a new game. Only builds an engine on the spot if
+     * the pool has run dry.
+     *
+     * @param gameID the id for the new game.
+     *
+     * @return a game engine in its initial state.
+     */
+    public GameEngine acquireEngine(int gameID) {
+        GameEngine readyEngine = readyEngines.poll();
+        scheduleRefill();
+
+        if (readyEngine == null) {
+            return new GameEngine(templateMap, "", gameID, historyRetention);
+        }
+
+        readyEngine.assignGameID(gameID);
+        return readyEngine;
+    }
+
+    /**
+     * Takes back an engine whose game is over, resetting it in the background so it can
+     * be handed out again. Engines playing a different map (e.g. an older version) are dropped.
+     *
+     * @param finishedEngine the engine to recycle.
+     */
+    public void recycleEngine(GameEngine finishedEngine) {
+        if (backgroundWorker.isShutdown() || finishedEngine.getTemplateMap() != templateMap) {
+            return;
+        }
+
+        backgroundWorker.execute(() -> {
+            finishedEngine.reset(0);
+            readyEngines.offer(finishedEngine);
+        });
+    }
+
+    /**
+     * Stops the background thread of this pool. Ready engines can still be handed out.
+     */
+    public void shutdown() {
+        backgroundWorker.shutdown();
+    }
+
+    /**
+     * Helper method to build engines in the background until the pool is full.
+     * At most one refill is scheduled at a time.
+     */
+    private void scheduleRefill() {
+        if (backgroundWorker.isShutdown() || readyEngines.remainingCapacity() == 0
+                || !refillScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        backgroundWorker.execute(() -> {
+            refillScheduled.set(false);
+
+            while (readyEngines.remainingCapacity() > 0) {
+                readyEngines.offer(new GameEngine(templateMap, "", 0, historyRetention));
+            }
+        });
+    }
+}
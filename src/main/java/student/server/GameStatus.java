@@ -2,9 +2,11 @@ package student.server;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * An object representing the current state of a game instance.
+ * A GameStatus is immutable, so it can be read and serialized while its game keeps running.
  */
 public class GameStatus {
     /**
@@ -12,31 +14,31 @@ public class GameStatus {
      * Note: this should not be `true` for most cases. This should only be `true` if an exception was
      * thrown by the game engine.
      */
-    private boolean error;
+    private final boolean error;
     /**
      * The instance ID associated with this GameStatus.
      * This field is required, and cannot be null.
      */
-    private int id;
+    private final int id;
     /**
      * A text message to display to the user.
      * This field is required, and cannot be null.
      */
-    private String message;
+    private final String message;
     /**
      * A URL of an image to display to the user.
      */
-    private String imageUrl;
+    private final String imageUrl;
     /**
      * A YouTube video link to play for the user.
      */
-    private String videoUrl;
+    private final String videoUrl;
     /**
      * An object (that you may modify) that contains values represented by the game's state.
      * E.g.: life total, # items in inventory, etc.
      * This field is required, and cannot be null. However, the AdventureState class can be empty if you don't need it.
      */
-    private AdventureState state;
+    private final AdventureState state;
     /**
      * An mapping of commands to possible arguments for those commands. This will be used to create buttons on the
      * frontend, so it should be full of the possible options for the user.
@@ -45,7 +47,12 @@ public class GameStatus {
      *       "answer" -> ["A", "B", "C", "D"] (for a trivia-like custom feature)
      * This field is required, and cannot be null.
      */
-    private Map<String, List<String>> commandOptions;
+    private volatile Map<String, List<String>> commandOptions;
+    /**
+     * Builds the command options the first time they are requested (e.g. when this status is serialized),
+     * or null if the command options were given directly.
+     */
+    private final Supplier<Map<String, List<String>>> commandOptionsBuilder;
 
     public GameStatus(boolean error, int id, String message, String imageUrl, String videoUrl, AdventureState state, Map<String, List<String>> commandOptions) {
         this.error = error;
@@ -55,6 +62,18 @@ public class GameStatus {
         this.videoUrl = videoUrl;
         this.state = state;
         this.commandOptions = commandOptions;
+        this.commandOptionsBuilder = null;
+    }
+
+    public GameStatus(boolean error, int id, String message, String imageUrl, String videoUrl, AdventureState state, Supplier<Map<String, List<String>>> commandOptionsBuilder) {
+        this.error = error;
+        this.id = id;
+        this.message = message;
+        this.imageUrl = imageUrl;
+        this.videoUrl = videoUrl;
+        this.state = state;
+        this.commandOptions = null;
+        this.commandOptionsBuilder = commandOptionsBuilder;
     }
 
     public boolean isError() {
@@ -82,6 +101,13 @@ public class GameStatus {
     }
 
     public Map<String, List<String>> getCommandOptions() {
-        return commandOptions;
+        Map<String, List<String>> options = commandOptions;
+
+        if (options == null && commandOptionsBuilder != null) {
+            options = commandOptionsBuilder.get();
+            commandOptions = options;
+        }
+
+        return options;
     }
 }
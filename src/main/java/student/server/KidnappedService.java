@@ -1,48 +1,220 @@
 package student.server;
 
 import student.adventure.GameEngine;
+import student.server.CommandJournal.JournalRecord;
 import static student.adventure.PlayerInteractionHandler.executePlayerCommand;
 
-import java.sql.SQLException;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.Statement;
-import java.sql.ResultSet;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 
-import java.util.List;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.NoSuchElementException;
 import java.util.LinkedHashMap;
 import java.util.HashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
 
 /**
  * Adventure game service that store and runs a number of Kidnapped! games.
+ * Games can be played on any map in the service's registry: the Kidnapped! map, plus
+ * every map in the directory named by the adventure.mapDirectory system property.
+ * Commands on a game run one at a time, while game states can be read concurrently
+ * without locking.
+ * If given a journal directory (or the adventure.journalDirectory system property), every
+ * change to the games is journaled before it's acknowledged, and the games are rebuilt
+ * from the latest snapshot and the journal after it when the service starts. Snapshots are
+ * taken periodically without pausing play, and the journal they cover is deleted.
+ * A journaled service can stream its journal to a warm standby service (named by the
+ * adventure.replicaAddress system property), which keeps copies of the games and takes
+ * them over if the primary goes silent. A service is a standby if the
+ * adventure.standbyPort system property is set; it serves reads of its copies, but no
+ * changes, until it takes over. Each takeover raises the replication term; a primary that
+ * reconnects to a standby with a higher term has been replaced, so it fences itself off
+ * and refuses changes. A primary cut off from its standby can't learn it was replaced
+ * until it reconnects, so on failover the old primary must also be fenced off externally
+ * (stopped, or taken out of the load balancer) before clients are sent to the standby.
  *
  * @author  Annabelle Ju
  * @version 9/21/2020
  */
 public class KidnappedService implements AdventureService {
-    private List<GameEngine> gamesRunning;
+    private static final Logger LOGGER = Logger.getLogger(KidnappedService.class.getName());
+
+    private Map<Integer, GameEngine> gamesRunning; //game id to game engine
+    private Map<Integer, String> gameMapIDs; //game id to id of the map it plays
+    private AtomicInteger nextGameID;
     private String gameMapFile;
+    private MapRegistry mapRegistry;
+    private CommandJournal commandJournal; //null if games aren't journaled
+    private Map<Integer, Long> gameLSNs; //game id to LSN of the last journal record applied to it
+    private Map<Integer, Long> restoredLSNs; //game id to its LSN in the snapshot being recovered from
+    private ReadWriteLock lifecycleLock; //held exclusively while cutting the journal for a snapshot
+    private ScheduledExecutorService snapshotScheduler;
+    private volatile long lastSnapshotLSN;
+    private ReplicationSender replicationSender; //null if games aren't replicated to a standby
+    private ReplicationReceiver replicationReceiver; //null if this service was never a standby
+    private volatile boolean standby; //true until a standby takes over from its primary
+    private volatile boolean fenced; //true once this primary's standby has taken over from it
+    private volatile long replicationTerm; //raised each time a standby takes over
+    private String standbyJournalDirectory; //directory a standby journals in once it takes over
+
+    public final static String DEFAULT_MAP_ID = "kidnapped";
+    public final static String MAP_DIRECTORY_PROPERTY = "adventure.mapDirectory";
+    public final static String JOURNAL_DIRECTORY_PROPERTY = "adventure.journalDirectory";
+    public final static String SNAPSHOT_INTERVAL_PROPERTY = "adventure.snapshotIntervalSeconds";
+    public final static String REPLICA_ADDRESS_PROPERTY = "adventure.replicaAddress";
+    public final static String STANDBY_PORT_PROPERTY = "adventure.standbyPort";
+    public final static String FAILOVER_MILLIS_PROPERTY = "adventure.failoverMillis";
+    public final static String ENGINE_POOL_CAPACITY_PROPERTY = "adventure.enginePoolCapacity";
+
+    private final static long DEFAULT_SNAPSHOT_INTERVAL_SECONDS = 60;
+    private final static long DEFAULT_FAILOVER_MILLIS = 1000;
+    private final static String STANDBY_MESSAGE = "This service is a standby; games are changed on its primary.";
+    private final static String FENCED_MESSAGE = "This service's standby has taken over its games.";
+
+    //maps shared by every service, reloaded in the background when their files change
+    private final static MapCache MAP_CACHE = new MapCache();
+
+    //ready engines kept per registered map; an empty pool only means building an engine on demand
+    private final static int DEFAULT_ENGINE_POOL_CAPACITY = 4;
 
-    private final static String DATABASE_URL = "jdbc:sqlite:src/main/resources/adventure.db";
-    private Connection dbConnection;
+    //number of visited rooms each game remembers for its outro; bounds memory of long sessions
+    private final static int VISIT_HISTORY_RETENTION = 256;
+
+    private final LeaderboardStore leaderboardStore; //null if the store couldn't be opened
+    private final WindowedLeaderboard windowedLeaderboard; //day and week leaderboards
+    private final ShardRouter shardRouter; //null if games aren't sharded between services
+    private final AtomicLong leaderboardVersion; //bumped whenever any leaderboard changes
+    private final long serviceStartMillis; //tells this service's leaderboard versions from an earlier one's
 
     /**
      * Default constructor for KidnappedService.
      * Initiates an empty list of Kidnapped! games and empty leaderboard.
-     * Connects to the leaderboard database.
+     * Registers the hosted maps, preparing games of each in the background.
+     * Opens the leaderboard store named by the adventure.leaderboardStore system property,
+     * the leaderboard database by default.
+     * Journals games in the directory named by the adventure.journalDirectory system
+     * property, if it's set.
+     * Replicates games to the standby at the host:port named by the adventure.replicaAddress
+     * system property, or is a standby listening on the adventure.standbyPort one.
      */
     public KidnappedService() {
+        this(System.getProperty(JOURNAL_DIRECTORY_PROPERTY));
+    }
+
+    /**
+     * Constructor for KidnappedService journaling its games in a given directory.
+     * Games left in the directory's journal by an earlier service are rebuilt by replaying it;
+     * games whose map has changed since are skipped. Throws IllegalStateException if the
+     * journal or its snapshot can't be read.
+     *
+     * @param journalDirectory the directory to keep the journal in, or null to not journal games.
+     */
+    public KidnappedService(String journalDirectory) {
+        this(journalDirectory, openDefaultLeaderboardStore());
+    }
+
+    /**
+     * Constructor for KidnappedService keeping its leaderboards in a given store.
+     *
+     * @param journalDirectory the directory to keep the journal in, or null to not journal games.
+     * @param leaderboardStore the store to keep leaderboards in, or null to keep none.
+     */
+    public KidnappedService(String journalDirectory, LeaderboardStore leaderboardStore) {
+        this(journalDirectory, leaderboardStore, ShardRouter.fromSystemProperties());
+    }
+
+    /**
+     * Constructor for KidnappedService sharing the games with other services.
+     * New games only get ids owned by this service's node.
+     *
+     * @param journalDirectory the directory to keep the journal in, or null to not journal games.
+     * @param leaderboardStore the store to keep leaderboards in, or null to keep none.
+     * @param shardRouter      the router assigning game ids to nodes, or null if games aren't sharded.
+     */
+    public KidnappedService(String journalDirectory, LeaderboardStore leaderboardStore, ShardRouter shardRouter) {
+        this.leaderboardStore = leaderboardStore;
+        this.shardRouter = shardRouter;
+        windowedLeaderboard = new WindowedLeaderboard();
+        loadRecentScores();
+        leaderboardVersion = new AtomicLong(0);
+        serviceStartMillis = System.currentTimeMillis();
         gameMapFile = "src/test/resources/fullValidGame.json";
-        gamesRunning = new ArrayList<>();
+        gamesRunning = new ConcurrentHashMap<>();
+        gameMapIDs = new ConcurrentHashMap<>();
+        gameLSNs = new ConcurrentHashMap<>();
+        lifecycleLock = new ReentrantReadWriteLock();
+        nextGameID = new AtomicInteger(0);
+        mapRegistry = new MapRegistry(MAP_CACHE, VISIT_HISTORY_RETENTION,
+                Math.max(1, Integer.getInteger(ENGINE_POOL_CAPACITY_PROPERTY, DEFAULT_ENGINE_POOL_CAPACITY)));
+
+        String mapDirectory = System.getProperty(MAP_DIRECTORY_PROPERTY);
+        if (mapDirectory != null) {
+            try {
+                mapRegistry.registerMapDirectory(mapDirectory);
+            } catch (IOException e) {
+                LOGGER.warning("Could not read map directory " + mapDirectory + ": " + e.getMessage());
+            }
+        }
 
         try {
-            dbConnection = DriverManager.getConnection(DATABASE_URL);
-        } catch (SQLException e) {
-            dbConnection = null;
+            mapRegistry.registerMap(DEFAULT_MAP_ID, gameMapFile);
+        } catch (IOException e) {
+            LOGGER.warning("Could not load map " + gameMapFile + ": " + e.getMessage());
+        }
+
+        Integer standbyPort = Integer.getInteger(STANDBY_PORT_PROPERTY);
+        if (standbyPort != null) {
+            //a standby's games come from its primary, not its own journal
+            try {
+                startStandby(standbyPort, Long.getLong(FAILOVER_MILLIS_PROPERTY, DEFAULT_FAILOVER_MILLIS),
+                             journalDirectory);
+            } catch (IOException | IllegalArgumentException e) {
+                LOGGER.severe("Could not listen for primary on port " + standbyPort + ": " + e.getMessage());
+            }
+        } else if (journalDirectory != null) {
+            try {
+                commandJournal = new CommandJournal(journalDirectory);
+                recoverGames();
+            } catch (IOException e) {
+                //running without the earlier games would journal new ones over them
+                LOGGER.severe("Could not recover games from " + journalDirectory + ": " + e.getMessage());
+                if (commandJournal != null) {
+                    commandJournal.close();
+                }
+                if (leaderboardStore != null) {
+                    leaderboardStore.close();
+                }
+                throw new IllegalStateException("Could not recover games from " + journalDirectory + ".", e);
+            }
+        }
+
+        if (commandJournal != null) {
+            startSnapshotScheduler();
+
+            String replicaAddress = System.getProperty(REPLICA_ADDRESS_PROPERTY);
+            if (replicaAddress != null) {
+                int portStart = replicaAddress.lastIndexOf(':');
+                try {
+                    startReplication(replicaAddress.substring(0, Math.max(portStart, 0)),
+                                     Integer.parseInt(replicaAddress.substring(portStart + 1)));
+                } catch (IOException | NumberFormatException e) {
+                    LOGGER.severe("Could not replicate to " + replicaAddress + ": " + e.getMessage());
+                }
+            }
         }
     }
 
@@ -51,7 +223,20 @@ public class KidnappedService implements AdventureService {
     }
 
     public String getDatabaseUrl() {
-        return DATABASE_URL;
+        return leaderboardStore instanceof SqliteLeaderboardStore
+                   ? ((SqliteLeaderboardStore) leaderboardStore).getDatabaseUrl() : null;
+    }
+
+    public LeaderboardStore getLeaderboardStore() {
+        return leaderboardStore;
+    }
+
+    public MapRegistry getMapRegistry() {
+        return mapRegistry;
+    }
+
+    public CommandJournal getCommandJournal() {
+        return commandJournal;
     }
 
     /**
@@ -63,103 +248,965 @@ public class KidnappedService implements AdventureService {
         return gamesRunning.size();
     }
 
+    /**
+     * Determines whether this service is a standby that hasn't taken over from its primary.
+     *
+     * @return true if a standby, else false.
+     */
+    public boolean isStandby() {
+        return standby;
+    }
+
+    /**
+     * Determines whether this service is a primary whose standby has taken over from it,
+     * so it refuses changes to its games.
+     *
+     * @return true if fenced off, else false.
+     */
+    public boolean isFenced() {
+        return fenced;
+    }
+
+    /**
+     * Starts streaming the journal to a standby service, which keeps copies of the games.
+     * The stream is sent in the background, reconnecting whenever it's lost.
+     *
+     * @param standbyHost the host running the standby.
+     * @param standbyPort the port the standby listens for its primary on.
+     *
+     * @throws IOException if games aren't journaled, or are already replicated.
+     */
+    public synchronized void startReplication(String standbyHost, int standbyPort) throws IOException {
+        if (commandJournal == null) {
+            throw new IOException("Games aren't journaled.");
+        }
+        if (replicationSender != null) {
+            throw new IOException("Games are already replicated.");
+        }
+
+        replicationSender = new ReplicationSender(standbyHost, standbyPort, this);
+    }
+
+    /**
+     * Makes this service a warm standby, keeping copies of the games of the primary that
+     * connects to a port. The standby refuses changes to its games until it takes over, which
+     * it does once its primary has been silent for the failover time. Should be called before
+     * the service runs any games.
+     *
+     * @param port             the port to listen for the primary on, or 0 for any free port.
+     * @param failoverMillis   how long the primary may be silent before the standby takes over.
+     * @param journalDirectory the directory to journal games in once the standby takes over, or null to not.
+     *
+     * @throws IOException              if games are journaled here, or the port can't be listened on.
+     * @throws IllegalArgumentException if the failover time isn't longer than the primary's heartbeat.
+     *
+     * @return the port listened on.
+     */
+    public synchronized int startStandby(int port, long failoverMillis, String journalDirectory)
+            throws IOException {
+        if (commandJournal != null) {
+            throw new IOException("A journaled service can't be a standby.");
+        }
+
+        standbyJournalDirectory = journalDirectory;
+        restoredLSNs = new HashMap<>();
+        standby = true;
+        replicationReceiver = new ReplicationReceiver(port, failoverMillis, this);
+
+        return replicationReceiver.findPort();
+    }
+
+    /**
+     * Makes this standby take over from its primary: stops following the primary and starts
+     * accepting changes to its games. If the standby was given a journal directory, its
+     * games are snapshotted there and journaled from then on.
+     * Does nothing if this service isn't a standby.
+     */
+    public synchronized void promote() {
+        if (!standby) {
+            return;
+        }
+
+        //a primary reconnecting from now on is told it was replaced
+        replicationTerm++;
+        replicationReceiver.startFencing();
+        restoredLSNs = null;
+
+        if (standbyJournalDirectory != null) {
+            try {
+                commandJournal = new CommandJournal(standbyJournalDirectory);
+
+                //LSNs from the primary's journal mean nothing in this one
+                gameLSNs.replaceAll((id, lsn) -> -1L);
+                takeSnapshot();
+                startSnapshotScheduler();
+            } catch (IOException e) {
+                LOGGER.severe("Could not journal games in " + standbyJournalDirectory + ": " + e.getMessage());
+                if (commandJournal != null) {
+                    commandJournal.close();
+                    commandJournal = null;
+                }
+            }
+        }
+
+        standby = false;
+        LOGGER.info("Took over " + gamesRunning.size() + " games from primary at replication term " +
+                        replicationTerm + ".");
+    }
+
+    /**
+     * Writes any journal records still pending and closes the journal.
+     * Games can still be read afterwards, but no longer changed durably.
+     */
+    public void close() {
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdownNow();
+        }
+
+        if (commandJournal != null) {
+            commandJournal.close();
+        }
+
+        //after the journal, so the standby is sent every record written
+        if (replicationSender != null) {
+            replicationSender.close();
+        }
+
+        if (replicationReceiver != null) {
+            replicationReceiver.stop();
+        }
+
+        if (leaderboardStore != null) {
+            leaderboardStore.close();
+        }
+    }
+
+    /**
+     * Takes a snapshot of every running game, so recovery only has to load the snapshot and
+     * replay the journal after it. Once the new snapshot is on disk and verified, deletes the
+     * snapshots and journal segments older than the previous snapshot: the previous one is
+     * kept, with the journal after it, in case the new one is damaged. Games keep running
+     * while the snapshot is taken: each game is only locked while its own state is copied.
+     *
+     * @throws IOException if games aren't journaled, or the snapshot can't be written.
+     *
+     * @return the number of games in the snapshot.
+     */
+    public synchronized int takeSnapshot() throws IOException {
+        if (commandJournal == null) {
+            throw new IOException("Games aren't journaled.");
+        }
+
+        //no game is started or destroyed between its journal record and its change
+        long cutLSN;
+        lifecycleLock.writeLock().lock();
+        try {
+            cutLSN = commandJournal.startSegment();
+        } finally {
+            lifecycleLock.writeLock().unlock();
+        }
+
+        Path journalDirectory = commandJournal.getJournalDirectory();
+        SessionSnapshot snapshot = new SessionSnapshot(journalDirectory, cutLSN);
+
+        try {
+            for (Map.Entry<Integer, GameEngine> runningGame: gamesRunning.entrySet()) {
+                int id = runningGame.getKey();
+                GameEngine gameEngine = runningGame.getValue();
+
+                synchronized (gameEngine) {
+                    //game may have been destroyed (and its engine recycled) since it was listed
+                    Long lastLSN = gameLSNs.get(id);
+                    String mapID = gameMapIDs.get(id);
+
+                    if (gamesRunning.get(id) == gameEngine && lastLSN != null && mapID != null) {
+                        snapshot.writeGame(id, mapID, lastLSN, gameEngine);
+                    }
+                }
+            }
+
+            snapshot.commitSnapshot(nextGameID.get());
+        } catch (IOException | RuntimeException e) {
+            snapshot.abortSnapshot();
+            throw e;
+        }
+
+        long previousCutLSN = lastSnapshotLSN;
+        lastSnapshotLSN = cutLSN;
+        commandJournal.deleteSegmentsBefore(previousCutLSN);
+        SessionSnapshot.deleteSnapshotsBefore(journalDirectory, previousCutLSN);
+
+        return snapshot.getNumberGames();
+    }
+
     @Override
     public void reset() {
-        gamesRunning = new ArrayList<>();
+        if (standby || fenced) {
+            return;
+        }
+
+        //exclusive, so no game is created between journaling the reset and numbering from 0 again
+        lifecycleLock.writeLock().lock();
+        try {
+            journalRecord(JournalRecord.reset());
+            removeAllGames();
+        } catch (IOException e) {
+            LOGGER.severe("Could not journal reset: " + e.getMessage());
+        } finally {
+            lifecycleLock.writeLock().unlock();
+        }
     }
 
     @Override
     public int newGame() throws AdventureException {
+        return newGame(DEFAULT_MAP_ID);
+    }
+
+    @Override
+    public int newGame(String mapID) throws AdventureException {
+        if (mapID == null) {
+            mapID = DEFAULT_MAP_ID;
+        }
+
+        if (!mapRegistry.hasMap(mapID)) {
+            throw new AdventureException("No map found with id '" + mapID + "'.");
+        }
+        if (standby) {
+            throw new AdventureException(STANDBY_MESSAGE);
+        }
+        if (fenced) {
+            throw new AdventureException(FENCED_MESSAGE);
+        }
+
+        lifecycleLock.readLock().lock();
         try {
-            Statement statement = dbConnection.createStatement();
-            statement.execute("CREATE TABLE IF NOT EXISTS " +
-                                  "leaderboard_aju3 (name varchar(50), score int)");
+            int gameID = allocateGameID();
+            GameEngine gameEngine = mapRegistry.acquireEngine(mapID, gameID);
+            long lsn;
 
-            GameEngine newKidnappedGame = new GameEngine(gameMapFile, "", gamesRunning.size());
-            gamesRunning.add(newKidnappedGame);
+            try {
+                lsn = journalRecord(JournalRecord.newGame(gameID, mapID,
+                                                          gameEngine.getTemplateMap().findLayoutVersion()));
+            } catch (IOException | RuntimeException e) {
+                mapRegistry.releaseEngine(mapID, gameEngine);
+                throw e;
+            }
 
-            return newKidnappedGame.getGameID();
+            return publishGame(gameID, mapID, lsn, gameEngine);
         } catch (Exception e) {
-            throw new AdventureException("Could not start new game.");
+            throw new AdventureException("Could not start new game.", e);
+        } finally {
+            lifecycleLock.readLock().unlock();
         }
     }
 
     @Override
     public GameStatus getGame(int id) {
-        return gamesRunning.get(id).getCurrentGameState();
+        GameEngine gameEngine = gamesRunning.get(id);
+
+        if (gameEngine == null) {
+            return null;
+        }
+
+        return gameEngine.getCurrentGameState();
     }
 
     @Override
     public boolean destroyGame(int id) {
-        GameEngine engineToRemove;
+        if (standby || fenced || !gamesRunning.containsKey(id)) {
+            return false;
+        }
 
+        lifecycleLock.readLock().lock();
         try {
-            engineToRemove = gamesRunning.get(id);
-        } catch (NoSuchElementException e) {
+            journalRecord(JournalRecord.destroyGame(id));
+
+            return removeGame(id);
+        } catch (IOException e) {
+            LOGGER.severe("Could not journal destroying game " + id + ": " + e.getMessage());
             return false;
+        } finally {
+            lifecycleLock.readLock().unlock();
         }
-
-        gamesRunning.remove(engineToRemove);
-        return true;
     }
 
     @Override
     public void executeCommand(int id, Command command) {
         GameEngine gameEngine = gamesRunning.get(id);
 
-        executePlayerCommand(gameEngine, command);
+        if (gameEngine == null || standby || fenced) {
+            return;
+        }
+
+        synchronized (gameEngine) {
+            //game may have been destroyed (and its engine recycled) since it was looked up
+            if (gamesRunning.get(id) != gameEngine) {
+                return;
+            }
 
-        //update leaderboard if game ends after this command
-        if (gameEngine.isGameEnded()) {
             try {
-                Statement statement = dbConnection.createStatement();
-                statement.execute("INSERT INTO leaderboard_aju3 VALUES (\'" +
-                                      gameEngine.getGamePlayer().getPlayerName() + "\', " +
-                                      gameEngine.getGamePlayer().getPlayerScore() + ")");
-            } catch (SQLException e) {
+                gameLSNs.put(id, journalRecord(JournalRecord.command(id, command)));
+            } catch (IOException e) {
+                LOGGER.severe("Could not journal command on game " + id + ": " + e.getMessage());
                 return;
             }
+
+            executePlayerCommand(gameEngine, command);
+
+            //update leaderboard if game ends after this command
+            if (gameEngine.isGameEnded()) {
+                recordScore(gameEngine.getGamePlayer().getPlayerName(), gameMapIDs.get(id),
+                            gameEngine.getGamePlayer().getPlayerScore());
+            }
+        }
+    }
+
+    @Override
+    public byte[] exportGame(int id) {
+        GameEngine gameEngine = gamesRunning.get(id);
+
+        if (gameEngine == null) {
+            return null;
+        }
+
+        synchronized (gameEngine) {
+            if (gamesRunning.get(id) != gameEngine) {
+                return null;
+            }
+
+            try {
+                return ExportedSession.exportSession(gameMapIDs.get(id), gameEngine).toByteArray();
+            } catch (IOException e) {
+                LOGGER.severe("Could not export game " + id + ": " + e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public List<Integer> importGames(InputStream sessionStream) throws AdventureException {
+        if (standby) {
+            throw new AdventureException(STANDBY_MESSAGE);
+        }
+        if (fenced) {
+            throw new AdventureException(FENCED_MESSAGE);
+        }
+
+        List<ExportedSession> sessions = new ArrayList<>();
+
+        //check every session before importing any, so a bad stream imports nothing
+        try {
+            DataInputStream sessionInput = new DataInputStream(new BufferedInputStream(sessionStream));
+            ExportedSession session;
+
+            while ((session = ExportedSession.readSession(sessionInput)) != null) {
+                if (!mapRegistry.hasMap(session.getMapID())) {
+                    throw new InvalidObjectException("No map found with id '" + session.getMapID() + "'.");
+                }
+                if (mapRegistry.findMapVersion(session.getMapID()) != session.getMapVersion()) {
+                    throw new InvalidObjectException("Map '" + session.getMapID() + "' has changed since the game " +
+                                                         "was exported.");
+                }
+
+                sessions.add(session);
+            }
+        } catch (IOException e) {
+            throw new AdventureException("Could not read session " + (sessions.size() + 1) + ".", e);
+        }
+
+        lifecycleLock.readLock().lock();
+        try {
+            return importSessions(sessions);
+        } finally {
+            lifecycleLock.readLock().unlock();
         }
     }
 
     @Override
     public LinkedHashMap<String, Integer> fetchLeaderboard() {
+        if (leaderboardStore == null) {
+            return null;
+        }
+
         try {
-            Statement statement = dbConnection.createStatement();
-            statement.execute("SELECT * FROM leaderboard_aju3");
+            return leaderboardStore.fetchLeaderboard();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public LinkedHashMap<String, Integer> fetchLeaderboard(String mapID) {
+        if (mapID == null) {
+            return fetchLeaderboard();
+        }
+
+        if (leaderboardStore == null) {
+            return null;
+        }
+
+        try {
+            return leaderboardStore.fetchLeaderboard(mapID);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public LinkedHashMap<String, Integer> fetchLeaderboard(String mapID, LeaderboardWindow window) {
+        if (window == LeaderboardWindow.ALL) {
+            return fetchLeaderboard(mapID);
+        }
+
+        return windowedLeaderboard.fetchLeaderboard(window, mapID, System.currentTimeMillis());
+    }
+
+    @Override
+    public String fetchLeaderboardTag(String mapID, LeaderboardWindow window) {
+        if (leaderboardStore == null || (mapID != null && !mapRegistry.hasMap(mapID))) {
+            return null;
+        }
+
+        //other services sharing the store change it without bumping this service's version
+        long sharedVersion;
+        try {
+            sharedVersion = leaderboardStore.findSharedVersion();
+        } catch (IOException e) {
+            LOGGER.warning("Could not read leaderboard store version: " + e.getMessage());
+            return null;
+        }
 
-            return sortLeaderboard(statement.getResultSet());
+        //day and week boards also change when their period rolls over
+        return serviceStartMillis + "-" + leaderboardVersion.get() + "-" + sharedVersion + "-" +
+                   window.name().toLowerCase() + "-" + window.findPeriod(System.currentTimeMillis()) +
+                   (mapID == null ? "" : "-" + mapID);
+    }
+
+    @Override
+    public PlayerStanding fetchPlayerStanding(String playerName, String mapID, LeaderboardWindow window,
+                                              int numberNeighbours) {
+        if (window != LeaderboardWindow.ALL) {
+            return windowedLeaderboard.fetchPlayerStanding(window, playerName, mapID, numberNeighbours,
+                                                           System.currentTimeMillis());
+        }
 
-        } catch (SQLException e) {
+        if (leaderboardStore == null) {
             return null;
         }
+
+        try {
+            return leaderboardStore.fetchPlayerStanding(playerName, mapID, numberNeighbours);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Map<String, Integer> fetchSessionCounts() {
+        return mapRegistry.fetchSessionCounts();
+    }
+
+    @Override
+    public Map<String, Long> fetchMemoryReport() {
+        return mapRegistry.fetchMemoryReport();
+    }
+
+    @Override
+    public Map<String, Long> fetchReplicationReport() {
+        Map<String, Long> report = new LinkedHashMap<>();
+
+        if (replicationSender != null) {
+            report = replicationSender.fetchReplicationReport();
+            report.put("fenced", fenced ? 1L : 0L);
+        } else if (replicationReceiver != null) {
+            report = replicationReceiver.fetchReplicationReport();
+        }
+        if (!report.isEmpty()) {
+            report.put("term", replicationTerm);
+        }
+
+        return report;
+    }
+
+    /**
+     * Starts a replication stream: sets the journal's listener, then copies every running
+     * game. Every change is either in a game's copy or given to the listener (or both, in
+     * which case the copy's LSN tells the standby to skip it). No game is started or
+     * destroyed while the listener is set, and each game is only locked while it's copied.
+     *
+     * @param recordListener the listener given every record written from now on.
+     *
+     * @throws IOException if a game can't be copied.
+     *
+     * @return the copy of the games.
+     */
+    ReplicationSender.ReplicaCopy startReplicationStream(CommandJournal.RecordListener recordListener)
+            throws IOException {
+        long copiedLSN;
+        lifecycleLock.writeLock().lock();
+        try {
+            copiedLSN = commandJournal.findNextLSN() - 1;
+            commandJournal.setRecordListener(recordListener);
+        } finally {
+            lifecycleLock.writeLock().unlock();
+        }
+
+        List<ByteBuffer> encodedGames = new ArrayList<>();
+        for (Map.Entry<Integer, GameEngine> runningGame: gamesRunning.entrySet()) {
+            int id = runningGame.getKey();
+            GameEngine gameEngine = runningGame.getValue();
+
+            synchronized (gameEngine) {
+                //game may have been destroyed (and its engine recycled) since it was listed
+                Long lastLSN = gameLSNs.get(id);
+                String mapID = gameMapIDs.get(id);
+
+                if (gamesRunning.get(id) == gameEngine && lastLSN != null && mapID != null) {
+                    byte[] exportedSession = ExportedSession.exportSession(mapID, gameEngine).toByteArray();
+                    encodedGames.add(CommandJournal.encodeRecord(JournalRecord.importGame(id, mapID, exportedSession),
+                                                                 lastLSN));
+                }
+            }
+        }
+
+        return new ReplicationSender.ReplicaCopy(encodedGames, nextGameID.get(), copiedLSN);
+    }
+
+    /**
+     * Replaces this standby's games with a copy of its primary's games.
+     *
+     * @param copiedGames       each game as an import record, numbered with the LSN of the last
+     *                          record applied to it on the primary.
+     * @param primaryNextGameID the id the primary's next game would get.
+     */
+    void loadReplicatedGames(List<JournalRecord> copiedGames, int primaryNextGameID) {
+        restoredLSNs.clear();
+        removeAllGames();
+
+        for (JournalRecord copiedGame: copiedGames) {
+            replayRecord(copiedGame);
+            restoredLSNs.put(copiedGame.getGameID(), copiedGame.getLSN());
+        }
+
+        nextGameID.accumulateAndGet(primaryNextGameID, Math::max);
+    }
+
+    /**
+     * Applies a record of this standby's primary's journal to its games, skipping changes a
+     * game already had when it was copied. A command ending a game records its score here
+     * too, so the leaderboards are current when the standby takes over.
+     *
+     * @param record the journaled change.
+     */
+    void applyReplicatedRecord(JournalRecord record) {
+        replayRecord(record);
+
+        int id = record.getGameID();
+        GameEngine gameEngine = gamesRunning.get(id);
+        if (record.getRecordType() == CommandJournal.RecordType.COMMAND && gameEngine != null &&
+                Long.valueOf(record.getLSN()).equals(gameLSNs.get(id)) && gameEngine.isGameEnded()) {
+            recordScore(gameEngine.getGamePlayer().getPlayerName(), gameMapIDs.get(id),
+                        gameEngine.getGamePlayer().getPlayerScore());
+        }
     }
 
     /**
-     * Helper method for fetchLeaderboard function; sorts the leaderboard players.
-     * Sorting leaderboard by score derived from:
-     * https://stackoverflow.com/questions/109383/sort-a-mapkey-value-by-values
+     * Determines the replication term: how many times a standby has taken over, as far as
+     * this service knows.
      *
-     * @param leaderboardItems the leaderboard data items to sort.
+     * @return the replication term.
+     */
+    long findReplicationTerm() {
+        return replicationTerm;
+    }
+
+    /**
+     * Takes on the replication term of the primary this standby follows, if it's higher.
+     *
+     * @param primaryTerm the primary's replication term.
+     */
+    void adoptReplicationTerm(long primaryTerm) {
+        if (primaryTerm > replicationTerm) {
+            replicationTerm = primaryTerm;
+        }
+    }
+
+    /**
+     * Fences off this primary after learning its standby has taken over: changes to its
+     * games are refused from now on.
+     *
+     * @param standbyTerm the replication term of the standby.
+     */
+    void fence(long standbyTerm) {
+        fenced = true;
+        LOGGER.severe("Standby took over at replication term " + standbyTerm + " (this primary's term is " +
+                          replicationTerm + "); refusing changes to games.");
+    }
+
+    /**
+     * Helper method to journal a change to the games, waiting until it's on disk.
+     * Does nothing if games aren't journaled.
+     *
+     * @param record the change to journal.
+     *
+     * @throws IOException if the change couldn't be journaled.
+     *
+     * @return the LSN of the journaled change, or -1 if games aren't journaled.
+     */
+    private long journalRecord(JournalRecord record) throws IOException {
+        if (commandJournal == null) {
+            return -1;
+        }
+
+        return commandJournal.appendRecordDurably(record);
+    }
+
+    /**
+     * Helper method to rebuild the games left by an earlier service: loads the latest
+     * snapshot, then replays the journal after it.
+     *
+     * @throws IOException if the snapshot or journal can't be read.
+     */
+    private void recoverGames() throws IOException {
+        restoredLSNs = new HashMap<>();
+
+        SessionSnapshot.SnapshotInfo snapshotInfo = SessionSnapshot.readLatestSnapshot(
+                commandJournal.getJournalDirectory(), this::restoreGame);
+
+        if (snapshotInfo != null) {
+            nextGameID.set(snapshotInfo.getNextGameID());
+            lastSnapshotLSN = snapshotInfo.getCutLSN();
+        }
+
+        commandJournal.replayJournal(lastSnapshotLSN, this::replayRecord);
+        restoredLSNs = null;
+    }
+
+    /**
+     * Helper method to restore a game from a snapshot while recovering. A game that can't
+     * be restored, e.g. because its map has changed, is skipped so the other games recover.
      *
-     * @return a sorted map of the leaderboard players.
+     * @param gameID     the id of the game.
+     * @param mapID      the id of the map the game plays.
+     * @param mapVersion the layout version of the map when the snapshot was taken.
+     * @param lastLSN    the LSN of the last journal record applied to the game.
+     * @param state      the game's state.
      */
-    private LinkedHashMap<String, Integer> sortLeaderboard(ResultSet leaderboardItems) {
-        Map<String, Integer> leaderboard = new HashMap<>();
+    private void restoreGame(int gameID, String mapID, long mapVersion, long lastLSN, byte[] state) {
+        GameEngine gameEngine;
+        try {
+            gameEngine = acquireMatchingEngine(gameID, mapID, mapVersion);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warning("Could not restore game " + gameID + ": " + e.getMessage());
+            return;
+        }
 
         try {
-            while (leaderboardItems.next()) {
-                String playerName = leaderboardItems.getString(1);
-                int playerScore = leaderboardItems.getInt(2);
+            gameEngine.readGameState(state, gameID);
+        } catch (IOException | RuntimeException e) {
+            mapRegistry.releaseEngine(mapID, gameEngine);
+            LOGGER.warning("Could not restore game " + gameID + ": " + e.getMessage());
+            return;
+        }
+
+        publishGame(gameID, mapID, lastLSN, gameEngine);
+        restoredLSNs.put(gameID, lastLSN);
+    }
+
+    /**
+     * Helper method to replay a journaled change while recovering, or on a standby. Changes
+     * a restored game already had when its snapshot (or copy) was taken are skipped. Commands are replayed without
+     * touching the leaderboard, since their scores were recorded when they were first taken.
+     *
+     * @param record the journaled change.
+     */
+    private void replayRecord(JournalRecord record) {
+        if (record.getRecordType() == CommandJournal.RecordType.RESET) {
+            restoredLSNs.clear();
+            removeAllGames();
+            return;
+        }
 
-                leaderboard.put(playerName, playerScore);
+        Long restoredLSN = restoredLSNs.get(record.getGameID());
+        if (restoredLSN != null && record.getLSN() <= restoredLSN) {
+            return;
+        }
+
+        switch (record.getRecordType()) {
+            case NEW_GAME:
+                try {
+                    publishGame(record.getGameID(), record.getMapID(), record.getLSN(),
+                                acquireMatchingEngine(record.getGameID(), record.getMapID(), record.getMapVersion()));
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.warning("Could not rebuild game " + record.getGameID() + ": " + e.getMessage());
+                }
+                nextGameID.accumulateAndGet(record.getGameID() + 1, Math::max);
+                break;
+            case IMPORT_GAME:
+                try {
+                    ExportedSession session = ExportedSession.fromByteArray(record.getExportedSession());
+                    publishGame(record.getGameID(), record.getMapID(), record.getLSN(),
+                                loadImportedEngine(record.getGameID(), session));
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.warning("Could not rebuild imported game " + record.getGameID() + ": " + e.getMessage());
+                }
+                nextGameID.accumulateAndGet(record.getGameID() + 1, Math::max);
+                break;
+            case COMMAND:
+                GameEngine gameEngine = gamesRunning.get(record.getGameID());
+                if (gameEngine != null) {
+                    executePlayerCommand(gameEngine, record.getCommand());
+                    gameLSNs.put(record.getGameID(), record.getLSN());
+                }
+                break;
+            default:
+                removeGame(record.getGameID());
+                restoredLSNs.remove(record.getGameID());
+        }
+    }
+
+    /**
+     * Helper method to start the thread taking a snapshot every snapshot interval.
+     */
+    private void startSnapshotScheduler() {
+        long snapshotInterval = Long.getLong(SNAPSHOT_INTERVAL_PROPERTY, DEFAULT_SNAPSHOT_INTERVAL_SECONDS);
+
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread snapshotThread = new Thread(runnable, "session-snapshotter");
+            snapshotThread.setDaemon(true);
+            return snapshotThread;
+        });
+        snapshotScheduler.scheduleWithFixedDelay(this::takeScheduledSnapshot, snapshotInterval, snapshotInterval,
+                                                 TimeUnit.SECONDS);
+    }
+
+    /**
+     * Helper method for the snapshot thread to take a snapshot if the journal has grown
+     * since the last one.
+     */
+    private void takeScheduledSnapshot() {
+        try {
+            if (commandJournal.findNextLSN() > lastSnapshotLSN) {
+                takeSnapshot();
             }
-        } catch (SQLException e) {
-            return null;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warning("Could not take snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Helper method to pick the id of a new game: the next unused id, skipping ids owned by
+     * other nodes when games are sharded.
+     *
+     * @return the id of the new game.
+     */
+    private int allocateGameID() {
+        int gameID = nextGameID.getAndIncrement();
+
+        while (shardRouter != null && !shardRouter.isOwnedHere(gameID)) {
+            gameID = nextGameID.getAndIncrement();
+        }
+
+        return gameID;
+    }
+
+    /**
+     * Helper method to take an engine for a saved game, checking the game's map still has
+     * the layout the game was saved on, since saved games refer to rooms by index.
+     *
+     * @param gameID     the id of the game.
+     * @param mapID      the id of the map the game plays.
+     * @param mapVersion the layout version of the map when the game was saved.
+     *
+     * @throws IOException if the map can't be loaded, or has changed since the game was saved.
+     *
+     * @return an engine on the game's map, to be released if the game isn't started.
+     */
+    private GameEngine acquireMatchingEngine(int gameID, String mapID, long mapVersion) throws IOException {
+        GameEngine gameEngine = mapRegistry.acquireEngine(mapID, gameID);
+
+        if (gameEngine.getTemplateMap().findLayoutVersion() != mapVersion) {
+            mapRegistry.releaseEngine(mapID, gameEngine);
+            throw new InvalidObjectException("Map '" + mapID + "' has changed since game " + gameID + " was saved.");
+        }
+
+        return gameEngine;
+    }
+
+    /**
+     * Helper method to start running a game on an engine that's ready to play.
+     *
+     * @param gameID     the id of the game.
+     * @param mapID      the id of the map the game plays.
+     * @param lsn        the LSN of the change that started the game, or -1 if games aren't journaled.
+     * @param gameEngine the engine running the game.
+     *
+     * @return the id of the game.
+     */
+    private int publishGame(int gameID, String mapID, long lsn, GameEngine gameEngine) {
+        gameMapIDs.put(gameID, mapID);
+        gameLSNs.put(gameID, lsn);
+        gamesRunning.put(gameID, gameEngine);
+
+        return gameID;
+    }
+
+    /**
+     * Helper method to start running imported games under new ids. Every session is loaded
+     * before any is journaled, and the batch is journaled together before any game runs,
+     * so either every game is imported or none is.
+     *
+     * @param sessions the exported sessions of the games.
+     *
+     * @throws AdventureException if a game's state doesn't fit its map, or the games can't be journaled.
+     *
+     * @return the new ids of the games, in the same order.
+     */
+    private List<Integer> importSessions(List<ExportedSession> sessions) throws AdventureException {
+        List<Integer> importedIDs = new ArrayList<>(sessions.size());
+        List<GameEngine> importedEngines = new ArrayList<>(sessions.size());
+        List<JournalRecord> importRecords = new ArrayList<>(sessions.size());
+
+        try {
+            for (ExportedSession session: sessions) {
+                int gameID = allocateGameID();
+
+                importedEngines.add(loadImportedEngine(gameID, session));
+                importedIDs.add(gameID);
+                importRecords.add(JournalRecord.importGame(gameID, session.getMapID(), session.toByteArray()));
+            }
+
+            long[] lsns = commandJournal == null ? new long[sessions.size()] :
+                    commandJournal.appendRecordsDurably(importRecords);
+            for (int index = 0; index < sessions.size(); index++) {
+                publishGame(importedIDs.get(index), sessions.get(index).getMapID(),
+                            commandJournal == null ? -1 : lsns[index], importedEngines.get(index));
+            }
+
+            return importedIDs;
+        } catch (IOException | RuntimeException e) {
+            for (int index = 0; index < importedEngines.size(); index++) {
+                mapRegistry.releaseEngine(sessions.get(index).getMapID(), importedEngines.get(index));
+            }
+
+            throw new AdventureException("Could not import games.", e);
         }
+    }
 
-        return leaderboard.entrySet().stream()
-                .sorted(Map.Entry.comparingByValue())
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (e1, e2) -> e1, LinkedHashMap::new));
+    /**
+     * Helper method to load an exported session into an engine of its map, without
+     * running the game yet.
+     *
+     * @param gameID  the id to give the game.
+     * @param session the exported session.
+     *
+     * @throws IllegalArgumentException if the session's map isn't hosted.
+     * @throws IOException              if the map has changed since the export, or the state is damaged.
+     *
+     * @return the engine holding the game.
+     */
+    private GameEngine loadImportedEngine(int gameID, ExportedSession session) throws IOException {
+        GameEngine importedEngine = acquireMatchingEngine(gameID, session.getMapID(), session.getMapVersion());
+
+        try {
+            importedEngine.readGameState(session.getGameState(), gameID);
+        } catch (IOException | RuntimeException e) {
+            mapRegistry.releaseEngine(session.getMapID(), importedEngine);
+            throw e;
+        }
+
+        return importedEngine;
+    }
+
+    /**
+     * Helper method to stop running a game, recycling its engine.
+     *
+     * @param id the id of the game to stop.
+     *
+     * @return true if the game was running, else false.
+     */
+    private boolean removeGame(int id) {
+        GameEngine removedEngine = gamesRunning.remove(id);
+
+        if (removedEngine == null) {
+            return false;
+        }
+
+        mapRegistry.releaseEngine(gameMapIDs.remove(id), removedEngine);
+        gameLSNs.remove(id);
+
+        return true;
+    }
+
+    /**
+     * Helper method to stop running every game and start numbering games from 0 again.
+     */
+    private void removeAllGames() {
+        for (int id: gamesRunning.keySet()) {
+            removeGame(id);
+        }
+
+        nextGameID.set(0);
+    }
+
+    /**
+     * Helper method to record a player's score on a map in every leaderboard where it beats
+     * their best score.
+     *
+     * @param playerName the name of the player.
+     * @param mapID      the id of the map played.
+     * @param score      the player's score.
+     */
+    private void recordScore(String playerName, String mapID, int score) {
+        long timeMillis = System.currentTimeMillis();
+        boolean leaderboardChanged = windowedLeaderboard.recordScore(playerName, mapID, score, timeMillis);
+
+        if (leaderboardStore != null) {
+            try {
+                leaderboardChanged |= leaderboardStore.recordScore(playerName, mapID, score, timeMillis);
+            } catch (IOException e) {
+                LOGGER.warning("Could not record score of " + playerName + ": " + e.getMessage());
+            }
+        }
+
+        //bumped after the change, so a leaderboard read under the new version includes it
+        if (leaderboardChanged) {
+            leaderboardVersion.incrementAndGet();
+        }
+    }
+
+    /**
+     * Helper method to rebuild the day and week leaderboards from the scores the leaderboard
+     * store recorded this week.
+     */
+    private void loadRecentScores() {
+        if (leaderboardStore == null) {
+            return;
+        }
+
+        //every day of the week starts no earlier than the week
+        long weekStart = LeaderboardWindow.WEEK.findPeriodStart(System.currentTimeMillis());
+        try {
+            windowedLeaderboard.loadScores(leaderboardStore.fetchScoresSince(weekStart));
+        } catch (IOException e) {
+            LOGGER.warning("Could not load this week's scores: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Helper method to open the leaderboard store named by the adventure.leaderboardStore
+     * system property.
+     *
+     * @return the opened store, or null if it couldn't be opened.
+     */
+    private static LeaderboardStore openDefaultLeaderboardStore() {
+        String storeType = System.getProperty(LeaderboardStore.STORE_PROPERTY);
+
+        try {
+            return LeaderboardStore.openLeaderboardStore(storeType);
+        } catch (IOException e) {
+            LOGGER.severe("Could not open leaderboard store " + storeType + ": " + e.getMessage());
+            return null;
+        }
     }
 }
@@ -0,0 +1,91 @@
+package student.server;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Cache of serialized leaderboard responses, one per map and window, each labelled with
+ * the tag of the leaderboard it was built from. A cached response is served until the
+ * leaderboard's tag changes, so repeated requests skip reading and serializing the board.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class LeaderboardResponseCache {
+    private final ObjectMapper jsonMapper;
+    private final Map<String, CachedResponse> cachedResponses; //map id and window to latest response
+
+    /**
+     * A serialized leaderboard and the tag it was built under.
+     */
+    private static class CachedResponse {
+        private final String leaderboardTag;
+        private final byte[] responseBody;
+
+        CachedResponse(String leaderboardTag, byte[] responseBody) {
+            this.leaderboardTag = leaderboardTag;
+            this.responseBody = responseBody;
+        }
+    }
+
+    /**
+     * Default constructor for objects of class LeaderboardResponseCache.
+     * Initiates an empty cache.
+     */
+    public LeaderboardResponseCache() {
+        jsonMapper = new ObjectMapper();
+        cachedResponses = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Finds the serialized leaderboard of a map and window, building it if the cached one
+     * was built under a different tag. The tag must have been read before the leaderboard
+     * is, so a response is never cached under a newer tag than its contents.
+     *
+     * @param mapID              the id of the map, or null for every map.
+     * @param window             the window of the leaderboard.
+     * @param leaderboardTag     the current tag of the leaderboard.
+     * @param leaderboardBuilder reads the leaderboard, if it needs to be rebuilt.
+     *
+     * @return the leaderboard, serialized as JSON, or null if it couldn't be read.
+     */
+    public byte[] fetchResponse(String mapID, LeaderboardWindow window, String leaderboardTag,
+                                Supplier<Map<String, Integer>> leaderboardBuilder) {
+        String responseKey = window.name() + (mapID == null ? "" : "/" + mapID);
+        CachedResponse cachedResponse = cachedResponses.get(responseKey);
+
+        if (cachedResponse != null && cachedResponse.leaderboardTag.equals(leaderboardTag)) {
+            return cachedResponse.responseBody;
+        }
+
+        Map<String, Integer> leaderboard = leaderboardBuilder.get();
+        if (leaderboard == null) {
+            return null;
+        }
+
+        byte[] responseBody;
+        try {
+            responseBody = jsonMapper.writeValueAsBytes(leaderboard);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize leaderboard.", e);
+        }
+
+        //a concurrent request may rebuild the same response; either copy is current
+        cachedResponses.put(responseKey, new CachedResponse(leaderboardTag, responseBody));
+
+        return responseBody;
+    }
+
+    /**
+     * Finds the number of responses cached.
+     *
+     * @return the number of map and window pairs with a cached response.
+     */
+    public int findNumberCached() {
+        return cachedResponses.size();
+    }
+}
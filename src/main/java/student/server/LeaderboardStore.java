@@ -0,0 +1,153 @@
+package student.server;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Storage for the leaderboards of an adventure service: each player's best score on
+ * each map. Lower scores are better.
+ * The implementation used by a service is picked with the adventure.leaderboardStore
+ * system property: "sqlite" (the default), "memory", or "file:" followed by a file name.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public interface LeaderboardStore {
+    String STORE_PROPERTY = "adventure.leaderboardStore";
+
+    /**
+     * A player's score on a map, with when the game ended.
+     */
+    class RecordedScore {
+        private final String playerName;
+        private final String mapID;
+        private final int score;
+        private final long timeMillis;
+
+        public RecordedScore(String playerName, String mapID, int score, long timeMillis) {
+            this.playerName = playerName;
+            this.mapID = mapID;
+            this.score = score;
+            this.timeMillis = timeMillis;
+        }
+
+        public String getPlayerName() {
+            return playerName;
+        }
+
+        public String getMapID() {
+            return mapID;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public long getTimeMillis() {
+            return timeMillis;
+        }
+    }
+
+    /**
+     * Records a player's score on a map, if it beats their best score there.
+     *
+     * @param playerName the name of the player; null is recorded as an empty name.
+     * @param mapID      the id of the map played.
+     * @param score      the player's score.
+     * @param timeMillis when the game ended, in milliseconds since the epoch.
+     *
+     * @throws IOException if the score can't be stored.
+     *
+     * @return true if the score is the player's new best on the map, else false.
+     */
+    boolean recordScore(String playerName, String mapID, int score, long timeMillis) throws IOException;
+
+    /**
+     * Finds each player's best score over every map.
+     *
+     * @throws IOException if the scores can't be read.
+     *
+     * @return player names to best scores, best first, ties by name.
+     */
+    LinkedHashMap<String, Integer> fetchLeaderboard() throws IOException;
+
+    /**
+     * Finds each player's best score on a map.
+     *
+     * @param mapID the id of the map.
+     *
+     * @throws IOException if the scores can't be read.
+     *
+     * @return player names to best scores, best first, ties by name.
+     */
+    LinkedHashMap<String, Integer> fetchLeaderboard(String mapID) throws IOException;
+
+    /**
+     * Finds where a player stands on the leaderboard of a map, or of every map.
+     *
+     * @param playerName       the name of the player.
+     * @param mapID            the id of the map, or null for every map.
+     * @param numberNeighbours the number of players to include from above and from below the player.
+     *
+     * @throws IOException if the scores can't be read.
+     *
+     * @return the player's standing, or null if they have no score there.
+     */
+    PlayerStanding fetchPlayerStanding(String playerName, String mapID, int numberNeighbours) throws IOException;
+
+    /**
+     * Finds the scores recorded since a time, so the day and week leaderboards can be rebuilt
+     * when the service starts. Only scores the store still holds are found; a score since
+     * beaten by the same player on the same map may be gone.
+     *
+     * @param timeMillis the earliest time to include, in milliseconds since the epoch.
+     *
+     * @throws IOException if the scores can't be read.
+     *
+     * @return the scores, oldest first; always empty for a store that doesn't keep times.
+     */
+    default List<RecordedScore> fetchScoresSince(long timeMillis) throws IOException {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Finds a version of the store's contents that changes whenever another process sharing
+     * the store (e.g. another node of a sharded service) changes them, so leaderboards cached
+     * by this process can tell they're stale. Changes made through this store needn't change it.
+     *
+     * @throws IOException if the version can't be read.
+     *
+     * @return the version; always 0 for a store no other process changes.
+     */
+    default long findSharedVersion() throws IOException {
+        return 0;
+    }
+
+    /**
+     * Releases the store's resources. The store can't be used afterwards.
+     */
+    void close();
+
+    /**
+     * Opens the store described by a store type.
+     *
+     * @param storeType "sqlite", "memory" or "file:" followed by a file name; null means "sqlite".
+     *
+     * @throws IOException if the store can't be opened, or the type isn't known.
+     *
+     * @return the opened store.
+     */
+    static LeaderboardStore openLeaderboardStore(String storeType) throws IOException {
+        if (storeType == null || storeType.equals("sqlite")) {
+            return new SqliteLeaderboardStore(SqliteLeaderboardStore.DEFAULT_DATABASE_URL);
+        } else if (storeType.equals("memory")) {
+            return new MemoryLeaderboardStore();
+        } else if (storeType.startsWith("file:")) {
+            return new MappedFileLeaderboardStore(storeType.substring("file:".length()));
+        }
+
+        throw new IOException("Unknown leaderboard store type '" + storeType + "'.");
+    }
+}
@@ -0,0 +1,80 @@
+package student.server;
+
+/**
+ * Spans of time a leaderboard can cover. Days and weeks are calendar days and weeks in
+ * UTC, with weeks starting on Monday, so every board of a window rolls over at the same
+ * moment.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public enum LeaderboardWindow {
+    DAY, WEEK, ALL;
+
+    private final static long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    //the epoch fell on a Thursday, 3 days after the start of its week
+    private final static long EPOCH_DAY_OF_WEEK = 3;
+
+    /**
+     * Finds the window with a given name.
+     *
+     * @param windowName "day", "week" or "all", in any case; null means "all".
+     *
+     * @throws IllegalArgumentException if no window has the name.
+     *
+     * @return the window.
+     */
+    public static LeaderboardWindow findWindow(String windowName) {
+        if (windowName == null) {
+            return ALL;
+        }
+
+        for (LeaderboardWindow window: values()) {
+            if (window.name().equalsIgnoreCase(windowName)) {
+                return window;
+            }
+        }
+
+        throw new IllegalArgumentException("No leaderboard window named '" + windowName + "'.");
+    }
+
+    /**
+     * Finds the period of this window a time falls in: the day or week since the epoch.
+     * Every time falls in the same all-time period.
+     *
+     * @param timeMillis the time, in milliseconds since the epoch.
+     *
+     * @return the number of the period.
+     */
+    public long findPeriod(long timeMillis) {
+        long epochDay = Math.floorDiv(timeMillis, MILLIS_PER_DAY);
+
+        switch (this) {
+            case DAY:
+                return epochDay;
+            case WEEK:
+                return Math.floorDiv(epochDay + EPOCH_DAY_OF_WEEK, 7);
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Finds when the period of this window a time falls in started.
+     *
+     * @param timeMillis the time, in milliseconds since the epoch.
+     *
+     * @return the start of the period, in milliseconds since the epoch; Long.MIN_VALUE for all time.
+     */
+    public long findPeriodStart(long timeMillis) {
+        switch (this) {
+            case DAY:
+                return findPeriod(timeMillis) * MILLIS_PER_DAY;
+            case WEEK:
+                return (findPeriod(timeMillis) * 7 - EPOCH_DAY_OF_WEEK) * MILLIS_PER_DAY;
+            default:
+                return Long.MIN_VALUE;
+        }
+    }
+}
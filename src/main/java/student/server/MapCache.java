@@ -0,0 +1,264 @@
+package student.server;
+
+import student.adventure.GameMap;
+import student.adventure.RoomTextIndex;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import static student.adventure.MapDataReader.deserializeFile;
+
+/**
+ * Cache of loaded game maps, keyed by map file path and modification time.
+ * A background thread watches the cached files; when one changes, the new version is
+ * loaded and validated once, then swapped in for later lookups. A version that fails
+ * to load is ignored, and the previous version stays in use.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class MapCache {
+    private static final Logger LOGGER = Logger.getLogger(MapCache.class.getName());
+
+    private final Map<Path, CachedMap> cachedMaps;
+    private final Set<Path> watchedDirectories;
+    private WatchService watchService;
+
+    /**
+     * A loaded map along with the file version it was loaded from.
+     */
+    private static class CachedMap {
+        private final GameMap gameMap;
+        private final FileTime modifiedTime;
+        private final long fileSize;
+
+        CachedMap(GameMap gameMap, FileTime modifiedTime, long fileSize) {
+            this.gameMap = gameMap;
+            this.modifiedTime = modifiedTime;
+            this.fileSize = fileSize;
+        }
+
+        boolean isSameVersion(FileTime otherModifiedTime, long otherFileSize) {
+            return modifiedTime.equals(otherModifiedTime) && fileSize == otherFileSize;
+        }
+    }
+
+    /**
+     * Default constructor for objects of class MapCache.
+     * Initiates an empty cache; files are watched once they are first loaded.
+     */
+    public MapCache() {
+        cachedMaps = new ConcurrentHashMap<>();
+        watchedDirectories = new HashSet<>();
+        watchService = null;
+    }
+
+    /**
+     * Finds the current version of a map, loading it if it isn't cached yet.
+     * Cached maps are kept up to date by the watcher, so this doesn't touch the disk.
+     * The returned map must not be changed; games play on copies of it.
+     *
+     * @param mapFile the name of the map file.
+     *
+     * @throws IOException if the map isn't cached and can't be loaded.
+     *
+     * @return the loaded map.
+     */
+    public GameMap fetchMap(String mapFile) throws IOException {
+        Path mapPath = Paths.get(mapFile).toAbsolutePath().normalize();
+        CachedMap cachedMap = cachedMaps.get(mapPath);
+
+        if (cachedMap == null) {
+            cachedMap = refreshMap(mapPath);
+            watchDirectory(mapPath.getParent());
+        }
+
+        return cachedMap.gameMap;
+    }
+
+    /**
+     * Reloads a cached map if its file has changed since it was loaded.
+     *
+     * @param mapFile the name of the map file.
+     *
+     * @throws IOException if the changed map can't be loaded; the cached version is kept.
+     *
+     * @return true  if a new version of the map was loaded, else
+     *         false if the cached version is still current.
+     */
+    public boolean reloadIfChanged(String mapFile) throws IOException {
+        Path mapPath = Paths.get(mapFile).toAbsolutePath().normalize();
+        CachedMap oldMap = cachedMaps.get(mapPath);
+
+        return refreshMap(mapPath) != oldMap;
+    }
+
+    /**
+     * Stops watching map files for changes. Cached maps can still be looked up.
+     */
+    public synchronized void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                LOGGER.warning("Could not close map watcher: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Helper method to load a map file unless the cached version matches the file on disk.
+     * Loads are serialized, so each version is parsed once.
+     *
+     * @param mapPath the absolute path of the map file.
+     *
+     * @throws IOException if the map can't be loaded.
+     *
+     * @return the cached version of the map, new or not.
+     */
+    private synchronized CachedMap refreshMap(Path mapPath) throws IOException {
+        CachedMap cachedMap = cachedMaps.get(mapPath);
+        FileTime modifiedTime = Files.getLastModifiedTime(mapPath);
+        long fileSize = Files.size(mapPath);
+
+        if (cachedMap != null && cachedMap.isSameVersion(modifiedTime, fileSize)) {
+            return cachedMap;
+        }
+
+        CachedMap loadedMap = new CachedMap(deserializeFile(mapPath.toString()), modifiedTime, fileSize);
+        cachedMaps.put(mapPath, loadedMap);
+
+        if (cachedMap != null) {
+            closeRoomText(mapPath, cachedMap.gameMap);
+        }
+
+        return loadedMap;
+    }
+
+    /**
+     * Helper method to close the map file kept open for a replaced map's lazily loaded room
+     * text, first reading the text into memory for the games still playing that version.
+     *
+     * @param mapPath     the absolute path of the map file.
+     * @param replacedMap the version of the map that was replaced.
+     */
+    private static void closeRoomText(Path mapPath, GameMap replacedMap) {
+        RoomTextIndex textIndex = replacedMap.getRoomTextIndex();
+        if (textIndex == null) {
+            return;
+        }
+
+        try {
+            textIndex.retainText();
+        } catch (IOException e) {
+            LOGGER.warning("Games on the replaced version of " + mapPath + " can't read its room text: " +
+                               e.getMessage());
+        }
+
+        try {
+            textIndex.close();
+        } catch (IOException e) {
+            LOGGER.warning("Could not close " + mapPath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Helper method to start watching a directory of map files, starting the watcher
+     * thread the first time.
+     *
+     * @param directory the directory to watch.
+     */
+    private synchronized void watchDirectory(Path directory) {
+        if (directory == null || watchedDirectories.contains(directory)) {
+            return;
+        }
+
+        try {
+            if (watchService == null) {
+                watchService = FileSystems.getDefault().newWatchService();
+
+                Thread watcherThread = new Thread(this::watchForChanges, "map-cache-watcher");
+                watcherThread.setDaemon(true);
+                watcherThread.start();
+            }
+
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                               StandardWatchEventKinds.ENTRY_MODIFY);
+            watchedDirectories.add(directory);
+        } catch (IOException e) {
+            LOGGER.warning("Could not watch " + directory + " for map changes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Helper method run by the watcher thread: reloads cached maps whose files change,
+     * until the cache is closed.
+     */
+    private void watchForChanges() {
+        try {
+            while (true) {
+                WatchKey watchKey = watchService.take();
+
+                handleWatchEvents((Path) watchKey.watchable(), watchKey.pollEvents());
+                watchKey.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            return;
+        }
+    }
+
+    /**
+     * Helper method to reload the cached maps a directory's watch events say have changed.
+     * If events were lost to an overflow, every cached map in the directory is checked,
+     * since any of them may have changed.
+     *
+     * @param directory the watched directory.
+     * @param events    the events of the directory.
+     */
+    void handleWatchEvents(Path directory, List<WatchEvent<?>> events) {
+        for (WatchEvent<?> event: events) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                for (Path cachedPath: cachedMaps.keySet()) {
+                    if (directory.equals(cachedPath.getParent())) {
+                        reloadInBackground(cachedPath);
+                    }
+                }
+                continue;
+            }
+
+            Path changedPath = directory.resolve((Path) event.context());
+            if (cachedMaps.containsKey(changedPath)) {
+                reloadInBackground(changedPath);
+            }
+        }
+    }
+
+    /**
+     * Helper method to reload a changed map on the watcher thread, keeping the previous
+     * version if the new one can't be loaded (e.g. it's invalid or only half written).
+     *
+     * @param mapPath the absolute path of the changed map file.
+     */
+    private void reloadInBackground(Path mapPath) {
+        try {
+            refreshMap(mapPath);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warning("Keeping previous version of " + mapPath + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package student.server;
+
+import student.adventure.GameEngine;
+import student.adventure.GameMap;
+import student.adventure.StringPool;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static student.adventure.MapCompiler.COMPILED_MAP_EXTENSION;
+
+/**
+ * Registry of the maps a service can host, keyed by map id.
+ * Each map is parsed once into a template whose rooms are shared by every game playing it;
+ * a game holds its own copies of only the rooms whose items it has moved. Each map also
+ * has its own pool of ready engines, up to the given capacity. Also counts the games
+ * running on each map.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class MapRegistry {
+    private static final Logger LOGGER = Logger.getLogger(MapRegistry.class.getName());
+
+    private final MapCache mapCache;
+    private final int historyRetention;
+    private final int poolCapacity;
+    private final Map<String, RegisteredMap> registeredMaps;
+
+    /**
+     * A hosted map: its file, the engine pool for its current version, and its game count.
+     */
+    private static class RegisteredMap {
+        private final String mapFile;
+        private final AtomicInteger numberSessions;
+        private volatile GameEnginePool enginePool;
+
+        RegisteredMap(String mapFile, GameEnginePool enginePool) {
+            this.mapFile = mapFile;
+            this.enginePool = enginePool;
+            numberSessions = new AtomicInteger(0);
+        }
+    }
+
+    /**
+     * Constructor for objects of class MapRegistry.
+     * Starts out with no maps registered.
+     *
+     * @param mapCache         the cache the map files are loaded through.
+     * @param historyRetention the number of visited rooms each game remembers.
+     * @param poolCapacity     the maximum number of ready engines to keep per map.
+     */
+    public MapRegistry(MapCache mapCache, int historyRetention, int poolCapacity) {
+        this.mapCache = mapCache;
+        this.historyRetention = historyRetention;
+        this.poolCapacity = poolCapacity;
+        registeredMaps = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Loads a map file and makes it available under the given id, replacing any map
+     * already registered with that id.
+     *
+     * @param mapID   the id clients choose the map by.
+     * @param mapFile the name of the map file.
+     *
+     * @throws IOException if the map can't be loaded.
+     */
+    public void registerMap(String mapID, String mapFile) throws IOException {
+        GameEnginePool enginePool = new GameEnginePool(mapCache.fetchMap(mapFile), historyRetention, poolCapacity);
+        RegisteredMap replacedMap = registeredMaps.put(mapID, new RegisteredMap(mapFile, enginePool));
+
+        if (replacedMap != null) {
+            replacedMap.enginePool.shutdown();
+        }
+    }
+
+    /**
+     * Registers every map file (JSON or compiled) in a directory, using each file name
+     * without its extension as the map id. Files that can't be loaded are skipped.
+     *
+     * @param mapDirectory the directory holding the map files.
+     *
+     * @throws IOException if the directory can't be read.
+     *
+     * @return the number of maps registered.
+     */
+    public int registerMapDirectory(String mapDirectory) throws IOException {
+        int numberRegistered = 0;
+
+        try (DirectoryStream<Path> mapFiles = Files.newDirectoryStream(Paths.get(mapDirectory),
+                                                                       "*.{json," + COMPILED_MAP_EXTENSION.substring(1) + "}")) {
+            for (Path mapFile: mapFiles) {
+                String fileName = mapFile.getFileName().toString();
+                String mapID = fileName.substring(0, fileName.lastIndexOf('.'));
+
+                try {
+                    registerMap(mapID, mapFile.toString());
+                    numberRegistered++;
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.warning("Skipping map " + mapFile + ": " + e.getMessage());
+                }
+            }
+        }
+
+        return numberRegistered;
+    }
+
+    /**
+     * Determines whether a map is registered under the given id.
+     *
+     * @param mapID the map id to look for.
+     *
+     * @return true if the map is registered, else false.
+     */
+    public boolean hasMap(String mapID) {
+        return mapID != null && registeredMaps.containsKey(mapID);
+    }
+
+    /**
+     * Finds the file a registered map is loaded from.
+     *
+     * @param mapID the id of the map.
+     *
+     * @return the name of the map file, or null if no map has that id.
+     */
+    public String fetchMapFile(String mapID) {
+        RegisteredMap registeredMap = mapID == null ? null : registeredMaps.get(mapID);
+
+        return registeredMap == null ? null : registeredMap.mapFile;
+    }
+
+    /**
+     * Finds the layout version of a registered map's current version, which new and
+     * imported games play.
+     *
+     * @param mapID the id of the map.
+     *
+     * @throws IllegalArgumentException if no map has that id.
+     * @throws IOException              if the map can't be loaded.
+     *
+     * @return the map's layout version.
+     */
+    public long findMapVersion(String mapID) throws IOException {
+        RegisteredMap registeredMap = mapID == null ? null : registeredMaps.get(mapID);
+
+        if (registeredMap == null) {
+            throw new IllegalArgumentException("No map registered with id " + mapID + ".");
+        }
+
+        return fetchCurrentEnginePool(registeredMap).getTemplateMap().findLayoutVersion();
+    }
+
+    /**
+     * Finds the ids of every registered map.
+     *
+     * @return the registered map ids.
+     */
+    public Set<String> fetchMapIDs() {
+        return registeredMaps.keySet();
+    }
+
+    /**
+     * Finds the number of games running on each registered map.
+     *
+     * @return a map of map ids to game counts, ordered by map id.
+     */
+    public Map<String, Integer> fetchSessionCounts() {
+        Map<String, Integer> sessionCounts = new TreeMap<>();
+
+        for (Map.Entry<String, RegisteredMap> registeredMap: registeredMaps.entrySet()) {
+            sessionCounts.put(registeredMap.getKey(), registeredMap.getValue().numberSessions.get());
+        }
+
+        return sessionCounts;
+    }
+
+    /**
+     * Reports the memory saved by sharing map text between games and deduplicating it
+     * between maps. Room text of each map is held once by its template, where each game
+     * would otherwise hold a copy.
+     *
+     * @return a map of report entries to values, in bytes where applicable.
+     */
+    public Map<String, Long> fetchMemoryReport() {
+        long numberSessions = 0;
+        long sharedRoomTextBytes = 0;
+        long roomTextBytesSaved = 0;
+
+        for (RegisteredMap registeredMap: registeredMaps.values()) {
+            int mapSessions = registeredMap.numberSessions.get();
+            long roomTextBytes = registeredMap.enginePool.getTemplateMap().estimateRoomTextBytes();
+
+            numberSessions += mapSessions;
+            sharedRoomTextBytes += roomTextBytes;
+            roomTextBytesSaved += Math.max(0, mapSessions - 1) * roomTextBytes;
+        }
+
+        Map<String, Long> memoryReport = new LinkedHashMap<>();
+        memoryReport.put("maps", (long) registeredMaps.size());
+        memoryReport.put("sessions", numberSessions);
+        memoryReport.put("sharedRoomTextBytes", sharedRoomTextBytes);
+        memoryReport.put("roomTextBytesSavedBySharing", roomTextBytesSaved);
+        memoryReport.put("roomTextBytesSavedPerSession", numberSessions == 0 ? 0 : roomTextBytesSaved / numberSessions);
+        memoryReport.put("pooledStrings", (long) StringPool.findNumberPooledStrings());
+        memoryReport.put("deduplicatedStrings", StringPool.findNumberDeduplicated());
+        memoryReport.put("deduplicatedBytes", StringPool.findBytesDeduplicated());
+
+        return memoryReport;
+    }
+
+    /**
+     * Hands out an engine for a new game of a registered map, playing the map's current version.
+     *
+     * @param mapID  the id of the map to play.
+     * @param gameID the id for the new game.
+     *
+     * @throws IllegalArgumentException if no map has that id.
+     * @throws IOException              if the map can't be loaded.
+     *
+     * @return a game engine in its initial state.
+     */
+    public GameEngine acquireEngine(String mapID, int gameID) throws IOException {
+        RegisteredMap registeredMap = mapID == null ? null : registeredMaps.get(mapID);
+
+        if (registeredMap == null) {
+            throw new IllegalArgumentException("No map registered with id " + mapID + ".");
+        }
+
+        GameEngine gameEngine = fetchCurrentEnginePool(registeredMap).acquireEngine(gameID);
+        registeredMap.numberSessions.incrementAndGet();
+
+        return gameEngine;
+    }
+
+    /**
+     * Takes back the engine of a finished game of a registered map, so it can be reused.
+     *
+     * @param mapID          the id of the map the game played.
+     * @param finishedEngine the engine of the finished game.
+     */
+    public void releaseEngine(String mapID, GameEngine finishedEngine) {
+        RegisteredMap registeredMap = mapID == null ? null : registeredMaps.get(mapID);
+
+        if (registeredMap == null) {
+            return;
+        }
+
+        registeredMap.numberSessions.decrementAndGet();
+        registeredMap.enginePool.recycleEngine(finishedEngine);
+    }
+
+    /**
+     * Helper method to find the engine pool for the current version of a map.
+     * When the map file has been reloaded, replaces the pool so new games use the new
+     * version; games already running keep the version they started with.
+     *
+     * @param registeredMap the map to find the pool of.
+     *
+     * @throws IOException if the map can't be loaded.
+     *
+     * @return the engine pool for the current version of the map.
+     */
+    private GameEnginePool fetchCurrentEnginePool(RegisteredMap registeredMap) throws IOException {
+        GameMap currentMap = mapCache.fetchMap(registeredMap.mapFile);
+        GameEnginePool currentPool = registeredMap.enginePool;
+
+        if (currentPool.getTemplateMap() != currentMap) {
+            synchronized (registeredMap) {
+                currentPool = registeredMap.enginePool;
+
+                if (currentPool.getTemplateMap() != currentMap) {
+                    currentPool.shutdown();
+                    currentPool = new GameEnginePool(currentMap, historyRetention, poolCapacity);
+                    registeredMap.enginePool = currentPool;
+                }
+            }
+        }
+
+        return currentPool;
+    }
+}
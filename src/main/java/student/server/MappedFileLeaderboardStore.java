@@ -0,0 +1,273 @@
+package student.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Leaderboard store kept in an append-only file, written through memory-mapped regions.
+ * Only scores that beat a player's best on a map are appended, so the file grows with
+ * improvements rather than games played. The best scores are indexed in memory, rebuilt
+ * by reading the file when the store is opened.
+ * Appends land in the page cache, so they survive the service crashing but not the
+ * machine; call syncFile to force them to disk. Each record carries a checksum, and
+ * reading stops at the first record that is empty, cut short or damaged.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class MappedFileLeaderboardStore implements LeaderboardStore {
+    //size of each mapped region of the file; records never span regions
+    private final static int REGION_SIZE = 16 << 20;
+
+    //record length, checksum, score and time
+    private final static int RECORD_HEADER_BYTES = 4 + 4 + 4 + 8;
+
+    //written in place of a record length when the rest of a region is skipped
+    private final static int REGION_END = -1;
+
+    //longest player name or map id, in UTF-8 bytes, since lengths are stored in two bytes
+    private final static int MAX_STRING_BYTES = 0xFFFF;
+
+    private final Path storeFile;
+    private final FileChannel storeChannel;
+    private final MemoryLeaderboardStore bestScores;
+    private MappedByteBuffer currentRegion;
+    private long regionStart;
+    private long numberRecords;
+
+    /**
+     * Constructor for objects of class MappedFileLeaderboardStore.
+     * Opens (or creates) the file and reads the scores already in it.
+     *
+     * @param fileName the name of the store's file.
+     *
+     * @throws IOException if the file can't be opened or read.
+     */
+    public MappedFileLeaderboardStore(String fileName) throws IOException {
+        storeFile = Paths.get(fileName);
+        if (storeFile.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(storeFile.toAbsolutePath().getParent());
+        }
+
+        storeChannel = FileChannel.open(storeFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                        StandardOpenOption.WRITE);
+        bestScores = new MemoryLeaderboardStore();
+        numberRecords = 0;
+
+        regionStart = 0;
+        currentRegion = mapRegion(regionStart);
+        while (readRegion(currentRegion, this::indexScore) && storeChannel.size() > regionStart + REGION_SIZE) {
+            regionStart += REGION_SIZE;
+            currentRegion = mapRegion(regionStart);
+        }
+    }
+
+    /**
+     * Determines the number of records in the file.
+     *
+     * @return the number of scores appended, including ones since beaten.
+     */
+    public synchronized long findNumberRecords() {
+        return numberRecords;
+    }
+
+    @Override
+    public synchronized boolean recordScore(String playerName, String mapID, int score, long timeMillis)
+            throws IOException {
+        if (!bestScores.isBestScore(playerName, mapID, score)) {
+            return false;
+        }
+
+        byte[] nameBytes = (playerName == null ? "" : playerName).getBytes(StandardCharsets.UTF_8);
+        byte[] mapBytes = mapID.getBytes(StandardCharsets.UTF_8);
+        int payloadLength = 4 + 8 + 2 + nameBytes.length + 2 + mapBytes.length;
+
+        if (nameBytes.length > MAX_STRING_BYTES || mapBytes.length > MAX_STRING_BYTES) {
+            throw new IOException("Player name or map id is longer than " + MAX_STRING_BYTES + " bytes.");
+        }
+
+        //always leave room to mark the end of the region
+        if (currentRegion.remaining() < payloadLength + 8 + 4) {
+            currentRegion.putInt(currentRegion.position(), REGION_END);
+            regionStart += REGION_SIZE;
+            currentRegion = mapRegion(regionStart);
+        }
+
+        int recordStart = currentRegion.position();
+        currentRegion.position(recordStart + 8);
+        currentRegion.putInt(score);
+        currentRegion.putLong(timeMillis);
+        currentRegion.putShort((short) nameBytes.length);
+        currentRegion.put(nameBytes);
+        currentRegion.putShort((short) mapBytes.length);
+        currentRegion.put(mapBytes);
+
+        //length is written last, so a record is only seen once it's complete
+        currentRegion.putInt(recordStart + 4, computeChecksum(currentRegion, recordStart + 8, payloadLength));
+        currentRegion.putInt(recordStart, payloadLength);
+        numberRecords++;
+
+        //indexed only once appended, so the index never holds a score the file doesn't
+        bestScores.updateBestScore(playerName, mapID, score);
+
+        return true;
+    }
+
+    @Override
+    public LinkedHashMap<String, Integer> fetchLeaderboard() {
+        return bestScores.fetchLeaderboard();
+    }
+
+    @Override
+    public LinkedHashMap<String, Integer> fetchLeaderboard(String mapID) {
+        return bestScores.fetchLeaderboard(mapID);
+    }
+
+    @Override
+    public PlayerStanding fetchPlayerStanding(String playerName, String mapID, int numberNeighbours) {
+        return bestScores.fetchPlayerStanding(playerName, mapID, numberNeighbours);
+    }
+
+    @Override
+    public synchronized List<RecordedScore> fetchScoresSince(long timeMillis) throws IOException {
+        List<RecordedScore> recentScores = new ArrayList<>();
+        Consumer<RecordedScore> scoreCollector = recordedScore -> {
+            if (recordedScore.getTimeMillis() >= timeMillis) {
+                recentScores.add(recordedScore);
+            }
+        };
+
+        //records are appended as games end, so the file is already oldest first
+        for (long start = 0; start < regionStart; start += REGION_SIZE) {
+            readRegion(mapRegion(start), scoreCollector);
+        }
+        ByteBuffer lastRegion = currentRegion.duplicate();
+        lastRegion.position(0);
+        readRegion(lastRegion, scoreCollector);
+
+        return recentScores;
+    }
+
+    /**
+     * Forces every appended score to disk.
+     */
+    public synchronized void syncFile() {
+        currentRegion.force();
+    }
+
+    @Override
+    public synchronized void close() {
+        syncFile();
+
+        try {
+            storeChannel.close();
+        } catch (IOException e) {
+            //the mapped regions stay valid until collected
+        }
+    }
+
+    /**
+     * Helper method to map a region of the file, growing the file if needed.
+     *
+     * @param start the offset of the region in the file.
+     *
+     * @throws IOException if the region can't be mapped.
+     *
+     * @return the mapped region.
+     */
+    private MappedByteBuffer mapRegion(long start) throws IOException {
+        return storeChannel.map(FileChannel.MapMode.READ_WRITE, start, REGION_SIZE);
+    }
+
+    /**
+     * Helper method to read the records of a region, leaving the region positioned after the
+     * last intact record.
+     *
+     * @param region       the region, positioned at its start.
+     * @param scoreHandler what to do with each score read.
+     *
+     * @return true if the region ends with a region end mark, so the next region may hold
+     *         records, else false if reading stopped at an empty or damaged record.
+     */
+    private static boolean readRegion(ByteBuffer region, Consumer<RecordedScore> scoreHandler) {
+        while (region.remaining() >= 4) {
+            int recordStart = region.position();
+            int payloadLength = region.getInt(recordStart);
+
+            if (payloadLength == REGION_END) {
+                return true;
+            }
+            if (payloadLength < RECORD_HEADER_BYTES - 8 || recordStart + 8 + payloadLength > region.limit()
+                    || computeChecksum(region, recordStart + 8, payloadLength) != region.getInt(recordStart + 4)) {
+                return false;
+            }
+
+            region.position(recordStart + 8);
+            int score = region.getInt();
+            long timeMillis = region.getLong();
+            String playerName = readString(region);
+            String mapID = readString(region);
+
+            scoreHandler.accept(new RecordedScore(playerName, mapID, score, timeMillis));
+        }
+
+        return false;
+    }
+
+    /**
+     * Helper method to add a score read from the file to the index.
+     *
+     * @param recordedScore the score read.
+     */
+    private void indexScore(RecordedScore recordedScore) {
+        bestScores.updateBestScore(recordedScore.getPlayerName(), recordedScore.getMapID(),
+                                   recordedScore.getScore());
+        numberRecords++;
+    }
+
+    /**
+     * Helper method to compute the checksum of part of a region.
+     *
+     * @param region the region.
+     * @param start  the offset of the part in the region.
+     * @param length the length of the part.
+     *
+     * @return the checksum.
+     */
+    private static int computeChecksum(ByteBuffer region, int start, int length) {
+        ByteBuffer checkedBytes = region.duplicate();
+        checkedBytes.limit(start + length);
+        checkedBytes.position(start);
+
+        CRC32 checksum = new CRC32();
+        checksum.update(checkedBytes);
+
+        return (int) checksum.getValue();
+    }
+
+    /**
+     * Helper method to read a length-prefixed UTF-8 string from a region.
+     *
+     * @param region the region, positioned at the string.
+     *
+     * @return the string read.
+     */
+    private static String readString(ByteBuffer region) {
+        byte[] stringBytes = new byte[region.getShort() & 0xFFFF];
+        region.get(stringBytes);
+
+        return new String(stringBytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,100 @@
+package student.server;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Leaderboard store kept only in memory, for tests, benchmarks and deployments that don't
+ * need scores to outlive the service. Also used as the index of file-backed stores.
+ * Leaderboards are kept ranked as scores arrive, so reading one doesn't sort it.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class MemoryLeaderboardStore implements LeaderboardStore {
+    private final Map<String, ScoreRanking> mapRankings; //map id to best scores on the map
+    private final ScoreRanking overallRanking; //best scores on any map
+
+    /**
+     * Default constructor for objects of class MemoryLeaderboardStore.
+     * Initiates an empty store.
+     */
+    public MemoryLeaderboardStore() {
+        mapRankings = new HashMap<>();
+        overallRanking = new ScoreRanking();
+    }
+
+    @Override
+    public boolean recordScore(String playerName, String mapID, int score, long timeMillis) {
+        return updateBestScore(playerName, mapID, score);
+    }
+
+    /**
+     * Determines whether a score would beat a player's best score on a map, without recording it.
+     *
+     * @param playerName the name of the player; null is looked up as an empty name.
+     * @param mapID      the id of the map played.
+     * @param score      the player's score.
+     *
+     * @return true if the score would be the player's new best on the map, else false.
+     */
+    public synchronized boolean isBestScore(String playerName, String mapID, int score) {
+        ScoreRanking mapRanking = mapRankings.get(mapID);
+        Integer bestScore = mapRanking == null ? null : mapRanking.findScore(playerName == null ? "" : playerName);
+
+        return bestScore == null || score < bestScore;
+    }
+
+    /**
+     * Records a player's score on a map, if it beats their best score there.
+     *
+     * @param playerName the name of the player; null is recorded as an empty name.
+     * @param mapID      the id of the map played.
+     * @param score      the player's score.
+     *
+     * @return true if the score is the player's new best on the map, else false.
+     */
+    public synchronized boolean updateBestScore(String playerName, String mapID, int score) {
+        String name = playerName == null ? "" : playerName;
+
+        if (!mapRankings.computeIfAbsent(mapID, id -> new ScoreRanking()).updateBestScore(name, score)) {
+            return false;
+        }
+
+        overallRanking.updateBestScore(name, score);
+
+        return true;
+    }
+
+    @Override
+    public synchronized LinkedHashMap<String, Integer> fetchLeaderboard() {
+        return overallRanking.fetchLeaderboard();
+    }
+
+    @Override
+    public synchronized LinkedHashMap<String, Integer> fetchLeaderboard(String mapID) {
+        ScoreRanking mapRanking = mapRankings.get(mapID);
+
+        if (mapRanking == null) {
+            return new LinkedHashMap<>();
+        }
+
+        return mapRanking.fetchLeaderboard();
+    }
+
+    @Override
+    public synchronized PlayerStanding fetchPlayerStanding(String playerName, String mapID, int numberNeighbours) {
+        ScoreRanking ranking = mapID == null ? overallRanking : mapRankings.get(mapID);
+
+        if (ranking == null) {
+            return null;
+        }
+
+        return ranking.fetchPlayerStanding(playerName, numberNeighbours);
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,84 @@
+package student.server;
+
+import java.util.List;
+
+/**
+ * Where a player stands on a leaderboard: their rank and best score, and the players
+ * ranked just above and below them.
+ * Ranks start at 1 for the best score; players with equal scores are ranked by name.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class PlayerStanding {
+    private final String playerName;
+    private final int rank;
+    private final int score;
+    private final int numberPlayers;
+    private final List<RankedScore> neighbours;
+
+    /**
+     * A player's best score and rank on a leaderboard.
+     */
+    public static class RankedScore {
+        private final int rank;
+        private final String playerName;
+        private final int score;
+
+        public RankedScore(int rank, String playerName, int score) {
+            this.rank = rank;
+            this.playerName = playerName;
+            this.score = score;
+        }
+
+        public int getRank() {
+            return rank;
+        }
+
+        public String getPlayerName() {
+            return playerName;
+        }
+
+        public int getScore() {
+            return score;
+        }
+    }
+
+    /**
+     * Constructor for objects of class PlayerStanding.
+     *
+     * @param playerName    the name of the player.
+     * @param rank          the player's rank.
+     * @param score         the player's best score.
+     * @param numberPlayers the number of players on the leaderboard.
+     * @param neighbours    the players ranked around the player, the player included, best first.
+     */
+    public PlayerStanding(String playerName, int rank, int score, int numberPlayers,
+                          List<RankedScore> neighbours) {
+        this.playerName = playerName;
+        this.rank = rank;
+        this.score = score;
+        this.numberPlayers = numberPlayers;
+        this.neighbours = neighbours;
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getNumberPlayers() {
+        return numberPlayers;
+    }
+
+    public List<RankedScore> getNeighbours() {
+        return neighbours;
+    }
+}
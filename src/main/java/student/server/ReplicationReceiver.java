@@ -0,0 +1,331 @@
+package student.server;
+
+import student.server.CommandJournal.JournalRecord;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Receives the journal streamed by a primary service's ReplicationSender and applies it to
+ * a standby service, keeping the standby's games in step with the primary's.
+ * Once the standby has been sent a copy of the primary's games, it takes over (is promoted)
+ * if it hears nothing from the primary for the failover time and no primary reconnects.
+ * The primary sends a heartbeat when it has nothing to send, so only a dead or cut-off
+ * primary goes quiet that long.
+ * Every primary that connects is first told the standby's replication term. Once the standby
+ * has taken over, it keeps listening so a primary that comes back is told the raised term
+ * and fences itself off, rather than being followed.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class ReplicationReceiver {
+    private static final Logger LOGGER = Logger.getLogger(ReplicationReceiver.class.getName());
+
+    //most games or journal records a primary may declare in one message, so a damaged
+    //count can't exhaust memory
+    private final static int MAX_MESSAGE_ENTRIES = 1 << 24;
+
+    private final ServerSocket serverSocket;
+    private final KidnappedService service;
+    private final long failoverMillis;
+    private final Thread receiverThread;
+    private volatile Socket primarySocket; //null while no primary is connected
+    private volatile boolean stopped;
+    private volatile boolean fencing; //true once the standby has taken over
+    private final Object streamLock; //held while a primary's stream is applied
+
+    //replication statistics, for the replication report
+    private volatile long appliedLSN;
+    private volatile long numberCopies;
+    private volatile long numberRecordsApplied;
+    private volatile long lastContactMillis;
+
+    /**
+     * Constructor for objects of class ReplicationReceiver.
+     * Listens for the primary on a port and starts the thread applying its stream.
+     *
+     * @param port           the port to listen on, or 0 for any free port.
+     * @param failoverMillis how long the primary may be silent before the standby takes over.
+     * @param service        the standby service to apply the stream to.
+     *
+     * @throws IOException if the port can't be listened on.
+     */
+    public ReplicationReceiver(int port, long failoverMillis, KidnappedService service) throws IOException {
+        if (failoverMillis <= ReplicationSender.HEARTBEAT_MILLIS) {
+            throw new IllegalArgumentException("Failover time must be longer than the primary's heartbeat, " +
+                                                   ReplicationSender.HEARTBEAT_MILLIS + "ms.");
+        }
+
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(port));
+        this.failoverMillis = failoverMillis;
+        this.service = service;
+        streamLock = new Object();
+        appliedLSN = -1;
+
+        receiverThread = new Thread(this::receiveStreams, "replication-receiver");
+        receiverThread.setDaemon(true);
+        receiverThread.start();
+    }
+
+    /**
+     * Determines the port the standby listens for its primary on.
+     *
+     * @return the port.
+     */
+    public int findPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Determines the last LSN of the primary's journal applied to the standby.
+     *
+     * @return the LSN, or -1 if the standby hasn't been sent a copy of the primary's games.
+     */
+    public long findAppliedLSN() {
+        return appliedLSN;
+    }
+
+    /**
+     * Reports how much of the primary's journal the standby has applied.
+     *
+     * @return a map of report entries to values.
+     */
+    public Map<String, Long> fetchReplicationReport() {
+        Map<String, Long> report = new LinkedHashMap<>();
+
+        report.put("connected", primarySocket != null ? 1L : 0L);
+        report.put("promoted", service.isStandby() ? 0L : 1L);
+        report.put("copiesReceived", numberCopies);
+        report.put("recordsApplied", numberRecordsApplied);
+        report.put("appliedLSN", appliedLSN);
+        report.put("millisSinceContact", lastContactMillis == 0 ? -1 :
+                System.currentTimeMillis() - lastContactMillis);
+
+        return report;
+    }
+
+    /**
+     * Stops following the primary, once the standby has taken over: drops the primary's
+     * stream, waiting until no more of it is applied, and from then on only tells primaries
+     * that connect the standby's replication term.
+     */
+    public void startFencing() {
+        fencing = true;
+
+        Socket socket = primarySocket;
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                //already closed
+            }
+        }
+
+        synchronized (streamLock) {
+            //the stream was dropped; nothing is applied once this is held
+        }
+    }
+
+    /**
+     * Stops listening for the primary and drops its stream. Waits for the thread applying
+     * the stream to finish, unless called from that thread.
+     */
+    public void stop() {
+        stopped = true;
+
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            //already closed
+        }
+
+        Socket socket = primarySocket;
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                //already closed
+            }
+        }
+
+        if (Thread.currentThread() != receiverThread) {
+            try {
+                receiverThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Helper method run by the receiver thread: applies each stream the primary opens, and
+     * promotes the standby once a primary that sent its games has been silent too long.
+     * After that, primaries that connect are only told the standby's replication term.
+     */
+    private void receiveStreams() {
+        while (!stopped) {
+            Socket socket;
+
+            try {
+                if (lastContactMillis == 0 || fencing) {
+                    serverSocket.setSoTimeout(0);
+                } else {
+                    long silentMillis = System.currentTimeMillis() - lastContactMillis;
+                    serverSocket.setSoTimeout((int) Math.max(failoverMillis - silentMillis, 1));
+                }
+
+                socket = serverSocket.accept();
+            } catch (SocketTimeoutException e) {
+                LOGGER.warning("Primary silent for " + failoverMillis + "ms; taking over its games.");
+                service.promote();
+                continue;
+            } catch (IOException e) {
+                if (!stopped) {
+                    LOGGER.warning("Could not accept primary: " + e.getMessage());
+                }
+                continue;
+            }
+
+            try {
+                synchronized (streamLock) {
+                    primarySocket = socket;
+                    socket.setSoTimeout((int) failoverMillis);
+                    socket.setTcpNoDelay(true);
+                    receiveStream(socket);
+                }
+            } catch (EOFException e) {
+                LOGGER.warning("Primary closed its replication stream.");
+            } catch (IOException e) {
+                if (!stopped) {
+                    LOGGER.warning("Lost replication stream from primary: " + e.getMessage());
+                }
+            } catch (RuntimeException e) {
+                //a stream that can't be applied is dropped; the primary reconnects with a fresh copy
+                LOGGER.severe("Dropped replication stream that couldn't be applied: " + e);
+            } finally {
+                primarySocket = null;
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    //already closed
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper method to apply a primary's stream: tells the primary the standby's replication
+     * term, then applies a copy of its games and batches of journal records, acknowledging
+     * the LSN applied once it has caught up. A primary connecting after the standby took
+     * over is only told the term.
+     *
+     * @param socket the primary's socket.
+     *
+     * @throws IOException if the stream fails or ends.
+     */
+    private void receiveStream(Socket socket) throws IOException {
+        DataInputStream primaryInput = new DataInputStream(new BufferedInputStream(socket.getInputStream(),
+                                                                                   1 << 16));
+        DataOutputStream primaryOutput = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+        primaryOutput.writeLong(service.findReplicationTerm());
+        primaryOutput.flush();
+        if (fencing) {
+            LOGGER.warning("Told returning primary " + socket.getRemoteSocketAddress() + " that the standby " +
+                               "took over at replication term " + service.findReplicationTerm() + ".");
+            return;
+        }
+
+        if (primaryInput.readByte() != ReplicationSender.BOOTSTRAP_MESSAGE) {
+            throw new InvalidObjectException("Replication stream doesn't start with a copy of the games.");
+        }
+
+        service.adoptReplicationTerm(primaryInput.readLong());
+        int nextGameID = primaryInput.readInt();
+        long copiedLSN = primaryInput.readLong();
+        int numberGames = readCount(primaryInput);
+
+        //read the whole copy first, so a stream cut short leaves the earlier games in place
+        List<JournalRecord> copiedGames = new ArrayList<>();
+        for (int game = 0; game < numberGames; game++) {
+            copiedGames.add(CommandJournal.readEncodedRecord(primaryInput));
+        }
+
+        service.loadReplicatedGames(copiedGames, nextGameID);
+        appliedLSN = copiedLSN;
+        numberCopies++;
+        acknowledge(primaryOutput);
+
+        while (!stopped && !fencing) {
+            if (primaryInput.readByte() != ReplicationSender.RECORDS_MESSAGE) {
+                throw new InvalidObjectException("Unknown replication message.");
+            }
+
+            int numberRecords = readCount(primaryInput);
+            for (int index = 0; index < numberRecords; index++) {
+                JournalRecord record = CommandJournal.readEncodedRecord(primaryInput);
+
+                service.applyReplicatedRecord(record);
+                appliedLSN = record.getLSN();
+            }
+            numberRecordsApplied += numberRecords;
+
+            //while more messages are waiting, one acknowledgement covers them all
+            if (primaryInput.available() == 0) {
+                acknowledge(primaryOutput);
+            }
+            lastContactMillis = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Helper method to read the number of games or records in a message from the primary.
+     *
+     * @param primaryInput the stream from the primary.
+     *
+     * @throws InvalidObjectException if the count is out of range.
+     * @throws IOException            if the count can't be read.
+     *
+     * @return the count.
+     */
+    private static int readCount(DataInputStream primaryInput) throws IOException {
+        int count = primaryInput.readInt();
+
+        if (count < 0 || count > MAX_MESSAGE_ENTRIES) {
+            throw new InvalidObjectException("Replication message count " + count + " is out of range.");
+        }
+
+        return count;
+    }
+
+    /**
+     * Helper method to tell the primary the last LSN applied, and note that it was heard from.
+     *
+     * @param primaryOutput the stream to the primary.
+     *
+     * @throws IOException if the acknowledgement can't be sent.
+     */
+    private void acknowledge(DataOutputStream primaryOutput) throws IOException {
+        lastContactMillis = System.currentTimeMillis();
+
+        primaryOutput.writeLong(appliedLSN);
+        primaryOutput.flush();
+    }
+}
@@ -0,0 +1,407 @@
+package student.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * Streams the journal of a primary service to a warm standby service over a socket, so the
+ * standby can take over the primary's games if the primary dies.
+ * Replication is asynchronous: the journal's writer thread hands each synced batch of
+ * records to a queue, and a sender thread writes them to the standby, so commands on the
+ * primary never wait for the standby. Each stream starts with a copy of every running game,
+ * taken without pausing play, followed by every record journaled since the copy began.
+ * The standby acknowledges the last LSN it has applied whenever it catches up, which gives
+ * the replication lag. If the standby falls too far behind, or the connection fails, the stream
+ * is dropped and started over with a fresh copy.
+ * On connecting, the standby first sends its replication term. A standby with a higher term
+ * than the primary's has taken over (or follows a primary that did), so the primary fences
+ * itself off instead of streaming.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class ReplicationSender {
+    private static final Logger LOGGER = Logger.getLogger(ReplicationSender.class.getName());
+
+    //primary's replication term, next game id, LSN the copy starts from and number of games,
+    //then each game as an import record
+    final static byte BOOTSTRAP_MESSAGE = 1;
+
+    //number of records, then the records as encoded in the journal
+    final static byte RECORDS_MESSAGE = 2;
+
+    //longest the primary stays silent; an empty message is sent when there's nothing to ship
+    final static long HEARTBEAT_MILLIS = 100;
+
+    private final static long RECONNECT_MILLIS = 500;
+    private final static int CONNECT_TIMEOUT_MILLIS = 2000;
+
+    //batches waiting to be sent before the standby counts as too far behind
+    private final static int MAX_QUEUED_BATCHES = 1 << 16;
+
+    //most journal batches sent in one message
+    private final static int MAX_MESSAGE_BATCHES = 256;
+
+    private final String standbyHost;
+    private final int standbyPort;
+    private final KidnappedService service;
+    private final Thread senderThread;
+    private final ArrayDeque<ShippedBatch> unacknowledgedBatches; //sent, oldest first
+    private volatile Socket standbySocket; //null while not connected
+    private volatile boolean closed;
+
+    //replication statistics, for the replication report
+    private volatile long durableLSN;
+    private volatile long appliedLSN;
+    private volatile long numberStreams;
+    private volatile long numberRecordsShipped;
+    private long lastLagNanos; //guarded by unacknowledgedBatches, like the rest of the lag figures
+    private long maxLagNanos;
+    private long totalLagNanos;
+    private long numberLagSamples;
+
+    /**
+     * A batch of records synced to the primary's journal, and when it was synced.
+     */
+    private static class ShippedBatch {
+        private final List<ByteBuffer> encodedRecords;
+        private final long lastLSN;
+        private final long durableNanos;
+
+        ShippedBatch(List<ByteBuffer> encodedRecords, long lastLSN, long durableNanos) {
+            this.encodedRecords = encodedRecords;
+            this.lastLSN = lastLSN;
+            this.durableNanos = durableNanos;
+        }
+    }
+
+    /**
+     * A copy of every game running on the primary, which a stream starts with.
+     */
+    static class ReplicaCopy {
+        private final List<ByteBuffer> encodedGames;
+        private final int nextGameID;
+        private final long copiedLSN;
+
+        /**
+         * Constructor for objects of class ReplicaCopy.
+         *
+         * @param encodedGames each game as an encoded import record, numbered with the LSN of
+         *                     the last record applied to it.
+         * @param nextGameID   the id the primary's next game would get.
+         * @param copiedLSN    the LSN of the last record journaled before the copy began.
+         */
+        ReplicaCopy(List<ByteBuffer> encodedGames, int nextGameID, long copiedLSN) {
+            this.encodedGames = encodedGames;
+            this.nextGameID = nextGameID;
+            this.copiedLSN = copiedLSN;
+        }
+    }
+
+    /**
+     * Constructor for objects of class ReplicationSender.
+     * Starts the thread connecting to the standby and streaming the service's journal to it,
+     * reconnecting whenever the stream is lost.
+     *
+     * @param standbyHost the host running the standby.
+     * @param standbyPort the port the standby listens for its primary on.
+     * @param service     the journaled service to replicate.
+     */
+    public ReplicationSender(String standbyHost, int standbyPort, KidnappedService service) {
+        this.standbyHost = standbyHost;
+        this.standbyPort = standbyPort;
+        this.service = service;
+        unacknowledgedBatches = new ArrayDeque<>();
+        durableLSN = -1;
+        appliedLSN = -1;
+
+        senderThread = new Thread(this::sendStreams, "replication-sender");
+        senderThread.setDaemon(true);
+        senderThread.start();
+    }
+
+    /**
+     * Determines whether a stream to the standby is open.
+     *
+     * @return true if connected to the standby, else false.
+     */
+    public boolean isConnected() {
+        return standbySocket != null;
+    }
+
+    /**
+     * Determines the last LSN the standby has applied.
+     *
+     * @return the standby's LSN, or -1 if it hasn't applied any record of this primary.
+     */
+    public long findAppliedLSN() {
+        return appliedLSN;
+    }
+
+    /**
+     * Reports how far the standby is behind and how long records take to reach it.
+     * Lag is measured from a record being synced on the primary to the standby
+     * acknowledging it has applied it.
+     *
+     * @return a map of report entries to values.
+     */
+    public Map<String, Long> fetchReplicationReport() {
+        Map<String, Long> report = new LinkedHashMap<>();
+
+        report.put("connected", isConnected() ? 1L : 0L);
+        report.put("streamsStarted", numberStreams);
+        report.put("recordsShipped", numberRecordsShipped);
+        report.put("durableLSN", durableLSN);
+        report.put("appliedLSN", appliedLSN);
+        report.put("lagRecords", Math.max(durableLSN - appliedLSN, 0));
+
+        synchronized (unacknowledgedBatches) {
+            report.put("lastLagMicros", lastLagNanos / 1000);
+            report.put("maxLagMicros", maxLagNanos / 1000);
+            report.put("meanLagMicros", numberLagSamples == 0 ? 0 : totalLagNanos / numberLagSamples / 1000);
+        }
+
+        return report;
+    }
+
+    /**
+     * Sends every record the journal has already handed over, then closes the stream.
+     * Should be called after the journal is closed, so the standby gets every record.
+     */
+    public void close() {
+        closed = true;
+
+        try {
+            senderThread.join(CONNECT_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        closeSocket(standbySocket);
+    }
+
+    /**
+     * Helper method run by the sender thread: streams to the standby, starting a new stream
+     * whenever one is lost, until the sender is closed.
+     */
+    private void sendStreams() {
+        while (!closed) {
+            try {
+                sendStream();
+            } catch (IOException e) {
+                if (!closed) {
+                    LOGGER.warning("Lost replication stream to " + standbyHost + ":" + standbyPort + ": " +
+                                       e.getMessage());
+                }
+            } finally {
+                service.getCommandJournal().setRecordListener(null);
+                closeSocket(standbySocket);
+                standbySocket = null;
+            }
+
+            try {
+                if (!closed) {
+                    Thread.sleep(RECONNECT_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Helper method to connect to the standby, send it a copy of every game, then send
+     * each batch of records as it's journaled until the stream fails or the sender is closed.
+     *
+     * @throws IOException if the stream fails.
+     */
+    private void sendStream() throws IOException {
+        Socket socket = new Socket();
+        socket.connect(new InetSocketAddress(standbyHost, standbyPort), CONNECT_TIMEOUT_MILLIS);
+        socket.setTcpNoDelay(true);
+        standbySocket = socket;
+
+        socket.setSoTimeout(CONNECT_TIMEOUT_MILLIS);
+        long standbyTerm = new DataInputStream(socket.getInputStream()).readLong();
+        socket.setSoTimeout(0);
+        if (standbyTerm > service.findReplicationTerm()) {
+            service.fence(standbyTerm);
+            closed = true;
+            return;
+        }
+
+        DataOutputStream standbyOutput = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(),
+                                                                                       1 << 16));
+
+        //each stream has its own queue, so batches handed to a dropped stream are never sent
+        BlockingQueue<ShippedBatch> streamQueue = new ArrayBlockingQueue<>(MAX_QUEUED_BATCHES);
+        AtomicBoolean overflowed = new AtomicBoolean(false);
+        synchronized (unacknowledgedBatches) {
+            unacknowledgedBatches.clear();
+        }
+
+        ReplicaCopy replicaCopy = service.startReplicationStream((encodedRecords, lastLSN) -> {
+            durableLSN = lastLSN;
+            if (!streamQueue.offer(new ShippedBatch(encodedRecords, lastLSN, System.nanoTime()))) {
+                overflowed.set(true);
+            }
+        });
+        numberStreams++;
+
+        Thread acknowledgementThread = new Thread(() -> readAcknowledgements(socket), "replication-acknowledgements");
+        acknowledgementThread.setDaemon(true);
+        acknowledgementThread.start();
+
+        standbyOutput.writeByte(BOOTSTRAP_MESSAGE);
+        standbyOutput.writeLong(service.findReplicationTerm());
+        standbyOutput.writeInt(replicaCopy.nextGameID);
+        standbyOutput.writeLong(replicaCopy.copiedLSN);
+        standbyOutput.writeInt(replicaCopy.encodedGames.size());
+        for (ByteBuffer encodedGame: replicaCopy.encodedGames) {
+            writeEncodedRecord(standbyOutput, encodedGame);
+        }
+        standbyOutput.flush();
+
+        List<ShippedBatch> batches = new ArrayList<>();
+        while (!closed || !streamQueue.isEmpty()) {
+            if (overflowed.get()) {
+                throw new IOException("Standby fell more than " + MAX_QUEUED_BATCHES + " batches behind.");
+            }
+
+            ShippedBatch firstBatch;
+            try {
+                firstBatch = streamQueue.poll(HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                throw new IOException("Interrupted while replicating.", e);
+            }
+
+            if (firstBatch != null) {
+                batches.add(firstBatch);
+                streamQueue.drainTo(batches, MAX_MESSAGE_BATCHES - 1);
+            }
+
+            writeRecordsMessage(standbyOutput, batches);
+            batches.clear();
+        }
+    }
+
+    /**
+     * Helper method to send batches of records in one message, or an empty message as a
+     * heartbeat if there are none.
+     *
+     * @param standbyOutput the stream to the standby.
+     * @param batches       the batches to send, in LSN order.
+     *
+     * @throws IOException if the message can't be sent.
+     */
+    private void writeRecordsMessage(DataOutputStream standbyOutput, List<ShippedBatch> batches)
+            throws IOException {
+        int numberRecords = 0;
+        for (ShippedBatch batch: batches) {
+            numberRecords += batch.encodedRecords.size();
+        }
+
+        //listed before sending, so an acknowledgement never arrives for an unlisted batch
+        synchronized (unacknowledgedBatches) {
+            unacknowledgedBatches.addAll(batches);
+        }
+
+        standbyOutput.writeByte(RECORDS_MESSAGE);
+        standbyOutput.writeInt(numberRecords);
+        for (ShippedBatch batch: batches) {
+            for (ByteBuffer encodedRecord: batch.encodedRecords) {
+                writeEncodedRecord(standbyOutput, encodedRecord);
+            }
+        }
+        standbyOutput.flush();
+
+        numberRecordsShipped += numberRecords;
+    }
+
+    /**
+     * Helper method to send a record as encoded by the journal.
+     *
+     * @param standbyOutput the stream to the standby.
+     * @param encodedRecord the encoded record; its position is left unchanged.
+     *
+     * @throws IOException if the record can't be sent.
+     */
+    private static void writeEncodedRecord(DataOutputStream standbyOutput, ByteBuffer encodedRecord)
+            throws IOException {
+        standbyOutput.write(encodedRecord.array(), encodedRecord.arrayOffset() + encodedRecord.position(),
+                            encodedRecord.remaining());
+    }
+
+    /**
+     * Helper method run by a stream's acknowledgement thread: reads the LSNs the standby
+     * has applied and measures the lag of each acknowledged batch, until the stream ends.
+     *
+     * @param socket the stream's socket.
+     */
+    private void readAcknowledgements(Socket socket) {
+        try {
+            DataInputStream standbyInput = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+
+            while (true) {
+                long acknowledgedLSN = standbyInput.readLong();
+                long nowNanos = System.nanoTime();
+
+                synchronized (unacknowledgedBatches) {
+                    while (!unacknowledgedBatches.isEmpty() &&
+                               unacknowledgedBatches.peekFirst().lastLSN <= acknowledgedLSN) {
+                        recordLag(nowNanos - unacknowledgedBatches.pollFirst().durableNanos);
+                    }
+                }
+                appliedLSN = acknowledgedLSN;
+            }
+        } catch (IOException e) {
+            //a lost standby also fails the next send, which starts a new stream
+            closeSocket(socket);
+        }
+    }
+
+    /**
+     * Helper method to add a batch's lag to the lag figures. Must hold unacknowledgedBatches.
+     *
+     * @param lagNanos the time from the batch being synced to it being applied by the standby.
+     */
+    private void recordLag(long lagNanos) {
+        lastLagNanos = lagNanos;
+        maxLagNanos = Math.max(maxLagNanos, lagNanos);
+        totalLagNanos += lagNanos;
+        numberLagSamples++;
+    }
+
+    /**
+     * Helper method to close a socket, ignoring failures.
+     *
+     * @param socket the socket to close, or null.
+     */
+    private static void closeSocket(Socket socket) {
+        if (socket == null) {
+            return;
+        }
+
+        try {
+            socket.close();
+        } catch (IOException e) {
+            //already closed
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package student.server;
+
+import student.server.PlayerStanding.RankedScore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Players' best scores on one leaderboard, kept in leaderboard order as scores arrive so
+ * the board can be read without sorting it. Lower scores are better; ties go by name.
+ * The scores are kept in an indexed skip list: each link also counts the players it
+ * skips, so a player's rank, or the player at a rank, is found in logarithmic time.
+ * Not thread safe: callers lock around it.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class ScoreRanking {
+    private final static int MAX_LEVEL = 32;
+
+    //chance of a node also being linked on the next level up
+    private final static double LEVEL_UP_CHANCE = 0.25;
+
+    private final Map<String, Integer> bestScores; //player name to best score
+    private final RankNode headNode; //holds no score; its links start every level
+    private int numberLevels;
+
+    /**
+     * A player's score in the skip list.
+     */
+    private static class RankNode {
+        private final String playerName;
+        private final int score;
+        private final RankNode[] nextNodes;
+        private final int[] linkSpans; //number of players each link moves past
+
+        RankNode(String playerName, int score, int numberLevels) {
+            this.playerName = playerName;
+            this.score = score;
+            nextNodes = new RankNode[numberLevels];
+            linkSpans = new int[numberLevels];
+        }
+
+        /**
+         * Compares this node's place in the ranking with a score.
+         *
+         * @param otherName  the name of the player with the other score.
+         * @param otherScore the other score.
+         *
+         * @return negative if this node ranks better, positive if worse, 0 if it holds the score.
+         */
+        int compareTo(String otherName, int otherScore) {
+            int scoreOrder = Integer.compare(score, otherScore);
+
+            return scoreOrder != 0 ? scoreOrder : playerName.compareTo(otherName);
+        }
+    }
+
+    /**
+     * Default constructor for objects of class ScoreRanking.
+     * Initiates an empty ranking.
+     */
+    public ScoreRanking() {
+        bestScores = new HashMap<>();
+        headNode = new RankNode(null, 0, MAX_LEVEL);
+        numberLevels = 1;
+    }
+
+    /**
+     * Records a player's score, if it beats their best score.
+     *
+     * @param playerName the name of the player.
+     * @param score      the player's score.
+     *
+     * @return true if the score is the player's new best, else false.
+     */
+    public boolean updateBestScore(String playerName, int score) {
+        Integer bestScore = bestScores.get(playerName);
+
+        if (bestScore != null) {
+            if (bestScore <= score) {
+                return false;
+            }
+
+            removeNode(playerName, bestScore);
+        }
+
+        bestScores.put(playerName, score);
+        insertNode(playerName, score);
+
+        return true;
+    }
+
+    /**
+     * Finds a player's best score.
+     *
+     * @param playerName the name of the player.
+     *
+     * @return the player's best score, or null if they have none.
+     */
+    public Integer findScore(String playerName) {
+        return bestScores.get(playerName);
+    }
+
+    /**
+     * Finds a player's rank.
+     *
+     * @param playerName the name of the player.
+     *
+     * @return the player's rank, starting at 1, or -1 if they have no score.
+     */
+    public int findRank(String playerName) {
+        Integer score = bestScores.get(playerName);
+
+        if (score == null) {
+            return -1;
+        }
+
+        RankNode currentNode = headNode;
+        int rank = 0;
+        for (int level = numberLevels - 1; level >= 0; level--) {
+            while (currentNode.nextNodes[level] != null
+                    && currentNode.nextNodes[level].compareTo(playerName, score) <= 0) {
+                rank += currentNode.linkSpans[level];
+                currentNode = currentNode.nextNodes[level];
+            }
+        }
+
+        return rank;
+    }
+
+    /**
+     * Finds the number of players ranked.
+     *
+     * @return the number of players.
+     */
+    public int findNumberPlayers() {
+        return bestScores.size();
+    }
+
+    /**
+     * Finds the players ranked between two ranks.
+     *
+     * @param firstRank the best rank to include, starting at 1.
+     * @param lastRank  the worst rank to include.
+     *
+     * @return the players at those ranks, best first; fewer if the ranking is shorter.
+     */
+    public List<RankedScore> fetchRankedScores(int firstRank, int lastRank) {
+        List<RankedScore> rankedScores = new ArrayList<>();
+        int rank = Math.max(firstRank, 1);
+        RankNode currentNode = findNode(rank);
+
+        while (currentNode != null && rank <= lastRank) {
+            rankedScores.add(new RankedScore(rank, currentNode.playerName, currentNode.score));
+            currentNode = currentNode.nextNodes[0];
+            rank++;
+        }
+
+        return rankedScores;
+    }
+
+    /**
+     * Finds where a player stands in the ranking.
+     *
+     * @param playerName       the name of the player.
+     * @param numberNeighbours the number of players to include from above and from below the player.
+     *
+     * @return the player's standing, or null if they have no score.
+     */
+    public PlayerStanding fetchPlayerStanding(String playerName, int numberNeighbours) {
+        int rank = findRank(playerName);
+
+        if (rank < 0) {
+            return null;
+        }
+
+        return new PlayerStanding(playerName, rank, bestScores.get(playerName), findNumberPlayers(),
+                                  fetchRankedScores(rank - numberNeighbours, rank + numberNeighbours));
+    }
+
+    /**
+     * Copies the ranking into a leaderboard.
+     *
+     * @return player names to best scores, best first, ties by name.
+     */
+    public LinkedHashMap<String, Integer> fetchLeaderboard() {
+        LinkedHashMap<String, Integer> leaderboard = new LinkedHashMap<>();
+
+        for (RankNode node = headNode.nextNodes[0]; node != null; node = node.nextNodes[0]) {
+            leaderboard.put(node.playerName, node.score);
+        }
+
+        return leaderboard;
+    }
+
+    /**
+     * Helper method to find the node at a rank.
+     *
+     * @param rank the rank, starting at 1.
+     *
+     * @return the node, or null if the ranking is shorter.
+     */
+    private RankNode findNode(int rank) {
+        RankNode currentNode = headNode;
+        int currentRank = 0;
+
+        for (int level = numberLevels - 1; level >= 0; level--) {
+            while (currentNode.nextNodes[level] != null && currentRank + currentNode.linkSpans[level] <= rank) {
+                currentRank += currentNode.linkSpans[level];
+                currentNode = currentNode.nextNodes[level];
+            }
+
+            if (currentRank == rank) {
+                return currentNode;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Helper method to link a new node into the skip list.
+     *
+     * @param playerName the name of the player.
+     * @param score      the player's score.
+     */
+    private void insertNode(String playerName, int score) {
+        RankNode[] precedingNodes = new RankNode[MAX_LEVEL];
+        int[] precedingRanks = new int[MAX_LEVEL];
+
+        RankNode currentNode = headNode;
+        for (int level = numberLevels - 1; level >= 0; level--) {
+            precedingRanks[level] = level == numberLevels - 1 ? 0 : precedingRanks[level + 1];
+
+            while (currentNode.nextNodes[level] != null
+                    && currentNode.nextNodes[level].compareTo(playerName, score) < 0) {
+                precedingRanks[level] += currentNode.linkSpans[level];
+                currentNode = currentNode.nextNodes[level];
+            }
+            precedingNodes[level] = currentNode;
+        }
+
+        int nodeLevels = findRandomLevels();
+        for (int level = numberLevels; level < nodeLevels; level++) {
+            precedingNodes[level] = headNode;
+            precedingRanks[level] = 0;
+            headNode.linkSpans[level] = bestScores.size() - 1;
+        }
+        numberLevels = Math.max(numberLevels, nodeLevels);
+
+        RankNode newNode = new RankNode(playerName, score, nodeLevels);
+        for (int level = 0; level < nodeLevels; level++) {
+            int skippedBefore = precedingRanks[0] - precedingRanks[level];
+
+            newNode.nextNodes[level] = precedingNodes[level].nextNodes[level];
+            precedingNodes[level].nextNodes[level] = newNode;
+            newNode.linkSpans[level] = precedingNodes[level].linkSpans[level] - skippedBefore;
+            precedingNodes[level].linkSpans[level] = skippedBefore + 1;
+        }
+
+        //links passing over the new node now skip one more player
+        for (int level = nodeLevels; level < numberLevels; level++) {
+            precedingNodes[level].linkSpans[level]++;
+        }
+    }
+
+    /**
+     * Helper method to unlink a player's node from the skip list.
+     *
+     * @param playerName the name of the player.
+     * @param score      the score the node holds.
+     */
+    private void removeNode(String playerName, int score) {
+        RankNode[] precedingNodes = new RankNode[MAX_LEVEL];
+
+        RankNode currentNode = headNode;
+        for (int level = numberLevels - 1; level >= 0; level--) {
+            while (currentNode.nextNodes[level] != null
+                    && currentNode.nextNodes[level].compareTo(playerName, score) < 0) {
+                currentNode = currentNode.nextNodes[level];
+            }
+            precedingNodes[level] = currentNode;
+        }
+
+        RankNode removedNode = currentNode.nextNodes[0];
+        for (int level = 0; level < numberLevels; level++) {
+            if (precedingNodes[level].nextNodes[level] == removedNode) {
+                precedingNodes[level].linkSpans[level] += removedNode.linkSpans[level] - 1;
+                precedingNodes[level].nextNodes[level] = removedNode.nextNodes[level];
+            } else {
+                precedingNodes[level].linkSpans[level]--;
+            }
+        }
+
+        while (numberLevels > 1 && headNode.nextNodes[numberLevels - 1] == null) {
+            numberLevels--;
+        }
+    }
+
+    /**
+     * Helper method to pick how many levels a new node is linked on.
+     *
+     * @return the number of levels, at least 1.
+     */
+    private static int findRandomLevels() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int nodeLevels = 1;
+
+        while (nodeLevels < MAX_LEVEL && random.nextDouble() < LEVEL_UP_CHANCE) {
+            nodeLevels++;
+        }
+
+        return nodeLevels;
+    }
+}
@@ -0,0 +1,390 @@
+package student.server;
+
+import student.adventure.GameEngine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Snapshot file of every game running on a service, taken at a point in its journal (the
+ * cut LSN). Each game is written with the LSN of the last journal record applied to it, so
+ * recovery can load the snapshot and replay only the journal records each game hasn't seen,
+ * and with the layout version of its map, so a game isn't restored onto a changed map.
+ * A snapshot is written to a temporary file, synced, and renamed into place, so a crash
+ * mid-snapshot leaves the previous snapshot in use. The file ends with a checksum of its
+ * contents, which is checked once the snapshot is in place and again when it's read.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class SessionSnapshot {
+    private static final Logger LOGGER = Logger.getLogger(SessionSnapshot.class.getName());
+
+    public final static String SNAPSHOT_PREFIX = "snapshot-";
+    public final static String SNAPSHOT_EXTENSION = ".snap";
+
+    private final static int SNAPSHOT_MAGIC = 0x4B534E50; //"KSNP"
+    private final static int SNAPSHOT_VERSION = 2;
+
+    private final Path snapshotFile;
+    private final Path temporaryFile;
+    private final FileChannel snapshotChannel;
+    private final BufferedOutputStream bufferedOutput;
+    private final CheckedOutputStream checkedOutput;
+    private final DataOutputStream snapshotOutput;
+    private final ByteArrayOutputStream gameStateBytes;
+    private int numberGames;
+
+    /**
+     * Reads the games of a snapshot, one at a time.
+     */
+    public interface GameReader {
+        /**
+         * Reads a single game of a snapshot.
+         *
+         * @param gameID     the id of the game.
+         * @param mapID      the id of the map the game plays.
+         * @param mapVersion the layout version of the map when the game was written.
+         * @param lastLSN    the LSN of the last journal record applied to the game.
+         * @param state      the game's state, as written by GameEngine.writeGameState.
+         *
+         * @throws IOException if the game's state can't be read.
+         */
+        void readGame(int gameID, String mapID, long mapVersion, long lastLSN, byte[] state) throws IOException;
+    }
+
+    /**
+     * Summary of a snapshot that was read.
+     */
+    public static class SnapshotInfo {
+        private final long cutLSN;
+        private final int nextGameID;
+        private final int numberGames;
+
+        SnapshotInfo(long cutLSN, int nextGameID, int numberGames) {
+            this.cutLSN = cutLSN;
+            this.nextGameID = nextGameID;
+            this.numberGames = numberGames;
+        }
+
+        public long getCutLSN() {
+            return cutLSN;
+        }
+
+        public int getNextGameID() {
+            return nextGameID;
+        }
+
+        public int getNumberGames() {
+            return numberGames;
+        }
+    }
+
+    /**
+     * Constructor for objects of class SessionSnapshot.
+     * Starts writing a snapshot taken at a point in the journal.
+     *
+     * @param snapshotDirectory the directory to keep snapshots in.
+     * @param cutLSN            the LSN of the first journal record not covered by the snapshot.
+     *
+     * @throws IOException if the snapshot file can't be created.
+     */
+    public SessionSnapshot(Path snapshotDirectory, long cutLSN) throws IOException {
+        snapshotFile = snapshotDirectory.resolve(writeSnapshotName(cutLSN));
+        temporaryFile = snapshotDirectory.resolve(writeSnapshotName(cutLSN) + ".tmp");
+
+        snapshotChannel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                           StandardOpenOption.TRUNCATE_EXISTING);
+        bufferedOutput = new BufferedOutputStream(Channels.newOutputStream(snapshotChannel), 1 << 16);
+        checkedOutput = new CheckedOutputStream(bufferedOutput, new CRC32());
+        snapshotOutput = new DataOutputStream(checkedOutput);
+        gameStateBytes = new ByteArrayOutputStream(1024);
+        numberGames = 0;
+
+        snapshotOutput.writeInt(SNAPSHOT_MAGIC);
+        snapshotOutput.writeByte(SNAPSHOT_VERSION);
+        snapshotOutput.writeLong(cutLSN);
+    }
+
+    public int getNumberGames() {
+        return numberGames;
+    }
+
+    /**
+     * Writes a game to the snapshot. The caller should hold the game engine's lock, so
+     * the game's last LSN matches its state.
+     *
+     * @param gameID     the id of the game.
+     * @param mapID      the id of the map the game plays.
+     * @param lastLSN    the LSN of the last journal record applied to the game.
+     * @param gameEngine the engine running the game.
+     *
+     * @throws IOException if the game can't be written.
+     */
+    public void writeGame(int gameID, String mapID, long lastLSN, GameEngine gameEngine) throws IOException {
+        gameStateBytes.reset();
+        gameEngine.writeGameState(new DataOutputStream(gameStateBytes));
+
+        snapshotOutput.writeBoolean(true);
+        snapshotOutput.writeInt(gameID);
+        snapshotOutput.writeUTF(mapID);
+        snapshotOutput.writeLong(gameEngine.getTemplateMap().findLayoutVersion());
+        snapshotOutput.writeLong(lastLSN);
+        snapshotOutput.writeInt(gameStateBytes.size());
+        gameStateBytes.writeTo(snapshotOutput);
+
+        numberGames++;
+    }
+
+    /**
+     * Finishes the snapshot, syncs it and moves it into place, then syncs the directory so
+     * the move survives a crash, and checks the snapshot reads back intact. Older snapshots
+     * should only be deleted once this returns.
+     *
+     * @param nextGameID the id the service will give its next game.
+     *
+     * @throws IOException if the snapshot can't be finished, or doesn't read back intact.
+     *
+     * @return the size of the snapshot, in bytes.
+     */
+    public long commitSnapshot(int nextGameID) throws IOException {
+        snapshotOutput.writeBoolean(false);
+        snapshotOutput.writeInt(nextGameID);
+        snapshotOutput.writeInt(numberGames);
+        snapshotOutput.flush();
+
+        //written past the checksummed stream, since the checksum doesn't cover itself
+        DataOutputStream checksumOutput = new DataOutputStream(bufferedOutput);
+        checksumOutput.writeInt((int) checkedOutput.getChecksum().getValue());
+        checksumOutput.flush();
+        snapshotChannel.force(true);
+        long snapshotSize = snapshotChannel.size();
+        snapshotChannel.close();
+
+        try {
+            Files.move(temporaryFile, snapshotFile, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaryFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory(snapshotFile.getParent());
+
+        if (!isSnapshotIntact(snapshotFile)) {
+            throw new InvalidObjectException("Snapshot " + snapshotFile + " didn't read back intact.");
+        }
+
+        return snapshotSize;
+    }
+
+    /**
+     * Abandons the snapshot, deleting its temporary file.
+     */
+    public void abortSnapshot() {
+        try {
+            snapshotChannel.close();
+            Files.deleteIfExists(temporaryFile);
+        } catch (IOException e) {
+            LOGGER.warning("Could not delete unfinished snapshot " + temporaryFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the newest intact snapshot in a directory. A snapshot failing its checksum is
+     * skipped in favour of an older one.
+     *
+     * @param snapshotDirectory the directory holding the snapshots.
+     * @param gameReader        called with each game of the snapshot.
+     *
+     * @throws IOException if a game's state can't be restored.
+     *
+     * @return a summary of the snapshot read, or null if there's no intact snapshot.
+     */
+    public static SnapshotInfo readLatestSnapshot(Path snapshotDirectory, GameReader gameReader)
+            throws IOException {
+        for (Path snapshot: fetchSnapshotFiles(snapshotDirectory).descendingMap().values()) {
+            if (isSnapshotIntact(snapshot)) {
+                return readSnapshot(snapshot, gameReader);
+            }
+
+            LOGGER.warning("Skipping damaged snapshot " + snapshot);
+        }
+
+        return null;
+    }
+
+    /**
+     * Deletes the snapshots taken before a given point in the journal.
+     *
+     * @param snapshotDirectory the directory holding the snapshots.
+     * @param cutLSN            the cut LSN of the oldest snapshot to keep.
+     *
+     * @throws IOException if the directory can't be read.
+     *
+     * @return the number of snapshots deleted.
+     */
+    public static int deleteSnapshotsBefore(Path snapshotDirectory, long cutLSN) throws IOException {
+        int numberDeleted = 0;
+
+        for (Path snapshot: fetchSnapshotFiles(snapshotDirectory).headMap(cutLSN).values()) {
+            Files.deleteIfExists(snapshot);
+            numberDeleted++;
+        }
+
+        return numberDeleted;
+    }
+
+    /**
+     * Helper method to read every game of a snapshot already known to be intact.
+     *
+     * @param snapshot   the snapshot file.
+     * @param gameReader called with each game of the snapshot.
+     *
+     * @throws IOException if the snapshot or a game's state can't be read.
+     *
+     * @return a summary of the snapshot.
+     */
+    private static SnapshotInfo readSnapshot(Path snapshot, GameReader gameReader) throws IOException {
+        try (DataInputStream snapshotInput = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(snapshot), 1 << 16))) {
+            if (snapshotInput.readInt() != SNAPSHOT_MAGIC || snapshotInput.readByte() != SNAPSHOT_VERSION) {
+                throw new InvalidObjectException("Unknown snapshot format in " + snapshot + ".");
+            }
+
+            long cutLSN = snapshotInput.readLong();
+            int numberGames = 0;
+
+            while (snapshotInput.readBoolean()) {
+                int gameID = snapshotInput.readInt();
+                String mapID = snapshotInput.readUTF();
+                long mapVersion = snapshotInput.readLong();
+                long lastLSN = snapshotInput.readLong();
+                byte[] gameState = new byte[snapshotInput.readInt()];
+                snapshotInput.readFully(gameState);
+
+                gameReader.readGame(gameID, mapID, mapVersion, lastLSN, gameState);
+                numberGames++;
+            }
+
+            return new SnapshotInfo(cutLSN, snapshotInput.readInt(), numberGames);
+        }
+    }
+
+    /**
+     * Helper method to sync a directory, so files just created or renamed in it are on disk.
+     * Some platforms can't open a directory to sync it; there the rename is left to the
+     * file system.
+     *
+     * @param directory the directory to sync.
+     *
+     * @throws IOException if the directory can't be synced.
+     */
+    private static void syncDirectory(Path directory) throws IOException {
+        FileChannel directoryChannel;
+        try {
+            directoryChannel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            LOGGER.fine("Can't open " + directory + " to sync it: " + e.getMessage());
+            return;
+        }
+
+        try {
+            directoryChannel.force(true);
+        } finally {
+            directoryChannel.close();
+        }
+    }
+
+    /**
+     * Helper method to check a snapshot's contents against its checksum.
+     *
+     * @param snapshot the snapshot file.
+     *
+     * @return true if the snapshot is complete and undamaged, else false.
+     */
+    private static boolean isSnapshotIntact(Path snapshot) {
+        try {
+            long contentLength = Files.size(snapshot) - 4;
+            if (contentLength < 0) {
+                return false;
+            }
+
+            CRC32 checksum = new CRC32();
+            try (InputStream snapshotInput = Files.newInputStream(snapshot)) {
+                CheckedInputStream checkedInput = new CheckedInputStream(snapshotInput, checksum);
+                byte[] buffer = new byte[1 << 16];
+                long remaining = contentLength;
+
+                while (remaining > 0) {
+                    int numberRead = checkedInput.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                    if (numberRead < 0) {
+                        return false;
+                    }
+                    remaining -= numberRead;
+                }
+
+                return (int) checksum.getValue() == new DataInputStream(snapshotInput).readInt();
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Helper method to find the snapshot files in a directory.
+     *
+     * @param snapshotDirectory the directory holding the snapshots.
+     *
+     * @throws IOException if the directory can't be read.
+     *
+     * @return the snapshot files, keyed by their cut LSN.
+     */
+    private static TreeMap<Long, Path> fetchSnapshotFiles(Path snapshotDirectory) throws IOException {
+        TreeMap<Long, Path> snapshotFiles = new TreeMap<>();
+
+        try (DirectoryStream<Path> directoryFiles = Files.newDirectoryStream(snapshotDirectory,
+                SNAPSHOT_PREFIX + "*" + SNAPSHOT_EXTENSION)) {
+            for (Path file: directoryFiles) {
+                String fileName = file.getFileName().toString();
+
+                try {
+                    snapshotFiles.put(Long.parseLong(fileName.substring(SNAPSHOT_PREFIX.length(),
+                                      fileName.length() - SNAPSHOT_EXTENSION.length())), file);
+                } catch (NumberFormatException e) {
+                    LOGGER.warning("Ignoring unexpected snapshot file " + file);
+                }
+            }
+        }
+
+        return snapshotFiles;
+    }
+
+    /**
+     * Helper method to name the snapshot taken at a given point in the journal, so names
+     * sort by cut LSN.
+     *
+     * @param cutLSN the snapshot's cut LSN.
+     *
+     * @return the snapshot's file name.
+     */
+    private static String writeSnapshotName(long cutLSN) {
+        return String.format("%s%020d%s", SNAPSHOT_PREFIX, cutLSN, SNAPSHOT_EXTENSION);
+    }
+}
@@ -0,0 +1,162 @@
+package student.server;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Consistent-hash ring assigning game ids to the server nodes sharing the games.
+ * Each node is placed on the ring at a number of virtual points, and a game belongs to
+ * the node at the first point at or after the game id's hash, wrapping around. Adding
+ * or removing a node only moves the games between it and its neighbours on the ring:
+ * about 1/n of the games when there are n nodes. The virtual points even out how many
+ * games each node gets.
+ * Rings built from the same nodes and number of virtual points agree on every owner, so
+ * every server can route requests without asking the others.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class ShardRing {
+    private final int virtualNodes;
+    private final TreeMap<Long, String> ringPoints; //point on the ring to the node placed there
+    private final Set<String> ringNodes;
+
+    /**
+     * Constructor for objects of class ShardRing.
+     *
+     * @param nodes        the names of the nodes sharing the games, such as their base URIs.
+     * @param virtualNodes the number of points each node is placed at.
+     *
+     * @throws IllegalArgumentException if there are no nodes, or the number of points isn't positive.
+     */
+    public ShardRing(Collection<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty() || virtualNodes <= 0) {
+            throw new IllegalArgumentException("A shard ring needs at least one node and one point per node.");
+        }
+
+        this.virtualNodes = virtualNodes;
+        ringPoints = new TreeMap<>();
+        ringNodes = new TreeSet<>();
+
+        for (String node: nodes) {
+            addNode(node);
+        }
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    /**
+     * Finds the nodes on the ring.
+     *
+     * @return the names of the nodes, in order.
+     */
+    public Set<String> fetchNodes() {
+        return ringNodes;
+    }
+
+    /**
+     * Places a node on the ring, taking over the games that now hash to its points.
+     *
+     * @param node the name of the node.
+     */
+    public void addNode(String node) {
+        if (!ringNodes.add(node)) {
+            return;
+        }
+
+        for (int point = 0; point < virtualNodes; point++) {
+            long ringPoint = hashKey(node + "#" + point);
+            String placedNode = ringPoints.get(ringPoint);
+
+            //points can collide; every ring gives the point to the same node
+            if (placedNode == null || node.compareTo(placedNode) < 0) {
+                ringPoints.put(ringPoint, node);
+            }
+        }
+    }
+
+    /**
+     * Takes a node off the ring, handing its games to the nodes after its points.
+     *
+     * @param node the name of the node.
+     *
+     * @throws IllegalArgumentException if it's the last node on the ring.
+     */
+    public void removeNode(String node) {
+        if (ringNodes.contains(node) && ringNodes.size() == 1) {
+            throw new IllegalArgumentException("Can't remove the last node of a shard ring.");
+        }
+
+        if (!ringNodes.remove(node)) {
+            return;
+        }
+
+        ringPoints.values().removeIf(node::equals);
+
+        //give collided points back to the other nodes placed there
+        for (String otherNode: ringNodes) {
+            for (int point = 0; point < virtualNodes; point++) {
+                ringPoints.putIfAbsent(hashKey(otherNode + "#" + point), otherNode);
+            }
+        }
+    }
+
+    /**
+     * Finds the node a game belongs to.
+     *
+     * @param gameID the id of the game.
+     *
+     * @return the name of the node owning the game.
+     */
+    public String findOwner(int gameID) {
+        Map.Entry<Long, String> ownerPoint = ringPoints.ceilingEntry(mixBits(gameID));
+
+        if (ownerPoint == null) {
+            ownerPoint = ringPoints.firstEntry();
+        }
+
+        return ownerPoint.getValue();
+    }
+
+    /**
+     * Helper method to hash a key to a point on the ring: FNV-1a over its UTF-8 bytes,
+     * with the bits mixed so nearby keys land far apart.
+     *
+     * @param key the key to hash.
+     *
+     * @return the point on the ring.
+     */
+    private static long hashKey(String key) {
+        long hash = 0xcbf29ce484222325L;
+
+        for (byte keyByte: key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= keyByte & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+
+        return mixBits(hash);
+    }
+
+    /**
+     * Helper method to mix the bits of a number, so consecutive numbers spread over the ring.
+     *
+     * @param value the number to mix.
+     *
+     * @return the mixed number.
+     */
+    private static long mixBits(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+
+        return value;
+    }
+}
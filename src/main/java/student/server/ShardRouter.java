@@ -0,0 +1,133 @@
+package student.server;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Routing of game requests between the server nodes sharing the games, as seen from one
+ * of them. Games are assigned to nodes by a consistent-hash ring over their ids; each node
+ * only gives new games ids it owns, so the id of a game is enough to find its node.
+ * Sharding is set up with system properties:
+ * adventure.shardNodes, the base URIs of every node separated by commas;
+ * adventure.shardSelf, the base URI of this node, which must be one of them;
+ * adventure.shardMode, "redirect" (the default) to send clients to the owning node, or
+ * "forward" to pass their requests on to it; and
+ * adventure.shardVirtualNodes, the number of ring points per node (128 by default).
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class ShardRouter {
+    public final static String NODES_PROPERTY = "adventure.shardNodes";
+    public final static String SELF_PROPERTY = "adventure.shardSelf";
+    public final static String MODE_PROPERTY = "adventure.shardMode";
+    public final static String VIRTUAL_NODES_PROPERTY = "adventure.shardVirtualNodes";
+    public final static int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final ShardRing shardRing;
+    private final String selfNode;
+    private final boolean forwarding;
+
+    /**
+     * Constructor for objects of class ShardRouter.
+     *
+     * @param shardRing  the ring assigning games to nodes.
+     * @param selfNode   the node this router runs on.
+     * @param forwarding true to forward requests to the owning node, false to redirect them.
+     *
+     * @throws IllegalArgumentException if this node isn't on the ring.
+     */
+    public ShardRouter(ShardRing shardRing, String selfNode, boolean forwarding) {
+        if (!shardRing.fetchNodes().contains(selfNode)) {
+            throw new IllegalArgumentException("Node " + selfNode + " is not one of the shard nodes.");
+        }
+
+        this.shardRing = shardRing;
+        this.selfNode = selfNode;
+        this.forwarding = forwarding;
+    }
+
+    /**
+     * Builds the router described by the system properties.
+     *
+     * @throws IllegalArgumentException if the properties don't describe a valid router.
+     *
+     * @return the router, or null if the games aren't sharded.
+     */
+    public static ShardRouter fromSystemProperties() {
+        String nodeList = System.getProperty(NODES_PROPERTY);
+
+        if (nodeList == null || nodeList.trim().isEmpty()) {
+            return null;
+        }
+
+        List<String> nodes = new ArrayList<>();
+        for (String node: nodeList.split(",")) {
+            if (!node.trim().isEmpty()) {
+                nodes.add(trimNode(node));
+            }
+        }
+
+        String selfNode = System.getProperty(SELF_PROPERTY);
+        if (selfNode == null) {
+            throw new IllegalArgumentException(SELF_PROPERTY + " must name this node when games are sharded.");
+        }
+
+        String mode = System.getProperty(MODE_PROPERTY, "redirect");
+        if (!mode.equals("redirect") && !mode.equals("forward")) {
+            throw new IllegalArgumentException("Unknown shard mode '" + mode + "'.");
+        }
+
+        int virtualNodes = Integer.parseInt(System.getProperty(VIRTUAL_NODES_PROPERTY,
+                                                               Integer.toString(DEFAULT_VIRTUAL_NODES)));
+
+        return new ShardRouter(new ShardRing(nodes, virtualNodes), trimNode(selfNode), mode.equals("forward"));
+    }
+
+    public ShardRing getShardRing() {
+        return shardRing;
+    }
+
+    public String getSelfNode() {
+        return selfNode;
+    }
+
+    public boolean isForwarding() {
+        return forwarding;
+    }
+
+    /**
+     * Finds the node a game belongs to.
+     *
+     * @param gameID the id of the game.
+     *
+     * @return the base URI of the owning node.
+     */
+    public String findOwner(int gameID) {
+        return shardRing.findOwner(gameID);
+    }
+
+    /**
+     * Determines whether a game belongs to this node.
+     *
+     * @param gameID the id of the game.
+     *
+     * @return true if this node owns the game, else false.
+     */
+    public boolean isOwnedHere(int gameID) {
+        return selfNode.equals(shardRing.findOwner(gameID));
+    }
+
+    /**
+     * Helper method to normalize a node's base URI, so every node names it the same way.
+     *
+     * @param node the base URI.
+     *
+     * @return the URI without surrounding spaces or a trailing slash.
+     */
+    private static String trimNode(String node) {
+        String trimmedNode = node.trim();
+
+        return trimmedNode.endsWith("/") ? trimmedNode.substring(0, trimmedNode.length() - 1) : trimmedNode;
+    }
+}
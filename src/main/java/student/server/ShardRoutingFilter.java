@@ -0,0 +1,194 @@
+package student.server;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Request filter sending requests on games owned by another node to that node, either
+ * by redirecting the client (307, so the method and body are kept) or by forwarding the
+ * request and passing back the owner's response. Requests that don't name a game, such
+ * as creating games and reading leaderboards, are served by the node they reach.
+ * A forwarded request is marked, and a node never forwards a marked request again, so
+ * nodes that disagree about the ring can't forward a request in circles.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+@PreMatching
+public class ShardRoutingFilter implements ContainerRequestFilter {
+    private static final Logger LOGGER = Logger.getLogger(ShardRoutingFilter.class.getName());
+
+    public final static String FORWARDED_HEADER = "X-Adventure-Forwarded-By";
+
+    //status for a request that reached a node not owning its game
+    private final static int MISDIRECTED_REQUEST = 421;
+
+    private final static int CONNECT_TIMEOUT_MILLIS = 5000;
+    private final static int READ_TIMEOUT_MILLIS = 30000;
+
+    private final static Pattern GAME_PATH = Pattern.compile("^/?instance/(\\d+)(/.*)?$");
+
+    //request and response headers passed through when forwarding
+    private final static String[] FORWARDED_REQUEST_HEADERS = {HttpHeaders.CONTENT_TYPE, HttpHeaders.ACCEPT,
+                                                               HttpHeaders.IF_NONE_MATCH};
+    private final static String[] FORWARDED_RESPONSE_HEADERS = {HttpHeaders.ETAG, HttpHeaders.CACHE_CONTROL};
+
+    private final ShardRouter shardRouter;
+
+    /**
+     * Constructor for objects of class ShardRoutingFilter.
+     *
+     * @param shardRouter the router of the node this filter runs on.
+     */
+    public ShardRoutingFilter(ShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        Matcher gamePath = GAME_PATH.matcher(requestContext.getUriInfo().getPath());
+
+        if (!gamePath.matches()) {
+            return;
+        }
+
+        int gameID;
+        try {
+            gameID = Integer.parseInt(gamePath.group(1));
+        } catch (NumberFormatException e) {
+            return;
+        }
+
+        String ownerNode = shardRouter.findOwner(gameID);
+        if (ownerNode.equals(shardRouter.getSelfNode())) {
+            return;
+        }
+
+        if (requestContext.getHeaderString(FORWARDED_HEADER) != null) {
+            requestContext.abortWith(Response
+                    .status(MISDIRECTED_REQUEST)
+                    .entity(new Error("Game " + gameID + " belongs to " + ownerNode + ", not this node."))
+                    .build());
+            return;
+        }
+
+        URI ownerURI = buildOwnerURI(ownerNode, requestContext);
+        if (!shardRouter.isForwarding()) {
+            requestContext.abortWith(Response.temporaryRedirect(ownerURI).build());
+            return;
+        }
+
+        try {
+            requestContext.abortWith(forwardRequest(requestContext, ownerURI));
+        } catch (IOException e) {
+            LOGGER.warning("Could not forward request to " + ownerURI + ": " + e.getMessage());
+            requestContext.abortWith(Response
+                    .status(Response.Status.BAD_GATEWAY)
+                    .entity(new Error("Could not reach node " + ownerNode + "."))
+                    .build());
+        }
+    }
+
+    /**
+     * Helper method to build the URI of a request on the node owning its game.
+     *
+     * @param ownerNode      the base URI of the owning node.
+     * @param requestContext the request.
+     *
+     * @return the same path and query on the owning node.
+     */
+    private static URI buildOwnerURI(String ownerNode, ContainerRequestContext requestContext) {
+        String path = requestContext.getUriInfo().getPath(false);
+        String query = requestContext.getUriInfo().getRequestUri().getRawQuery();
+
+        return URI.create(ownerNode + (path.startsWith("/") ? "" : "/") + path + (query == null ? "" : "?" + query));
+    }
+
+    /**
+     * Helper method to pass a request on to the node owning its game and build a response
+     * from the owner's.
+     *
+     * @param requestContext the request.
+     * @param ownerURI       the URI of the request on the owning node.
+     *
+     * @throws IOException if the owning node can't be reached.
+     *
+     * @return the owner's response.
+     */
+    private Response forwardRequest(ContainerRequestContext requestContext, URI ownerURI) throws IOException {
+        //not disconnected afterwards, so the connection is kept alive for the next forwarded request
+        URL ownerURL = ownerURI.toURL();
+        HttpURLConnection connection = (HttpURLConnection) ownerURL.openConnection();
+        connection.setRequestMethod(requestContext.getMethod());
+        connection.setInstanceFollowRedirects(false);
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+        connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+        connection.setRequestProperty(FORWARDED_HEADER, shardRouter.getSelfNode());
+
+        for (String header: FORWARDED_REQUEST_HEADERS) {
+            String value = requestContext.getHeaderString(header);
+            if (value != null) {
+                connection.setRequestProperty(header, value);
+            }
+        }
+
+        if (requestContext.hasEntity()) {
+            connection.setDoOutput(true);
+            try (OutputStream requestBody = connection.getOutputStream()) {
+                copyStream(requestContext.getEntityStream(), requestBody);
+            }
+        }
+
+        int status = connection.getResponseCode();
+        InputStream responseBody = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        ByteArrayOutputStream responseBytes = new ByteArrayOutputStream();
+        if (responseBody != null) {
+            try (InputStream body = responseBody) {
+                copyStream(body, responseBytes);
+            }
+        }
+
+        Response.ResponseBuilder response = Response.status(status);
+        if (responseBytes.size() > 0) {
+            response.entity(responseBytes.toByteArray()).type(connection.getContentType());
+        }
+        for (String header: FORWARDED_RESPONSE_HEADERS) {
+            String value = connection.getHeaderField(header);
+            if (value != null) {
+                response.header(header, value);
+            }
+        }
+
+        return response.build();
+    }
+
+    /**
+     * Helper method to copy everything left in a stream to another.
+     *
+     * @param input  the stream to copy from.
+     * @param output the stream to copy to.
+     *
+     * @throws IOException if either stream fails.
+     */
+    private static void copyStream(InputStream input, OutputStream output) throws IOException {
+        byte[] buffer = new byte[8192];
+
+        for (int bytesRead = input.read(buffer); bytesRead >= 0; bytesRead = input.read(buffer)) {
+            output.write(buffer, 0, bytesRead);
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package student.server;
+
+import student.server.PlayerStanding.RankedScore;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Leaderboard store kept in a SQLite database, in the leaderboard_aju3 table.
+ * The database uses write-ahead logging, so readers don't block the writer and commits
+ * only sync at checkpoints. The table holds each player's best score on each map, keyed
+ * by player and map, with an index on map and score so leaderboards are read in order.
+ * Each player's best score over every map is kept alongside, in leaderboard_aju3_best with
+ * an index on score, so the leaderboard of every map is read in order too.
+ * Players' standings are counted from that index when asked for, so they follow scores
+ * recorded by every connection to the database.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class SqliteLeaderboardStore implements LeaderboardStore {
+    public final static String DEFAULT_DATABASE_URL = "jdbc:sqlite:src/main/resources/adventure.db";
+
+    //user_version of the database once its table has the current layout
+    private final static int SCHEMA_VERSION = 3;
+
+    private final String databaseUrl;
+    private final Connection dbConnection;
+
+    /**
+     * Constructor for objects of class SqliteLeaderboardStore.
+     * Connects to the database, creating the leaderboard table or migrating one made by
+     * an older version of the service.
+     *
+     * @param databaseUrl the JDBC url of the database.
+     *
+     * @throws IOException if the database can't be opened or set up.
+     */
+    public SqliteLeaderboardStore(String databaseUrl) throws IOException {
+        this.databaseUrl = databaseUrl;
+
+        try {
+            dbConnection = DriverManager.getConnection(databaseUrl);
+            prepareLeaderboardTable();
+        } catch (SQLException e) {
+            throw new IOException("Could not open leaderboard database " + databaseUrl + ".", e);
+        }
+    }
+
+    public String getDatabaseUrl() {
+        return databaseUrl;
+    }
+
+    @Override
+    public synchronized boolean recordScore(String playerName, String mapID, int score, long timeMillis)
+            throws IOException {
+        try (PreparedStatement mapStatement = dbConnection.prepareStatement(
+                "INSERT INTO leaderboard_aju3 (name, map, score, updated_at) VALUES (?, ?, ?, ?) " +
+                "ON CONFLICT (name, map) DO UPDATE SET score = excluded.score, updated_at = excluded.updated_at " +
+                "WHERE excluded.score < leaderboard_aju3.score");
+             PreparedStatement bestStatement = dbConnection.prepareStatement(
+                "INSERT INTO leaderboard_aju3_best (name, score) VALUES (?, ?) " +
+                "ON CONFLICT (name) DO UPDATE SET score = excluded.score " +
+                "WHERE excluded.score < leaderboard_aju3_best.score")) {
+            mapStatement.setString(1, playerName == null ? "" : playerName);
+            mapStatement.setString(2, mapID);
+            mapStatement.setInt(3, score);
+            mapStatement.setLong(4, timeMillis);
+            bestStatement.setString(1, playerName == null ? "" : playerName);
+            bestStatement.setInt(2, score);
+
+            //the update is skipped, changing no rows, unless the score is better
+            dbConnection.setAutoCommit(false);
+            try {
+                boolean recorded = mapStatement.executeUpdate() > 0;
+                if (recorded) {
+                    bestStatement.executeUpdate();
+                }
+                dbConnection.commit();
+
+                return recorded;
+            } catch (SQLException e) {
+                dbConnection.rollback();
+                throw e;
+            } finally {
+                dbConnection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not record score of " + playerName + ".", e);
+        }
+    }
+
+    @Override
+    public LinkedHashMap<String, Integer> fetchLeaderboard() throws IOException {
+        //each player's best score over every map, read in the order of its index
+        try (Statement statement = dbConnection.createStatement()) {
+            return collectLeaderboard(statement.executeQuery(
+                    "SELECT name, score FROM leaderboard_aju3_best ORDER BY score, name"));
+        } catch (SQLException e) {
+            throw new IOException("Could not read leaderboard.", e);
+        }
+    }
+
+    @Override
+    public LinkedHashMap<String, Integer> fetchLeaderboard(String mapID) throws IOException {
+        try (PreparedStatement statement = dbConnection.prepareStatement(
+                "SELECT name, score FROM leaderboard_aju3 WHERE map = ? ORDER BY score, name")) {
+            statement.setString(1, mapID);
+
+            return collectLeaderboard(statement.executeQuery());
+        } catch (SQLException e) {
+            throw new IOException("Could not read leaderboard of map " + mapID + ".", e);
+        }
+    }
+
+    @Override
+    public PlayerStanding fetchPlayerStanding(String playerName, String mapID, int numberNeighbours)
+            throws IOException {
+        try {
+            Integer score = null;
+            try (PreparedStatement statement = prepareRankedQuery(
+                    mapID, "SELECT score FROM %s WHERE name = ?", playerName)) {
+                ResultSet scoreResult = statement.executeQuery();
+                if (scoreResult.next()) {
+                    score = scoreResult.getInt(1);
+                }
+            }
+            if (score == null) {
+                return null;
+            }
+
+            //the players ranked above come before the player in the index's order
+            int rank = countRankedScores(mapID, "WHERE (score, name) < (?, ?)", score, playerName) + 1;
+            int numberPlayers = countRankedScores(mapID, "");
+
+            int firstRank = Math.max(rank - numberNeighbours, 1);
+            List<RankedScore> neighbours = new ArrayList<>();
+            try (PreparedStatement statement = prepareRankedQuery(
+                    mapID, "SELECT name, score FROM %s ORDER BY score, name LIMIT ? OFFSET ?",
+                    rank + numberNeighbours - firstRank + 1, firstRank - 1)) {
+                ResultSet neighbourResults = statement.executeQuery();
+                while (neighbourResults.next()) {
+                    neighbours.add(new RankedScore(firstRank + neighbours.size(), neighbourResults.getString(1),
+                                                   neighbourResults.getInt(2)));
+                }
+            }
+
+            return new PlayerStanding(playerName, rank, score, numberPlayers, neighbours);
+        } catch (SQLException e) {
+            throw new IOException("Could not read standing of " + playerName + ".", e);
+        }
+    }
+
+    @Override
+    public List<RecordedScore> fetchScoresSince(long timeMillis) throws IOException {
+        List<RecordedScore> recentScores = new ArrayList<>();
+
+        try (PreparedStatement statement = dbConnection.prepareStatement(
+                "SELECT name, map, score, updated_at FROM leaderboard_aju3 WHERE updated_at >= ? " +
+                "ORDER BY updated_at")) {
+            statement.setLong(1, timeMillis);
+
+            ResultSet scoreResults = statement.executeQuery();
+            while (scoreResults.next()) {
+                recentScores.add(new RecordedScore(scoreResults.getString(1), scoreResults.getString(2),
+                                                   scoreResults.getInt(3), scoreResults.getLong(4)));
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not read scores recorded since " + timeMillis + ".", e);
+        }
+
+        return recentScores;
+    }
+
+    @Override
+    public long findSharedVersion() throws IOException {
+        try {
+            return findDataVersion();
+        } catch (SQLException e) {
+            throw new IOException("Could not read leaderboard database version.", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            dbConnection.close();
+        } catch (SQLException e) {
+            //nothing left to release
+        }
+    }
+
+    /**
+     * Helper method to set up the database: write-ahead logging and the current table
+     * layout, migrating a table made by an older version of the service.
+     *
+     * @throws SQLException if the database can't be set up.
+     */
+    private void prepareLeaderboardTable() throws SQLException {
+        try (Statement statement = dbConnection.createStatement()) {
+            statement.execute("PRAGMA journal_mode = WAL");
+            statement.execute("PRAGMA synchronous = NORMAL");
+
+            int schemaVersion;
+            try (ResultSet versionResult = statement.executeQuery("PRAGMA user_version")) {
+                schemaVersion = versionResult.getInt(1);
+            }
+
+            if (schemaVersion >= SCHEMA_VERSION) {
+                return;
+            }
+
+            dbConnection.setAutoCommit(false);
+            try {
+                if (schemaVersion < 2) {
+                    boolean hasOldTable = false;
+                    try (ResultSet tables = statement.executeQuery(
+                            "SELECT name FROM sqlite_master WHERE type = 'table' AND name = 'leaderboard_aju3'")) {
+                        hasOldTable = tables.next();
+                    }
+
+                    if (hasOldTable) {
+                        addMapColumn(statement);
+                        statement.execute("ALTER TABLE leaderboard_aju3 RENAME TO leaderboard_aju3_old");
+                    }
+
+                    statement.execute("CREATE TABLE leaderboard_aju3 (name varchar(50) NOT NULL, " +
+                                          "map varchar(50) NOT NULL " +
+                                          "DEFAULT '" + KidnappedService.DEFAULT_MAP_ID + "', " +
+                                          "score int NOT NULL, updated_at int NOT NULL, " +
+                                          "PRIMARY KEY (name, map)) WITHOUT ROWID");
+                    statement.execute("CREATE INDEX leaderboard_aju3_score ON leaderboard_aju3 (map, score)");
+
+                    if (hasOldTable) {
+                        //keep each player's best score; older rows have no time, so count them as now
+                        statement.execute("INSERT INTO leaderboard_aju3 (name, map, score, updated_at) " +
+                                              "SELECT COALESCE(name, ''), map, MIN(score), " +
+                                              System.currentTimeMillis() + " FROM leaderboard_aju3_old " +
+                                              "WHERE score IS NOT NULL GROUP BY COALESCE(name, ''), map");
+                        statement.execute("DROP TABLE leaderboard_aju3_old");
+                    }
+                }
+
+                //each player's best score over every map, so that leaderboard is read off an index
+                statement.execute("CREATE TABLE leaderboard_aju3_best (name varchar(50) NOT NULL PRIMARY KEY, " +
+                                      "score int NOT NULL) WITHOUT ROWID");
+                statement.execute("CREATE INDEX leaderboard_aju3_best_score ON leaderboard_aju3_best (score, name)");
+                statement.execute("INSERT INTO leaderboard_aju3_best (name, score) " +
+                                      "SELECT name, MIN(score) FROM leaderboard_aju3 GROUP BY name");
+
+                statement.execute("PRAGMA user_version = " + SCHEMA_VERSION);
+                dbConnection.commit();
+            } catch (SQLException e) {
+                dbConnection.rollback();
+                throw e;
+            } finally {
+                dbConnection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Helper method to find the database's data_version, which changes whenever another
+     * connection commits to it.
+     *
+     * @throws SQLException if the version can't be read.
+     *
+     * @return the version.
+     */
+    private long findDataVersion() throws SQLException {
+        try (Statement statement = dbConnection.createStatement();
+             ResultSet versionResult = statement.executeQuery("PRAGMA data_version")) {
+            return versionResult.getLong(1);
+        }
+    }
+
+    /**
+     * Helper method to prepare a query of the scores players are ranked by: their best score
+     * over every map, or their scores on one map. The query names those scores %s.
+     *
+     * @param mapID      the id of the map, or null for every map.
+     * @param query      the query.
+     * @param parameters the values of the query's parameters.
+     *
+     * @throws SQLException if the query can't be prepared.
+     *
+     * @return the prepared query.
+     */
+    private PreparedStatement prepareRankedQuery(String mapID, String query, Object... parameters)
+            throws SQLException {
+        String rankedScores = mapID == null
+                ? "(SELECT name, score FROM leaderboard_aju3_best)"
+                : "(SELECT name, score FROM leaderboard_aju3 WHERE map = ?)";
+        PreparedStatement statement = dbConnection.prepareStatement(String.format(query, rankedScores));
+
+        int parameterIndex = 1;
+        if (mapID != null) {
+            statement.setString(parameterIndex++, mapID);
+        }
+        for (Object parameter: parameters) {
+            statement.setObject(parameterIndex++, parameter);
+        }
+
+        return statement;
+    }
+
+    /**
+     * Helper method to count the ranked scores matching a condition, read off the index on
+     * score.
+     *
+     * @param mapID      the id of the map, or null for every map.
+     * @param condition  the WHERE clause the scores must match, or "" for every score.
+     * @param parameters the values of the condition's parameters.
+     *
+     * @throws SQLException if the scores can't be counted.
+     *
+     * @return the number of matching scores.
+     */
+    private int countRankedScores(String mapID, String condition, Object... parameters) throws SQLException {
+        try (PreparedStatement statement = prepareRankedQuery(mapID, "SELECT COUNT(*) FROM %s " + condition,
+                                                              parameters)) {
+            return statement.executeQuery().getInt(1);
+        }
+    }
+
+    /**
+     * Helper method to add the map column to a leaderboard table made before games could
+     * be played on other maps. Older scores count for the Kidnapped! map.
+     *
+     * @param statement the statement to run the change with.
+     *
+     * @throws SQLException if the table can't be changed.
+     */
+    private void addMapColumn(Statement statement) throws SQLException {
+        boolean hasMapColumn = false;
+        try (ResultSet columns = statement.executeQuery("PRAGMA table_info(leaderboard_aju3)")) {
+            while (columns.next()) {
+                hasMapColumn |= "map".equals(columns.getString("name"));
+            }
+        }
+
+        if (!hasMapColumn) {
+            statement.execute("ALTER TABLE leaderboard_aju3 ADD COLUMN " +
+                                  "map varchar(50) NOT NULL DEFAULT '" + KidnappedService.DEFAULT_MAP_ID + "'");
+        }
+    }
+
+    /**
+     * Helper method to collect the leaderboard players, which the query has already sorted
+     * by score.
+     *
+     * @param leaderboardItems the sorted leaderboard data items.
+     *
+     * @throws SQLException if the items can't be read.
+     *
+     * @return a sorted map of the leaderboard players.
+     */
+    private static LinkedHashMap<String, Integer> collectLeaderboard(ResultSet leaderboardItems)
+            throws SQLException {
+        LinkedHashMap<String, Integer> leaderboard = new LinkedHashMap<>();
+
+        while (leaderboardItems.next()) {
+            leaderboard.put(leaderboardItems.getString(1), leaderboardItems.getInt(2));
+        }
+
+        return leaderboard;
+    }
+}
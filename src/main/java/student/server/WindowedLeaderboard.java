@@ -0,0 +1,155 @@
+package student.server;
+
+import student.server.LeaderboardStore.RecordedScore;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Leaderboards of the current day and week, kept up to date as games end.
+ * Each window keeps one bucket of best scores for its current period. A score from a
+ * later period rolls the bucket over by starting an empty one, so history is never
+ * rescanned; scores from an earlier period than the bucket's are dropped.
+ * The buckets are kept in memory, and rebuilt from the leaderboard store's recent scores
+ * when the service starts.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class WindowedLeaderboard {
+    private final Map<LeaderboardWindow, ScoreBucket> windowBuckets;
+
+    /**
+     * Best scores of the players during one period of a window.
+     */
+    private static class ScoreBucket {
+        private final long period;
+        private final MemoryLeaderboardStore bestScores;
+
+        ScoreBucket(long period) {
+            this.period = period;
+            bestScores = new MemoryLeaderboardStore();
+        }
+    }
+
+    /**
+     * Default constructor for objects of class WindowedLeaderboard.
+     * Initiates empty day and week leaderboards.
+     */
+    public WindowedLeaderboard() {
+        windowBuckets = new EnumMap<>(LeaderboardWindow.class);
+        windowBuckets.put(LeaderboardWindow.DAY, new ScoreBucket(Long.MIN_VALUE));
+        windowBuckets.put(LeaderboardWindow.WEEK, new ScoreBucket(Long.MIN_VALUE));
+    }
+
+    /**
+     * Records a player's score on a map in every window, if it beats their best score there.
+     *
+     * @param playerName the name of the player; null is recorded as an empty name.
+     * @param mapID      the id of the map played.
+     * @param score      the player's score.
+     * @param timeMillis when the game ended, in milliseconds since the epoch.
+     *
+     * @return true if the score is the player's new best on the map in any window, else false.
+     */
+    public synchronized boolean recordScore(String playerName, String mapID, int score, long timeMillis) {
+        boolean bestScoreChanged = false;
+
+        for (Map.Entry<LeaderboardWindow, ScoreBucket> windowBucket: windowBuckets.entrySet()) {
+            long period = windowBucket.getKey().findPeriod(timeMillis);
+            ScoreBucket bucket = windowBucket.getValue();
+
+            if (period > bucket.period) {
+                bucket = new ScoreBucket(period);
+                windowBucket.setValue(bucket);
+            }
+
+            if (period == bucket.period) {
+                bestScoreChanged |= bucket.bestScores.updateBestScore(playerName, mapID, score);
+            }
+        }
+
+        return bestScoreChanged;
+    }
+
+    /**
+     * Records scores loaded from a leaderboard store in every window, as when the games ended.
+     *
+     * @param recordedScores the scores, oldest first.
+     */
+    public synchronized void loadScores(List<RecordedScore> recordedScores) {
+        for (RecordedScore recordedScore: recordedScores) {
+            recordScore(recordedScore.getPlayerName(), recordedScore.getMapID(), recordedScore.getScore(),
+                        recordedScore.getTimeMillis());
+        }
+    }
+
+    /**
+     * Finds the leaderboard of a window's period containing a given time.
+     *
+     * @param window     the day or week window.
+     * @param mapID      the id of the map, or null for every map.
+     * @param timeMillis the time, in milliseconds since the epoch; usually now.
+     *
+     * @throws IllegalArgumentException if the window isn't kept here.
+     *
+     * @return player names to best scores, best first, ties by name; empty if no game
+     *         ended in the period.
+     */
+    public synchronized LinkedHashMap<String, Integer> fetchLeaderboard(LeaderboardWindow window, String mapID,
+                                                                         long timeMillis) {
+        ScoreBucket bucket = findCurrentBucket(window, timeMillis);
+
+        if (bucket == null) {
+            return new LinkedHashMap<>();
+        }
+
+        return mapID == null ? bucket.bestScores.fetchLeaderboard() : bucket.bestScores.fetchLeaderboard(mapID);
+    }
+
+    /**
+     * Finds where a player stands on the leaderboard of a window's period containing a given time.
+     *
+     * @param window           the day or week window.
+     * @param playerName       the name of the player.
+     * @param mapID            the id of the map, or null for every map.
+     * @param numberNeighbours the number of players to include from above and from below the player.
+     * @param timeMillis       the time, in milliseconds since the epoch; usually now.
+     *
+     * @throws IllegalArgumentException if the window isn't kept here.
+     *
+     * @return the player's standing, or null if they have no score in the period.
+     */
+    public synchronized PlayerStanding fetchPlayerStanding(LeaderboardWindow window, String playerName,
+                                                           String mapID, int numberNeighbours, long timeMillis) {
+        ScoreBucket bucket = findCurrentBucket(window, timeMillis);
+
+        if (bucket == null) {
+            return null;
+        }
+
+        return bucket.bestScores.fetchPlayerStanding(playerName, mapID, numberNeighbours);
+    }
+
+    /**
+     * Helper method to find a window's bucket, if it holds the period containing a given time.
+     *
+     * @param window     the day or week window.
+     * @param timeMillis the time, in milliseconds since the epoch.
+     *
+     * @throws IllegalArgumentException if the window isn't kept here.
+     *
+     * @return the bucket, or null if no game ended in the period.
+     */
+    private ScoreBucket findCurrentBucket(LeaderboardWindow window, long timeMillis) {
+        ScoreBucket bucket = windowBuckets.get(window);
+
+        if (bucket == null) {
+            throw new IllegalArgumentException("No " + window + " leaderboard is kept in memory.");
+        }
+
+        return bucket.period == window.findPeriod(timeMillis) ? bucket : null;
+    }
+}
@@ -1,14 +1,31 @@
 package student.adventure;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InvalidObjectException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Pattern;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static student.adventure.MapDataReader.deserializeFile;
 
 public class DataReaderTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     //Invalid file tests:
     @Test (expected = IllegalArgumentException.class)
     public void testNullFileName() throws IOException {
@@ -25,6 +42,11 @@ public class DataReaderTest {
         deserializeFile("src/test/resources/emptyFile.json");
     }
 
+    @Test (expected = NullPointerException.class)
+    public void testWhitespaceOnlyDataFile() throws IOException {
+        deserializeFile("src/test/resources/whitespaceFile.json");
+    }
+
     //Invalid data value tests:
     @Test (expected = InvalidObjectException.class)
     public void testNoEndRooms() throws IOException {
@@ -76,9 +98,210 @@ public class DataReaderTest {
         deserializeFile("src/test/resources/nonexistentRoom.json");
     }
 
+    @Test (expected = InvalidObjectException.class)
+    public void testKeyNotReachable() throws IOException {
+        deserializeFile("src/test/resources/unreachableKey.json");
+    }
+
+    @Test
+    public void testEveryProblemReported() throws IOException {
+        try {
+            deserializeFile("src/test/resources/nonexistentRoom.json");
+        } catch (InvalidObjectException e) {
+            assertTrue(e.getMessage().contains("leads to nonexistent room number 20."));
+            assertTrue(e.getMessage().contains("can't be reached from the start room."));
+            return;
+        }
+
+        fail("Map leading to a nonexistent room should be invalid.");
+    }
+
+    @Test
+    public void testPropertiesOfWrongTypeRejected() throws IOException {
+        String[][] wrongValues = {{"\"roomNumber\": 1,", "\"roomNumber\": \"1\","},
+                                  {"\"isEndRoom\": false,", "\"isEndRoom\": 0,"},
+                                  {"\"roomName\": \"Holding Room\"", "\"roomName\": [\"Holding Room\"]"},
+                                  {"\"movedRoomNumber\": 2}", "\"movedRoomNumber\": 2.5}"}};
+
+        for (String[] wrongValue: wrongValues) {
+            String mapText = new String(Files.readAllBytes(Paths.get("src/test/resources/fullValidGame.json")),
+                                        StandardCharsets.UTF_8).replaceFirst(Pattern.quote(wrongValue[0]),
+                                                                             wrongValue[1]);
+            File mapFile = temporaryFolder.newFile();
+            Files.write(mapFile.toPath(), mapText.getBytes(StandardCharsets.UTF_8));
+
+            try {
+                deserializeFile(mapFile.getPath());
+                fail("Map with " + wrongValue[1] + " should be invalid.");
+            } catch (InvalidObjectException e) {
+                String fieldName = wrongValue[0].substring(1, wrongValue[0].indexOf('"', 1));
+                assertTrue(e.getMessage(), e.getMessage().contains(fieldName));
+            }
+        }
+    }
+
     //Valid json file test:
     @Test
     public void testValidDataFile() throws IOException {
         assertEquals(9, deserializeFile("src/test/resources/fullValidGame.json").findMapSize());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSparseRoomNumbers() throws IOException {
+        assertEquals(90, deserializeFile("src/test/resources/sparseRoomNumbers.json").retrieveRoomAt(8).getRoomNumber());
+    }
+
+    //Compiled map tests:
+    @Test
+    public void testCompiledMapMatchesJsonMap() throws IOException {
+        GameMap jsonMap = deserializeFile("src/test/resources/fullValidGame.json");
+        String compiledFile = temporaryFolder.getRoot() + "/fullValidGame" + MapCompiler.COMPILED_MAP_EXTENSION;
+        MapCompiler.compileMap(jsonMap, compiledFile);
+
+        GameMap compiledMap = deserializeFile(compiledFile);
+        Room firstRoom = compiledMap.retrieveRoomAt(0);
+
+        assertEquals(9, compiledMap.findMapSize());
+        assertEquals(jsonMap.retrieveRoomAt(0).toString(), firstRoom.toString());
+        assertEquals(jsonMap.retrieveRoomAt(8).getRoomImageURL(), compiledMap.retrieveRoomAt(8).getRoomImageURL());
+        assertEquals(4, firstRoom.findRoomNumberInDirection(Direction.south));
+    }
+
+    @Test (expected = InvalidObjectException.class)
+    public void testJsonFileIsNotCompiledMap() throws IOException {
+        String renamedFile = temporaryFolder.getRoot() + "/notCompiled" + MapCompiler.COMPILED_MAP_EXTENSION;
+        Files.copy(Paths.get("src/test/resources/fullValidGame.json"), Paths.get(renamedFile));
+
+        deserializeFile(renamedFile);
+    }
+
+    @Test
+    public void testCompiledMapWithBadCountsFails() throws IOException {
+        String compiledFile = temporaryFolder.getRoot() + "/badCounts" + MapCompiler.COMPILED_MAP_EXTENSION;
+        MapCompiler.compileMap(deserializeFile("src/test/resources/fullValidGame.json"), compiledFile);
+
+        for (int numberStrings: new int[] {-1, Integer.MAX_VALUE, 1 << 20}) {
+            try (RandomAccessFile mapFile = new RandomAccessFile(compiledFile, "rw")) {
+                mapFile.seek(8);
+                mapFile.writeInt(numberStrings);
+            }
+
+            try {
+                deserializeFile(compiledFile);
+                fail("Loaded a binary map declaring " + numberStrings + " strings.");
+            } catch (InvalidObjectException e) {
+                assertTrue(e.getMessage().contains(String.valueOf(numberStrings)));
+            }
+        }
+    }
+
+    //Lazy room text tests:
+    @Test
+    public void testLazyRoomTextMatchesEagerMap() throws IOException {
+        GameMap eagerMap = deserializeFile("src/test/resources/fullValidGame.json", false);
+        GameMap lazyMap = deserializeFile("src/test/resources/fullValidGame.json", true);
+
+        assertTrue(lazyMap.hasLazyRoomText());
+        assertEquals(0, lazyMap.getRoomTextIndex().findNumberReads());
+
+        for (int roomIndex = 0; roomIndex < eagerMap.findMapSize(); roomIndex++) {
+            assertEquals(eagerMap.retrieveRoomAt(roomIndex).toString(), lazyMap.retrieveRoomAt(roomIndex).toString());
+            assertEquals(eagerMap.retrieveRoomAt(roomIndex).getRoomImageURL(),
+                         lazyMap.retrieveRoomAt(roomIndex).getRoomImageURL());
+        }
+    }
+
+    @Test
+    public void testLazyRoomTextWithEscapes() throws IOException {
+        String mapText = new String(Files.readAllBytes(Paths.get("src/test/resources/fullValidGame.json")),
+                                    StandardCharsets.UTF_8)
+                .replace("\"Hallway\"", "\"The \\\"Long\\\" Hallway \\u00e9\u00e8\"");
+        File mapFile = temporaryFolder.newFile("escapedText.json");
+        Files.write(mapFile.toPath(), mapText.getBytes(StandardCharsets.UTF_8));
+
+        GameMap lazyMap = deserializeFile(mapFile.getPath(), true);
+
+        assertEquals("The \"Long\" Hallway \u00e9\u00e8", lazyMap.retrieveRoomAt(1).getRoomName());
+    }
+
+    @Test
+    public void testLazyRoomTextCacheIsBounded() throws IOException {
+        File mapFile = temporaryFolder.newFile("generated.json");
+        new MapGenerator(5, MapDataReader.ROOM_TEXT_CACHE_CAPACITY + 100).writeMap(mapFile.getPath());
+
+        GameMap lazyMap = deserializeFile(mapFile.getPath(), true);
+        for (int roomIndex = 0; roomIndex < lazyMap.findMapSize(); roomIndex++) {
+            assertTrue(lazyMap.retrieveRoomAt(roomIndex).getRoomName().endsWith(" " + (roomIndex + 1)));
+        }
+
+        assertEquals(MapDataReader.ROOM_TEXT_CACHE_CAPACITY, lazyMap.getRoomTextIndex().findNumberCachedRooms());
+    }
+
+    @Test
+    public void testLazyRoomTextDetectsRewriteInPlace() throws IOException {
+        File mapFile = temporaryFolder.newFile("rewritten.json");
+        Files.copy(Paths.get("src/test/resources/fullValidGame.json"), mapFile.toPath(),
+                   StandardCopyOption.REPLACE_EXISTING);
+        GameMap lazyMap = deserializeFile(mapFile.getPath(), true);
+
+        Files.write(mapFile.toPath(), "\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        try {
+            lazyMap.retrieveRoomAt(0).getRoomName();
+            fail("Expected UncheckedIOException");
+        } catch (UncheckedIOException e) {
+            assertTrue(e.getCause().getMessage().contains("rewritten"));
+        }
+    }
+
+    @Test
+    public void testLazyRoomTextSurvivesReplacedFile() throws IOException {
+        File mapFile = temporaryFolder.newFile("replaced.json");
+        File newMapFile = temporaryFolder.newFile("replacement.json");
+        Files.copy(Paths.get("src/test/resources/fullValidGame.json"), mapFile.toPath(),
+                   StandardCopyOption.REPLACE_EXISTING);
+        new MapGenerator(5, 10).writeMap(newMapFile.getPath());
+        GameMap lazyMap = deserializeFile(mapFile.getPath(), true);
+
+        Files.move(newMapFile.toPath(), mapFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        assertEquals("Holding Room", lazyMap.retrieveRoomAt(0).getRoomName());
+    }
+
+    @Test
+    public void testRetainedRoomTextOutlivesClosedIndex() throws IOException {
+        File mapFile = temporaryFolder.newFile("retained.json");
+        Files.copy(Paths.get("src/test/resources/fullValidGame.json"), mapFile.toPath(),
+                   StandardCopyOption.REPLACE_EXISTING);
+        GameMap lazyMap = deserializeFile(mapFile.getPath(), true);
+
+        lazyMap.getRoomTextIndex().retainText();
+        lazyMap.getRoomTextIndex().close();
+        Files.delete(mapFile.toPath());
+
+        assertEquals("Hallway", lazyMap.retrieveRoomAt(1).getRoomName());
+    }
+
+    @Test
+    public void testSeparatelyLoadedMapsShareText() throws IOException {
+        GameMap firstMap = deserializeFile("src/test/resources/fullValidGame.json");
+        GameMap secondMap = deserializeFile("src/test/resources/fullValidGame.json");
+
+        assertSame(firstMap.retrieveRoomAt(3).getRoomDescription(), secondMap.retrieveRoomAt(3).getRoomDescription());
+        assertSame(firstMap.getItemDictionary().retrieveItemName(0), secondMap.getItemDictionary().retrieveItemName(0));
+    }
+
+    @Test
+    public void testRoomsAreBuiltOnMapDictionary() throws IOException {
+        GameMap jsonMap = deserializeFile("src/test/resources/fullValidGame.json");
+        String compiledFile = temporaryFolder.getRoot() + "/dictionary" + MapCompiler.COMPILED_MAP_EXTENSION;
+        MapCompiler.compileMap(jsonMap, compiledFile);
+        GameMap compiledMap = deserializeFile(compiledFile);
+
+        for (GameMap gameMap: new GameMap[] {jsonMap, compiledMap}) {
+            for (int roomIndex = 0; roomIndex < gameMap.findMapSize(); roomIndex++) {
+                assertSame(gameMap.getItemDictionary(), gameMap.retrieveRoomAt(roomIndex).getItemDictionary());
+            }
+        }
+    }
+}
@@ -4,15 +4,20 @@ import org.hamcrest.CoreMatchers;
 import org.junit.Before;
 import org.junit.Test;
 import student.server.Command;
+import student.server.GameStatus;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 
 import static student.adventure.PlayerInteractionHandler.executePlayerCommand;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertThat;
 
@@ -61,6 +66,15 @@ public class GameEngineTest {
         assertEquals(0, testerEngine.fetchNumberOfCommandOptions("drop"));
     }
 
+    @Test
+    public void testEarlierGameStatusUnchangedByLaterCommands() {
+        GameStatus initialStatus = testerEngine.getCurrentGameState();
+        executePlayerCommand(testerEngine, new Command("take", "chair"));
+
+        assertEquals(2, initialStatus.getCommandOptions().get("take").size());
+        assertEquals(0, initialStatus.getCommandOptions().get("drop").size());
+    }
+
     //Tests for reaching end room
     @Test
     public void testWinningGame() {
@@ -85,6 +99,32 @@ public class GameEngineTest {
         assertFalse(testerEngine.isGameEnded());
     }
 
+    @Test
+    public void testResetRestoresInitialGame() {
+        executePlayerCommand(testerEngine, new Command("take", "chair"));
+        executePlayerCommand(testerEngine, new Command("go", "east"));
+        executePlayerCommand(testerEngine, new Command("quit", "game"));
+        testerEngine.reset(5);
+
+        assertEquals(5, testerEngine.getCurrentGameState().getId());
+        assertEquals("Holding Room", testerEngine.fetchCurrentRoom());
+        assertTrue(testerEngine.currentRoomContainsItem("chair"));
+        assertEquals(0, testerEngine.getGamePlayer().findSizeOfInventory());
+        assertEquals(0, testerEngine.findNumberVisitedRooms());
+        assertFalse(testerEngine.isGameEnded());
+    }
+
+    @Test
+    public void testGamesOnSameMapDoNotShareItems() throws IOException {
+        GameMap templateMap = MapDataReader.deserializeFile("src/test/resources/fullValidGame.json");
+        GameEngine firstEngine = new GameEngine(templateMap, "", 0, VisitHistory.UNBOUNDED);
+        GameEngine secondEngine = new GameEngine(templateMap, "", 1, VisitHistory.UNBOUNDED);
+        executePlayerCommand(firstEngine, new Command("take", "chair"));
+
+        assertTrue(secondEngine.currentRoomContainsItem("chair"));
+        assertTrue(templateMap.retrieveRoomAt(0).containsItem("chair"));
+    }
+
     //Tests for server run game
     @Test
     public void testMovingAround() {
@@ -100,6 +140,15 @@ public class GameEngineTest {
         assertTrue(testerEngine.getGamePlayer().inventoryContains("chair"));
     }
 
+    @Test
+    public void testTakenItemKeepsItsItemId() {
+        executePlayerCommand(testerEngine, new Command("take", "rope"));
+
+        assertEquals(1, testerEngine.getGamePlayer().fetchInventoryIds().cardinality());
+        assertEquals("rope", testerEngine.getGamePlayer().fetchPlayerInventory().get(0));
+        assertEquals(1, testerEngine.fetchNumberOfCommandOptions("take"));
+    }
+
     @Test
     public void testDroppingItem() {
         executePlayerCommand(testerEngine, new Command("take", "chair"));
@@ -316,6 +365,17 @@ public class GameEngineTest {
         assertThat(gameOutput, CoreMatchers.containsString("Storage Closet" + "\n" + "Holding Room"));
     }
 
+    @Test
+    public void testBoundedRoomHistoryStillCountsEveryVisit() {
+        testerEngine = new GameEngine("src/test/resources/fullValidGame.json", "", 0, 1);
+        executePlayerCommand(testerEngine, new Command("go", "south"));
+        executePlayerCommand(testerEngine, new Command("go", "north"));
+        String gameOutput = executePlayerCommand(testerEngine, new Command("quit", "game")).getMessage();
+
+        assertEquals(2, testerEngine.findNumberVisitedRooms());
+        assertThat(gameOutput, CoreMatchers.containsString("(Your last 1 of 2 rooms)" + "\n" + "Holding Room"));
+    }
+
     @Test
     public void testImmediateQuitRoomHistory() {
         playerInput = "quit";
@@ -324,4 +384,116 @@ public class GameEngineTest {
 
         assertEquals(0, testerEngine.findNumberVisitedRooms());
     }
+
+    @Test
+    public void testHintLeadsToKey() {
+        String gameOutput = executePlayerCommand(testerEngine, new Command("hint", "exit")).getMessage();
+
+        assertThat(gameOutput, CoreMatchers.containsString("Hint: go south. The key is 1 room away."));
+    }
+
+    @Test
+    public void testHintLeadsToExitWithKey() {
+        executePlayerCommand(testerEngine, new Command("go", "south"));
+        executePlayerCommand(testerEngine, new Command("take", "key"));
+        String gameOutput = executePlayerCommand(testerEngine, new Command("hint", null)).getMessage();
+
+        assertThat(gameOutput, CoreMatchers.containsString("Hint: go north. The exit is 5 rooms away."));
+    }
+
+    @Test
+    public void testHintFollowsDroppedKey() {
+        executePlayerCommand(testerEngine, new Command("go", "south"));
+        executePlayerCommand(testerEngine, new Command("take", "key"));
+        executePlayerCommand(testerEngine, new Command("go", "north"));
+        executePlayerCommand(testerEngine, new Command("go", "east"));
+        executePlayerCommand(testerEngine, new Command("drop", "key"));
+        executePlayerCommand(testerEngine, new Command("go", "east"));
+        String gameOutput = executePlayerCommand(testerEngine, new Command("hint", null)).getMessage();
+
+        assertThat(gameOutput, CoreMatchers.containsString("Hint: go west. The key is 1 room away."));
+    }
+
+    @Test
+    public void testTravelCountsEveryRoomPassed() {
+        String gameOutput = executePlayerCommand(testerEngine, new Command("travel", "7")).getMessage();
+
+        assertThat(gameOutput, CoreMatchers.containsString("You have traveled through 4 rooms to: Another Holding Room."));
+        assertEquals(4, testerEngine.findNumberVisitedRooms());
+    }
+
+    @Test
+    public void testTravelToExitWithKeyWins() {
+        executePlayerCommand(testerEngine, new Command("travel", "4"));
+        executePlayerCommand(testerEngine, new Command("take", "key"));
+        String gameOutput = executePlayerCommand(testerEngine, new Command("travel", "9")).getMessage();
+
+        assertTrue(testerEngine.isGameEnded());
+        assertThat(gameOutput, CoreMatchers.containsString("Congrats! You escaped."));
+    }
+
+    @Test
+    public void testTravelToUnknownRoom() {
+        String gameOutput = executePlayerCommand(testerEngine, new Command("travel", "42")).getMessage();
+
+        assertThat(gameOutput, CoreMatchers.containsString("There is no room 42."));
+        assertEquals(0, testerEngine.findNumberVisitedRooms());
+    }
+
+    @Test
+    public void testNewGamesShareOpeningMessage() {
+        GameEngine otherEngine = new GameEngine("src/test/resources/fullValidGame.json", "", 1);
+
+        assertSame(testerEngine.getCurrentGameState().getMessage(), otherEngine.getCurrentGameState().getMessage());
+    }
+
+    @Test
+    public void testGameStateRestoredOnOtherEngine() throws IOException {
+        executePlayerCommand(testerEngine, new Command("take", "chair"));
+        executePlayerCommand(testerEngine, new Command("go", "east"));
+        executePlayerCommand(testerEngine, new Command("drop", "chair"));
+        ByteArrayOutputStream stateBytes = new ByteArrayOutputStream();
+        testerEngine.writeGameState(new DataOutputStream(stateBytes));
+
+        GameEngine restoredEngine = new GameEngine("src/test/resources/fullValidGame.json", "", 5);
+        restoredEngine.readGameState(stateBytes.toByteArray(), 5);
+
+        assertEquals(testerEngine.fetchCurrentRoom(), restoredEngine.fetchCurrentRoom());
+        assertTrue(restoredEngine.currentRoomContainsItem("chair"));
+        assertEquals(testerEngine.getGamePlayer().getPlayerScore(), restoredEngine.getGamePlayer().getPlayerScore());
+        assertEquals(testerEngine.getCurrentGameState().getMessage(), restoredEngine.getCurrentGameState().getMessage());
+        assertEquals(5, restoredEngine.getGameID());
+    }
+
+    @Test
+    public void testLayoutVersionKeptAsItemsMove() {
+        long startingVersion = testerEngine.getTemplateMap().findLayoutVersion();
+        executePlayerCommand(testerEngine, new Command("take", "chair"));
+        GameEngine otherEngine = new GameEngine("src/test/resources/fullValidGame.json", "", 1);
+
+        assertEquals(startingVersion, testerEngine.getTemplateMap().findLayoutVersion());
+        assertEquals(startingVersion, otherEngine.getTemplateMap().findLayoutVersion());
+    }
+
+    @Test
+    public void testGamesShareUnchangedRooms() {
+        GameMap templateMap = testerEngine.getTemplateMap();
+        executePlayerCommand(testerEngine, new Command("take", "chair"));
+
+        assertFalse(testerEngine.currentRoomContainsItem("chair"));
+        assertTrue(templateMap.retrieveRoomAt(0).fetchItemsVisible().contains("chair"));
+
+        testerEngine.reset(2);
+
+        assertSame(templateMap, testerEngine.getTemplateMap());
+        assertTrue(testerEngine.currentRoomContainsItem("chair"));
+    }
+
+    @Test
+    public void testLayoutVersionDiffersBetweenMaps() {
+        GameEngine otherEngine = new GameEngine("src/test/resources/sparseRoomNumbers.json", "", 1);
+
+        assertNotEquals(testerEngine.getTemplateMap().findLayoutVersion(),
+                        otherEngine.getTemplateMap().findLayoutVersion());
+    }
 }
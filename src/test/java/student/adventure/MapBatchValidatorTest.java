@@ -0,0 +1,56 @@
+package student.adventure;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.hamcrest.CoreMatchers.containsString;
+
+public class MapBatchValidatorTest {
+    @Rule
+    public TemporaryFolder mapFolder = new TemporaryFolder();
+
+    @Test
+    public void testValidatesEveryMapInDirectory() throws IOException {
+        Files.copy(Paths.get("src/test/resources/fullValidGame.json"), new File(mapFolder.getRoot(), "a.json").toPath());
+        Files.copy(Paths.get("src/test/resources/unreachableKey.json"), new File(mapFolder.getRoot(), "b.json").toPath());
+        File nestedFolder = mapFolder.newFolder("nested");
+        Files.copy(Paths.get("src/test/resources/emptyFile.json"), new File(nestedFolder, "c.json").toPath());
+
+        List<MapBatchValidator.ValidationResult> results =
+                MapBatchValidator.validateDirectory(mapFolder.getRoot().toPath(), 2);
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isValid());
+        assertEquals(9, results.get(0).getNumberRooms());
+        assertFalse(results.get(1).isValid());
+        assertThat(results.get(2).getMapProblems().get(0), containsString("NullPointerException"));
+    }
+
+    @Test
+    public void testReportListsErrorsPerFile() throws IOException {
+        List<MapBatchValidator.ValidationResult> results = Arrays.asList(
+                MapBatchValidator.validateFile("src/test/resources/fullValidGame.json"),
+                MapBatchValidator.validateFile("src/test/resources/twoEndRooms.json"));
+        ByteArrayOutputStream reportStream = new ByteArrayOutputStream();
+
+        MapBatchValidator.writeReport(results, 5, reportStream);
+        String report = new String(reportStream.toByteArray(), StandardCharsets.UTF_8);
+
+        assertThat(report, containsString("\"invalid\" : 1"));
+        assertThat(report, containsString("too many end rooms"));
+    }
+}
@@ -0,0 +1,63 @@
+package student.adventure;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static student.adventure.MapDataReader.deserializeFile;
+
+public class MapGeneratorTest {
+    @Rule
+    public TemporaryFolder mapFolder = new TemporaryFolder();
+
+    @Test
+    public void testGeneratedMapFileIsValid() throws IOException {
+        MapGenerator generator = new MapGenerator(7, 500);
+        generator.setBranchingRate(0.2);
+        generator.setItemDensity(0.3);
+        generator.setEndRoomPlacement(MapGenerator.EndRoomPlacement.RANDOM);
+
+        String mapFile = new File(mapFolder.getRoot(), "generated.json").getPath();
+        generator.writeMap(mapFile);
+
+        assertEquals(500, deserializeFile(mapFile).findMapSize());
+    }
+
+    @Test
+    public void testSameSeedGivesSameMap() throws IOException {
+        ByteArrayOutputStream firstMap = new ByteArrayOutputStream();
+        ByteArrayOutputStream secondMap = new ByteArrayOutputStream();
+        ByteArrayOutputStream otherSeedMap = new ByteArrayOutputStream();
+
+        new MapGenerator(42, 200).writeMap(firstMap);
+        new MapGenerator(42, 200).writeMap(secondMap);
+        new MapGenerator(43, 200).writeMap(otherSeedMap);
+
+        assertArrayEquals(firstMap.toByteArray(), secondMap.toByteArray());
+        assertFalse(Arrays.equals(firstMap.toByteArray(), otherSeedMap.toByteArray()));
+    }
+
+    @Test
+    public void testEndRoomIsFarthestFromStart() {
+        GameMap generatedMap = new MapGenerator(3, 100).generateMap();
+        RouteTable routeTable = generatedMap.fetchRouteTable();
+
+        int farthestDistance = 0;
+        for (int roomIndex = 1; roomIndex < generatedMap.findMapSize(); roomIndex++) {
+            int[] route = routeTable.findRoute(0, roomIndex);
+            farthestDistance = Math.max(farthestDistance, route.length);
+        }
+
+        assertEquals(farthestDistance, routeTable.findExitDistance(0));
+        assertTrue(MapValidator.findMapProblems(generatedMap, GameEngine.REQUIRED_ESCAPE_ITEM).isEmpty());
+    }
+}
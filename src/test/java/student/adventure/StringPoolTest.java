@@ -0,0 +1,57 @@
+package student.adventure;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class StringPoolTest {
+    @Test
+    public void testDedupeReturnsPooledCopy() {
+        String pooledString = StringPool.dedupe(new String("pool test room"));
+        long numberDeduplicated = StringPool.findNumberDeduplicated();
+
+        assertSame(pooledString, StringPool.dedupe(new String("pool test room")));
+        assertSame(pooledString, StringPool.dedupe(pooledString));
+        assertEquals(numberDeduplicated + 1, StringPool.findNumberDeduplicated());
+        assertNull(StringPool.dedupe(null));
+    }
+
+    @Test
+    public void testConcurrentDedupeAgreesOnOneCopy() throws InterruptedException {
+        ConcurrentMap<String, String> firstCopies = new ConcurrentHashMap<>();
+        List<Throwable> failures = new ArrayList<>();
+        List<Thread> loaders = new ArrayList<>();
+
+        for (int loader = 0; loader < 8; loader++) {
+            loaders.add(new Thread(() -> {
+                try {
+                    for (int stringId = 0; stringId < 2000; stringId++) {
+                        String pooledString = StringPool.dedupe(new String("concurrent room " + stringId));
+                        assertSame(firstCopies.computeIfAbsent(pooledString, string -> string), pooledString);
+                    }
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            }));
+        }
+        for (Thread loader: loaders) {
+            loader.start();
+        }
+        for (Thread loader: loaders) {
+            loader.join();
+        }
+
+        assertTrue(failures.toString(), failures.isEmpty());
+        assertTrue(StringPool.findNumberPooledStrings() >= firstCopies.size());
+    }
+}
@@ -0,0 +1,56 @@
+package student.adventure;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class VisitHistoryTest {
+    @Test
+    public void testUnboundedHistoryKeepsEveryVisit() {
+        VisitHistory history = new VisitHistory();
+        for (int roomIndex = 0; roomIndex < 100; roomIndex++) {
+            history.recordVisit(roomIndex);
+        }
+
+        assertEquals(100, history.findNumberRetained());
+        assertEquals(42, history.retrieveVisitAt(42));
+        assertFalse(history.hasDroppedVisits());
+    }
+
+    @Test
+    public void testBoundedHistoryKeepsMostRecentVisits() {
+        VisitHistory history = new VisitHistory(3);
+        for (int roomIndex = 0; roomIndex < 10; roomIndex++) {
+            history.recordVisit(roomIndex);
+        }
+
+        assertEquals(10, history.findTotalVisits());
+        assertEquals(3, history.findNumberRetained());
+        assertEquals(7, history.retrieveVisitAt(0));
+        assertEquals(9, history.retrieveVisitAt(2));
+        assertTrue(history.hasDroppedVisits());
+    }
+
+    @Test
+    public void testBoundedHistoryAcrossGrowth() {
+        VisitHistory history = new VisitHistory(40);
+        for (int roomIndex = 0; roomIndex < 50; roomIndex++) {
+            history.recordVisit(roomIndex);
+        }
+
+        assertEquals(40, history.findNumberRetained());
+        assertEquals(10, history.retrieveVisitAt(0));
+        assertEquals(49, history.retrieveVisitAt(39));
+    }
+
+    @Test
+    public void testClearHistory() {
+        VisitHistory history = new VisitHistory();
+        history.recordVisit(1);
+        history.clear();
+
+        assertEquals(0, history.findTotalVisits());
+    }
+}
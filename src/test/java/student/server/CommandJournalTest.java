@@ -0,0 +1,178 @@
+package student.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import student.server.CommandJournal.JournalRecord;
+import student.server.CommandJournal.RecordType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.CRC32;
+
+public class CommandJournalTest {
+    @Rule
+    public TemporaryFolder journalFolder = new TemporaryFolder();
+
+    @Test
+    public void testReplayReturnsRecordsInOrder() throws IOException {
+        CommandJournal journal = new CommandJournal(journalFolder.getRoot().getPath());
+        Command command = new Command("go", "east");
+        command.setPlayerName("Anna");
+
+        journal.appendRecordDurably(JournalRecord.newGame(0, "kidnapped", 7));
+        journal.appendRecordDurably(JournalRecord.command(0, command));
+        journal.appendRecordDurably(JournalRecord.destroyGame(0));
+        journal.close();
+
+        List<JournalRecord> records = replayRecords();
+
+        assertEquals(3, records.size());
+        assertEquals("kidnapped", records.get(0).getMapID());
+        assertEquals(7, records.get(0).getMapVersion());
+        assertEquals("east", records.get(1).getCommand().getCommandValue());
+        assertEquals("Anna", records.get(1).getCommand().getPlayerName());
+        assertEquals(RecordType.DESTROY_GAME, records.get(2).getRecordType());
+    }
+
+    @Test
+    public void testLongStringsJournaled() throws IOException {
+        CommandJournal journal = new CommandJournal(journalFolder.getRoot().getPath());
+        char[] longValue = new char[70000];
+        Arrays.fill(longValue, '\u00e9');
+        Command command = new Command("go", new String(longValue));
+
+        journal.appendRecordDurably(JournalRecord.command(0, command));
+        journal.close();
+
+        List<JournalRecord> records = replayRecords();
+
+        assertEquals(1, records.size());
+        assertEquals(new String(longValue), records.get(0).getCommand().getCommandValue());
+        assertNull(records.get(0).getCommand().getPlayerName());
+    }
+
+    @Test
+    public void testImportWithBadSessionLengthRejected() throws IOException {
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+        DataOutputStream payloadOutput = new DataOutputStream(payloadBytes);
+        payloadOutput.writeLong(0);
+        payloadOutput.writeByte(RecordType.IMPORT_GAME.ordinal());
+        payloadOutput.writeInt(0);
+        CommandJournal.writeNullableString(payloadOutput, "kidnapped");
+        payloadOutput.writeInt(Integer.MAX_VALUE);
+        byte[] payload = payloadBytes.toByteArray();
+
+        CRC32 checksum = new CRC32();
+        checksum.update(payload, 0, payload.length);
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+        DataOutputStream recordOutput = new DataOutputStream(recordBytes);
+        recordOutput.writeInt(payload.length);
+        recordOutput.writeInt((int) checksum.getValue());
+        recordOutput.write(payload);
+
+        try {
+            CommandJournal.readEncodedRecord(new DataInputStream(new ByteArrayInputStream(recordBytes.toByteArray())));
+            fail("Expected InvalidObjectException");
+        } catch (InvalidObjectException e) {
+            assertTrue(e.getMessage().contains("session"));
+        }
+    }
+
+    @Test
+    public void testTornRecordDropped() throws IOException {
+        CommandJournal journal = new CommandJournal(journalFolder.getRoot().getPath());
+        journal.appendRecordDurably(JournalRecord.newGame(0, "kidnapped", 7));
+        journal.appendRecordDurably(JournalRecord.newGame(1, "kidnapped", 7));
+        journal.close();
+
+        File segmentFile = journalFolder.getRoot().listFiles()[0];
+        try (RandomAccessFile journalFile = new RandomAccessFile(segmentFile, "rw")) {
+            journalFile.setLength(journalFile.length() - 3);
+        }
+
+        List<JournalRecord> records = replayRecords();
+
+        assertEquals(1, records.size());
+        assertEquals(0, records.get(0).getGameID());
+    }
+
+    @Test
+    public void testConcurrentRecordsShareSyncs() throws Exception {
+        CommandJournal journal = new CommandJournal(journalFolder.getRoot().getPath());
+        List<CompletableFuture<Long>> durableFutures = new ArrayList<>();
+
+        for (int gameID = 0; gameID < 500; gameID++) {
+            durableFutures.add(journal.appendRecord(JournalRecord.command(gameID, new Command("go", "east"))));
+        }
+        CompletableFuture.allOf(durableFutures.toArray(new CompletableFuture<?>[0])).get();
+        journal.close();
+
+        assertEquals(500, journal.findNumberRecords());
+        assertTrue(journal.findNumberSyncs() < 500);
+    }
+
+    @Test
+    public void testFailedWriteRefusesLaterRecords() throws IOException {
+        CommandJournal journal = new CommandJournal(journalFolder.getRoot().getPath());
+        journal.appendRecordDurably(JournalRecord.newGame(0, "kidnapped", 7));
+
+        //a directory in the way of the next segment makes starting it fail
+        journalFolder.newFolder(String.format("%s%020d%s", CommandJournal.SEGMENT_PREFIX, 1,
+                                              CommandJournal.SEGMENT_EXTENSION));
+        try {
+            journal.startSegment();
+            fail("Expected IOException");
+        } catch (IOException e) {
+            try {
+                journal.appendRecordDurably(JournalRecord.newGame(1, "kidnapped", 7));
+                fail("Expected IOException");
+            } catch (IOException laterException) {
+                assertEquals(1, journal.findNumberRecords());
+            }
+        }
+        journal.close();
+    }
+
+    @Test
+    public void testSegmentsBeforeCutDeleted() throws IOException {
+        CommandJournal journal = new CommandJournal(journalFolder.getRoot().getPath());
+        journal.appendRecordDurably(JournalRecord.newGame(0, "kidnapped", 7));
+        long cutLSN = journal.startSegment();
+        journal.appendRecordDurably(JournalRecord.newGame(1, "kidnapped", 7));
+
+        assertEquals(2, journal.findNumberSegments());
+        assertEquals(1, journal.deleteSegmentsBefore(cutLSN));
+        journal.close();
+
+        List<JournalRecord> records = replayRecords();
+
+        assertEquals(1, records.size());
+        assertEquals(cutLSN, records.get(0).getLSN());
+    }
+
+    private List<JournalRecord> replayRecords() throws IOException {
+        List<JournalRecord> records = new ArrayList<>();
+        CommandJournal journal = new CommandJournal(journalFolder.getRoot().getPath());
+
+        journal.replayJournal(0, records::add);
+        journal.close();
+
+        return records;
+    }
+}
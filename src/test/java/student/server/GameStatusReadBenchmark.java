@@ -0,0 +1,93 @@
+package student.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Benchmark measuring how game status reads scale with the number of reader threads
+ * while writer threads keep sending commands to the same games.
+ * Run the main method with target/classes and target/test-classes on the classpath.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class GameStatusReadBenchmark {
+    private static final int NUMBER_GAMES = 64;
+    private static final int NUMBER_WRITERS = 2;
+    private static final int[] READER_COUNTS = {1, 2, 4, 8};
+    private static final long MEASURE_MILLIS = 2000;
+
+    /**
+     * Runs the benchmark and prints the read throughput for each number of readers.
+     *
+     * @param args command line arguments (unused).
+     *
+     * @throws AdventureException   if the games could not be created.
+     * @throws InterruptedException if interrupted while waiting for the threads.
+     */
+    public static void main(String[] args) throws AdventureException, InterruptedException {
+        KidnappedService service = new KidnappedService();
+        for (int game = 0; game < NUMBER_GAMES; game++) {
+            service.newGame();
+        }
+
+        for (int numberReaders: READER_COUNTS) {
+            measureReads(service, numberReaders);
+        }
+    }
+
+    /**
+     * Helper method to measure read throughput with a given number of reader threads,
+     * under a constant write load.
+     *
+     * @param service       the service with the games to read and write.
+     * @param numberReaders the number of reader threads.
+     *
+     * @throws InterruptedException if interrupted while waiting for the threads.
+     */
+    private static void measureReads(KidnappedService service, int numberReaders) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder reads = new LongAdder();
+        LongAdder writes = new LongAdder();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int writer = 0; writer < NUMBER_WRITERS; writer++) {
+            threads.add(new Thread(() -> {
+                Command[] moves = {new Command("go", "east"), new Command("go", "west")};
+                long step = 0;
+
+                while (running.get()) {
+                    service.executeCommand((int) (step % NUMBER_GAMES), moves[(int) (step / NUMBER_GAMES % 2)]);
+                    writes.increment();
+                    step++;
+                }
+            }));
+        }
+
+        for (int reader = 0; reader < numberReaders; reader++) {
+            threads.add(new Thread(() -> {
+                long readsDone = 0;
+
+                while (running.get()) {
+                    if (service.getGame((int) (readsDone % NUMBER_GAMES)).getCommandOptions() != null) {
+                        readsDone++;
+                    }
+                }
+
+                reads.add(readsDone);
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        Thread.sleep(MEASURE_MILLIS);
+        running.set(false);
+        for (Thread thread: threads) {
+            thread.join();
+        }
+
+        System.out.printf("%d readers: %,d reads/s, %,d writes/s%n", numberReaders,
+                          reads.sum() * 1000 / MEASURE_MILLIS, writes.sum() * 1000 / MEASURE_MILLIS);
+    }
+}
@@ -2,27 +2,61 @@ package student.server;
 
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
 
+import student.adventure.GameEngine;
+
+import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.SQLException;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.Statement;
 import java.sql.ResultSet;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
 
 public class KidnappedServiceTest {
+    @Rule
+    public TemporaryFolder journalFolder = new TemporaryFolder();
+
     private KidnappedService testerService;
 
-    private final static String DATABASE_URL = "jdbc:sqlite:src/main/resources/adventure.db";
+    private String databaseUrl;
     private Connection dbConnection;
 
     @Before
-    public void setUp() throws SQLException {
-        dbConnection = DriverManager.getConnection(DATABASE_URL);
-        testerService = new KidnappedService();
+    public void setUp() throws SQLException, IOException {
+        //a fresh database per test, rather than the one the server ships with
+        databaseUrl = "jdbc:sqlite:" + new File(journalFolder.getRoot(), "adventure.db").getPath();
+        testerService = new KidnappedService(null, new SqliteLeaderboardStore(databaseUrl));
+        dbConnection = DriverManager.getConnection(databaseUrl);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        testerService.close();
+        dbConnection.close();
     }
 
     @Test
@@ -67,6 +101,17 @@ public class KidnappedServiceTest {
         assertEquals(0, testerService.fetchNumberRunningGames());
     }
 
+    @Test
+    public void testDestroyedGameCannotBeFound() throws AdventureException {
+        testerService.newGame();
+        testerService.newGame();
+        testerService.destroyGame(0);
+
+        assertNull(testerService.getGame(0));
+        assertEquals(1, testerService.getGame(1).getId());
+        assertFalse(testerService.destroyGame(0));
+    }
+
     @Test
     public void testLeaderboardUpdatedAfterEndGame() throws AdventureException, SQLException {
         testerService.newGame();
@@ -84,7 +129,142 @@ public class KidnappedServiceTest {
     }
 
     @Test
-    public void testFetchLeaderboardInCorrectOrder() {
+    public void testLeaderboardKeepsBestScore() throws AdventureException, SQLException {
+        String[][] winningMoves = {{"travel", "4"}, {"take", "key"}, {"travel", "9"}};
+        testerService.newGame();
+        testerService.newGame();
+
+        for (String[] move: winningMoves) {
+            Command command = new Command(move[0], move[1]);
+            command.setPlayerName("BestScoreTester");
+            testerService.executeCommand(0, command);
+        }
+        Command quitCommand = new Command("quit", "game");
+        quitCommand.setPlayerName("BestScoreTester");
+        testerService.executeCommand(1, quitCommand);
+
+        Statement statement = dbConnection.createStatement();
+        ResultSet leaderboardResults = statement.executeQuery(
+                "SELECT COUNT(*), MIN(score) FROM leaderboard_aju3 WHERE name='BestScoreTester'");
+
+        assertEquals(1, leaderboardResults.getInt(1));
+        assertTrue(leaderboardResults.getInt(2) < Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void testDayLeaderboardShowsGameEndedToday() throws AdventureException {
+        KidnappedService memoryService = new KidnappedService(null, new MemoryLeaderboardStore());
+        memoryService.newGame();
+
+        Command quitCommand = new Command("quit", "game");
+        quitCommand.setPlayerName("DayTester");
+        memoryService.executeCommand(0, quitCommand);
+
+        assertTrue(memoryService.fetchLeaderboard(null, LeaderboardWindow.DAY).containsKey("DayTester"));
+        assertTrue(memoryService.fetchLeaderboard(null, LeaderboardWindow.WEEK).containsKey("DayTester"));
+        assertTrue(memoryService.fetchLeaderboard(null, LeaderboardWindow.ALL).containsKey("DayTester"));
+        memoryService.close();
+    }
+
+    @Test
+    public void testLeaderboardTagChangesOnlyWithLeaderboard() throws AdventureException {
+        KidnappedService memoryService = new KidnappedService(null, new MemoryLeaderboardStore());
+        String[][] winningMoves = {{"travel", "4"}, {"take", "key"}, {"travel", "9"}};
+        String startingTag = memoryService.fetchLeaderboardTag(null, LeaderboardWindow.ALL);
+
+        for (int game = 0; game < 2; game++) {
+            memoryService.newGame();
+            for (String[] move: winningMoves) {
+                Command command = new Command(move[0], move[1]);
+                command.setPlayerName("TagTester");
+                memoryService.executeCommand(game, command);
+            }
+        }
+        String winningTag = memoryService.fetchLeaderboardTag(null, LeaderboardWindow.ALL);
+
+        memoryService.newGame();
+        Command quitCommand = new Command("quit", "game");
+        quitCommand.setPlayerName("TagTester");
+        memoryService.executeCommand(2, quitCommand);
+
+        assertNotEquals(startingTag, winningTag);
+        assertEquals(winningTag, memoryService.fetchLeaderboardTag(null, LeaderboardWindow.ALL));
+        assertNotEquals(winningTag, memoryService.fetchLeaderboardTag(null, LeaderboardWindow.DAY));
+        assertNull(memoryService.fetchLeaderboardTag("noSuchMap", LeaderboardWindow.ALL));
+        memoryService.close();
+    }
+
+    @Test
+    public void testLeaderboardTagChangesWithSharedStore() throws IOException, AdventureException {
+        String sharedUrl = "jdbc:sqlite:" + new File(journalFolder.getRoot(), "shared.db").getPath();
+        KidnappedService sqliteService = new KidnappedService(null, new SqliteLeaderboardStore(sharedUrl));
+        String startingTag = sqliteService.fetchLeaderboardTag(null, LeaderboardWindow.ALL);
+
+        //as if another node of the service recorded a score
+        LeaderboardStore otherStore = new SqliteLeaderboardStore(sharedUrl);
+        otherStore.recordScore("OtherNodeTester", "kidnapped", 10, System.currentTimeMillis());
+        otherStore.close();
+
+        assertNotEquals(startingTag, sqliteService.fetchLeaderboardTag(null, LeaderboardWindow.ALL));
+        assertTrue(sqliteService.fetchLeaderboard(null, LeaderboardWindow.ALL).containsKey("OtherNodeTester"));
+        sqliteService.close();
+    }
+
+    @Test
+    public void testDayLeaderboardSurvivesRestart() throws IOException {
+        String databaseUrl = "jdbc:sqlite:" + new File(journalFolder.getRoot(), "restart.db").getPath();
+        LeaderboardStore store = new SqliteLeaderboardStore(databaseUrl);
+        store.recordScore("TodayTester", "kidnapped", 10, System.currentTimeMillis());
+        store.recordScore("LastMonthTester", "kidnapped", 10, System.currentTimeMillis() - 30L * 24 * 60 * 60 * 1000);
+        store.close();
+
+        KidnappedService restartedService = new KidnappedService(null, new SqliteLeaderboardStore(databaseUrl));
+
+        assertTrue(restartedService.fetchLeaderboard(null, LeaderboardWindow.DAY).containsKey("TodayTester"));
+        assertTrue(restartedService.fetchLeaderboard(null, LeaderboardWindow.WEEK).containsKey("TodayTester"));
+        assertFalse(restartedService.fetchLeaderboard(null, LeaderboardWindow.WEEK).containsKey("LastMonthTester"));
+        assertTrue(restartedService.fetchLeaderboard(null, LeaderboardWindow.ALL).containsKey("LastMonthTester"));
+        restartedService.close();
+    }
+
+    @Test
+    public void testNewGameOnUnknownMapFails() {
+        try {
+            testerService.newGame("noSuchMap");
+            fail("Expected AdventureException");
+        } catch (AdventureException e) {
+            assertEquals(0, testerService.fetchNumberRunningGames());
+        }
+    }
+
+    @Test
+    public void testSessionCountsPerMap() throws AdventureException {
+        testerService.newGame(KidnappedService.DEFAULT_MAP_ID);
+        testerService.newGame(null);
+        testerService.newGame();
+        testerService.destroyGame(1);
+
+        assertEquals(Integer.valueOf(2),
+                     testerService.fetchSessionCounts().get(KidnappedService.DEFAULT_MAP_ID));
+    }
+
+    @Test
+    public void testLeaderboardPerMap() throws AdventureException {
+        testerService.newGame();
+        Command quitCommand = new Command("quit", "game");
+        quitCommand.setPlayerName("MapLeaderboardTester");
+        testerService.executeCommand(0, quitCommand);
+
+        assertTrue(testerService.fetchLeaderboard(KidnappedService.DEFAULT_MAP_ID)
+                                .containsKey("MapLeaderboardTester"));
+        assertTrue(testerService.fetchLeaderboard("noSuchMap").isEmpty());
+    }
+
+    @Test
+    public void testFetchLeaderboardInCorrectOrder() throws IOException {
+        testerService.getLeaderboardStore().recordScore("Slower", KidnappedService.DEFAULT_MAP_ID, 5, 0);
+        testerService.getLeaderboardStore().recordScore("Anonymous", KidnappedService.DEFAULT_MAP_ID, 0, 0);
+
         LinkedHashMap<String, Integer> leaderboard = testerService.fetchLeaderboard();
         assertEquals("Anonymous=0", leaderboard.entrySet().iterator().next().toString());
     }
@@ -102,6 +282,289 @@ public class KidnappedServiceTest {
 
     @Test
     public void testCorrectConnectedDatabase() {
-        assertEquals(DATABASE_URL, testerService.getDatabaseUrl());
+        assertEquals(databaseUrl, testerService.getDatabaseUrl());
+    }
+
+    @Test
+    public void testMemoryReportCountsSharedText() throws AdventureException {
+        testerService.newGame();
+        testerService.newGame();
+
+        Map<String, Long> memoryReport = testerService.fetchMemoryReport();
+
+        assertEquals(Long.valueOf(2), memoryReport.get("sessions"));
+        assertEquals(memoryReport.get("sharedRoomTextBytes"), memoryReport.get("roomTextBytesSavedBySharing"));
+    }
+
+    @Test
+    public void testJournalRebuildsGamesAfterRestart() throws AdventureException {
+        KidnappedService journaledService = new KidnappedService(journalFolder.getRoot().getPath(), new MemoryLeaderboardStore());
+        journaledService.newGame();
+        journaledService.newGame();
+        journaledService.newGame();
+        journaledService.executeCommand(1, new Command("go", "east"));
+        journaledService.executeCommand(1, new Command("take", "key"));
+        journaledService.destroyGame(2);
+        String gameMessage = journaledService.getGame(1).getMessage();
+        journaledService.close();
+
+        KidnappedService restartedService = new KidnappedService(journalFolder.getRoot().getPath(), new MemoryLeaderboardStore());
+
+        assertEquals(2, restartedService.fetchNumberRunningGames());
+        assertNull(restartedService.getGame(2));
+        assertEquals(gameMessage, restartedService.getGame(1).getMessage());
+        assertEquals(3, restartedService.newGame());
+        restartedService.close();
+    }
+
+    @Test
+    public void testJournalKeepsResetsInOrderWithNewGames() throws Exception {
+        KidnappedService journaledService = new KidnappedService(journalFolder.getRoot().getPath(), new MemoryLeaderboardStore());
+        Thread resetter = new Thread(() -> {
+            for (int reset = 0; reset < 50; reset++) {
+                journaledService.reset();
+            }
+        });
+        resetter.start();
+        for (int game = 0; game < 200; game++) {
+            journaledService.newGame();
+        }
+        resetter.join();
+        int numberRunningGames = journaledService.fetchNumberRunningGames();
+        journaledService.close();
+
+        KidnappedService restartedService = new KidnappedService(journalFolder.getRoot().getPath(), new MemoryLeaderboardStore());
+
+        assertEquals(numberRunningGames, restartedService.fetchNumberRunningGames());
+        assertEquals(numberRunningGames, restartedService.newGame());
+        restartedService.close();
+    }
+
+    @Test
+    public void testSnapshotCompactsJournalAndRestoresGames() throws AdventureException, IOException {
+        KidnappedService journaledService = new KidnappedService(journalFolder.getRoot().getPath(), new MemoryLeaderboardStore());
+        journaledService.newGame();
+        journaledService.newGame();
+        journaledService.executeCommand(0, new Command("take", "chair"));
+        journaledService.executeCommand(0, new Command("go", "east"));
+
+        assertEquals(2, journaledService.takeSnapshot());
+
+        journaledService.executeCommand(0, new Command("drop", "chair"));
+        journaledService.destroyGame(1);
+        journaledService.newGame();
+        journaledService.takeSnapshot();
+        journaledService.executeCommand(0, new Command("go", "west"));
+        String gameMessage = journaledService.getGame(0).getMessage();
+        journaledService.close();
+
+        //the previous snapshot and the journal after it are kept in case the newest is damaged
+        assertEquals(2, journaledService.getCommandJournal().findNumberSegments());
+
+        KidnappedService restartedService = new KidnappedService(journalFolder.getRoot().getPath(), new MemoryLeaderboardStore());
+
+        assertEquals(2, restartedService.fetchNumberRunningGames());
+        assertNull(restartedService.getGame(1));
+        assertEquals(gameMessage, restartedService.getGame(0).getMessage());
+        assertEquals(3, restartedService.newGame());
+        restartedService.close();
+    }
+
+    @Test
+    public void testDamagedSnapshotFallsBackToPrevious() throws AdventureException, IOException {
+        KidnappedService journaledService = new KidnappedService(journalFolder.getRoot().getPath(), new MemoryLeaderboardStore());
+        journaledService.newGame();
+        journaledService.executeCommand(0, new Command("take", "chair"));
+        journaledService.takeSnapshot();
+        journaledService.executeCommand(0, new Command("go", "east"));
+        journaledService.newGame();
+        journaledService.takeSnapshot();
+        journaledService.executeCommand(1, new Command("go", "east"));
+        String gameMessage = journaledService.getGame(0).getMessage();
+        String otherGameMessage = journaledService.getGame(1).getMessage();
+        journaledService.close();
+
+        File[] snapshots = journalFolder.getRoot().listFiles((directory, name) ->
+                name.startsWith(SessionSnapshot.SNAPSHOT_PREFIX));
+        Arrays.sort(snapshots);
+        assertEquals(2, snapshots.length);
+        try (RandomAccessFile newestSnapshot = new RandomAccessFile(snapshots[1], "rw")) {
+            newestSnapshot.setLength(newestSnapshot.length() - 1);
+        }
+
+        KidnappedService restartedService = new KidnappedService(journalFolder.getRoot().getPath(), new MemoryLeaderboardStore());
+
+        assertEquals(2, restartedService.fetchNumberRunningGames());
+        assertEquals(gameMessage, restartedService.getGame(0).getMessage());
+        assertEquals(otherGameMessage, restartedService.getGame(1).getMessage());
+        restartedService.close();
+    }
+
+    @Test
+    public void testRecoverySkipsGamesOnChangedMap() throws AdventureException, IOException {
+        String mapText = new String(Files.readAllBytes(Paths.get("src/test/resources/fullValidGame.json")),
+                                    StandardCharsets.UTF_8);
+        Path originalMaps = journalFolder.newFolder("originalMaps").toPath();
+        Path changedMaps = journalFolder.newFolder("changedMaps").toPath();
+        Files.write(originalMaps.resolve("altered.json"), mapText.getBytes(StandardCharsets.UTF_8));
+        Files.write(changedMaps.resolve("altered.json"),
+                    mapText.replace("\"rope\"", "\"ropes\"").getBytes(StandardCharsets.UTF_8));
+        String journalDirectory = journalFolder.newFolder("journal").getPath();
+
+        try {
+            System.setProperty(KidnappedService.MAP_DIRECTORY_PROPERTY, originalMaps.toString());
+            KidnappedService journaledService = new KidnappedService(journalDirectory, new MemoryLeaderboardStore());
+            journaledService.newGame("altered");
+            journaledService.newGame();
+            journaledService.takeSnapshot();
+            journaledService.newGame("altered");
+            journaledService.close();
+
+            System.setProperty(KidnappedService.MAP_DIRECTORY_PROPERTY, changedMaps.toString());
+            KidnappedService restartedService = new KidnappedService(journalDirectory, new MemoryLeaderboardStore());
+
+            assertEquals(1, restartedService.fetchNumberRunningGames());
+            assertNull(restartedService.getGame(0));
+            assertNull(restartedService.getGame(2));
+            restartedService.close();
+        } finally {
+            System.clearProperty(KidnappedService.MAP_DIRECTORY_PROPERTY);
+        }
+    }
+
+    @Test
+    public void testUnreadableSnapshotFailsStartup() throws IOException {
+        byte[] unknownFormat = new byte[4];
+        CRC32 checksum = new CRC32();
+        checksum.update(unknownFormat, 0, unknownFormat.length);
+        ByteArrayOutputStream snapshotBytes = new ByteArrayOutputStream();
+        DataOutputStream snapshotOutput = new DataOutputStream(snapshotBytes);
+        snapshotOutput.write(unknownFormat);
+        snapshotOutput.writeInt((int) checksum.getValue());
+        Files.write(journalFolder.getRoot().toPath().resolve(String.format("%s%020d%s",
+                    SessionSnapshot.SNAPSHOT_PREFIX, 0, SessionSnapshot.SNAPSHOT_EXTENSION)),
+                    snapshotBytes.toByteArray());
+
+        try {
+            new KidnappedService(journalFolder.getRoot().getPath(), new MemoryLeaderboardStore());
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void testExportedGameImportsIntoOtherService() throws AdventureException {
+        testerService.newGame();
+        Command takeCommand = new Command("take", "chair");
+        takeCommand.setPlayerName("ExportTester");
+        testerService.executeCommand(0, takeCommand);
+        testerService.executeCommand(0, new Command("go", "east"));
+        byte[] exportedSession = testerService.exportGame(0);
+
+        KidnappedService journaledService = new KidnappedService(journalFolder.getRoot().getPath(), new MemoryLeaderboardStore());
+        journaledService.newGame();
+        List<Integer> importedIDs = journaledService.importGames(
+                new ByteArrayInputStream(concatenate(exportedSession, exportedSession)));
+
+        assertEquals(Arrays.asList(1, 2), importedIDs);
+        assertEquals(testerService.getGame(0).getMessage(), journaledService.getGame(1).getMessage());
+        assertEquals(testerService.getGame(0).getCommandOptions(), journaledService.getGame(2).getCommandOptions());
+        journaledService.close();
+
+        KidnappedService restartedService = new KidnappedService(journalFolder.getRoot().getPath(), new MemoryLeaderboardStore());
+
+        assertEquals(3, restartedService.fetchNumberRunningGames());
+        assertEquals(testerService.getGame(0).getMessage(), restartedService.getGame(2).getMessage());
+        restartedService.close();
+    }
+
+    @Test
+    public void testImportOnChangedMapFails() throws AdventureException, IOException {
+        testerService.newGame();
+        ExportedSession session = ExportedSession.fromByteArray(testerService.exportGame(0));
+        ExportedSession changedSession = new ExportedSession(session.getMapID(), session.getMapVersion() + 1,
+                                                             session.getGameState());
+
+        try {
+            testerService.importGames(new ByteArrayInputStream(
+                    concatenate(session.toByteArray(), changedSession.toByteArray())));
+            fail("Expected AdventureException");
+        } catch (AdventureException e) {
+            assertEquals(1, testerService.fetchNumberRunningGames());
+        }
+    }
+
+    @Test
+    public void testImportOfHostileStateFails() throws AdventureException, IOException {
+        testerService.newGame();
+        ExportedSession session = ExportedSession.fromByteArray(testerService.exportGame(0));
+        byte[][] hostileStates = {buildHostileState(Integer.MAX_VALUE, null), buildHostileState(-1, null),
+                                  buildHostileState(1, "not-an-item")};
+
+        for (byte[] hostileState: hostileStates) {
+            ExportedSession hostileSession = new ExportedSession(session.getMapID(), session.getMapVersion(),
+                                                                 hostileState);
+            try {
+                testerService.importGames(new ByteArrayInputStream(
+                        concatenate(session.toByteArray(), hostileSession.toByteArray())));
+                fail("Expected AdventureException");
+            } catch (AdventureException e) {
+                assertEquals(1, testerService.fetchNumberRunningGames());
+                assertEquals(1, (int) testerService.fetchSessionCounts().get(session.getMapID()));
+            }
+        }
+    }
+
+    @Test
+    public void testExportMissingGame() {
+        assertNull(testerService.exportGame(7));
+    }
+
+    /**
+     * Helper method to build a game state whose inventory declares a given number of items.
+     *
+     * @param numberItems the number of items declared.
+     * @param itemName    the one item written, or null to write none.
+     *
+     * @throws IOException if the state can't be written.
+     *
+     * @return the game state.
+     */
+    private static byte[] buildHostileState(int numberItems, String itemName) throws IOException {
+        ByteArrayOutputStream stateBytes = new ByteArrayOutputStream();
+        DataOutputStream stateOutput = new DataOutputStream(stateBytes);
+
+        stateOutput.writeByte(GameEngine.GAME_STATE_VERSION);
+        stateOutput.writeInt(-1);
+        stateOutput.writeInt(0);
+        stateOutput.writeBoolean(false);
+        stateOutput.writeBoolean(false);
+        stateOutput.writeInt(0);
+        stateOutput.writeInt(numberItems);
+        if (itemName != null) {
+            stateOutput.writeUTF(itemName);
+        }
+        stateOutput.writeInt(0);
+        stateOutput.writeInt(0);
+        stateOutput.writeInt(0);
+        stateOutput.writeInt(-1);
+
+        return stateBytes.toByteArray();
+    }
+
+    /**
+     * Helper method to join exported sessions into a single stream.
+     *
+     * @param first  the first session.
+     * @param second the second session.
+     *
+     * @return the joined sessions.
+     */
+    private static byte[] concatenate(byte[] first, byte[] second) {
+        byte[] joined = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, joined, first.length, second.length);
+
+        return joined;
     }
 }
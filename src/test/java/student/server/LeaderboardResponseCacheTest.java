@@ -0,0 +1,62 @@
+package student.server;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LeaderboardResponseCacheTest {
+    @Test
+    public void testResponseReusedUntilTagChanges() {
+        LeaderboardResponseCache cache = new LeaderboardResponseCache();
+        LinkedHashMap<String, Integer> leaderboard = new LinkedHashMap<>();
+        leaderboard.put("Anna", 4);
+        AtomicInteger numberBuilt = new AtomicInteger(0);
+
+        byte[] firstResponse = cache.fetchResponse(null, LeaderboardWindow.ALL, "1", () -> {
+            numberBuilt.incrementAndGet();
+            return leaderboard;
+        });
+        byte[] secondResponse = cache.fetchResponse(null, LeaderboardWindow.ALL, "1", () -> {
+            numberBuilt.incrementAndGet();
+            return leaderboard;
+        });
+
+        assertSame(firstResponse, secondResponse);
+        assertEquals(1, numberBuilt.get());
+        assertArrayEquals("{\"Anna\":4}".getBytes(StandardCharsets.UTF_8), firstResponse);
+
+        leaderboard.put("Ben", 7);
+        byte[] changedResponse = cache.fetchResponse(null, LeaderboardWindow.ALL, "2", () -> leaderboard);
+
+        assertArrayEquals("{\"Anna\":4,\"Ben\":7}".getBytes(StandardCharsets.UTF_8), changedResponse);
+    }
+
+    @Test
+    public void testWindowsCachedSeparately() {
+        LeaderboardResponseCache cache = new LeaderboardResponseCache();
+        LinkedHashMap<String, Integer> dayLeaderboard = new LinkedHashMap<>();
+        dayLeaderboard.put("Anna", 4);
+
+        cache.fetchResponse(null, LeaderboardWindow.DAY, "1", () -> dayLeaderboard);
+        byte[] weekResponse = cache.fetchResponse(null, LeaderboardWindow.WEEK, "1", LinkedHashMap::new);
+
+        assertEquals(2, cache.findNumberCached());
+        assertArrayEquals("{}".getBytes(StandardCharsets.UTF_8), weekResponse);
+    }
+
+    @Test
+    public void testUnreadableLeaderboardNotCached() {
+        LeaderboardResponseCache cache = new LeaderboardResponseCache();
+
+        assertNull(cache.fetchResponse("kidnapped", LeaderboardWindow.ALL, "1", () -> null));
+        assertEquals(0, cache.findNumberCached());
+    }
+}
@@ -0,0 +1,76 @@
+package student.server;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Benchmark comparing the leaderboard stores on the same workload: a stream of finished
+ * games recording scores, with a leaderboard read after every so many games.
+ * Run the main method with target/classes and target/test-classes on the classpath.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class LeaderboardStoreBenchmark {
+    private static final int NUMBER_GAMES = 200000;
+    private static final int NUMBER_PLAYERS = 5000;
+    private static final int NUMBER_MAPS = 4;
+    private static final int GAMES_PER_READ = 100;
+
+    /**
+     * Runs the benchmark and prints the write and read rates of each store.
+     *
+     * @param args command line arguments (unused).
+     *
+     * @throws IOException if a store can't be opened or written.
+     */
+    public static void main(String[] args) throws IOException {
+        Path storeDirectory = Files.createTempDirectory("leaderboard-benchmark");
+
+        System.out.printf("%10s %14s %14s %12s%n", "store", "scores/s", "reads/s", "total ms");
+
+        measureStore("memory", new MemoryLeaderboardStore());
+        measureStore("file", new MappedFileLeaderboardStore(storeDirectory.resolve("leaderboard.dat").toString()));
+        measureStore("sqlite", new SqliteLeaderboardStore(
+                "jdbc:sqlite:" + storeDirectory.resolve("leaderboard.db")));
+    }
+
+    /**
+     * Helper method to run the workload on a store and print its rates.
+     *
+     * @param storeName the name to print for the store.
+     * @param store     the store to measure; closed afterwards.
+     *
+     * @throws IOException if the store can't be written or read.
+     */
+    private static void measureStore(String storeName, LeaderboardStore store) throws IOException {
+        //the same games for every store
+        Random random = new Random(43);
+        long writeNanos = 0;
+        long readNanos = 0;
+        int numberReads = 0;
+
+        for (int game = 0; game < NUMBER_GAMES; game++) {
+            String playerName = "player" + random.nextInt(NUMBER_PLAYERS);
+            String mapID = "map" + random.nextInt(NUMBER_MAPS);
+            int score = 3 + random.nextInt(500);
+
+            long startTime = System.nanoTime();
+            store.recordScore(playerName, mapID, score, game);
+            writeNanos += System.nanoTime() - startTime;
+
+            if (game % GAMES_PER_READ == 0) {
+                startTime = System.nanoTime();
+                store.fetchLeaderboard(mapID);
+                readNanos += System.nanoTime() - startTime;
+                numberReads++;
+            }
+        }
+        store.close();
+
+        System.out.printf("%10s %14.0f %14.0f %12.1f%n", storeName, NUMBER_GAMES / (writeNanos / 1e9),
+                          numberReads / (readNanos / 1e9), (writeNanos + readNanos) / 1e6);
+    }
+}
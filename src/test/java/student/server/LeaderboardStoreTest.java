@@ -0,0 +1,228 @@
+package student.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+public class LeaderboardStoreTest {
+    @Rule
+    public TemporaryFolder storeFolder = new TemporaryFolder();
+
+    @Test
+    public void testMemoryStoreKeepsBestScores() throws IOException {
+        LeaderboardStore store = new MemoryLeaderboardStore();
+        recordScores(store);
+
+        assertLeaderboards(store);
+    }
+
+    @Test
+    public void testFileStoreKeepsScoresAfterReopening() throws IOException {
+        String fileName = new File(storeFolder.getRoot(), "leaderboard.dat").getPath();
+        MappedFileLeaderboardStore store = new MappedFileLeaderboardStore(fileName);
+        recordScores(store);
+        store.close();
+
+        MappedFileLeaderboardStore reopenedStore = new MappedFileLeaderboardStore(fileName);
+
+        assertLeaderboards(reopenedStore);
+        //only improvements are appended
+        assertEquals(4, reopenedStore.findNumberRecords());
+        reopenedStore.close();
+    }
+
+    @Test
+    public void testFileStoreDropsDamagedRecord() throws IOException {
+        File storeFile = new File(storeFolder.getRoot(), "leaderboard.dat");
+        MappedFileLeaderboardStore store = new MappedFileLeaderboardStore(storeFile.getPath());
+        store.recordScore("Anna", "kidnapped", 5, 0);
+        store.recordScore("Ben", "kidnapped", 6, 0);
+        store.close();
+
+        //flip a byte of the second record's name
+        try (RandomAccessFile file = new RandomAccessFile(storeFile, "rw")) {
+            long nameOffset = 8 + (4 + 8 + 2 + 4 + 2 + 9) + 8 + 4 + 8 + 2;
+            file.seek(nameOffset);
+            file.write('X');
+        }
+
+        MappedFileLeaderboardStore reopenedStore = new MappedFileLeaderboardStore(storeFile.getPath());
+
+        assertEquals(new ArrayList<>(Arrays.asList("Anna")),
+                     new ArrayList<>(reopenedStore.fetchLeaderboard("kidnapped").keySet()));
+        reopenedStore.close();
+    }
+
+    @Test
+    public void testFileStoreRejectsOverlongName() throws IOException {
+        File storeFile = new File(storeFolder.getRoot(), "leaderboard.dat");
+        MappedFileLeaderboardStore store = new MappedFileLeaderboardStore(storeFile.getPath());
+        char[] longName = new char[0x10000];
+        Arrays.fill(longName, 'a');
+
+        try {
+            store.recordScore(new String(longName), "kidnapped", 5, 0);
+            fail("Expected IOException");
+        } catch (IOException e) {
+            //neither appended nor indexed
+            assertEquals(0, store.findNumberRecords());
+            assertTrue(store.fetchLeaderboard("kidnapped").isEmpty());
+        }
+        store.close();
+    }
+
+    @Test
+    public void testStoresAgreeOnPlayerStanding() throws IOException {
+        LeaderboardStore memoryStore = new MemoryLeaderboardStore();
+        LeaderboardStore sqliteStore = new SqliteLeaderboardStore(
+                "jdbc:sqlite:" + new File(storeFolder.getRoot(), "leaderboard.db").getPath());
+        recordScores(memoryStore);
+        recordScores(sqliteStore);
+
+        for (String mapID: Arrays.asList("kidnapped", null)) {
+            PlayerStanding memoryStanding = memoryStore.fetchPlayerStanding("Ben", mapID, 1);
+            PlayerStanding sqliteStanding = sqliteStore.fetchPlayerStanding("Ben", mapID, 1);
+
+            assertEquals(memoryStanding.getRank(), sqliteStanding.getRank());
+            assertEquals(memoryStanding.getScore(), sqliteStanding.getScore());
+            assertEquals(memoryStanding.getNumberPlayers(), sqliteStanding.getNumberPlayers());
+            assertEquals(memoryStanding.getNeighbours().size(), sqliteStanding.getNeighbours().size());
+            assertEquals(memoryStanding.getNeighbours().get(0).getPlayerName(),
+                         sqliteStanding.getNeighbours().get(0).getPlayerName());
+        }
+        assertNull(sqliteStore.fetchPlayerStanding("Cal", "kidnapped", 1));
+        sqliteStore.close();
+    }
+
+    @Test
+    public void testSqliteStandingsFollowSharedDatabase() throws IOException {
+        String databaseUrl = "jdbc:sqlite:" + new File(storeFolder.getRoot(), "leaderboard.db").getPath();
+        LeaderboardStore firstStore = new SqliteLeaderboardStore(databaseUrl);
+        recordScores(firstStore);
+        assertEquals(2, firstStore.fetchPlayerStanding("Ben", "kidnapped", 1).getRank());
+
+        //as if another node of the service recorded a better score
+        LeaderboardStore secondStore = new SqliteLeaderboardStore(databaseUrl);
+        assertEquals(2, secondStore.fetchPlayerStanding("Ben", "kidnapped", 1).getRank());
+        secondStore.recordScore("Ben", "kidnapped", 1, 5);
+        secondStore.close();
+
+        PlayerStanding standing = firstStore.fetchPlayerStanding("Ben", "kidnapped", 1);
+        assertEquals(1, standing.getRank());
+        assertEquals(1, standing.getScore());
+        assertEquals(1, firstStore.fetchPlayerStanding("Ben", null, 1).getScore());
+        firstStore.close();
+    }
+
+    @Test
+    public void testSqliteStoreKeepsBestScoresOfOlderDatabase() throws IOException, SQLException {
+        String databaseUrl = "jdbc:sqlite:" + new File(storeFolder.getRoot(), "leaderboard.db").getPath();
+
+        //the layout before each player's best score over every map was kept
+        try (Connection connection = DriverManager.getConnection(databaseUrl);
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE leaderboard_aju3 (name varchar(50) NOT NULL, " +
+                                  "map varchar(50) NOT NULL, score int NOT NULL, updated_at int NOT NULL, " +
+                                  "PRIMARY KEY (name, map)) WITHOUT ROWID");
+            statement.execute("CREATE INDEX leaderboard_aju3_score ON leaderboard_aju3 (map, score)");
+            statement.execute("INSERT INTO leaderboard_aju3 VALUES ('Anna', 'kidnapped', 4, 1), " +
+                                  "('Ben', 'kidnapped', 4, 3), ('Cal', 'other', 2, 4)");
+            statement.execute("PRAGMA user_version = 2");
+        }
+
+        LeaderboardStore store = new SqliteLeaderboardStore(databaseUrl);
+        assertLeaderboards(store);
+
+        store.recordScore("Ben", "other", 1, 5);
+        assertEquals(new ArrayList<>(Arrays.asList("Ben", "Cal", "Anna")),
+                     new ArrayList<>(store.fetchLeaderboard().keySet()));
+        assertEquals(1, store.fetchPlayerStanding("Ben", null, 1).getRank());
+        assertEquals(3, store.fetchPlayerStanding("Anna", null, 1).getRank());
+        store.close();
+    }
+
+    @Test
+    public void testStoresFindRecentScores() throws IOException {
+        LeaderboardStore sqliteStore = new SqliteLeaderboardStore(
+                "jdbc:sqlite:" + new File(storeFolder.getRoot(), "leaderboard.db").getPath());
+        LeaderboardStore fileStore = new MappedFileLeaderboardStore(
+                new File(storeFolder.getRoot(), "leaderboard.dat").getPath());
+
+        for (LeaderboardStore store: Arrays.asList(sqliteStore, fileStore)) {
+            recordScores(store);
+            List<LeaderboardStore.RecordedScore> recentScores = store.fetchScoresSince(3);
+
+            assertEquals(2, recentScores.size());
+            assertEquals("Ben", recentScores.get(0).getPlayerName());
+            assertEquals("other", recentScores.get(1).getMapID());
+            assertEquals(4, recentScores.get(1).getTimeMillis());
+            store.close();
+        }
+    }
+
+    @Test
+    public void testOpenLeaderboardStoreByType() throws IOException {
+        LeaderboardStore memoryStore = LeaderboardStore.openLeaderboardStore("memory");
+        LeaderboardStore fileStore = LeaderboardStore.openLeaderboardStore(
+                "file:" + new File(storeFolder.getRoot(), "leaderboard.dat").getPath());
+
+        assertTrue(memoryStore instanceof MemoryLeaderboardStore);
+        assertTrue(fileStore instanceof MappedFileLeaderboardStore);
+        fileStore.close();
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpenUnknownLeaderboardStore() throws IOException {
+        LeaderboardStore.openLeaderboardStore("cassandra");
+    }
+
+    /**
+     * Helper method to record the same scores in a store.
+     *
+     * @param store the store to record the scores in.
+     *
+     * @throws IOException if the scores can't be recorded.
+     */
+    private static void recordScores(LeaderboardStore store) throws IOException {
+        store.recordScore("Anna", "kidnapped", 7, 0);
+        store.recordScore("Anna", "kidnapped", 4, 1);
+        store.recordScore("Anna", "kidnapped", 9, 2);
+        store.recordScore("Ben", "kidnapped", 4, 3);
+        store.recordScore("Cal", "other", 2, 4);
+    }
+
+    /**
+     * Helper method to check the leaderboards of a store given the scores of recordScores.
+     *
+     * @param store the store to check.
+     *
+     * @throws IOException if the leaderboards can't be read.
+     */
+    private static void assertLeaderboards(LeaderboardStore store) throws IOException {
+        LinkedHashMap<String, Integer> mapLeaderboard = store.fetchLeaderboard("kidnapped");
+        LinkedHashMap<String, Integer> overallLeaderboard = store.fetchLeaderboard();
+
+        assertEquals(new ArrayList<>(Arrays.asList("Anna", "Ben")), new ArrayList<>(mapLeaderboard.keySet()));
+        assertEquals(4, (int) mapLeaderboard.get("Anna"));
+        assertEquals(new ArrayList<>(Arrays.asList("Cal", "Anna", "Ben")),
+                     new ArrayList<>(overallLeaderboard.keySet()));
+        assertEquals(0, store.fetchLeaderboard("missing").size());
+    }
+}
@@ -0,0 +1,110 @@
+package student.server;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import student.adventure.GameMap;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class MapCacheTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private MapCache testerCache;
+    private Path mapFile;
+
+    @Before
+    public void setUp() throws IOException {
+        testerCache = new MapCache();
+        mapFile = temporaryFolder.getRoot().toPath().resolve("map.json");
+        Files.copy(Paths.get("src/test/resources/fullValidGame.json"), mapFile);
+    }
+
+    @Test
+    public void testUnchangedMapIsLoadedOnce() throws IOException {
+        GameMap firstMap = testerCache.fetchMap(mapFile.toString());
+
+        assertFalse(testerCache.reloadIfChanged(mapFile.toString()));
+        assertSame(firstMap, testerCache.fetchMap(mapFile.toString()));
+    }
+
+    @Test
+    public void testChangedMapIsSwappedIn() throws IOException {
+        GameMap firstMap = testerCache.fetchMap(mapFile.toString());
+        rewriteMapFile("src/test/resources/fullValidGame.json");
+
+        //the watcher may already have swapped in the new version
+        testerCache.reloadIfChanged(mapFile.toString());
+
+        assertNotSame(firstMap, testerCache.fetchMap(mapFile.toString()));
+    }
+
+    @Test
+    public void testInvalidNewVersionKeepsPreviousMap() throws IOException {
+        GameMap firstMap = testerCache.fetchMap(mapFile.toString());
+        rewriteMapFile("src/test/resources/twoEndRooms.json");
+
+        try {
+            testerCache.reloadIfChanged(mapFile.toString());
+        } catch (IOException e) {
+            assertSame(firstMap, testerCache.fetchMap(mapFile.toString()));
+            assertEquals(9, firstMap.findMapSize());
+            return;
+        }
+
+        throw new AssertionError("Invalid map version should not load.");
+    }
+
+    @Test
+    public void testOverflowReloadsCachedMaps() throws IOException {
+        GameMap firstMap = testerCache.fetchMap(mapFile.toString());
+        testerCache.close();
+        rewriteMapFile("src/test/resources/fullValidGame.json");
+
+        //as if the watcher lost the file's events
+        WatchEvent<Object> overflowEvent = new WatchEvent<Object>() {
+            @Override
+            public Kind<Object> kind() {
+                return StandardWatchEventKinds.OVERFLOW;
+            }
+
+            @Override
+            public int count() {
+                return 1;
+            }
+
+            @Override
+            public Object context() {
+                return null;
+            }
+        };
+        testerCache.handleWatchEvents(mapFile.getParent().toAbsolutePath().normalize(),
+                                      Collections.singletonList(overflowEvent));
+
+        assertNotSame(firstMap, testerCache.fetchMap(mapFile.toString()));
+    }
+
+    /**
+     * Helper method to replace the watched map file with another file, as a new version.
+     */
+    private void rewriteMapFile(String newVersion) throws IOException {
+        FileTime oldModifiedTime = Files.getLastModifiedTime(mapFile);
+        Files.copy(Paths.get(newVersion), mapFile, StandardCopyOption.REPLACE_EXISTING);
+        Files.setLastModifiedTime(mapFile, FileTime.fromMillis(oldModifiedTime.toMillis() + 1000));
+    }
+}
@@ -0,0 +1,63 @@
+package student.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import student.adventure.GameEngine;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+public class MapRegistryTest {
+    @Rule
+    public TemporaryFolder mapFolder = new TemporaryFolder();
+
+    private MapCache mapCache;
+    private MapRegistry testerRegistry;
+
+    @Before
+    public void setUp() {
+        mapCache = new MapCache();
+        testerRegistry = new MapRegistry(mapCache, 0, 2);
+    }
+
+    @After
+    public void tearDown() {
+        mapCache.close();
+    }
+
+    @Test
+    public void testRegisterMapDirectorySkipsInvalidMaps() throws IOException {
+        Files.copy(Paths.get("src/test/resources/fullValidGame.json"), new File(mapFolder.getRoot(), "castle.json").toPath());
+        Files.copy(Paths.get("src/test/resources/twoEndRooms.json"), new File(mapFolder.getRoot(), "broken.json").toPath());
+
+        assertEquals(1, testerRegistry.registerMapDirectory(mapFolder.getRoot().getPath()));
+        assertTrue(testerRegistry.hasMap("castle"));
+        assertFalse(testerRegistry.hasMap("broken"));
+    }
+
+    @Test
+    public void testGamesOfSameMapShareTemplate() throws IOException {
+        testerRegistry.registerMap("kidnapped", "src/test/resources/fullValidGame.json");
+
+        GameEngine firstEngine = testerRegistry.acquireEngine("kidnapped", 0);
+        GameEngine secondEngine = testerRegistry.acquireEngine("kidnapped", 1);
+
+        assertSame(firstEngine.getTemplateMap(), secondEngine.getTemplateMap());
+        assertEquals(Integer.valueOf(2), testerRegistry.fetchSessionCounts().get("kidnapped"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAcquireEngineOfUnknownMap() throws IOException {
+        testerRegistry.acquireEngine("noSuchMap", 0);
+    }
+}
@@ -0,0 +1,77 @@
+package student.server;
+
+import java.util.LinkedHashMap;
+import java.util.Random;
+
+/**
+ * Benchmark measuring player rank lookups on large leaderboards: the ranked skip list
+ * against finding the player in a copy of the whole leaderboard, as clients had to.
+ * Run the main method with target/classes and target/test-classes on the classpath.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class RankLookupBenchmark {
+    private static final int[] PLAYER_COUNTS = {10000, 100000, 1000000};
+    private static final int NUMBER_LOOKUPS = 100000;
+    private static final int NUMBER_SCANS = 20;
+
+    /**
+     * Runs the benchmark and prints the lookup rates for each number of players.
+     *
+     * @param args command line arguments (unused).
+     */
+    public static void main(String[] args) {
+        System.out.printf("%10s %12s %16s %16s%n", "players", "insert ms", "ranked lookups/s", "scan lookups/s");
+
+        for (int numberPlayers: PLAYER_COUNTS) {
+            measureLookups(numberPlayers);
+        }
+    }
+
+    /**
+     * Helper method to measure rank lookups on a ranking of a given number of players.
+     *
+     * @param numberPlayers the number of players to rank.
+     */
+    private static void measureLookups(int numberPlayers) {
+        Random random = new Random(46);
+        ScoreRanking ranking = new ScoreRanking();
+
+        long startTime = System.nanoTime();
+        for (int player = 0; player < numberPlayers; player++) {
+            ranking.updateBestScore("player" + player, random.nextInt(10000));
+        }
+        long insertNanos = System.nanoTime() - startTime;
+
+        long rankSum = 0;
+        startTime = System.nanoTime();
+        for (int lookup = 0; lookup < NUMBER_LOOKUPS; lookup++) {
+            rankSum += ranking.fetchPlayerStanding("player" + random.nextInt(numberPlayers), 2).getRank();
+        }
+        long rankedNanos = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        for (int scan = 0; scan < NUMBER_SCANS; scan++) {
+            String playerName = "player" + random.nextInt(numberPlayers);
+            LinkedHashMap<String, Integer> leaderboard = ranking.fetchLeaderboard();
+
+            int rank = 1;
+            for (String rankedName: leaderboard.keySet()) {
+                if (rankedName.equals(playerName)) {
+                    break;
+                }
+                rank++;
+            }
+            rankSum += rank;
+        }
+        long scanNanos = System.nanoTime() - startTime;
+
+        if (rankSum <= 0) {
+            throw new IllegalStateException("No ranks found.");
+        }
+
+        System.out.printf("%10d %12.1f %16.0f %16.1f%n", numberPlayers, insertNanos / 1e6,
+                          NUMBER_LOOKUPS / (rankedNanos / 1e9), NUMBER_SCANS / (scanNanos / 1e9));
+    }
+}
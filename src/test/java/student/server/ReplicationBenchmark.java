@@ -0,0 +1,160 @@
+package student.server;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Benchmark measuring what replicating a journaled service to a warm standby costs: the
+ * commands per second the primary gets through with and without a standby, how far and
+ * how long the standby lags behind, and how long the standby takes to take over once the
+ * primary stops.
+ * The standby runs in the same process, so on a machine with few cores it competes with the
+ * primary for them and the cost measured is an upper bound.
+ * Run the main method with target/classes and target/test-classes on the classpath.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class ReplicationBenchmark {
+    private static final int NUMBER_GAMES = 1000;
+    private static final int NUMBER_PLAYERS = 16;
+    private static final long MEASURE_MILLIS = 3000;
+    private static final long FAILOVER_MILLIS = 300;
+    private static final int NUMBER_ROUNDS = 3;
+
+    //figures of the last replicated run: max lag in records, mean and max lag in micros, takeover millis
+    private static long[] lastReport = new long[4];
+
+    /**
+     * Runs the benchmark and prints the throughput, lag and takeover time.
+     *
+     * @param args command line arguments (unused).
+     *
+     * @throws IOException          if the journals can't be written.
+     * @throws AdventureException   if the games can't be started.
+     * @throws InterruptedException if interrupted while waiting for the players.
+     */
+    public static void main(String[] args) throws IOException, AdventureException, InterruptedException {
+        //snapshots would be taken during some runs and not others
+        System.setProperty(KidnappedService.SNAPSHOT_INTERVAL_PROPERTY, "3600");
+
+        System.out.printf("%6s %12s %16s %10s %14s %14s %14s %12s%n", "round", "journal cmd/s",
+                          "replicated cmd/s", "cost %", "max lag recs", "mean lag us", "max lag us", "takeover ms");
+
+        for (int round = 1; round <= NUMBER_ROUNDS; round++) {
+            double journaledRate = measureCommands(false);
+            double replicatedRate = measureCommands(true);
+
+            System.out.printf("%6d %12.0f %16.0f %10.1f %14d %14d %14d %12d%n", round, journaledRate, replicatedRate,
+                              100 * (1 - replicatedRate / journaledRate), lastReport[0], lastReport[1],
+                              lastReport[2], lastReport[3]);
+        }
+    }
+
+    /**
+     * Helper method to measure the commands per second a journaled primary gets through,
+     * optionally while replicating to a standby.
+     *
+     * @param replicated whether to replicate to a standby; its figures are left in lastReport.
+     *
+     * @throws IOException          if the journal can't be written.
+     * @throws AdventureException   if the games can't be started.
+     * @throws InterruptedException if interrupted while waiting for the players.
+     *
+     * @return the commands per second.
+     */
+    private static double measureCommands(boolean replicated)
+            throws IOException, AdventureException, InterruptedException {
+        KidnappedService standby = null;
+        KidnappedService primary = new KidnappedService(Files.createTempDirectory("replication-primary").toString(),
+                                                        new MemoryLeaderboardStore());
+        for (int game = 0; game < NUMBER_GAMES; game++) {
+            primary.newGame();
+        }
+
+        if (replicated) {
+            standby = new KidnappedService(null, new MemoryLeaderboardStore());
+            primary.startReplication("localhost", standby.startStandby(0, FAILOVER_MILLIS, null));
+            awaitCaughtUp(primary);
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder numberCommands = new LongAdder();
+        List<Thread> players = new ArrayList<>();
+        for (int player = 0; player < NUMBER_PLAYERS; player++) {
+            int firstGame = player;
+            players.add(new Thread(() -> {
+                Command[] moves = {new Command("go", "east"), new Command("go", "west")};
+                long step = 0;
+
+                while (running.get()) {
+                    int game = (int) ((firstGame + step * NUMBER_PLAYERS) % NUMBER_GAMES);
+                    primary.executeCommand(game, moves[(int) (step / (NUMBER_GAMES / NUMBER_PLAYERS) % 2)]);
+                    numberCommands.increment();
+                    step++;
+                }
+            }));
+        }
+
+        long maxLagRecords = 0;
+        long startTime = System.nanoTime();
+        players.forEach(Thread::start);
+        while (System.nanoTime() - startTime < MEASURE_MILLIS * 1000000) {
+            Thread.sleep(50);
+            if (replicated) {
+                maxLagRecords = Math.max(maxLagRecords, primary.fetchReplicationReport().get("lagRecords"));
+            }
+        }
+        running.set(false);
+        for (Thread player: players) {
+            player.join();
+        }
+        long elapsedNanos = System.nanoTime() - startTime;
+
+        if (replicated) {
+            awaitCaughtUp(primary);
+            Map<String, Long> report = primary.fetchReplicationReport();
+
+            long stopTime = System.nanoTime();
+            primary.close();
+            while (standby.isStandby()) {
+                Thread.sleep(1);
+            }
+            long takeoverMillis = (System.nanoTime() - stopTime) / 1000000;
+
+            if (standby.fetchNumberRunningGames() != NUMBER_GAMES ||
+                    !standby.getGame(NUMBER_GAMES - 1).getMessage().equals(
+                            primary.getGame(NUMBER_GAMES - 1).getMessage())) {
+                throw new IllegalStateException("Standby's games don't match the primary's.");
+            }
+            standby.close();
+
+            lastReport = new long[] {maxLagRecords, report.get("meanLagMicros"), report.get("maxLagMicros"),
+                                     takeoverMillis};
+        } else {
+            primary.close();
+        }
+
+        return numberCommands.sum() / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * Helper method to wait until the standby has applied every record the primary journaled.
+     *
+     * @param primary the replicated service.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    private static void awaitCaughtUp(KidnappedService primary) throws InterruptedException {
+        long lastLSN = primary.getCommandJournal().findNextLSN() - 1;
+
+        while (primary.fetchReplicationReport().get("appliedLSN") < lastLSN) {
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package student.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.function.BooleanSupplier;
+
+public class ReplicationTest {
+    private static final long FAILOVER_MILLIS = 300;
+    private static final long WAIT_MILLIS = 10000;
+
+    @Rule
+    public TemporaryFolder journalFolder = new TemporaryFolder();
+
+    private KidnappedService primary;
+    private KidnappedService standby;
+    private String standbyJournalDirectory;
+
+    @Before
+    public void setUp() throws IOException, AdventureException {
+        standbyJournalDirectory = journalFolder.newFolder("standby").getPath();
+        standby = new KidnappedService(null, new MemoryLeaderboardStore());
+        int standbyPort = standby.startStandby(0, FAILOVER_MILLIS, standbyJournalDirectory);
+
+        //games started before replication reach the standby in its copy
+        primary = new KidnappedService(journalFolder.newFolder("primary").getPath(), new MemoryLeaderboardStore());
+        primary.newGame();
+        primary.newGame();
+        primary.executeCommand(0, new Command("take", "chair"));
+        primary.startReplication("localhost", standbyPort);
+    }
+
+    @After
+    public void tearDown() {
+        primary.close();
+        standby.close();
+    }
+
+    @Test
+    public void testStandbyFollowsPrimary() throws AdventureException {
+        primary.executeCommand(0, new Command("go", "east"));
+        primary.newGame();
+        primary.executeCommand(2, new Command("go", "east"));
+        primary.destroyGame(1);
+
+        awaitStandbyCaughtUp();
+
+        assertEquals(2, standby.fetchNumberRunningGames());
+        assertEquals(primary.getGame(0).getMessage(), standby.getGame(0).getMessage());
+        assertEquals(primary.getGame(2).getMessage(), standby.getGame(2).getMessage());
+        assertNull(standby.getGame(1));
+    }
+
+    @Test
+    public void testStandbyRefusesChanges() {
+        awaitStandbyCaughtUp();
+        String gameMessage = standby.getGame(0).getMessage();
+
+        standby.executeCommand(0, new Command("go", "east"));
+
+        assertEquals(gameMessage, standby.getGame(0).getMessage());
+        assertFalse(standby.destroyGame(0));
+        try {
+            standby.newGame();
+            fail("Standby started a game.");
+        } catch (AdventureException e) {
+            assertTrue(standby.isStandby());
+        }
+    }
+
+    @Test
+    public void testPrimaryReportsLag() {
+        //once caught up, the command is streamed rather than sent in the copy
+        awaitStandbyCaughtUp();
+        primary.executeCommand(1, new Command("go", "east"));
+        awaitStandbyCaughtUp();
+
+        assertEquals(1L, (long) primary.fetchReplicationReport().get("connected"));
+        assertEquals(0L, (long) primary.fetchReplicationReport().get("lagRecords"));
+        assertTrue(primary.fetchReplicationReport().get("maxLagMicros") > 0);
+    }
+
+    @Test
+    public void testStandbyTakesOverWhenPrimaryStops() throws AdventureException {
+        primary.executeCommand(0, new Command("go", "east"));
+        awaitStandbyCaughtUp();
+        String gameMessage = primary.getGame(0).getMessage();
+
+        primary.close();
+        awaitCondition(() -> !standby.isStandby());
+
+        assertEquals(gameMessage, standby.getGame(0).getMessage());
+        assertEquals(2, standby.newGame());
+
+        standby.executeCommand(0, new Command("go", "west"));
+        assertNotEquals(gameMessage, standby.getGame(0).getMessage());
+    }
+
+    @Test
+    public void testPromotedStandbyJournalsGames() throws AdventureException {
+        primary.executeCommand(0, new Command("go", "east"));
+        awaitStandbyCaughtUp();
+
+        primary.close();
+        awaitCondition(() -> !standby.isStandby());
+        standby.executeCommand(1, new Command("go", "east"));
+        String gameMessage = standby.getGame(1).getMessage();
+        standby.close();
+
+        KidnappedService restartedService = new KidnappedService(standbyJournalDirectory,
+                                                                 new MemoryLeaderboardStore());
+        assertEquals(2, restartedService.fetchNumberRunningGames());
+        assertEquals(gameMessage, restartedService.getGame(1).getMessage());
+        assertEquals(primary.getGame(0).getMessage(), restartedService.getGame(0).getMessage());
+        restartedService.close();
+    }
+
+    @Test
+    public void testReturningPrimaryIsFenced() {
+        awaitStandbyCaughtUp();
+        String gameMessage = primary.getGame(0).getMessage();
+
+        //as if the standby took over while cut off from the primary
+        standby.promote();
+        awaitCondition(primary::isFenced);
+
+        primary.executeCommand(0, new Command("go", "east"));
+        assertEquals(gameMessage, primary.getGame(0).getMessage());
+        assertFalse(primary.destroyGame(0));
+        try {
+            primary.newGame();
+            fail("Fenced primary started a game.");
+        } catch (AdventureException e) {
+            assertEquals(1L, (long) primary.fetchReplicationReport().get("fenced"));
+            assertEquals(1L, (long) standby.fetchReplicationReport().get("term"));
+        }
+    }
+
+    @Test
+    public void testStandbyRecordsScores() {
+        //once caught up, the command is streamed rather than sent in the copy
+        awaitStandbyCaughtUp();
+        Command quitCommand = new Command("quit", "game");
+        quitCommand.setPlayerName("StandbyTester");
+        primary.executeCommand(1, quitCommand);
+        awaitStandbyCaughtUp();
+
+        assertTrue(standby.fetchLeaderboard(null, LeaderboardWindow.DAY).containsKey("StandbyTester"));
+        assertTrue(standby.fetchLeaderboard(null, LeaderboardWindow.ALL).containsKey("StandbyTester"));
+    }
+
+    @Test
+    public void testStandbyDropsDamagedStreams() throws IOException {
+        KidnappedService otherStandby = new KidnappedService(null, new MemoryLeaderboardStore());
+        int standbyPort = otherStandby.startStandby(0, FAILOVER_MILLIS, journalFolder.newFolder("other").getPath());
+
+        try {
+            //a negative number of games, then a record longer than any the journal writes
+            sendDamagedCopy(standbyPort, -1, 0);
+            sendDamagedCopy(standbyPort, 1, Integer.MAX_VALUE);
+
+            //still listening, so a returning primary is told the term
+            try (Socket socket = new Socket("localhost", standbyPort)) {
+                socket.setSoTimeout((int) WAIT_MILLIS);
+                assertEquals(0L, new DataInputStream(socket.getInputStream()).readLong());
+            }
+            assertEquals(0, otherStandby.fetchNumberRunningGames());
+        } finally {
+            otherStandby.close();
+        }
+    }
+
+    /**
+     * Helper method to send a standby the start of a copy of the games with a damaged count
+     * or record length, and wait for the standby to drop the stream.
+     *
+     * @param standbyPort  the port the standby listens on.
+     * @param numberGames  the number of games the copy declares.
+     * @param recordLength the length declared by the copy's first record.
+     *
+     * @throws IOException if the standby can't be reached.
+     */
+    private static void sendDamagedCopy(int standbyPort, int numberGames, int recordLength) throws IOException {
+        try (Socket socket = new Socket("localhost", standbyPort)) {
+            socket.setSoTimeout((int) WAIT_MILLIS);
+            DataInputStream standbyInput = new DataInputStream(socket.getInputStream());
+            DataOutputStream standbyOutput = new DataOutputStream(socket.getOutputStream());
+            standbyInput.readLong();
+
+            standbyOutput.writeByte(ReplicationSender.BOOTSTRAP_MESSAGE);
+            standbyOutput.writeLong(0);
+            standbyOutput.writeInt(0);
+            standbyOutput.writeLong(-1);
+            standbyOutput.writeInt(numberGames);
+            standbyOutput.writeInt(recordLength);
+            standbyOutput.writeInt(0);
+            standbyOutput.flush();
+
+            assertEquals(-1, standbyInput.read());
+        }
+    }
+
+    /**
+     * Helper method to wait until the standby has applied every record journaled by the primary.
+     */
+    private void awaitStandbyCaughtUp() {
+        long lastLSN = primary.getCommandJournal().findNextLSN() - 1;
+
+        awaitCondition(() -> standby.fetchReplicationReport().get("appliedLSN") >= lastLSN &&
+                                 primary.fetchReplicationReport().get("appliedLSN") >= lastLSN);
+    }
+
+    /**
+     * Helper method to wait for a condition, failing the test if it takes too long.
+     *
+     * @param condition the condition to wait for.
+     */
+    private static void awaitCondition(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timed out waiting for the standby.");
+            }
+
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted waiting for the standby.");
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package student.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+import student.server.PlayerStanding.RankedScore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class ScoreRankingTest {
+    @Test
+    public void testRanksMatchSortedScores() {
+        ScoreRanking ranking = new ScoreRanking();
+        Map<String, Integer> bestScores = new HashMap<>();
+        Random random = new Random(46);
+
+        for (int score = 0; score < 5000; score++) {
+            String playerName = "player" + random.nextInt(800);
+            int newScore = random.nextInt(300);
+
+            ranking.updateBestScore(playerName, newScore);
+            bestScores.merge(playerName, newScore, Math::min);
+        }
+
+        List<String> sortedPlayers = new ArrayList<>(bestScores.keySet());
+        sortedPlayers.sort((first, second) -> bestScores.get(first).equals(bestScores.get(second))
+                ? first.compareTo(second) : Integer.compare(bestScores.get(first), bestScores.get(second)));
+
+        assertEquals(sortedPlayers, new ArrayList<>(ranking.fetchLeaderboard().keySet()));
+        for (int rank = 1; rank <= sortedPlayers.size(); rank++) {
+            String playerName = sortedPlayers.get(rank - 1);
+
+            assertEquals(rank, ranking.findRank(playerName));
+            assertEquals(playerName, ranking.fetchRankedScores(rank, rank).get(0).getPlayerName());
+        }
+    }
+
+    @Test
+    public void testStandingIncludesNeighbours() {
+        ScoreRanking ranking = new ScoreRanking();
+        ranking.updateBestScore("Anna", 10);
+        ranking.updateBestScore("Ben", 20);
+        ranking.updateBestScore("Cal", 30);
+        ranking.updateBestScore("Dee", 40);
+        ranking.updateBestScore("Cal", 5);
+
+        PlayerStanding standing = ranking.fetchPlayerStanding("Anna", 1);
+        List<RankedScore> neighbours = standing.getNeighbours();
+
+        assertEquals(2, standing.getRank());
+        assertEquals(10, standing.getScore());
+        assertEquals(4, standing.getNumberPlayers());
+        assertEquals(3, neighbours.size());
+        assertEquals("Cal", neighbours.get(0).getPlayerName());
+        assertEquals(1, neighbours.get(0).getRank());
+        assertEquals("Ben", neighbours.get(2).getPlayerName());
+    }
+
+    @Test
+    public void testStandingOfUnrankedPlayer() {
+        ScoreRanking ranking = new ScoreRanking();
+        ranking.updateBestScore("Anna", 10);
+
+        assertNull(ranking.fetchPlayerStanding("Ben", 2));
+        assertEquals(-1, ranking.findRank("Ben"));
+    }
+}
@@ -0,0 +1,100 @@
+package student.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Benchmark measuring how fast a service's games can be drained to another service:
+ * sessions exported and imported per second, and the size of an exported session.
+ * Imports are measured into a service without a journal and into a journaled one.
+ * Run the main method with target/classes and target/test-classes on the classpath.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class SessionTransferBenchmark {
+    private static final int[] SESSION_COUNTS = {1000, 10000, 50000};
+
+    /**
+     * Runs the benchmark and prints the export and import rates for each number of sessions.
+     *
+     * @param args command line arguments (unused).
+     *
+     * @throws AdventureException if a game can't be started or imported.
+     * @throws IOException        if the journal can't be created.
+     */
+    public static void main(String[] args) throws AdventureException, IOException {
+        System.out.printf("%10s %14s %14s %18s %14s%n", "sessions", "exports/s", "imports/s",
+                          "journaled imports/s", "bytes/session");
+
+        for (int numberSessions: SESSION_COUNTS) {
+            measureTransfer(numberSessions);
+        }
+    }
+
+    /**
+     * Helper method to export a given number of games and import them twice.
+     *
+     * @param numberSessions the number of games to move.
+     *
+     * @throws AdventureException if a game can't be started or imported.
+     * @throws IOException        if the journal can't be created.
+     */
+    private static void measureTransfer(int numberSessions) throws AdventureException, IOException {
+        KidnappedService sourceService = new KidnappedService(null, new MemoryLeaderboardStore());
+        for (int game = 0; game < numberSessions; game++) {
+            sourceService.newGame();
+            sourceService.executeCommand(game, new Command("take", "chair"));
+            sourceService.executeCommand(game, new Command("go", "east"));
+            sourceService.executeCommand(game, new Command("drop", "chair"));
+        }
+
+        ByteArrayOutputStream sessionStream = new ByteArrayOutputStream();
+        long startTime = System.nanoTime();
+        for (int game = 0; game < numberSessions; game++) {
+            sessionStream.write(sourceService.exportGame(game));
+        }
+        long exportNanos = System.nanoTime() - startTime;
+        byte[] exportedSessions = sessionStream.toByteArray();
+        sourceService.close();
+
+        long importNanos = measureImport(new KidnappedService(null, new MemoryLeaderboardStore()),
+                                         exportedSessions, numberSessions);
+        long journaledImportNanos = measureImport(
+                new KidnappedService(Files.createTempDirectory("transfer-benchmark").toString(),
+                                     new MemoryLeaderboardStore()),
+                exportedSessions, numberSessions);
+
+        System.out.printf("%10d %14.0f %14.0f %18.0f %14.1f%n", numberSessions,
+                          numberSessions / (exportNanos / 1e9), numberSessions / (importNanos / 1e9),
+                          numberSessions / (journaledImportNanos / 1e9), exportedSessions.length / (double) numberSessions);
+    }
+
+    /**
+     * Helper method to time importing exported sessions into a service.
+     *
+     * @param targetService    the service to import into; closed afterwards.
+     * @param exportedSessions the exported sessions, one after another.
+     * @param numberSessions   the number of sessions expected.
+     *
+     * @throws AdventureException if a session can't be imported.
+     *
+     * @return the time the import took, in nanoseconds.
+     */
+    private static long measureImport(KidnappedService targetService, byte[] exportedSessions, int numberSessions)
+            throws AdventureException {
+        long startTime = System.nanoTime();
+        List<Integer> importedIDs = targetService.importGames(new ByteArrayInputStream(exportedSessions));
+        long importNanos = System.nanoTime() - startTime;
+
+        if (importedIDs.size() != numberSessions) {
+            throw new IllegalStateException("Imported " + importedIDs.size() + " of " + numberSessions + " games.");
+        }
+        targetService.close();
+
+        return importNanos;
+    }
+}
@@ -0,0 +1,216 @@
+package student.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs two sharded servers as separate processes on localhost: the first redirects requests
+ * on the second's games, and the second forwards requests on the first's games.
+ */
+public class ShardClusterTest {
+    private final static long STARTUP_TIMEOUT_MILLIS = 60000;
+
+    private static List<Process> serverProcesses;
+    private static List<String> nodes;
+    private static ShardRing shardRing;
+
+    @BeforeClass
+    public static void startServers() throws IOException, InterruptedException {
+        nodes = Arrays.asList("http://localhost:" + findFreePort() + "/adventure/v1",
+                              "http://localhost:" + findFreePort() + "/adventure/v1");
+        shardRing = new ShardRing(nodes, ShardRouter.DEFAULT_VIRTUAL_NODES);
+        serverProcesses = new ArrayList<>();
+
+        serverProcesses.add(startServer(nodes.get(0), "redirect"));
+        serverProcesses.add(startServer(nodes.get(1), "forward"));
+        for (String node: nodes) {
+            awaitServer(node);
+        }
+    }
+
+    @AfterClass
+    public static void stopServers() {
+        for (Process serverProcess: serverProcesses) {
+            serverProcess.destroy();
+        }
+    }
+
+    @Test
+    public void testGamesCreatedOnOwnedIDs() throws IOException {
+        for (String node: nodes) {
+            int gameID = createGame(node);
+
+            assertEquals(node, shardRing.findOwner(gameID));
+        }
+    }
+
+    @Test
+    public void testRequestRedirectedToOwner() throws IOException {
+        int gameID = createGame(nodes.get(1));
+        HttpURLConnection connection = openConnection(nodes.get(0) + "/instance/" + gameID, "GET");
+
+        assertEquals(307, connection.getResponseCode());
+        assertEquals(nodes.get(1) + "/instance/" + gameID, connection.getHeaderField("Location"));
+    }
+
+    @Test
+    public void testRequestForwardedToOwner() throws IOException {
+        int gameID = createGame(nodes.get(0));
+        HttpURLConnection connection = openConnection(nodes.get(1) + "/instance/" + gameID + "/command", "POST");
+        connection.setRequestProperty("Content-Type", "application/json");
+        connection.setDoOutput(true);
+        try (OutputStream requestBody = connection.getOutputStream()) {
+            requestBody.write("{\"commandName\":\"go\",\"commandValue\":\"east\"}".getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals(200, connection.getResponseCode());
+        String forwardedState = readBody(connection.getInputStream());
+        assertTrue(forwardedState.contains("\"id\":" + gameID));
+
+        HttpURLConnection ownerConnection = openConnection(nodes.get(0) + "/instance/" + gameID, "GET");
+        assertEquals(forwardedState, readBody(ownerConnection.getInputStream()));
+    }
+
+    /**
+     * Helper method to start a sharded server in a new process.
+     *
+     * @param node the base URI of the server.
+     * @param mode "redirect" or "forward".
+     *
+     * @throws IOException if the process can't be started.
+     *
+     * @return the server's process.
+     */
+    private static Process startServer(String node, String mode) throws IOException {
+        String javaCommand = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        File serverLog = File.createTempFile("shard-node", ".log");
+        serverLog.deleteOnExit();
+
+        return new ProcessBuilder(javaCommand, "-cp", System.getProperty("java.class.path"),
+                                  "-D" + AdventureServer.BASE_URI_PROPERTY + "=" + node,
+                                  "-D" + ShardRouter.NODES_PROPERTY + "=" + String.join(",", nodes),
+                                  "-D" + ShardRouter.SELF_PROPERTY + "=" + node,
+                                  "-D" + ShardRouter.MODE_PROPERTY + "=" + mode,
+                                  "-D" + LeaderboardStore.STORE_PROPERTY + "=memory",
+                                  "Main")
+                .redirectErrorStream(true)
+                .redirectOutput(serverLog)
+                .start();
+    }
+
+    /**
+     * Helper method to wait until a server answers pings.
+     *
+     * @param node the base URI of the server.
+     *
+     * @throws IOException          if the server doesn't start in time.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    private static void awaitServer(String node) throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MILLIS;
+
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                if (openConnection(node + "/ping", "GET").getResponseCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                //not listening yet
+            }
+            Thread.sleep(200);
+        }
+
+        throw new IOException("Server " + node + " didn't start.");
+    }
+
+    /**
+     * Helper method to create a game on a server.
+     *
+     * @param node the base URI of the server.
+     *
+     * @throws IOException if the game can't be created.
+     *
+     * @return the id of the new game.
+     */
+    private static int createGame(String node) throws IOException {
+        HttpURLConnection connection = openConnection(node + "/create", "POST");
+        String gameState = readBody(connection.getInputStream());
+        int idStart = gameState.indexOf("\"id\":") + "\"id\":".length();
+        int idEnd = idStart;
+        while (Character.isDigit(gameState.charAt(idEnd))) {
+            idEnd++;
+        }
+
+        return Integer.parseInt(gameState.substring(idStart, idEnd));
+    }
+
+    /**
+     * Helper method to open a connection that doesn't follow redirects.
+     *
+     * @param url    the URL to request.
+     * @param method the request method.
+     *
+     * @throws IOException if the connection can't be opened.
+     *
+     * @return the connection.
+     */
+    private static HttpURLConnection openConnection(String url, String method) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod(method);
+        connection.setInstanceFollowRedirects(false);
+
+        return connection;
+    }
+
+    /**
+     * Helper method to read a response body.
+     *
+     * @param body the body's stream.
+     *
+     * @throws IOException if the body can't be read.
+     *
+     * @return the body as text.
+     */
+    private static String readBody(InputStream body) throws IOException {
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+
+        try (InputStream input = body) {
+            for (int bytesRead = input.read(buffer); bytesRead >= 0; bytesRead = input.read(buffer)) {
+                bodyBytes.write(buffer, 0, bytesRead);
+            }
+        }
+
+        return new String(bodyBytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Helper method to find a port nothing is listening on.
+     *
+     * @throws IOException if no port can be found.
+     *
+     * @return the port.
+     */
+    private static int findFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
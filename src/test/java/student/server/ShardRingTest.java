@@ -0,0 +1,99 @@
+package student.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ShardRingTest {
+    private final static List<String> NODES = Arrays.asList("http://localhost:8081/adventure/v1",
+                                                            "http://localhost:8082/adventure/v1",
+                                                            "http://localhost:8083/adventure/v1",
+                                                            "http://localhost:8084/adventure/v1");
+    private final static String NEW_NODE = "http://localhost:8085/adventure/v1";
+    private final static int NUMBER_GAMES = 100000;
+
+    @Test
+    public void testGamesSpreadEvenly() {
+        ShardRing ring = new ShardRing(NODES, ShardRouter.DEFAULT_VIRTUAL_NODES);
+        Map<String, Integer> nodeGames = new HashMap<>();
+
+        for (int gameID = 0; gameID < NUMBER_GAMES; gameID++) {
+            nodeGames.merge(ring.findOwner(gameID), 1, Integer::sum);
+        }
+
+        assertEquals(NODES.size(), nodeGames.size());
+        for (int numberGames: nodeGames.values()) {
+            assertTrue("Node owns " + numberGames + " games",
+                       Math.abs(numberGames - NUMBER_GAMES / 4) < NUMBER_GAMES / 16);
+        }
+    }
+
+    @Test
+    public void testAddingNodeOnlyMovesGamesToIt() {
+        ShardRing ring = new ShardRing(NODES, ShardRouter.DEFAULT_VIRTUAL_NODES);
+        String[] owners = new String[NUMBER_GAMES];
+        for (int gameID = 0; gameID < NUMBER_GAMES; gameID++) {
+            owners[gameID] = ring.findOwner(gameID);
+        }
+
+        ring.addNode(NEW_NODE);
+        int numberMoved = 0;
+        for (int gameID = 0; gameID < NUMBER_GAMES; gameID++) {
+            String newOwner = ring.findOwner(gameID);
+
+            if (!newOwner.equals(owners[gameID])) {
+                assertEquals(NEW_NODE, newOwner);
+                numberMoved++;
+            }
+        }
+
+        //about a fifth of the games move to the fifth node
+        assertTrue("Moved " + numberMoved + " games", Math.abs(numberMoved - NUMBER_GAMES / 5) < NUMBER_GAMES / 20);
+
+        ring.removeNode(NEW_NODE);
+        for (int gameID = 0; gameID < NUMBER_GAMES; gameID++) {
+            assertEquals(owners[gameID], ring.findOwner(gameID));
+        }
+    }
+
+    @Test
+    public void testRingsAgreeWhateverTheNodeOrder() {
+        List<String> reversedNodes = new ArrayList<>(NODES);
+        Collections.reverse(reversedNodes);
+        ShardRing ring = new ShardRing(NODES, 16);
+        ShardRing reversedRing = new ShardRing(reversedNodes, 16);
+
+        for (int gameID = 0; gameID < 10000; gameID++) {
+            assertEquals(ring.findOwner(gameID), reversedRing.findOwner(gameID));
+        }
+    }
+
+    @Test
+    public void testShardedServiceOnlyUsesOwnedIDs() throws AdventureException {
+        ShardRing ring = new ShardRing(NODES, ShardRouter.DEFAULT_VIRTUAL_NODES);
+        ShardRouter router = new ShardRouter(ring, NODES.get(1), false);
+        KidnappedService shardedService = new KidnappedService(null, new MemoryLeaderboardStore(), router);
+
+        for (int game = 0; game < 20; game++) {
+            int gameID = shardedService.newGame();
+
+            assertEquals(NODES.get(1), ring.findOwner(gameID));
+            assertNotNull(shardedService.getGame(gameID));
+        }
+        shardedService.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRouterNodeMustBeOnRing() {
+        new ShardRouter(new ShardRing(NODES, 8), NEW_NODE, false);
+    }
+}
@@ -0,0 +1,149 @@
+package student.server;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+/**
+ * Benchmark measuring how long snapshots of a journaled service take as the number of
+ * live sessions grows, how many commands other threads get through while a snapshot is
+ * taken, and how long a restart from the snapshot takes.
+ * Run the main method with target/classes and target/test-classes on the classpath.
+ *
+ * @author  Annabelle Ju
+ * @version 10/19/2026
+ */
+public class SnapshotBenchmark {
+    private static final int[] SESSION_COUNTS = {1000, 10000, 50000};
+    private static final int NUMBER_SETUP_THREADS = 8;
+    private static final int NUMBER_PLAYERS = 2;
+
+    /**
+     * Runs the benchmark and prints the snapshot and restart times for each number of sessions.
+     *
+     * @param args command line arguments (unused).
+     *
+     * @throws IOException          if the journal or snapshots can't be written.
+     * @throws InterruptedException if interrupted while waiting for the threads.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        //snapshots are only taken by the benchmark
+        System.setProperty(KidnappedService.SNAPSHOT_INTERVAL_PROPERTY, "3600");
+
+        System.out.printf("%10s %12s %14s %12s %16s %12s%n", "sessions", "snapshot ms", "sessions/s",
+                          "snapshot MB", "commands during", "restart ms");
+
+        for (int numberSessions: SESSION_COUNTS) {
+            measureSnapshot(numberSessions);
+        }
+    }
+
+    /**
+     * Helper method to measure a snapshot and a restart of a service with a given number
+     * of sessions, while other threads keep sending commands.
+     *
+     * @param numberSessions the number of games to run.
+     *
+     * @throws IOException          if the journal or snapshot can't be written.
+     * @throws InterruptedException if interrupted while waiting for the threads.
+     */
+    private static void measureSnapshot(int numberSessions) throws IOException, InterruptedException {
+        Path journalDirectory = Files.createTempDirectory("snapshot-benchmark");
+        KidnappedService service = new KidnappedService(journalDirectory.toString());
+
+        runConcurrently(NUMBER_SETUP_THREADS, thread -> {
+            for (int game = thread; game < numberSessions; game += NUMBER_SETUP_THREADS) {
+                try {
+                    service.newGame();
+                } catch (AdventureException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        runConcurrently(NUMBER_SETUP_THREADS, thread -> {
+            for (int game = thread; game < numberSessions; game += NUMBER_SETUP_THREADS) {
+                service.executeCommand(game, new Command("take", "chair"));
+                service.executeCommand(game, new Command("go", "east"));
+            }
+        });
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder commandsDuring = new LongAdder();
+        List<Thread> players = new ArrayList<>();
+        for (int player = 0; player < NUMBER_PLAYERS; player++) {
+            int firstGame = player;
+            players.add(new Thread(() -> {
+                Command[] moves = {new Command("go", "west"), new Command("go", "east")};
+                long step = 0;
+
+                while (running.get()) {
+                    int game = (int) ((firstGame + step * NUMBER_PLAYERS) % numberSessions);
+                    service.executeCommand(game, moves[(int) (step % 2)]);
+                    commandsDuring.increment();
+                    step++;
+                }
+            }));
+        }
+        players.forEach(Thread::start);
+
+        long startTime = System.nanoTime();
+        int numberSnapshotted = service.takeSnapshot();
+        long snapshotNanos = System.nanoTime() - startTime;
+
+        running.set(false);
+        for (Thread player: players) {
+            player.join();
+        }
+        service.close();
+
+        long snapshotBytes = 0;
+        try (DirectoryStream<Path> snapshotFiles = Files.newDirectoryStream(journalDirectory,
+                SessionSnapshot.SNAPSHOT_PREFIX + "*")) {
+            for (Path file: snapshotFiles) {
+                snapshotBytes += Files.size(file);
+            }
+        }
+
+        startTime = System.nanoTime();
+        KidnappedService restartedService = new KidnappedService(journalDirectory.toString());
+        long restartNanos = System.nanoTime() - startTime;
+
+        if (restartedService.fetchNumberRunningGames() != numberSessions) {
+            throw new IllegalStateException("Restart rebuilt " + restartedService.fetchNumberRunningGames() +
+                                            " of " + numberSessions + " games.");
+        }
+        restartedService.close();
+
+        System.out.printf("%10d %12.1f %14.0f %12.2f %16d %12.1f%n", numberSessions, snapshotNanos / 1e6,
+                          numberSnapshotted / (snapshotNanos / 1e9), snapshotBytes / 1e6, commandsDuring.sum(),
+                          restartNanos / 1e6);
+    }
+
+    /**
+     * Helper method to run a task on a number of threads and wait for all of them.
+     *
+     * @param numberThreads the number of threads.
+     * @param task          the task, given the index of the thread running it.
+     *
+     * @throws InterruptedException if interrupted while waiting for the threads.
+     */
+    private static void runConcurrently(int numberThreads, IntConsumer task) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+
+        for (int thread = 0; thread < numberThreads; thread++) {
+            int threadIndex = thread;
+            threads.add(new Thread(() -> task.accept(threadIndex)));
+        }
+
+        threads.forEach(Thread::start);
+        for (Thread thread: threads) {
+            thread.join();
+        }
+    }
+}
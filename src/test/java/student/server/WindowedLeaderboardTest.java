@@ -0,0 +1,96 @@
+package student.server;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import student.server.LeaderboardStore.RecordedScore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class WindowedLeaderboardTest {
+    //Monday 19 October 2026, 10:00 UTC
+    private final static long MONDAY_MORNING = 1792404000000L;
+    private final static long HOUR_MILLIS = 60 * 60 * 1000L;
+
+    @Test
+    public void testDayLeaderboardRollsOverAtMidnight() {
+        WindowedLeaderboard leaderboard = new WindowedLeaderboard();
+        leaderboard.recordScore("Anna", "kidnapped", 5, MONDAY_MORNING);
+
+        assertEquals(Arrays.asList("Anna"), new ArrayList<>(
+                leaderboard.fetchLeaderboard(LeaderboardWindow.DAY, "kidnapped", MONDAY_MORNING).keySet()));
+        assertEquals(0, leaderboard.fetchLeaderboard(LeaderboardWindow.DAY, "kidnapped",
+                                                     MONDAY_MORNING + 20 * HOUR_MILLIS).size());
+
+        leaderboard.recordScore("Ben", "kidnapped", 3, MONDAY_MORNING + 20 * HOUR_MILLIS);
+
+        assertEquals(Arrays.asList("Ben"), new ArrayList<>(leaderboard.fetchLeaderboard(
+                LeaderboardWindow.DAY, "kidnapped", MONDAY_MORNING + 20 * HOUR_MILLIS).keySet()));
+        assertEquals(Arrays.asList("Ben", "Anna"), new ArrayList<>(
+                leaderboard.fetchLeaderboard(LeaderboardWindow.WEEK, null, MONDAY_MORNING).keySet()));
+    }
+
+    @Test
+    public void testWeekLeaderboardRollsOverOnMonday() {
+        WindowedLeaderboard leaderboard = new WindowedLeaderboard();
+        long sundayNight = MONDAY_MORNING + 6 * 24 * HOUR_MILLIS + 12 * HOUR_MILLIS;
+        leaderboard.recordScore("Anna", "kidnapped", 5, sundayNight);
+        leaderboard.recordScore("Ben", "kidnapped", 3, sundayNight + 2 * HOUR_MILLIS);
+
+        assertEquals(Arrays.asList("Ben"), new ArrayList<>(
+                leaderboard.fetchLeaderboard(LeaderboardWindow.WEEK, "kidnapped", sundayNight + 2 * HOUR_MILLIS)
+                           .keySet()));
+    }
+
+    @Test
+    public void testLateScoreDropped() {
+        WindowedLeaderboard leaderboard = new WindowedLeaderboard();
+        leaderboard.recordScore("Anna", "kidnapped", 5, MONDAY_MORNING + 24 * HOUR_MILLIS);
+        leaderboard.recordScore("Ben", "kidnapped", 3, MONDAY_MORNING);
+
+        assertEquals(Arrays.asList("Anna"), new ArrayList<>(leaderboard.fetchLeaderboard(
+                LeaderboardWindow.DAY, "kidnapped", MONDAY_MORNING + 24 * HOUR_MILLIS).keySet()));
+        assertEquals(Arrays.asList("Ben", "Anna"), new ArrayList<>(leaderboard.fetchLeaderboard(
+                LeaderboardWindow.WEEK, "kidnapped", MONDAY_MORNING).keySet()));
+    }
+
+    @Test
+    public void testKeepsBestScoreInWindow() {
+        WindowedLeaderboard leaderboard = new WindowedLeaderboard();
+        leaderboard.recordScore("Anna", "kidnapped", 5, MONDAY_MORNING);
+        leaderboard.recordScore("Anna", "kidnapped", 9, MONDAY_MORNING + HOUR_MILLIS);
+
+        assertEquals(5, (int) leaderboard.fetchLeaderboard(LeaderboardWindow.DAY, "kidnapped", MONDAY_MORNING)
+                                         .get("Anna"));
+    }
+
+    @Test
+    public void testPeriodStartsAtMidnightAndMonday() {
+        long mondayMidnight = MONDAY_MORNING - 10 * HOUR_MILLIS;
+        long wednesdayMorning = MONDAY_MORNING + 2 * 24 * HOUR_MILLIS;
+
+        assertEquals(mondayMidnight, LeaderboardWindow.DAY.findPeriodStart(MONDAY_MORNING));
+        assertEquals(mondayMidnight, LeaderboardWindow.WEEK.findPeriodStart(wednesdayMorning));
+        assertEquals(wednesdayMorning - 10 * HOUR_MILLIS, LeaderboardWindow.DAY.findPeriodStart(wednesdayMorning));
+    }
+
+    @Test
+    public void testLoadedScoresFillWindows() {
+        WindowedLeaderboard leaderboard = new WindowedLeaderboard();
+        leaderboard.loadScores(Arrays.asList(
+                new RecordedScore("Anna", "kidnapped", 5, MONDAY_MORNING - 24 * HOUR_MILLIS),
+                new RecordedScore("Ben", "kidnapped", 3, MONDAY_MORNING),
+                new RecordedScore("Cal", "kidnapped", 4, MONDAY_MORNING + 24 * HOUR_MILLIS)));
+
+        assertEquals(Arrays.asList("Cal"), new ArrayList<>(leaderboard.fetchLeaderboard(
+                LeaderboardWindow.DAY, "kidnapped", MONDAY_MORNING + 24 * HOUR_MILLIS).keySet()));
+        assertEquals(Arrays.asList("Ben", "Cal"), new ArrayList<>(leaderboard.fetchLeaderboard(
+                LeaderboardWindow.WEEK, "kidnapped", MONDAY_MORNING).keySet()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownWindowName() {
+        LeaderboardWindow.findWindow("month");
+    }
+}